@@ -0,0 +1,88 @@
+package com.ametsa.smartbachat.parser;
+
+import com.ametsa.smartbachat.entity.TransactionEntity;
+import com.ametsa.smartbachat.util.PdfParserStrategy;
+import com.ametsa.smartbachat.util.StatementPdfGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of each bank parser over a whole synthetic statement, driven the way
+ * {@code ParserWorker} drives it: full document text for parsers that ask for it, page by
+ * page otherwise.
+ *
+ * The {@code rows} counter reports parsed rows/sec next to statements/sec. With
+ * {@code -prof gc}, allocation per row is {@code gc.alloc.rate.norm} divided by the rows per
+ * statement ({@link StatementPdfGenerator#rowCount()}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatementParserBenchmark {
+
+    @Param({"SBI", "HDFC", "AXIS"})
+    public String bankCode;
+
+    @Param({"1", "50", "500"})
+    public int pages;
+
+    private PdfParserStrategy parser;
+    private StatementPdfGenerator statement;
+    private List<String> pageTexts;
+    private String documentText;
+    private Long openingBalancePaisa;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        parser = switch (bankCode) {
+            case "SBI" -> new SbiPdfParser();
+            case "HDFC" -> new HdfcPdfParser();
+            case "AXIS" -> new AxisPdfParser();
+            default -> throw new IllegalArgumentException(bankCode);
+        };
+        statement = StatementPdfGenerator.forBank(bankCode).pages(pages);
+        pageTexts = statement.pageTexts();
+        documentText = String.join("\n", pageTexts);
+        openingBalancePaisa = parser.extractOpeningBalance(documentText);
+
+        int parsed = parse();
+        if (parsed < statement.rowCount() / 2) {
+            throw new IllegalStateException(bankCode + " parsed only " + parsed + " rows; fixture template is off");
+        }
+    }
+
+    @Benchmark
+    public int parseStatement(RowCounter counter) {
+        int rows = parse();
+        counter.rows += rows;
+        return rows;
+    }
+
+    private int parse() {
+        if (parser.requiresFullDocumentText()) {
+            return parser.parse(documentText, openingBalancePaisa).size();
+        }
+        int rows = 0;
+        for (String pageText : pageTexts) {
+            List<TransactionEntity> txns = parser.parse(pageText, openingBalancePaisa);
+            rows += txns.size();
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,48 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.entity.TransactionEntity;
+import com.ametsa.smartbachat.parser.SbiPdfParser;
+import com.ametsa.smartbachat.util.StatementPdfGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TransactionCategorizationService#categorize} over rows parsed from a synthetic
+ * statement, one row per operation, so ops/sec is rows/sec and {@code -prof gc}'s
+ * {@code gc.alloc.rate.norm} is bytes allocated per row. Rows cycle through a mix of
+ * merchants, so early and late category patterns are both exercised.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionCategorizationBenchmark {
+
+    private TransactionCategorizationService service;
+    private TransactionEntity[] rows;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        service = new TransactionCategorizationService();
+        SbiPdfParser parser = new SbiPdfParser();
+        List<TransactionEntity> parsed = new ArrayList<>();
+        StatementPdfGenerator statement = StatementPdfGenerator.forBank("SBI").pages(50);
+        for (String page : statement.pageTexts()) {
+            parsed.addAll(parser.parse(page, statement.openingBalancePaisa()));
+        }
+        rows = parsed.toArray(new TransactionEntity[0]);
+    }
+
+    @Benchmark
+    public String categorize() {
+        TransactionEntity row = rows[next];
+        next = next + 1 == rows.length ? 0 : next + 1;
+        return service.categorize(row);
+    }
+}
@@ -0,0 +1,68 @@
+package com.ametsa.smartbachat.util;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link PdfUtil#extractTextFromPages} on a text-only statement PDF, both as one
+ * whole-document pass and page by page as the page-wise parser path in {@code ParserWorker}
+ * does. The {@code rows} counter turns statements/sec into ledger rows/sec.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfUtilBenchmark {
+
+    @Param({"1", "50", "500"})
+    public int pages;
+
+    private PDDocument document;
+    private int rowCount;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        StatementPdfGenerator statement = StatementPdfGenerator.forBank("SBI").pages(pages);
+        document = Loader.loadPDF(statement.toBytes());
+        rowCount = statement.rowCount();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        document.close();
+    }
+
+    @Benchmark
+    public String extractDocument(RowCounter counter) throws IOException {
+        String text = PdfUtil.extractTextFromPages(document, 1, pages);
+        counter.rows += rowCount;
+        return text;
+    }
+
+    @Benchmark
+    public int extractPerPage(RowCounter counter) throws IOException {
+        int length = 0;
+        for (int page = 1; page <= pages; page++) {
+            length += PdfUtil.extractTextFromPages(document, page, page).length();
+        }
+        counter.rows += rowCount;
+        return length;
+    }
+}
@@ -9,10 +9,16 @@ public class JwtConfig {
 
     private String secret;
     private String issuer;
+    private long authCacheMaxSize = 10000;
+    private long authCacheTtlSeconds = 900;
 
     public String getSecret() { return secret; }
     public void setSecret(String secret) { this.secret = secret; }
     public String getIssuer() { return issuer; }
     public void setIssuer(String issuer) { this.issuer = issuer; }
+    public long getAuthCacheMaxSize() { return authCacheMaxSize; }
+    public void setAuthCacheMaxSize(long authCacheMaxSize) { this.authCacheMaxSize = authCacheMaxSize; }
+    public long getAuthCacheTtlSeconds() { return authCacheTtlSeconds; }
+    public void setAuthCacheTtlSeconds(long authCacheTtlSeconds) { this.authCacheTtlSeconds = authCacheTtlSeconds; }
 }
 
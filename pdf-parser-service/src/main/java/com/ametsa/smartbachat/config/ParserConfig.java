@@ -0,0 +1,98 @@
+package com.ametsa.smartbachat.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for statement ingestion and the parser worker.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "parser")
+public class ParserConfig {
+
+    // Live progress: pages_processed is flushed every N pages or T ms, whichever comes first
+    private int progressFlushPages = 10;
+    private long progressFlushIntervalMs = 2000;
+
+    // Password-protected statements are kept on local disk until unlocked or expired
+    private String spillDir; // defaults to <java.io.tmpdir>/statement-spill
+    private long spillTtlSeconds = 900;
+    private long spillMaxEntries = 1000;
+    private long spillSweepMs = 60000;
+    private int unlockMaxAttempts = 5; // wrong passwords before the job fails and its spill is dropped
+
+    // Inline ingestion: small files are parsed in the request while GCS archiving runs alongside
+    private long inlineMaxBytes = 1024 * 1024; // keep within spring.servlet.multipart.max-file-size
+    private long inlineSloMs = 3000; // past this the request returns 202 and the job keeps running
+    private int archiveThreads = 4;
+
+    // Resumable chunked uploads, assembled on local disk before parsing
+    private String chunkDir; // defaults to <java.io.tmpdir>/statement-chunks
+    private int chunkSizeBytes = 4 * 1024 * 1024;
+    private long maxUploadBytes = 100L * 1024 * 1024;
+    private long chunkUploadTtlHours = 24;
+    private long preflightMaxBytes = 8L * 1024 * 1024; // largest prefix loaded to detect the bank early
+    private long chunkSweepMs = 3600000;
+
+    // Parse job scheduler: shared parser threads, fair per profile, small uploads and unlocks first
+    private int schedulerThreads = 4;
+    private int schedulerMaxPerProfile = 2;
+    private long schedulerPriorityMaxBytes = 1024 * 1024;
+    private int schedulerMaxQueuedPerProfile = 20; // further jobs of the profile get 429
+    private int schedulerMaxQueued = 200; // further jobs of anyone get 503
+    private long schedulerMaxWaitMs = 60000; // a waiting caller gives up (503) if its job hasn't started by then
+    private long schedulerRetryAfterSeconds = 10;
+    private Map<String, Double> profileWeights = new HashMap<>(); // profile ID -> weight, default 1
+
+    public int getProgressFlushPages() { return progressFlushPages; }
+    public void setProgressFlushPages(int progressFlushPages) { this.progressFlushPages = progressFlushPages; }
+    public long getProgressFlushIntervalMs() { return progressFlushIntervalMs; }
+    public void setProgressFlushIntervalMs(long progressFlushIntervalMs) { this.progressFlushIntervalMs = progressFlushIntervalMs; }
+    public String getSpillDir() { return spillDir; }
+    public void setSpillDir(String spillDir) { this.spillDir = spillDir; }
+    public long getSpillTtlSeconds() { return spillTtlSeconds; }
+    public void setSpillTtlSeconds(long spillTtlSeconds) { this.spillTtlSeconds = spillTtlSeconds; }
+    public long getSpillMaxEntries() { return spillMaxEntries; }
+    public void setSpillMaxEntries(long spillMaxEntries) { this.spillMaxEntries = spillMaxEntries; }
+    public long getSpillSweepMs() { return spillSweepMs; }
+    public void setSpillSweepMs(long spillSweepMs) { this.spillSweepMs = spillSweepMs; }
+    public int getUnlockMaxAttempts() { return unlockMaxAttempts; }
+    public void setUnlockMaxAttempts(int unlockMaxAttempts) { this.unlockMaxAttempts = unlockMaxAttempts; }
+    public long getInlineMaxBytes() { return inlineMaxBytes; }
+    public void setInlineMaxBytes(long inlineMaxBytes) { this.inlineMaxBytes = inlineMaxBytes; }
+    public long getInlineSloMs() { return inlineSloMs; }
+    public void setInlineSloMs(long inlineSloMs) { this.inlineSloMs = inlineSloMs; }
+    public int getArchiveThreads() { return archiveThreads; }
+    public void setArchiveThreads(int archiveThreads) { this.archiveThreads = archiveThreads; }
+    public String getChunkDir() { return chunkDir; }
+    public void setChunkDir(String chunkDir) { this.chunkDir = chunkDir; }
+    public int getChunkSizeBytes() { return chunkSizeBytes; }
+    public void setChunkSizeBytes(int chunkSizeBytes) { this.chunkSizeBytes = chunkSizeBytes; }
+    public long getMaxUploadBytes() { return maxUploadBytes; }
+    public void setMaxUploadBytes(long maxUploadBytes) { this.maxUploadBytes = maxUploadBytes; }
+    public long getChunkUploadTtlHours() { return chunkUploadTtlHours; }
+    public void setChunkUploadTtlHours(long chunkUploadTtlHours) { this.chunkUploadTtlHours = chunkUploadTtlHours; }
+    public long getPreflightMaxBytes() { return preflightMaxBytes; }
+    public void setPreflightMaxBytes(long preflightMaxBytes) { this.preflightMaxBytes = preflightMaxBytes; }
+    public long getChunkSweepMs() { return chunkSweepMs; }
+    public void setChunkSweepMs(long chunkSweepMs) { this.chunkSweepMs = chunkSweepMs; }
+    public int getSchedulerThreads() { return schedulerThreads; }
+    public void setSchedulerThreads(int schedulerThreads) { this.schedulerThreads = schedulerThreads; }
+    public int getSchedulerMaxPerProfile() { return schedulerMaxPerProfile; }
+    public void setSchedulerMaxPerProfile(int schedulerMaxPerProfile) { this.schedulerMaxPerProfile = schedulerMaxPerProfile; }
+    public long getSchedulerPriorityMaxBytes() { return schedulerPriorityMaxBytes; }
+    public void setSchedulerPriorityMaxBytes(long schedulerPriorityMaxBytes) { this.schedulerPriorityMaxBytes = schedulerPriorityMaxBytes; }
+    public int getSchedulerMaxQueuedPerProfile() { return schedulerMaxQueuedPerProfile; }
+    public void setSchedulerMaxQueuedPerProfile(int schedulerMaxQueuedPerProfile) { this.schedulerMaxQueuedPerProfile = schedulerMaxQueuedPerProfile; }
+    public int getSchedulerMaxQueued() { return schedulerMaxQueued; }
+    public void setSchedulerMaxQueued(int schedulerMaxQueued) { this.schedulerMaxQueued = schedulerMaxQueued; }
+    public long getSchedulerMaxWaitMs() { return schedulerMaxWaitMs; }
+    public void setSchedulerMaxWaitMs(long schedulerMaxWaitMs) { this.schedulerMaxWaitMs = schedulerMaxWaitMs; }
+    public long getSchedulerRetryAfterSeconds() { return schedulerRetryAfterSeconds; }
+    public void setSchedulerRetryAfterSeconds(long schedulerRetryAfterSeconds) { this.schedulerRetryAfterSeconds = schedulerRetryAfterSeconds; }
+    public Map<String, Double> getProfileWeights() { return profileWeights; }
+    public void setProfileWeights(Map<String, Double> profileWeights) { this.profileWeights = profileWeights; }
+}
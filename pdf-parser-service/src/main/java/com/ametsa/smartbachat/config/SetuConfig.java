@@ -25,6 +25,36 @@ public class SetuConfig {
     // VUA suffix for mobile number (e.g., "@setu-aa")
     private String vuaSuffix = "@setu-aa";
 
+    // Retry / resilience tuning for outbound Setu calls
+    private long retryInitialBackoffMs = 1000;
+    private long maxRetryAfterMs = 30000; // Longer Retry-After values fail fast instead of sleeping
+    private int circuitFailureThreshold = 5;
+    private long circuitOpenMs = 30000;
+    private int initialConcurrency = 8;
+    private int minConcurrency = 1;
+    private int maxConcurrency = 32;
+    private double concurrencyBackoffRatio = 0.5;
+    private long latencyThresholdMs = 5000;
+    private long concurrencyMaxWaitMs = 10000;
+
+    // Local consent status cache (refreshed by webhooks, Setu polled only when stale)
+    private long consentCacheTtlSeconds = 30;
+    private long consentCacheMaxSize = 100000;
+
+    // Rows per batch for scheduler maintenance jobs
+    private int maintenanceBatchSize = 1000;
+
+    // Multi-replica scheduler coordination
+    private String schedulerNodeId; // Defaults to hostname + random suffix
+    private long schedulerNodeTtlMs = 45000; // Nodes without a heartbeat this long are considered dead
+    private long syncLeaseMs = 600000; // Upper bound on a single account sync
+
+    // Retry queue for failed syncs
+    private int syncRetryMaxAttempts = 5;
+    private long syncRetryBaseDelayMs = 60000;
+    private long syncRetryMaxDelayMs = 3600000;
+    private int syncRetryBatchSize = 50;
+
     // Getters and Setters
     public String getBaseUrl() { return baseUrl; }
     public void setBaseUrl(String baseUrl) { this.baseUrl = baseUrl; }
@@ -46,5 +76,45 @@ public class SetuConfig {
     public void setFiTypes(String fiTypes) { this.fiTypes = fiTypes; }
     public String getVuaSuffix() { return vuaSuffix; }
     public void setVuaSuffix(String vuaSuffix) { this.vuaSuffix = vuaSuffix; }
+    public long getRetryInitialBackoffMs() { return retryInitialBackoffMs; }
+    public void setRetryInitialBackoffMs(long retryInitialBackoffMs) { this.retryInitialBackoffMs = retryInitialBackoffMs; }
+    public long getMaxRetryAfterMs() { return maxRetryAfterMs; }
+    public void setMaxRetryAfterMs(long maxRetryAfterMs) { this.maxRetryAfterMs = maxRetryAfterMs; }
+    public int getCircuitFailureThreshold() { return circuitFailureThreshold; }
+    public void setCircuitFailureThreshold(int circuitFailureThreshold) { this.circuitFailureThreshold = circuitFailureThreshold; }
+    public long getCircuitOpenMs() { return circuitOpenMs; }
+    public void setCircuitOpenMs(long circuitOpenMs) { this.circuitOpenMs = circuitOpenMs; }
+    public int getInitialConcurrency() { return initialConcurrency; }
+    public void setInitialConcurrency(int initialConcurrency) { this.initialConcurrency = initialConcurrency; }
+    public int getMinConcurrency() { return minConcurrency; }
+    public void setMinConcurrency(int minConcurrency) { this.minConcurrency = minConcurrency; }
+    public int getMaxConcurrency() { return maxConcurrency; }
+    public void setMaxConcurrency(int maxConcurrency) { this.maxConcurrency = maxConcurrency; }
+    public double getConcurrencyBackoffRatio() { return concurrencyBackoffRatio; }
+    public void setConcurrencyBackoffRatio(double concurrencyBackoffRatio) { this.concurrencyBackoffRatio = concurrencyBackoffRatio; }
+    public long getLatencyThresholdMs() { return latencyThresholdMs; }
+    public void setLatencyThresholdMs(long latencyThresholdMs) { this.latencyThresholdMs = latencyThresholdMs; }
+    public long getConcurrencyMaxWaitMs() { return concurrencyMaxWaitMs; }
+    public void setConcurrencyMaxWaitMs(long concurrencyMaxWaitMs) { this.concurrencyMaxWaitMs = concurrencyMaxWaitMs; }
+    public long getConsentCacheTtlSeconds() { return consentCacheTtlSeconds; }
+    public void setConsentCacheTtlSeconds(long consentCacheTtlSeconds) { this.consentCacheTtlSeconds = consentCacheTtlSeconds; }
+    public long getConsentCacheMaxSize() { return consentCacheMaxSize; }
+    public void setConsentCacheMaxSize(long consentCacheMaxSize) { this.consentCacheMaxSize = consentCacheMaxSize; }
+    public int getMaintenanceBatchSize() { return maintenanceBatchSize; }
+    public void setMaintenanceBatchSize(int maintenanceBatchSize) { this.maintenanceBatchSize = maintenanceBatchSize; }
+    public String getSchedulerNodeId() { return schedulerNodeId; }
+    public void setSchedulerNodeId(String schedulerNodeId) { this.schedulerNodeId = schedulerNodeId; }
+    public long getSchedulerNodeTtlMs() { return schedulerNodeTtlMs; }
+    public void setSchedulerNodeTtlMs(long schedulerNodeTtlMs) { this.schedulerNodeTtlMs = schedulerNodeTtlMs; }
+    public long getSyncLeaseMs() { return syncLeaseMs; }
+    public void setSyncLeaseMs(long syncLeaseMs) { this.syncLeaseMs = syncLeaseMs; }
+    public int getSyncRetryMaxAttempts() { return syncRetryMaxAttempts; }
+    public void setSyncRetryMaxAttempts(int syncRetryMaxAttempts) { this.syncRetryMaxAttempts = syncRetryMaxAttempts; }
+    public long getSyncRetryBaseDelayMs() { return syncRetryBaseDelayMs; }
+    public void setSyncRetryBaseDelayMs(long syncRetryBaseDelayMs) { this.syncRetryBaseDelayMs = syncRetryBaseDelayMs; }
+    public long getSyncRetryMaxDelayMs() { return syncRetryMaxDelayMs; }
+    public void setSyncRetryMaxDelayMs(long syncRetryMaxDelayMs) { this.syncRetryMaxDelayMs = syncRetryMaxDelayMs; }
+    public int getSyncRetryBatchSize() { return syncRetryBatchSize; }
+    public void setSyncRetryBatchSize(int syncRetryBatchSize) { this.syncRetryBatchSize = syncRetryBatchSize; }
 }
 
@@ -0,0 +1,62 @@
+package com.ametsa.smartbachat.config;
+
+import com.ametsa.smartbachat.service.AdaptiveConcurrencyLimiter;
+import com.ametsa.smartbachat.service.SetuAggregatorService;
+import com.ametsa.smartbachat.service.SetuCircuitBreaker;
+import com.ametsa.smartbachat.service.SetuEndpointGuard;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes circuit breaker state and adaptive concurrency limits of the Setu client
+ * as Micrometer meters, tagged by endpoint.
+ */
+@Configuration
+public class SetuMetricsConfig {
+
+    @Bean
+    public MeterBinder setuResilienceMetrics(SetuAggregatorService setuAggregatorService) {
+        return registry -> {
+            for (SetuEndpointGuard guard : setuAggregatorService.getEndpointGuards()) {
+                String endpoint = guard.getEndpoint();
+                SetuCircuitBreaker breaker = guard.getCircuitBreaker();
+                AdaptiveConcurrencyLimiter limiter = guard.getLimiter();
+
+                // 0 = CLOSED, 1 = OPEN, 2 = HALF_OPEN
+                Gauge.builder("setu.circuit.state", breaker, b -> b.getState().ordinal())
+                        .description("Circuit breaker state (0=closed, 1=open, 2=half-open)")
+                        .tag("endpoint", endpoint)
+                        .register(registry);
+                FunctionCounter.builder("setu.circuit.rejected", breaker, SetuCircuitBreaker::getRejectedCount)
+                        .description("Calls rejected by an open circuit or Retry-After block")
+                        .tag("endpoint", endpoint)
+                        .register(registry);
+                FunctionCounter.builder("setu.circuit.failures", breaker, SetuCircuitBreaker::getFailureCount)
+                        .tag("endpoint", endpoint)
+                        .register(registry);
+                FunctionCounter.builder("setu.circuit.opened", breaker, SetuCircuitBreaker::getOpenedCount)
+                        .tag("endpoint", endpoint)
+                        .register(registry);
+
+                Gauge.builder("setu.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                        .description("Current adaptive concurrency limit")
+                        .tag("endpoint", endpoint)
+                        .register(registry);
+                Gauge.builder("setu.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                        .tag("endpoint", endpoint)
+                        .register(registry);
+                FunctionCounter.builder("setu.concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::getRejectedCount)
+                        .description("Calls that timed out waiting for a concurrency slot")
+                        .tag("endpoint", endpoint)
+                        .register(registry);
+                FunctionCounter.builder("setu.concurrency.overloads", limiter, AdaptiveConcurrencyLimiter::getOverloadCount)
+                        .description("Limit decreases caused by 429/503 or latency spikes")
+                        .tag("endpoint", endpoint)
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,157 @@
+package com.ametsa.smartbachat.controller;
+
+import com.ametsa.smartbachat.dto.ChunkedUploadDto;
+import com.ametsa.smartbachat.dto.ChunkedUploadRequestDto;
+import com.ametsa.smartbachat.dto.StartResponseDto;
+import com.ametsa.smartbachat.exception.ParserOverloadedException;
+import com.ametsa.smartbachat.exception.StatementPasswordRequiredException;
+import com.ametsa.smartbachat.security.UserPrincipal;
+import com.ametsa.smartbachat.service.ChunkedUploadService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Resumable chunked uploads for large statements and flaky connections:
+ * <ol>
+ *   <li>{@code POST /uploads} with the file name and size returns the upload ID and chunk size</li>
+ *   <li>{@code PUT /uploads/{uploadId}/chunks/{index}} with the raw chunk and its SHA-256 in
+ *       {@code X-Chunk-SHA256}, in any order</li>
+ *   <li>{@code GET /uploads/{uploadId}} lists the chunks received so far, for resuming</li>
+ *   <li>{@code POST /uploads/{uploadId}/complete} assembles the file and parses it</li>
+ * </ol>
+ */
+@RestController
+@RequestMapping("/api/v1/ingest/uploads")
+public class ChunkedUploadController {
+
+    private final ChunkedUploadService chunkedUploadService;
+
+    public ChunkedUploadController(ChunkedUploadService chunkedUploadService) {
+        this.chunkedUploadService = chunkedUploadService;
+    }
+
+    private UUID getProfileId(UserPrincipal principal) {
+        if (principal == null || principal.getProfileId() == null) {
+            throw new RuntimeException("User profile not found. Please complete your profile setup.");
+        }
+        return principal.getProfileId();
+    }
+
+    @PostMapping
+    public ResponseEntity<?> begin(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @Validated @RequestBody ChunkedUploadRequestDto req
+    ) {
+        try {
+            ChunkedUploadService.Status status = chunkedUploadService.begin(
+                    getProfileId(principal), req.getFilename(), req.getTotalBytes(), req.getSha256());
+            return ResponseEntity.status(HttpStatus.CREATED).body(toDto(status));
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    @PutMapping(value = "/{uploadId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> putChunk(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable String uploadId,
+            @PathVariable int index,
+            @RequestHeader(value = "X-Chunk-SHA256", required = false) String sha256,
+            @RequestBody byte[] chunk
+    ) {
+        try {
+            return ResponseEntity.ok(toDto(
+                    chunkedUploadService.putChunk(getProfileId(principal), uploadId, index, chunk, sha256)));
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<?> status(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable String uploadId
+    ) {
+        try {
+            return ResponseEntity.ok(toDto(chunkedUploadService.status(getProfileId(principal), uploadId)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "status", "FAILED",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * @return StartResponseDto with the job ID, or 423 with the job ID if the PDF needs a
+     *         password; it can then be unlocked via /api/v1/ingest/{jobId}/unlock. 429 or 503
+     *         with Retry-After if the parser is saturated; the upload is kept for a retry
+     */
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<?> complete(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable String uploadId,
+            @RequestParam(value = "password", required = false) String password
+    ) {
+        try {
+            UUID jobId = chunkedUploadService.complete(getProfileId(principal), uploadId, password);
+            return ResponseEntity.ok(new StartResponseDto(jobId));
+        } catch (StatementPasswordRequiredException e) {
+            return ResponseEntity.status(HttpStatus.LOCKED).body(Map.of(
+                    "status", "PASSWORD_REQUIRED",
+                    "jobId", e.getJobId(),
+                    "message", e.getMessage()
+            ));
+        } catch (ParserOverloadedException e) {
+            return ResponseEntity.status(e.getHttpStatusCode())
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of(
+                            "status", "FAILED",
+                            "message", e.getMessage()
+                    ));
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<?> abort(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable String uploadId
+    ) {
+        try {
+            chunkedUploadService.abort(getProfileId(principal), uploadId);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    private static ResponseEntity<?> failed(RuntimeException e) {
+        return ResponseEntity.badRequest().body(Map.of(
+                "status", "FAILED",
+                "message", e.getMessage() != null ? e.getMessage() : "Upload failed"
+        ));
+    }
+
+    private static ChunkedUploadDto toDto(ChunkedUploadService.Status status) {
+        ChunkedUploadDto dto = new ChunkedUploadDto();
+        dto.setUploadId(status.manifest().uploadId);
+        dto.setTotalBytes(status.manifest().totalBytes);
+        dto.setChunkSize(status.manifest().chunkSize);
+        dto.setTotalChunks(status.manifest().totalChunks);
+        dto.setReceivedChunks(new ArrayList<>(status.received()));
+        dto.setPreflightStatus(status.manifest().preflightStatus);
+        dto.setDetectedBank(status.manifest().detectedBank);
+        return dto;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ametsa.smartbachat.controller;
 
+import com.ametsa.smartbachat.dto.InlineIngestResponseDto;
 import com.ametsa.smartbachat.dto.StartRequestDto;
 import com.ametsa.smartbachat.dto.StartResponseDto;
 import com.ametsa.smartbachat.dto.TransactionDto;
@@ -8,11 +9,17 @@ import com.ametsa.smartbachat.dto.TransactionsResponseDto;
 import com.ametsa.smartbachat.dto.UploadResponseDto;
 
 import com.ametsa.smartbachat.entity.TransactionEntity;
+import com.ametsa.smartbachat.exception.ParserOverloadedException;
+import com.ametsa.smartbachat.exception.StatementPasswordRequiredException;
 import com.ametsa.smartbachat.repository.TransactionRepository;
 import com.ametsa.smartbachat.security.UserPrincipal;
 import com.ametsa.smartbachat.service.GcsUploadService;
+import com.ametsa.smartbachat.service.InlineIngestService;
 import com.ametsa.smartbachat.service.JobService;
+import com.ametsa.smartbachat.service.ParseJobScheduler;
 import com.ametsa.smartbachat.service.ParserWorker;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -23,6 +30,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -34,15 +42,21 @@ public class PdfUploadController {
 	    private final JobService jobService;
 	    private final ParserWorker parserWorker;
 	    private final TransactionRepository transactionRepository;
+	    private final InlineIngestService inlineIngestService;
+	    private final ParseJobScheduler scheduler;
 
 	    public PdfUploadController(GcsUploadService gcsUploadService,
 	                               JobService jobService,
 	                               ParserWorker parserWorker,
-	                               TransactionRepository transactionRepository) {
+	                               TransactionRepository transactionRepository,
+	                               InlineIngestService inlineIngestService,
+	                               ParseJobScheduler scheduler) {
 	        this.gcsUploadService = gcsUploadService;
 	        this.jobService = jobService;
 	        this.parserWorker = parserWorker;
 	        this.transactionRepository = transactionRepository;
+	        this.inlineIngestService = inlineIngestService;
+	        this.scheduler = scheduler;
 	    }
 
     /**
@@ -71,7 +85,7 @@ public class PdfUploadController {
     }
 
     @PostMapping(value = "/parse-local-file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<StartResponseDto> parseLocalFile(
+    public ResponseEntity<?> parseLocalFile(
             @AuthenticationPrincipal UserPrincipal principal,
             @RequestParam("file") MultipartFile file
     ) throws Exception {
@@ -85,10 +99,11 @@ public class PdfUploadController {
      * @param principal The authenticated user
      * @param file The PDF file to parse
      * @param password Optional password for encrypted PDFs
-     * @return StartResponseDto with the job ID
+     * @return StartResponseDto with the job ID, or 423 with the job ID if the PDF needs a
+     *         password; the statement can then be unlocked via /{jobId}/unlock
      */
     @PostMapping(value = "/parse", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<StartResponseDto> parseLocalFileWithPassword(
+    public ResponseEntity<?> parseLocalFileWithPassword(
             @AuthenticationPrincipal UserPrincipal principal,
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "password", required = false) String password
@@ -112,10 +127,20 @@ public class PdfUploadController {
             // Transfer uploaded file to temp location
             file.transferTo(tempFile);
 
-            // Parse the PDF directly and store transactions to DB
-            UUID jobId = parserWorker.processLocalFile(tempFilePath, profileId, filename, password);
+            // Parse the PDF once a worker is free and store transactions to DB
+            long size = file.getSize();
+            UUID jobId = scheduler.run(profileId, scheduler.laneFor(size), size,
+                    () -> parserWorker.processLocalFile(tempFilePath, profileId, filename, password));
 
             return ResponseEntity.ok(new StartResponseDto(jobId));
+        } catch (StatementPasswordRequiredException e) {
+            return ResponseEntity.status(HttpStatus.LOCKED).body(Map.of(
+                    "status", "PASSWORD_REQUIRED",
+                    "jobId", e.getJobId(),
+                    "message", e.getMessage()
+            ));
+        } catch (ParserOverloadedException e) {
+            return overloaded(e);
         } finally {
             // Clean up temp file
             if (tempFile.exists()) {
@@ -126,6 +151,72 @@ public class PdfUploadController {
 
 
 
+    /**
+     * Inline ingestion for small statements: parses the upload in the request, archives it to
+     * GCS alongside, and returns the parsed transactions if parsing finishes within the latency
+     * SLO. Slower parses return 202 with the job ID to poll via /status/{jobId}. Larger files
+     * get 413 and should use /request-upload.
+     */
+    @PostMapping(value = "/inline", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> ingestInline(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "password", required = false) String password
+    ) throws IOException {
+        if (file.isEmpty()) {
+            throw new IOException("File is empty");
+        }
+        if (!inlineIngestService.accepts(file.getSize())) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of(
+                    "status", "FAILED",
+                    "message", "File too large for inline ingestion. Use /request-upload instead."
+            ));
+        }
+        UUID profileId = getProfileId(principal);
+
+        try {
+            InlineIngestService.Result result =
+                    inlineIngestService.ingest(file.getBytes(), profileId, file.getOriginalFilename(), password);
+
+            InlineIngestResponseDto response = new InlineIngestResponseDto();
+            response.setJobId(result.jobId());
+            response.setObjectName(result.objectName());
+            response.setElapsedMs(result.elapsedMs());
+            if (!result.completed()) {
+                response.setStatus("PROCESSING");
+                return ResponseEntity.accepted().body(response);
+            }
+            response.setStatus("DONE");
+            response.setResult(getTransactionsForStatement(result.jobId()).getBody());
+            return ResponseEntity.ok(response);
+        } catch (StatementPasswordRequiredException e) {
+            return ResponseEntity.status(HttpStatus.LOCKED).body(Map.of(
+                    "status", "PASSWORD_REQUIRED",
+                    "jobId", e.getJobId(),
+                    "message", e.getMessage()
+            ));
+        } catch (ParserOverloadedException e) {
+            return overloaded(e);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "FAILED",
+                    "message", e.getMessage() != null ? e.getMessage() : "Failed to parse statement"
+            ));
+        }
+    }
+
+    /**
+     * 429 or 503 with Retry-After when the parse job scheduler refuses a job.
+     */
+    private static ResponseEntity<?> overloaded(ParserOverloadedException e) {
+        return ResponseEntity.status(e.getHttpStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of(
+                        "status", "FAILED",
+                        "message", e.getMessage()
+                ));
+    }
+
 	    @PostMapping("/start")
 	    public ResponseEntity<StartResponseDto> startIngest(@Validated @RequestBody StartRequestDto req) throws Exception {
 	        StartResponseDto resp = jobService.startJob(req.getUploadId(), req.getObjectName(), req.getProfileId(), req.getFilename());
@@ -139,15 +230,26 @@ public class PdfUploadController {
 	    }
 
 	    @PostMapping("/{jobId}/unlock")
-	    public ResponseEntity<Void> unlock(@PathVariable UUID jobId, @RequestBody String password) throws Exception {
-	        jobService.submitPassword(jobId, password);
-	        return ResponseEntity.accepted().build();
+	    public ResponseEntity<?> unlock(@AuthenticationPrincipal UserPrincipal principal,
+	                                    @PathVariable UUID jobId, @RequestBody String password) {
+	        try {
+	            jobService.submitPassword(jobId, getProfileId(principal), password);
+	            return ResponseEntity.accepted().build();
+	        } catch (ParserOverloadedException e) {
+	            return overloaded(e);
+	        } catch (RuntimeException e) {
+	            return ResponseEntity.badRequest().body(Map.of(
+	                    "status", "FAILED",
+	                    "message", e.getMessage()
+	            ));
+	        }
 	    }
 
 		    @GetMapping("/statements/{statementId}/transactions")
 		    public ResponseEntity<TransactionsResponseDto> getTransactionsForStatement(@PathVariable UUID statementId) {
-		        List<TransactionEntity> entities =
-		                transactionRepository.findByStatementIdOrderByTxnDateAscCreatedAtAsc(statementId);
+		        // A re-uploaded statement reads the transactions of the statement it was linked to
+		        List<TransactionEntity> entities = transactionRepository
+		                .findByStatementIdOrderByTxnDateAscCreatedAtAsc(jobService.transactionSourceId(statementId));
 
 		        List<TransactionDto> dtos = new java.util.ArrayList<>();
 		        int creditCount = 0;
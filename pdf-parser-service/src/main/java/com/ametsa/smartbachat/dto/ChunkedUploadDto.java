@@ -0,0 +1,33 @@
+package com.ametsa.smartbachat.dto;
+
+import java.util.List;
+
+/**
+ * State of a resumable chunked upload. A client resuming after a dropped connection sends
+ * only the chunks missing from {@code receivedChunks}. {@code preflightStatus} and
+ * {@code detectedBank} are filled in once the start of the PDF has arrived.
+ */
+public class ChunkedUploadDto {
+    private String uploadId;
+    private long totalBytes;
+    private int chunkSize;
+    private int totalChunks;
+    private List<Integer> receivedChunks;
+    private String preflightStatus;
+    private String detectedBank;
+
+    public String getUploadId() { return uploadId; }
+    public void setUploadId(String uploadId) { this.uploadId = uploadId; }
+    public long getTotalBytes() { return totalBytes; }
+    public void setTotalBytes(long totalBytes) { this.totalBytes = totalBytes; }
+    public int getChunkSize() { return chunkSize; }
+    public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+    public int getTotalChunks() { return totalChunks; }
+    public void setTotalChunks(int totalChunks) { this.totalChunks = totalChunks; }
+    public List<Integer> getReceivedChunks() { return receivedChunks; }
+    public void setReceivedChunks(List<Integer> receivedChunks) { this.receivedChunks = receivedChunks; }
+    public String getPreflightStatus() { return preflightStatus; }
+    public void setPreflightStatus(String preflightStatus) { this.preflightStatus = preflightStatus; }
+    public String getDetectedBank() { return detectedBank; }
+    public void setDetectedBank(String detectedBank) { this.detectedBank = detectedBank; }
+}
@@ -0,0 +1,22 @@
+package com.ametsa.smartbachat.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Starts a resumable chunked upload; {@code sha256} of the whole file is optional.
+ */
+public class ChunkedUploadRequestDto {
+    @NotBlank
+    private String filename;
+    @Positive
+    private long totalBytes;
+    private String sha256;
+
+    public String getFilename() { return filename; }
+    public void setFilename(String filename) { this.filename = filename; }
+    public long getTotalBytes() { return totalBytes; }
+    public void setTotalBytes(long totalBytes) { this.totalBytes = totalBytes; }
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+}
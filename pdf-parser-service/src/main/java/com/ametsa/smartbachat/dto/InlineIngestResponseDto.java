@@ -0,0 +1,56 @@
+package com.ametsa.smartbachat.dto;
+
+import java.util.UUID;
+
+/**
+ * Result of inline ingestion: the parsed transactions when parsing finished within the
+ * latency SLO, otherwise just the job ID to poll.
+ */
+public class InlineIngestResponseDto {
+
+    private UUID jobId;
+    private String status;
+    private String objectName;
+    private long elapsedMs;
+    private TransactionsResponseDto result;
+
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(UUID jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getObjectName() {
+        return objectName;
+    }
+
+    public void setObjectName(String objectName) {
+        this.objectName = objectName;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public TransactionsResponseDto getResult() {
+        return result;
+    }
+
+    public void setResult(TransactionsResponseDto result) {
+        this.result = result;
+    }
+}
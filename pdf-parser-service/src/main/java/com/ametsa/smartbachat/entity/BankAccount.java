@@ -12,7 +12,9 @@ import java.util.UUID;
 @Table(name = "bank_accounts", indexes = {
         @Index(name = "idx_bank_account_profile", columnList = "profile_id"),
         @Index(name = "idx_bank_account_consent", columnList = "consent_id"),
-        @Index(name = "idx_bank_account_status", columnList = "consent_status")
+        @Index(name = "idx_bank_account_status", columnList = "consent_status"),
+        @Index(name = "idx_bank_account_status_created", columnList = "consent_status, created_at"),
+        @Index(name = "idx_bank_account_status_expires", columnList = "consent_status, consent_expires_at, id")
 })
 public class BankAccount {
 
@@ -129,6 +131,13 @@ public class BankAccount {
     @Column(name = "error_message", columnDefinition = "text")
     private String errorMessage;
 
+    // Scheduler node currently syncing this account, and until when it holds the lease
+    @Column(name = "sync_lease_owner")
+    private String syncLeaseOwner;
+
+    @Column(name = "sync_lease_until")
+    private Instant syncLeaseUntil;
+
     public BankAccount() {}
 
     // Getters and Setters
@@ -186,5 +195,9 @@ public class BankAccount {
     public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
     public String getErrorMessage() { return errorMessage; }
     public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    public String getSyncLeaseOwner() { return syncLeaseOwner; }
+    public void setSyncLeaseOwner(String syncLeaseOwner) { this.syncLeaseOwner = syncLeaseOwner; }
+    public Instant getSyncLeaseUntil() { return syncLeaseUntil; }
+    public void setSyncLeaseUntil(Instant syncLeaseUntil) { this.syncLeaseUntil = syncLeaseUntil; }
 }
 
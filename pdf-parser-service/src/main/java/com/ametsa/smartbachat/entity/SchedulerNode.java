@@ -0,0 +1,42 @@
+package com.ametsa.smartbachat.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A live pdf-parser-service replica taking part in scheduled bank syncs.
+ * Each replica heartbeats its row; rows with a recent heartbeat define the
+ * current set of nodes that accounts are sharded across.
+ */
+@Entity
+@Table(name = "scheduler_nodes", indexes = {
+        @Index(name = "idx_scheduler_node_heartbeat", columnList = "heartbeat_at")
+})
+public class SchedulerNode {
+
+    @Id
+    @Column(name = "node_id", nullable = false)
+    private String nodeId;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "heartbeat_at", nullable = false)
+    private Instant heartbeatAt;
+
+    public SchedulerNode() {}
+
+    public SchedulerNode(String nodeId, Instant startedAt, Instant heartbeatAt) {
+        this.nodeId = nodeId;
+        this.startedAt = startedAt;
+        this.heartbeatAt = heartbeatAt;
+    }
+
+    // Getters and Setters
+    public String getNodeId() { return nodeId; }
+    public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+    public Instant getHeartbeatAt() { return heartbeatAt; }
+    public void setHeartbeatAt(Instant heartbeatAt) { this.heartbeatAt = heartbeatAt; }
+}
@@ -5,7 +5,9 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "statement_metadata")
+@Table(name = "statement_metadata", indexes = {
+        @Index(name = "idx_statement_profile_sha256", columnList = "profile_id, content_sha256")
+})
 
 public class StatementMetadata {
 
@@ -41,6 +43,45 @@ public class StatementMetadata {
     @Column(name = "error_message", columnDefinition = "text")
     private String errorMessage;
 
+    // Processing stats, filled in by ParserWorker
+    @Column(name = "page_count")
+    private Integer pageCount;
+
+    @Column(name = "pages_processed")
+    private Integer pagesProcessed;
+
+    @Column(name = "file_bytes")
+    private Long fileBytes;
+
+    @Column(name = "row_count")
+    private Integer rowCount;
+
+    @Column(name = "detect_ms")
+    private Long detectMs;
+
+    @Column(name = "extract_ms")
+    private Long extractMs;
+
+    @Column(name = "parse_ms")
+    private Long parseMs;
+
+    @Column(name = "persist_ms")
+    private Long persistMs;
+
+    @Column(name = "processing_ms")
+    private Long processingMs;
+
+    // Hex SHA-256 of the uploaded PDF; a re-upload of a DONE statement links to it via duplicate_of
+    @Column(name = "content_sha256", length = 64)
+    private String contentSha256;
+
+    @Column(name = "duplicate_of")
+    private UUID duplicateOf;
+
+    // Wrong passwords submitted through /unlock
+    @Column(name = "password_attempts")
+    private Integer passwordAttempts;
+
     public StatementMetadata() {}
 
     // getters and setters
@@ -64,4 +105,28 @@ public class StatementMetadata {
     public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
 	    public String getBucketName() { return bucketName; }
 	    public void setBucketName(String bucketName) { this.bucketName = bucketName; }
+    public Integer getPageCount() { return pageCount; }
+    public void setPageCount(Integer pageCount) { this.pageCount = pageCount; }
+    public Integer getPagesProcessed() { return pagesProcessed; }
+    public void setPagesProcessed(Integer pagesProcessed) { this.pagesProcessed = pagesProcessed; }
+    public Long getFileBytes() { return fileBytes; }
+    public void setFileBytes(Long fileBytes) { this.fileBytes = fileBytes; }
+    public Integer getRowCount() { return rowCount; }
+    public void setRowCount(Integer rowCount) { this.rowCount = rowCount; }
+    public Long getDetectMs() { return detectMs; }
+    public void setDetectMs(Long detectMs) { this.detectMs = detectMs; }
+    public Long getExtractMs() { return extractMs; }
+    public void setExtractMs(Long extractMs) { this.extractMs = extractMs; }
+    public Long getParseMs() { return parseMs; }
+    public void setParseMs(Long parseMs) { this.parseMs = parseMs; }
+    public Long getPersistMs() { return persistMs; }
+    public void setPersistMs(Long persistMs) { this.persistMs = persistMs; }
+    public Long getProcessingMs() { return processingMs; }
+    public void setProcessingMs(Long processingMs) { this.processingMs = processingMs; }
+    public String getContentSha256() { return contentSha256; }
+    public void setContentSha256(String contentSha256) { this.contentSha256 = contentSha256; }
+    public UUID getDuplicateOf() { return duplicateOf; }
+    public void setDuplicateOf(UUID duplicateOf) { this.duplicateOf = duplicateOf; }
+    public Integer getPasswordAttempts() { return passwordAttempts; }
+    public void setPasswordAttempts(Integer passwordAttempts) { this.passwordAttempts = passwordAttempts; }
 }
@@ -12,7 +12,8 @@ import java.util.UUID;
 @Table(name = "sync_history", indexes = {
         @Index(name = "idx_sync_history_account", columnList = "bank_account_id"),
         @Index(name = "idx_sync_history_status", columnList = "status"),
-        @Index(name = "idx_sync_history_started", columnList = "started_at")
+        @Index(name = "idx_sync_history_started", columnList = "started_at"),
+        @Index(name = "idx_sync_history_retry", columnList = "status, next_retry_at")
 })
 public class SyncHistory {
 
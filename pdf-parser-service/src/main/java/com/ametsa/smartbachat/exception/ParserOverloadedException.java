@@ -0,0 +1,26 @@
+package com.ametsa.smartbachat.exception;
+
+/**
+ * Thrown when the parse job scheduler refuses a job: its queue is full, or the job could not
+ * start in time. Carries the HTTP status to answer with (429 when one profile is over its own
+ * cap, 503 when the service as a whole is saturated) and a Retry-After hint.
+ */
+public class ParserOverloadedException extends RuntimeException {
+
+    private final int httpStatusCode;
+    private final long retryAfterSeconds;
+
+    public ParserOverloadedException(String message, int httpStatusCode, long retryAfterSeconds) {
+        super(message);
+        this.httpStatusCode = httpStatusCode;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getHttpStatusCode() {
+        return httpStatusCode;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ametsa.smartbachat.exception;
+
+import java.util.UUID;
+
+/**
+ * Thrown when a statement PDF is encrypted and no (or a wrong) password was given. The
+ * statement is kept in the spill cache, so the caller can unlock it by job ID.
+ */
+public class StatementPasswordRequiredException extends RuntimeException {
+
+    private final UUID jobId;
+
+    public StatementPasswordRequiredException(UUID jobId, String message) {
+        super(message);
+        this.jobId = jobId;
+    }
+
+    public UUID getJobId() {
+        return jobId;
+    }
+}
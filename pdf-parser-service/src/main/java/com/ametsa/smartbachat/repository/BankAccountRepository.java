@@ -1,8 +1,14 @@
 package com.ametsa.smartbachat.repository;
 
 import com.ametsa.smartbachat.entity.BankAccount;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -34,6 +40,29 @@ public interface BankAccountRepository extends JpaRepository<BankAccount, UUID>
      */
     List<BankAccount> findByConsentStatus(String consentStatus);
 
+    /**
+     * First keyset page of accounts with the given status whose ID lies in
+     * [{@code firstId}, {@code lastId}], i.e. one scheduler shard.
+     */
+    @Query("SELECT b FROM BankAccount b WHERE b.consentStatus = :status " +
+           "AND b.id >= :firstId AND b.id <= :lastId " +
+           "ORDER BY b.id")
+    List<BankAccount> findByConsentStatusInIdRange(@Param("status") String status,
+                                                   @Param("firstId") UUID firstId,
+                                                   @Param("lastId") UUID lastId,
+                                                   Pageable pageable);
+
+    /**
+     * Next keyset page of the shard after {@code afterId}.
+     */
+    @Query("SELECT b FROM BankAccount b WHERE b.consentStatus = :status " +
+           "AND b.id > :afterId AND b.id <= :lastId " +
+           "ORDER BY b.id")
+    List<BankAccount> findByConsentStatusInIdRangeAfter(@Param("status") String status,
+                                                        @Param("afterId") UUID afterId,
+                                                        @Param("lastId") UUID lastId,
+                                                        Pageable pageable);
+
     /**
      * Find accounts by profile and consent status.
      */
@@ -43,5 +72,67 @@ public interface BankAccountRepository extends JpaRepository<BankAccount, UUID>
      * Check if account exists for profile with given masked account number.
      */
     boolean existsByProfileIdAndMaskedAccountNumber(UUID profileId, String maskedAccountNumber);
-}
 
+    /**
+     * Mark up to {@code batchSize} stale PENDING consents created before the cutoff as EXPIRED.
+     * Runs in its own transaction so callers can loop until no rows are affected.
+     * @return number of rows updated
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE bank_accounts SET consent_status = 'EXPIRED', updated_at = :now " +
+                   "WHERE id IN (SELECT id FROM bank_accounts " +
+                   "WHERE consent_status = 'PENDING' AND created_at < :cutoff " +
+                   "ORDER BY created_at LIMIT :batchSize)",
+           nativeQuery = true)
+    int expireStalePendingConsents(@Param("cutoff") Instant cutoff,
+                                   @Param("now") Instant now,
+                                   @Param("batchSize") int batchSize);
+
+    /**
+     * First keyset page of accounts with the given status whose consent expires before {@code until}.
+     */
+    @Query("SELECT b FROM BankAccount b WHERE b.consentStatus = :status " +
+           "AND b.consentExpiresAt < :until " +
+           "ORDER BY b.consentExpiresAt, b.id")
+    List<BankAccount> findConsentsExpiringBefore(@Param("status") String status,
+                                                 @Param("until") Instant until,
+                                                 Pageable pageable);
+
+    /**
+     * Next keyset page after ({@code afterExpiresAt}, {@code afterId}).
+     */
+    @Query("SELECT b FROM BankAccount b WHERE b.consentStatus = :status " +
+           "AND b.consentExpiresAt < :until " +
+           "AND (b.consentExpiresAt > :afterExpiresAt " +
+           "     OR (b.consentExpiresAt = :afterExpiresAt AND b.id > :afterId)) " +
+           "ORDER BY b.consentExpiresAt, b.id")
+    List<BankAccount> findConsentsExpiringBeforeAfter(@Param("status") String status,
+                                                      @Param("until") Instant until,
+                                                      @Param("afterExpiresAt") Instant afterExpiresAt,
+                                                      @Param("afterId") UUID afterId,
+                                                      Pageable pageable);
+
+    /**
+     * Claim the sync lease for an account if it is free, expired, or already ours.
+     * @return 1 if the lease is now held by {@code owner}, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE BankAccount b SET b.syncLeaseOwner = :owner, b.syncLeaseUntil = :until " +
+           "WHERE b.id = :id AND (b.syncLeaseUntil IS NULL OR b.syncLeaseUntil < :now " +
+           "OR b.syncLeaseOwner = :owner)")
+    int claimSyncLease(@Param("id") UUID id,
+                       @Param("owner") String owner,
+                       @Param("now") Instant now,
+                       @Param("until") Instant until);
+
+    /**
+     * Release a sync lease held by {@code owner}.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE BankAccount b SET b.syncLeaseOwner = NULL, b.syncLeaseUntil = NULL " +
+           "WHERE b.id = :id AND b.syncLeaseOwner = :owner")
+    int releaseSyncLease(@Param("id") UUID id, @Param("owner") String owner);
+}
@@ -0,0 +1,22 @@
+package com.ametsa.smartbachat.repository;
+
+import com.ametsa.smartbachat.entity.SchedulerNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface SchedulerNodeRepository extends JpaRepository<SchedulerNode, String> {
+
+    /**
+     * Find nodes that have heartbeated since the given instant, in stable order.
+     */
+    List<SchedulerNode> findByHeartbeatAtAfterOrderByNodeIdAsc(Instant after);
+
+    /**
+     * Remove nodes that stopped heartbeating.
+     */
+    @Transactional
+    long deleteByHeartbeatAtBefore(Instant before);
+}
@@ -2,8 +2,83 @@ package com.ametsa.smartbachat.repository;
 
 import com.ametsa.smartbachat.entity.StatementMetadata;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface StatementMetadataRepository extends JpaRepository<StatementMetadata, UUID> {
+
+    /**
+     * Record the page total and size of a statement once its PDF is loaded, touching only the
+     * progress columns.
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE StatementMetadata m SET m.pageCount = :pageCount, m.pagesProcessed = 0, " +
+           "m.fileBytes = :fileBytes, m.updatedAt = :now WHERE m.id = :id")
+    int startProgress(@Param("id") UUID id,
+                      @Param("pageCount") int pageCount,
+                      @Param("fileBytes") long fileBytes,
+                      @Param("now") Instant now);
+
+    /**
+     * Advance pages_processed without rewriting the rest of the row.
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE StatementMetadata m SET m.pagesProcessed = :pagesProcessed, m.updatedAt = :now " +
+           "WHERE m.id = :id")
+    int updateProgress(@Param("id") UUID id,
+                       @Param("pagesProcessed") int pagesProcessed,
+                       @Param("now") Instant now);
+
+    /**
+     * Move a statement from {@code expected} to {@code status} only if no one else has moved it
+     * first; returns 0 when the row was not in {@code expected}.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE StatementMetadata m SET m.status = :status, m.updatedAt = :now " +
+           "WHERE m.id = :id AND m.status = :expected")
+    int compareAndSetStatus(@Param("id") UUID id,
+                            @Param("expected") String expected,
+                            @Param("status") String status,
+                            @Param("now") Instant now);
+
+    /**
+     * Accept a password for a statement owned by {@code profileId} that is waiting for one.
+     * Returns 0 if the statement is not waiting, belongs to another profile, or another request
+     * got there first.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE StatementMetadata m SET m.status = 'PASSWORD_SUBMITTED', m.errorMessage = NULL, " +
+           "m.updatedAt = :now WHERE m.id = :id AND m.profileId = :profileId AND m.status = 'PASSWORD_REQUIRED'")
+    int markPasswordSubmitted(@Param("id") UUID id,
+                              @Param("profileId") UUID profileId,
+                              @Param("now") Instant now);
+
+    /**
+     * Count one more wrong password in the database rather than from a copy of the row.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE StatementMetadata m SET m.passwordAttempts = COALESCE(m.passwordAttempts, 0) + 1, " +
+           "m.updatedAt = :now WHERE m.id = :id")
+    int incrementPasswordAttempts(@Param("id") UUID id, @Param("now") Instant now);
+
+    @Query("SELECT m.passwordAttempts FROM StatementMetadata m WHERE m.id = :id")
+    Integer findPasswordAttempts(@Param("id") UUID id);
+
+    /**
+     * The first statement a profile fully parsed from a PDF with this content hash; statements
+     * that were themselves linked as duplicates are skipped.
+     */
+    Optional<StatementMetadata> findFirstByProfileIdAndContentSha256AndStatusAndDuplicateOfIsNullOrderByCreatedAtAsc(
+            UUID profileId, String contentSha256, String status);
 }
@@ -1,9 +1,12 @@
 package com.ametsa.smartbachat.repository;
 
 import com.ametsa.smartbachat.entity.SyncHistory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
@@ -37,6 +40,27 @@ public interface SyncHistoryRepository extends JpaRepository<SyncHistory, UUID>
      */
     List<SyncHistory> findByStatusAndNextRetryAtBeforeOrderByNextRetryAtAsc(String status, Instant now);
 
+    /**
+     * Find one batch of syncs that are due for retry, oldest first, limited to bank accounts
+     * whose id falls in [firstId, lastId] so each scheduler node only reads its own shard.
+     */
+    @Query("SELECT s FROM SyncHistory s WHERE s.status = :status AND s.nextRetryAt < :now " +
+           "AND s.bankAccountId >= :firstId AND s.bankAccountId <= :lastId ORDER BY s.nextRetryAt ASC")
+    List<SyncHistory> findDueRetriesInAccountRange(@Param("status") String status,
+                                                   @Param("now") Instant now,
+                                                   @Param("firstId") UUID firstId,
+                                                   @Param("lastId") UUID lastId,
+                                                   Pageable pageable);
+
+    /**
+     * Dequeue any retry still scheduled for a bank account.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SyncHistory s SET s.nextRetryAt = NULL " +
+           "WHERE s.bankAccountId = :bankAccountId AND s.nextRetryAt IS NOT NULL")
+    int cancelPendingRetries(@Param("bankAccountId") UUID bankAccountId);
+
     /**
      * Find sync history by session ID.
      */
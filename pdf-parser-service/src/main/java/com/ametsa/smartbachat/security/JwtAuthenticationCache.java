@@ -0,0 +1,65 @@
+package com.ametsa.smartbachat.security;
+
+import com.ametsa.smartbachat.config.JwtConfig;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of verified access tokens, keyed by the SHA-256 of the token so raw
+ * tokens are never retained. An entry is only served until the token's own {@code exp},
+ * so a cache hit never accepts a token the parser would reject as expired.
+ */
+public class JwtAuthenticationCache {
+
+    private final Cache<String, Entry> cache;
+
+    public JwtAuthenticationCache(JwtConfig jwtConfig) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(jwtConfig.getAuthCacheMaxSize())
+                .expireAfterWrite(jwtConfig.getAuthCacheTtlSeconds(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * @return the cached authentication for this token, or null if absent or past its expiry
+     */
+    public Entry get(String token) {
+        String key = hash(token);
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            cache.invalidate(key);
+            return null;
+        }
+        return entry;
+    }
+
+    public void put(String token, Entry entry) {
+        cache.put(hash(token), entry);
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Principal and authorities built from a verified token; both are immutable and shared across requests.
+     */
+    public record Entry(UserPrincipal principal, List<GrantedAuthority> authorities, long expiresAtMillis) {}
+}
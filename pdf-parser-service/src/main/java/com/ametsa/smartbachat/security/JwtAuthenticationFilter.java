@@ -2,6 +2,7 @@ package com.ametsa.smartbachat.security;
 
 import com.ametsa.smartbachat.config.JwtConfig;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.FilterChain;
@@ -20,6 +21,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import javax.crypto.SecretKey;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -29,12 +31,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
-    private final JwtConfig jwtConfig;
-    private final SecretKey secretKey;
+    private final JwtParser jwtParser;
+    private final JwtAuthenticationCache authenticationCache;
 
     public JwtAuthenticationFilter(JwtConfig jwtConfig) {
-        this.jwtConfig = jwtConfig;
-        this.secretKey = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8));
+        SecretKey secretKey = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8));
+        // JwtParser is immutable and thread-safe; build it once instead of per request
+        this.jwtParser = Jwts.parser().verifyWith(secretKey).build();
+        this.authenticationCache = new JwtAuthenticationCache(jwtConfig);
     }
 
     @Override
@@ -51,48 +55,67 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String token = authHeader.substring(7);
 
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-
-            // Check if it's a refresh token (should not be used for API access)
-            if ("refresh".equals(claims.get("type"))) {
-                filterChain.doFilter(request, response);
-                return;
+            JwtAuthenticationCache.Entry entry = authenticationCache.get(token);
+            if (entry == null) {
+                entry = authenticate(token);
             }
 
-            String userId = claims.getSubject();
-            String profileId = claims.get("profileId", String.class);
-            
-            @SuppressWarnings("unchecked")
-            List<String> roles = claims.get("roles", List.class);
-            
-            List<SimpleGrantedAuthority> authorities = roles != null 
-                    ? roles.stream()
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList())
-                    : List.of();
-
-            // Create authentication with user principal containing both userId and profileId
-            UserPrincipal principal = new UserPrincipal(
-                    UUID.fromString(userId),
-                    profileId != null ? UUID.fromString(profileId) : null,
-                    claims.get("email", String.class),
-                    roles
-            );
-
-            UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(principal, null, authorities);
-            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-            
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (entry != null) {
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(entry.principal(), null, entry.authorities());
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            }
         } catch (Exception e) {
             log.warn("JWT authentication failed: {}", e.getMessage());
         }
 
         filterChain.doFilter(request, response);
     }
-}
 
+    /**
+     * Verify the token and build its principal, caching the result until the token expires.
+     * @return null for refresh tokens, which must not be used for API access
+     */
+    private JwtAuthenticationCache.Entry authenticate(String token) {
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+
+        if ("refresh".equals(claims.get("type"))) {
+            return null;
+        }
+
+        String userId = claims.getSubject();
+        String profileId = claims.get("profileId", String.class);
+
+        @SuppressWarnings("unchecked")
+        List<String> roles = claims.get("roles", List.class);
+
+        List<SimpleGrantedAuthority> authorities = roles != null
+                ? roles.stream()
+                    .map(SimpleGrantedAuthority::new)
+                    .collect(Collectors.toList())
+                : List.of();
+
+        // Create user principal containing both userId and profileId
+        UserPrincipal principal = new UserPrincipal(
+                UUID.fromString(userId),
+                profileId != null ? UUID.fromString(profileId) : null,
+                claims.get("email", String.class),
+                roles != null ? List.copyOf(roles) : null
+        );
+
+        Date expiration = claims.getExpiration();
+        JwtAuthenticationCache.Entry entry = new JwtAuthenticationCache.Entry(principal, List.copyOf(authorities),
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+        // Tokens without an expiry are never cached
+        if (expiration != null) {
+            authenticationCache.put(token, entry);
+        }
+        return entry;
+    }
+
+    JwtAuthenticationCache getAuthenticationCache() {
+        return authenticationCache;
+    }
+}
@@ -36,6 +36,7 @@ public class SecurityConfig {
                 // Public endpoints
                 .requestMatchers("/actuator/health").permitAll()
                 .requestMatchers("/actuator/info").permitAll()
+                .requestMatchers("/actuator/prometheus").permitAll()
                 // Webhook endpoints (authenticated via signature, not JWT)
                 .requestMatchers("/api/v1/webhooks/**").permitAll()
                 // All other endpoints require authentication
@@ -8,6 +8,7 @@ import com.ametsa.smartbachat.dto.setu.*;
 import com.ametsa.smartbachat.entity.BankAccount;
 import com.ametsa.smartbachat.entity.SyncHistory;
 import com.ametsa.smartbachat.entity.TransactionEntity;
+import com.ametsa.smartbachat.exception.SetuApiException;
 import com.ametsa.smartbachat.repository.BankAccountRepository;
 import com.ametsa.smartbachat.repository.SyncHistoryRepository;
 import com.ametsa.smartbachat.repository.TransactionRepository;
@@ -15,12 +16,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 /**
@@ -37,6 +41,8 @@ public class BankConnectionService {
     private final SyncHistoryRepository syncHistoryRepository;
     private final BankTransactionMapper transactionMapper;
     private final SetuConfig setuConfig;
+    private final ConsentStatusCache consentStatusCache;
+    private final SyncHistoryRecorder syncHistoryRecorder;
 
     public BankConnectionService(
             SetuAggregatorService setuService,
@@ -44,13 +50,17 @@ public class BankConnectionService {
             TransactionRepository transactionRepository,
             SyncHistoryRepository syncHistoryRepository,
             BankTransactionMapper transactionMapper,
-            SetuConfig setuConfig) {
+            SetuConfig setuConfig,
+            ConsentStatusCache consentStatusCache,
+            SyncHistoryRecorder syncHistoryRecorder) {
         this.setuService = setuService;
         this.bankAccountRepository = bankAccountRepository;
         this.transactionRepository = transactionRepository;
         this.syncHistoryRepository = syncHistoryRepository;
         this.transactionMapper = transactionMapper;
         this.setuConfig = setuConfig;
+        this.consentStatusCache = consentStatusCache;
+        this.syncHistoryRecorder = syncHistoryRecorder;
     }
 
     /**
@@ -87,6 +97,7 @@ public class BankConnectionService {
         bankAccount.setUpdatedAt(Instant.now());
 
         bankAccountRepository.save(bankAccount);
+        consentStatusCache.put(bankAccount.getConsentId(), "PENDING");
 
         log.info("Created bank account {} with consent {}", bankAccount.getId(), consentResponse.getId());
 
@@ -119,6 +130,8 @@ public class BankConnectionService {
 
     /**
      * Sync transactions for a bank account.
+     * A failure rolls back everything the sync wrote; its FAILED history row, which drives
+     * retries, is written separately by {@link SyncHistoryRecorder}.
      */
     @Transactional
     public BankConnectionResponseDto syncAccount(UUID accountId) throws Exception {
@@ -130,6 +143,15 @@ public class BankConnectionService {
      */
     @Transactional
     public BankConnectionResponseDto syncAccount(UUID accountId, String triggerType) throws Exception {
+        return syncAccount(accountId, triggerType, 0);
+    }
+
+    /**
+     * Sync transactions for a bank account as part of a retry chain.
+     * @param retryCount number of retries already made for this account (0 for a fresh sync)
+     */
+    @Transactional
+    public BankConnectionResponseDto syncAccount(UUID accountId, String triggerType, int retryCount) throws Exception {
         BankAccount account = bankAccountRepository.findById(accountId)
                 .orElseThrow(() -> new RuntimeException("Bank account not found: " + accountId));
 
@@ -139,13 +161,14 @@ public class BankConnectionService {
 
         log.info("Syncing account: {} (trigger: {})", accountId, triggerType);
 
-        // Create sync history record
+        // Create sync history record, committed up front so it survives a rollback
         SyncHistory syncHistory = new SyncHistory();
         syncHistory.setBankAccountId(accountId);
         syncHistory.setProfileId(account.getProfileId());
         syncHistory.setTriggerType(triggerType);
         syncHistory.setStatus("IN_PROGRESS");
-        syncHistoryRepository.save(syncHistory);
+        syncHistory.setRetryCount(retryCount);
+        syncHistoryRecorder.start(syncHistory);
 
         try {
             // Create data session
@@ -161,7 +184,6 @@ public class BankConnectionService {
                     account.getConsentId(), fromDate, toDate);
 
             syncHistory.markInProgress(sessionResponse.getId());
-            syncHistoryRepository.save(syncHistory);
 
             // Fetch data (in production, this would be async via webhook)
             SetuFIDataResponse dataResponse = setuService.fetchSessionData(sessionResponse.getId());
@@ -187,19 +209,59 @@ public class BankConnectionService {
             return response;
 
         } catch (Exception e) {
-            // Update sync history with error
+            // Update sync history with error and queue a retry if worthwhile
             syncHistory.markFailed("SYNC_ERROR", e.getMessage());
-            syncHistoryRepository.save(syncHistory);
-
-            // Update account error
-            account.setErrorMessage("Sync failed: " + e.getMessage());
-            account.setUpdatedAt(Instant.now());
-            bankAccountRepository.save(account);
+            if (isRetryable(e) && retryCount < setuConfig.getSyncRetryMaxAttempts()) {
+                syncHistory.setNextRetryAt(Instant.now().plusMillis(computeRetryDelayMs(retryCount)));
+                log.info("Sync for account {} failed, retry {} scheduled at {}",
+                        accountId, retryCount + 1, syncHistory.getNextRetryAt());
+            }
+            String accountError = "Sync failed: " + e.getMessage();
+            afterCompletion(() -> syncHistoryRecorder.recordFailure(syncHistory, accountError));
 
             throw e;
         }
     }
 
+    /**
+     * Run once the current transaction has rolled back (or right away outside one), so the
+     * action neither waits on rows the transaction locked nor is undone with it.
+     */
+    private static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Only transient failures are retried; Setu client errors (except 408/429) are permanent.
+     */
+    private boolean isRetryable(Exception e) {
+        if (e instanceof SetuApiException setuEx && setuEx.isClientError()) {
+            int status = setuEx.getHttpStatusCode();
+            return status == 408 || status == 429;
+        }
+        return true;
+    }
+
+    /**
+     * Exponential backoff with equal jitter: half the delay is fixed, half is random,
+     * so retries for many accounts failing together spread out.
+     */
+    long computeRetryDelayMs(int retryCount) {
+        long base = setuConfig.getSyncRetryBaseDelayMs();
+        long delay = Math.min(setuConfig.getSyncRetryMaxDelayMs(), base << Math.min(retryCount, 20));
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
     // Helper class for sync results
     private static class SyncResult {
         int fetched;
@@ -223,6 +285,7 @@ public class BankConnectionService {
         account.setIsActive(false);
         account.setUpdatedAt(Instant.now());
         bankAccountRepository.save(account);
+        consentStatusCache.put(account.getConsentId(), "REVOKED");
 
         BankConnectionResponseDto response = new BankConnectionResponseDto();
         response.setBankAccountId(accountId);
@@ -233,18 +296,24 @@ public class BankConnectionService {
 
     /**
      * Get consent status for a bank account.
+     * A pending consent takes its latest status from the local cache, and from Setu only when
+     * the cache entry is stale; webhooks keep the cache current in between.
      */
     public BankConnectionResponseDto getConsentStatus(UUID accountId) throws Exception {
         BankAccount account = bankAccountRepository.findById(accountId)
                 .orElseThrow(() -> new RuntimeException("Bank account not found: " + accountId));
 
-        // Optionally refresh from Setu
         if (account.getConsentId() != null && "PENDING".equals(account.getConsentStatus())) {
-            SetuConsentResponse consentResponse = setuService.getConsentStatus(account.getConsentId());
-            if (!account.getConsentStatus().equals(consentResponse.getStatus())) {
-                account.setConsentStatus(consentResponse.getStatus());
+            String latestStatus = consentStatusCache.get(account.getConsentId()).orElse(null);
+            if (latestStatus == null) {
+                SetuConsentResponse consentResponse = setuService.getConsentStatus(account.getConsentId());
+                latestStatus = consentResponse.getStatus();
+                consentStatusCache.put(account.getConsentId(), latestStatus);
+            }
+            if (latestStatus != null && !account.getConsentStatus().equals(latestStatus)) {
+                account.setConsentStatus(latestStatus);
                 account.setUpdatedAt(Instant.now());
-                if ("ACTIVE".equals(consentResponse.getStatus())) {
+                if ("ACTIVE".equals(latestStatus)) {
                     account.setIsActive(true);
                     account.setConsentApprovedAt(Instant.now());
                 }
@@ -313,6 +382,8 @@ public class BankConnectionService {
     }
 
     private void handleConsentStatusUpdate(SetuWebhookPayload payload) {
+        consentStatusCache.put(payload.getConsentId(), payload.getStatus());
+
         bankAccountRepository.findByConsentId(payload.getConsentId())
                 .ifPresent(account -> {
                     account.setConsentStatus(payload.getStatus());
@@ -2,15 +2,20 @@ package com.ametsa.smartbachat.service;
 
 import com.ametsa.smartbachat.config.SetuConfig;
 import com.ametsa.smartbachat.entity.BankAccount;
+import com.ametsa.smartbachat.entity.SyncHistory;
 import com.ametsa.smartbachat.repository.BankAccountRepository;
+import com.ametsa.smartbachat.repository.SyncHistoryRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Scheduled service for automatic bank account synchronization.
@@ -24,83 +29,161 @@ public class BankSyncScheduler {
     private final BankAccountRepository bankAccountRepository;
     private final BankConnectionService bankConnectionService;
     private final SetuConfig setuConfig;
+    private final SchedulerCoordinator schedulerCoordinator;
+    private final SyncHistoryRepository syncHistoryRepository;
 
     public BankSyncScheduler(
             BankAccountRepository bankAccountRepository,
             BankConnectionService bankConnectionService,
-            SetuConfig setuConfig) {
+            SetuConfig setuConfig,
+            SchedulerCoordinator schedulerCoordinator,
+            SyncHistoryRepository syncHistoryRepository) {
         this.bankAccountRepository = bankAccountRepository;
         this.bankConnectionService = bankConnectionService;
         this.setuConfig = setuConfig;
+        this.schedulerCoordinator = schedulerCoordinator;
+        this.syncHistoryRepository = syncHistoryRepository;
     }
 
     /**
      * Sync all active bank accounts every 6 hours.
      * Only syncs accounts that haven't been synced in the last 4 hours.
+     * Each replica syncs only its shard of accounts, under a per-account lease.
      */
     @Scheduled(cron = "${setu.sync-cron:0 0 */6 * * *}")
     public void syncAllActiveAccounts() {
-        log.info("[Scheduler] Starting scheduled sync for all active accounts");
-
-        List<BankAccount> activeAccounts = bankAccountRepository.findByConsentStatus("ACTIVE");
-        
-        if (activeAccounts.isEmpty()) {
-            log.info("[Scheduler] No active accounts to sync");
-            return;
-        }
+        SchedulerCoordinator.ShardAssignment shard = schedulerCoordinator.currentAssignment();
+        log.info("[Scheduler] Starting scheduled sync for active accounts (shard {}/{})",
+                shard.getIndex() + 1, shard.getCount());
 
         Instant fourHoursAgo = Instant.now().minus(4, ChronoUnit.HOURS);
+        int batchSize = setuConfig.getMaintenanceBatchSize();
+        Pageable page = PageRequest.of(0, batchSize);
         int syncedCount = 0;
         int skippedCount = 0;
         int failedCount = 0;
 
-        for (BankAccount account : activeAccounts) {
-            // Skip if recently synced
-            if (account.getLastSyncedAt() != null && account.getLastSyncedAt().isAfter(fourHoursAgo)) {
-                log.debug("[Scheduler] Skipping account {} - recently synced", account.getId());
-                skippedCount++;
+        // Only this node's ID range is read, one keyset page at a time
+        List<BankAccount> batch = bankAccountRepository.findByConsentStatusInIdRange(
+                "ACTIVE", shard.firstId(), shard.lastId(), page);
+        while (!batch.isEmpty()) {
+            for (BankAccount account : batch) {
+                // Skip if recently synced
+                if (account.getLastSyncedAt() != null && account.getLastSyncedAt().isAfter(fourHoursAgo)) {
+                    log.debug("[Scheduler] Skipping account {} - recently synced", account.getId());
+                    skippedCount++;
+                    continue;
+                }
+
+                // Skip if another replica is already syncing it (membership just changed)
+                if (!schedulerCoordinator.tryClaim(account.getId())) {
+                    log.debug("[Scheduler] Skipping account {} - leased by another node", account.getId());
+                    skippedCount++;
+                    continue;
+                }
+
+                try {
+                    log.info("[Scheduler] Syncing account: {}", account.getId());
+                    bankConnectionService.syncAccount(account.getId());
+                    syncedCount++;
+                } catch (Exception e) {
+                    // syncAccount records the failure on the account and in its sync history;
+                    // saving this page's copy of the account would overwrite what the sync wrote
+                    log.error("[Scheduler] Failed to sync account {}: {}", account.getId(), e.getMessage());
+                    failedCount++;
+                } finally {
+                    schedulerCoordinator.release(account.getId());
+                }
+            }
+            if (batch.size() < batchSize) break;
+
+            UUID lastId = batch.get(batch.size() - 1).getId();
+            batch = bankAccountRepository.findByConsentStatusInIdRangeAfter(
+                    "ACTIVE", lastId, shard.lastId(), page);
+        }
+
+        log.info("[Scheduler] Sync complete - synced: {}, skipped: {}, failed: {}", 
+                syncedCount, skippedCount, failedCount);
+    }
+
+    /**
+     * Retry failed syncs whose backoff has elapsed.
+     * Polls one batch of due retries from this node's shard per run and syncs them under the
+     * same lease check as the scheduled sync, on the same scheduler thread.
+     */
+    @Scheduled(fixedDelayString = "${setu.sync-retry-poll-ms:60000}")
+    public void retryFailedSyncs() {
+        SchedulerCoordinator.ShardAssignment shard = schedulerCoordinator.currentAssignment();
+        List<SyncHistory> dueRetries = syncHistoryRepository.findDueRetriesInAccountRange(
+                "FAILED", Instant.now(), shard.firstId(), shard.lastId(),
+                PageRequest.of(0, setuConfig.getSyncRetryBatchSize()));
+
+        if (dueRetries.isEmpty()) {
+            return;
+        }
+
+        int retriedCount = 0;
+        int failedCount = 0;
+
+        for (SyncHistory failed : dueRetries) {
+            UUID accountId = failed.getBankAccountId();
+            if (!schedulerCoordinator.tryClaim(accountId)) {
                 continue;
             }
 
             try {
-                log.info("[Scheduler] Syncing account: {}", account.getId());
-                bankConnectionService.syncAccount(account.getId());
-                syncedCount++;
+                // Dequeue before syncing; a failed retry queues its own successor
+                failed.setNextRetryAt(null);
+                syncHistoryRepository.save(failed);
+
+                int retryCount = failed.getRetryCount() != null ? failed.getRetryCount() + 1 : 1;
+                log.info("[Scheduler] Retrying sync for account {} (retry {})", accountId, retryCount);
+                bankConnectionService.syncAccount(accountId, "RETRY", retryCount);
+                retriedCount++;
             } catch (Exception e) {
-                log.error("[Scheduler] Failed to sync account {}: {}", account.getId(), e.getMessage());
+                log.warn("[Scheduler] Retry failed for account {}: {}", accountId, e.getMessage());
                 failedCount++;
-                
-                // Update error message on account
-                account.setErrorMessage("Sync failed: " + e.getMessage());
-                account.setUpdatedAt(Instant.now());
-                bankAccountRepository.save(account);
+            } finally {
+                schedulerCoordinator.release(accountId);
             }
         }
 
-        log.info("[Scheduler] Sync complete - synced: {}, skipped: {}, failed: {}", 
-                syncedCount, skippedCount, failedCount);
+        log.info("[Scheduler] Sync retries complete - succeeded: {}, failed: {}", retriedCount, failedCount);
     }
 
     /**
      * Check for expiring consents daily and log warnings.
-     * Consents expiring within 7 days will be flagged.
+     * Consents expiring within 7 days will be flagged. Walks the
+     * (consent_status, consent_expires_at, id) index in keyset batches.
+     * Runs on the leader replica only.
      */
     @Scheduled(cron = "${setu.consent-check-cron:0 0 9 * * *}")
     public void checkExpiringConsents() {
+        if (!schedulerCoordinator.isLeader()) {
+            log.debug("[Scheduler] Not the leader node, skipping expiring consent check");
+            return;
+        }
         log.info("[Scheduler] Checking for expiring consents");
 
-        List<BankAccount> activeAccounts = bankAccountRepository.findByConsentStatus("ACTIVE");
         Instant sevenDaysFromNow = Instant.now().plus(7, ChronoUnit.DAYS);
+        int batchSize = setuConfig.getMaintenanceBatchSize();
+        Pageable page = PageRequest.of(0, batchSize);
 
         int expiringCount = 0;
-        for (BankAccount account : activeAccounts) {
-            if (account.getConsentExpiresAt() != null && 
-                account.getConsentExpiresAt().isBefore(sevenDaysFromNow)) {
+        List<BankAccount> batch = bankAccountRepository.findConsentsExpiringBefore(
+                "ACTIVE", sevenDaysFromNow, page);
+        while (!batch.isEmpty()) {
+            for (BankAccount account : batch) {
                 log.warn("[Scheduler] Consent expiring soon for account {} (profile: {}), expires: {}",
                         account.getId(), account.getProfileId(), account.getConsentExpiresAt());
                 expiringCount++;
                 // TODO: Send notification to user about expiring consent
             }
+            if (batch.size() < batchSize) break;
+
+            BankAccount last = batch.get(batch.size() - 1);
+            batch = bankAccountRepository.findConsentsExpiringBeforeAfter(
+                    "ACTIVE", sevenDaysFromNow, last.getConsentExpiresAt(), last.getId(), page);
         }
 
         log.info("[Scheduler] Found {} accounts with expiring consents", expiringCount);
@@ -108,26 +191,27 @@ public class BankSyncScheduler {
 
     /**
      * Clean up stale pending consents (older than 24 hours).
+     * Uses set-based UPDATEs in bounded batches, so no rows are loaded into memory.
+     * Runs on the leader replica only.
      */
     @Scheduled(cron = "${setu.cleanup-cron:0 0 2 * * *}")
     public void cleanupStalePendingConsents() {
+        if (!schedulerCoordinator.isLeader()) {
+            log.debug("[Scheduler] Not the leader node, skipping stale consent cleanup");
+            return;
+        }
         log.info("[Scheduler] Cleaning up stale pending consents");
 
-        List<BankAccount> pendingAccounts = bankAccountRepository.findByConsentStatus("PENDING");
         Instant oneDayAgo = Instant.now().minus(24, ChronoUnit.HOURS);
+        int batchSize = setuConfig.getMaintenanceBatchSize();
 
         int cleanedCount = 0;
-        for (BankAccount account : pendingAccounts) {
-            if (account.getCreatedAt() != null && account.getCreatedAt().isBefore(oneDayAgo)) {
-                log.info("[Scheduler] Marking stale consent as EXPIRED: {}", account.getId());
-                account.setConsentStatus("EXPIRED");
-                account.setUpdatedAt(Instant.now());
-                bankAccountRepository.save(account);
-                cleanedCount++;
-            }
-        }
+        int updated;
+        do {
+            updated = bankAccountRepository.expireStalePendingConsents(oneDayAgo, Instant.now(), batchSize);
+            cleanedCount += updated;
+        } while (updated >= batchSize);
 
         log.info("[Scheduler] Cleaned up {} stale pending consents", cleanedCount);
     }
 }
-
@@ -0,0 +1,57 @@
+package com.ametsa.smartbachat.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.UUID;
+
+/**
+ * Storage for resumable chunked uploads: a manifest per upload plus its chunks, which may
+ * arrive in any order and be re-sent. {@link LocalChunkStore} keeps them on local disk.
+ */
+public interface ChunkStore {
+
+    void saveManifest(Manifest manifest) throws IOException;
+
+    Optional<Manifest> manifest(String uploadId) throws IOException;
+
+    /**
+     * Store a chunk, replacing any earlier copy of the same index.
+     */
+    void writeChunk(String uploadId, int index, byte[] bytes) throws IOException;
+
+    byte[] readChunk(String uploadId, int index) throws IOException;
+
+    SortedSet<Integer> receivedChunks(String uploadId) throws IOException;
+
+    /**
+     * Concatenate chunks 0..totalChunks-1 into {@code target}.
+     */
+    void assemble(String uploadId, int totalChunks, Path target) throws IOException;
+
+    void delete(String uploadId) throws IOException;
+
+    /**
+     * @return uploads created before {@code cutoff}
+     */
+    List<String> uploadsCreatedBefore(Instant cutoff) throws IOException;
+
+    /**
+     * Upload session state, persisted with the chunks so an upload survives reconnects.
+     */
+    class Manifest {
+        public String uploadId;
+        public UUID profileId;
+        public String filename;
+        public long totalBytes;
+        public int chunkSize;
+        public int totalChunks;
+        public String sha256; // optional whole-file checksum from the client
+        public String preflightStatus; // PENDING, DETECTED, PASSWORD_REQUIRED, UNDETECTED
+        public String detectedBank;
+        public long createdAtMillis;
+    }
+}
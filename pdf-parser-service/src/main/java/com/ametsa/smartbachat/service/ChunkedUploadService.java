@@ -0,0 +1,337 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.ParserConfig;
+import com.ametsa.smartbachat.exception.ParserOverloadedException;
+import com.ametsa.smartbachat.exception.StatementPasswordRequiredException;
+import com.ametsa.smartbachat.util.BankDetectorUtil;
+import com.ametsa.smartbachat.util.HashUtil;
+import com.ametsa.smartbachat.util.PdfUtil;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resumable chunked uploads. A client begins an upload, PUTs fixed-size chunks in any order
+ * (each with its SHA-256), asks which chunks the server already has after a dropped
+ * connection, and completes the upload once all chunks are in. The chunks are then assembled
+ * into one file and parsed like a local upload.
+ *
+ * As soon as the chunks holding the start of the PDF arrive, a pre-flight pass tries to load
+ * that prefix and detect the bank from page 1, so an unsupported or password-protected
+ * statement is reported before the rest of the file is sent.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    public static final String PREFLIGHT_PENDING = "PENDING";
+    public static final String PREFLIGHT_DETECTED = "DETECTED";
+    public static final String PREFLIGHT_UNDETECTED = "UNDETECTED";
+    public static final String PREFLIGHT_PASSWORD_REQUIRED = "PASSWORD_REQUIRED";
+
+    private final ChunkStore chunkStore;
+    private final ParserWorker parserWorker;
+    private final ParseJobScheduler scheduler;
+    private final int chunkSize;
+    private final long maxUploadBytes;
+    private final long preflightMaxBytes;
+    private final Duration ttl;
+    // Serialises manifest updates per upload; chunk writes themselves need no lock
+    private final ConcurrentMap<String, Object> manifestLocks = new ConcurrentHashMap<>();
+    // Uploads a complete call is assembling or parsing right now
+    private final Set<String> completing = ConcurrentHashMap.newKeySet();
+
+    public ChunkedUploadService(ChunkStore chunkStore, ParserWorker parserWorker, ParseJobScheduler scheduler,
+                                ParserConfig parserConfig) {
+        this.chunkStore = chunkStore;
+        this.parserWorker = parserWorker;
+        this.scheduler = scheduler;
+        this.chunkSize = parserConfig.getChunkSizeBytes();
+        this.maxUploadBytes = parserConfig.getMaxUploadBytes();
+        this.preflightMaxBytes = parserConfig.getPreflightMaxBytes();
+        this.ttl = Duration.ofHours(parserConfig.getChunkUploadTtlHours());
+    }
+
+    /**
+     * Start an upload.
+     *
+     * @param sha256 optional hex SHA-256 of the whole file, checked after assembly
+     */
+    public Status begin(UUID profileId, String filename, long totalBytes, String sha256) {
+        if (totalBytes <= 0 || totalBytes > maxUploadBytes) {
+            throw new RuntimeException("File size must be between 1 and " + maxUploadBytes + " bytes");
+        }
+        ChunkStore.Manifest manifest = new ChunkStore.Manifest();
+        manifest.uploadId = UUID.randomUUID().toString();
+        manifest.profileId = profileId;
+        manifest.filename = filename;
+        manifest.totalBytes = totalBytes;
+        manifest.chunkSize = chunkSize;
+        manifest.totalChunks = (int) ((totalBytes + chunkSize - 1) / chunkSize);
+        manifest.sha256 = sha256 == null || sha256.isBlank() ? null : sha256.toLowerCase();
+        manifest.preflightStatus = PREFLIGHT_PENDING;
+        manifest.createdAtMillis = currentTimeMillis();
+        try {
+            chunkStore.saveManifest(manifest);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to start upload: " + e.getMessage(), e);
+        }
+        log.info("[Chunked upload] {} started: {} bytes in {} chunks", manifest.uploadId, totalBytes, manifest.totalChunks);
+        return new Status(manifest, new TreeSet<>());
+    }
+
+    /**
+     * Store one chunk after checking its size and checksum. Re-sending a chunk replaces it.
+     */
+    public Status putChunk(UUID profileId, String uploadId, int index, byte[] bytes, String sha256) {
+        ChunkStore.Manifest manifest = requireManifest(profileId, uploadId);
+        if (index < 0 || index >= manifest.totalChunks) {
+            throw new RuntimeException("Chunk index " + index + " out of range 0.." + (manifest.totalChunks - 1));
+        }
+        long expectedSize = expectedChunkSize(manifest, index);
+        if (bytes.length != expectedSize) {
+            throw new RuntimeException("Chunk " + index + " must be " + expectedSize + " bytes, got " + bytes.length);
+        }
+        if (sha256 == null || !sha256.equalsIgnoreCase(HashUtil.sha256Hex(bytes))) {
+            throw new RuntimeException("Checksum mismatch for chunk " + index);
+        }
+        try {
+            chunkStore.writeChunk(uploadId, index, bytes);
+            SortedSet<Integer> received = chunkStore.receivedChunks(uploadId);
+            if (PREFLIGHT_PENDING.equals(manifest.preflightStatus)) {
+                manifest = preflight(manifest, received);
+            }
+            return new Status(manifest, received);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store chunk " + index + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Current state of an upload, so a client can resume by sending only the missing chunks.
+     */
+    public Status status(UUID profileId, String uploadId) {
+        ChunkStore.Manifest manifest = requireManifest(profileId, uploadId);
+        try {
+            return new Status(manifest, chunkStore.receivedChunks(uploadId));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read upload " + uploadId + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Assemble the chunks and parse the statement through the {@link ParseJobScheduler}. The
+     * upload is removed once parsing has finished; a password-protected statement is then held by job ID like any other upload.
+     *
+     * @return the parse job ID
+     * @throws StatementPasswordRequiredException if the PDF is encrypted and the password is
+     *         missing or wrong
+     * @throws ParserOverloadedException if the scheduler refused the parse; the upload is kept
+     */
+    public UUID complete(UUID profileId, String uploadId, String password) {
+        // Only one complete per upload assembles and parses it; a repeat sees it in progress
+        // and, once it has finished, sees the upload as gone
+        if (!completing.add(uploadId)) {
+            throw new RuntimeException("Upload " + uploadId + " is already being completed");
+        }
+        try {
+            return assembleAndParse(profileId, uploadId, password);
+        } finally {
+            completing.remove(uploadId);
+        }
+    }
+
+    private UUID assembleAndParse(UUID profileId, String uploadId, String password) {
+        ChunkStore.Manifest manifest = requireManifest(profileId, uploadId);
+        Path assembled = null;
+        try {
+            SortedSet<Integer> received = chunkStore.receivedChunks(uploadId);
+            if (received.size() != manifest.totalChunks) {
+                throw new RuntimeException("Upload incomplete: received " + received.size()
+                        + " of " + manifest.totalChunks + " chunks");
+            }
+            assembled = Files.createTempFile("statement-" + uploadId, ".pdf");
+            chunkStore.assemble(uploadId, manifest.totalChunks, assembled);
+            if (Files.size(assembled) != manifest.totalBytes) {
+                throw new RuntimeException("Assembled size " + Files.size(assembled)
+                        + " does not match declared size " + manifest.totalBytes);
+            }
+            if (manifest.sha256 != null && !manifest.sha256.equals(HashUtil.sha256Hex(assembled))) {
+                throw new RuntimeException("Checksum mismatch for assembled file");
+            }
+        } catch (IOException e) {
+            deleteQuietly(assembled);
+            throw new RuntimeException("Failed to assemble upload " + uploadId + ": " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            deleteQuietly(assembled);
+            throw e;
+        }
+
+        boolean keepUpload = false;
+        try {
+            String file = assembled.toString();
+            return scheduler.run(profileId, scheduler.laneFor(manifest.totalBytes), manifest.totalBytes,
+                    () -> parserWorker.processLocalFile(file, profileId, manifest.filename, password));
+        } catch (ParserOverloadedException e) {
+            // The parse never started; keep the chunks so the client can retry complete
+            keepUpload = true;
+            throw e;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse statement: " + e.getMessage(), e);
+        } finally {
+            deleteQuietly(assembled);
+            if (!keepUpload) {
+                discard(uploadId);
+            }
+        }
+    }
+
+    public void abort(UUID profileId, String uploadId) {
+        requireManifest(profileId, uploadId);
+        discard(uploadId);
+    }
+
+    /**
+     * Remove uploads that were never completed.
+     */
+    @Scheduled(fixedDelayString = "${parser.chunk-sweep-ms:3600000}")
+    public void sweep() {
+        try {
+            for (String uploadId : chunkStore.uploadsCreatedBefore(Instant.ofEpochMilli(currentTimeMillis()).minus(ttl))) {
+                if (completing.contains(uploadId)) continue;
+                log.info("[Chunked upload] {} expired", uploadId);
+                discard(uploadId);
+            }
+        } catch (IOException e) {
+            log.warn("[Chunked upload] Sweep failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Try to detect the bank from page 1 once the received chunks form a prefix of the file
+     * starting at chunk 0. A truncated PDF often loads, since PDFBox falls back to scanning
+     * for objects when the cross-reference table at the end is missing; if it doesn't, or
+     * page 1 yields no bank, pre-flight is retried as more chunks arrive and finally on the
+     * whole file. Nothing larger than {@code parser.preflight-max-bytes} is ever loaded, whole
+     * file included; such an upload stays PENDING and is only inspected by the parse on
+     * complete. Only the whole file can be declared UNDETECTED.
+     */
+    private ChunkStore.Manifest preflight(ChunkStore.Manifest manifest, SortedSet<Integer> received) throws IOException {
+        int prefixChunks = 0;
+        while (received.contains(prefixChunks)) {
+            prefixChunks++;
+        }
+        long prefixBytes = Math.min((long) prefixChunks * manifest.chunkSize, manifest.totalBytes);
+        boolean whole = prefixChunks == manifest.totalChunks;
+        if (prefixChunks == 0 || prefixBytes > preflightMaxBytes) {
+            return manifest;
+        }
+
+        ByteArrayOutputStream prefix = new ByteArrayOutputStream((int) prefixBytes);
+        for (int i = 0; i < prefixChunks; i++) {
+            prefix.write(chunkStore.readChunk(manifest.uploadId, i));
+        }
+        String status;
+        String bank = null;
+        try (PDDocument doc = Loader.loadPDF(prefix.toByteArray())) {
+            if (doc.getNumberOfPages() == 0) {
+                return manifest;
+            }
+            bank = BankDetectorUtil.detectBank(PdfUtil.extractTextFromPages(doc, 1, 1));
+            if (bank == null && !whole) {
+                // Page 1 may be incomplete, or the encryption dictionary not yet received
+                return manifest;
+            }
+            status = bank != null ? PREFLIGHT_DETECTED : PREFLIGHT_UNDETECTED;
+        } catch (InvalidPasswordException e) {
+            status = PREFLIGHT_PASSWORD_REQUIRED;
+        } catch (IOException | RuntimeException e) {
+            if (!whole) {
+                log.debug("[Chunked upload] {} pre-flight on {} bytes not possible yet: {}",
+                        manifest.uploadId, prefixBytes, e.getMessage());
+                return manifest;
+            }
+            status = PREFLIGHT_UNDETECTED;
+        }
+
+        synchronized (manifestLocks.computeIfAbsent(manifest.uploadId, id -> new Object())) {
+            ChunkStore.Manifest current = chunkStore.manifest(manifest.uploadId).orElse(manifest);
+            if (PREFLIGHT_PENDING.equals(current.preflightStatus)) {
+                current.preflightStatus = status;
+                current.detectedBank = bank;
+                chunkStore.saveManifest(current);
+                log.info("[Chunked upload] {} pre-flight after {} bytes: {} {}",
+                        manifest.uploadId, prefixBytes, status, bank != null ? bank : "");
+            }
+            return current;
+        }
+    }
+
+    private ChunkStore.Manifest requireManifest(UUID profileId, String uploadId) {
+        ChunkStore.Manifest manifest;
+        try {
+            manifest = chunkStore.manifest(uploadId).orElse(null);
+        } catch (IOException | IllegalArgumentException e) {
+            manifest = null;
+        }
+        // Another profile's upload is reported as missing rather than forbidden
+        if (manifest == null || !manifest.profileId.equals(profileId)) {
+            throw new RuntimeException("Upload not found: " + uploadId);
+        }
+        return manifest;
+    }
+
+    private static long expectedChunkSize(ChunkStore.Manifest manifest, int index) {
+        return index < manifest.totalChunks - 1
+                ? manifest.chunkSize
+                : manifest.totalBytes - (long) (manifest.totalChunks - 1) * manifest.chunkSize;
+    }
+
+    private void discard(String uploadId) {
+        try {
+            chunkStore.delete(uploadId);
+        } catch (IOException e) {
+            log.warn("[Chunked upload] Could not delete {}: {}", uploadId, e.getMessage());
+        } finally {
+            manifestLocks.remove(uploadId);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+        }
+    }
+
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * @param received indices of the chunks stored so far
+     */
+    public record Status(ChunkStore.Manifest manifest, SortedSet<Integer> received) {
+    }
+}
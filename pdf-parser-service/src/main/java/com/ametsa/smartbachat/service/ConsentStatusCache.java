@@ -0,0 +1,45 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.SetuConfig;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local cache of consent statuses keyed by Setu consent ID.
+ *
+ * Entries are written through by consent webhooks and by our own consent
+ * transitions, so status polling only falls back to Setu once an entry has
+ * been stale for longer than the configured TTL.
+ */
+@Component
+public class ConsentStatusCache {
+
+    private final Cache<String, String> cache;
+
+    public ConsentStatusCache(SetuConfig setuConfig) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(setuConfig.getConsentCacheMaxSize())
+                .expireAfterWrite(setuConfig.getConsentCacheTtlSeconds(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Get the cached status for a consent, if present and fresh.
+     */
+    public Optional<String> get(String consentId) {
+        if (consentId == null) return Optional.empty();
+        return Optional.ofNullable(cache.getIfPresent(consentId));
+    }
+
+    /**
+     * Record the latest known status for a consent.
+     */
+    public void put(String consentId, String status) {
+        if (consentId == null || status == null) return;
+        cache.put(consentId, status);
+    }
+}
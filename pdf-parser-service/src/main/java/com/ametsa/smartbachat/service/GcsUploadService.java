@@ -40,7 +40,7 @@ public class GcsUploadService {
 
     public UploadResponseDto createSignedUrl(String filename, String profileId) {
         String uploadId = UUID.randomUUID().toString();
-        String objectName = "uploads/" + profileId + "/" + uploadId + "/" + filename;
+        String objectName = objectName(profileId, uploadId, filename);
 
         BlobInfo blobInfo = BlobInfo.newBuilder(bucketName, objectName).build();
 
@@ -48,4 +48,19 @@ public class GcsUploadService {
 
         return new UploadResponseDto(uploadId, signedUrl.toString(), objectName);
     }
+
+    public String objectName(String profileId, String uploadId, String filename) {
+        return "uploads/" + profileId + "/" + uploadId + "/" + filename;
+    }
+
+    /**
+     * Store bytes the service already holds, e.g. an inline upload being archived after parsing.
+     */
+    public void upload(String objectName, byte[] bytes) {
+        storage.create(BlobInfo.newBuilder(bucketName, objectName).build(), bytes);
+    }
+
+    public String getBucketName() {
+        return bucketName;
+    }
 }
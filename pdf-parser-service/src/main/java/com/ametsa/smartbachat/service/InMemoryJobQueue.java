@@ -0,0 +1,62 @@
+package com.ametsa.smartbachat.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * {@link JobQueue} held in memory. Pending jobs are lost on restart, as they were when each
+ * request ran its parse directly.
+ */
+@Component
+public class InMemoryJobQueue implements JobQueue {
+
+    private final Map<ParseJobScheduler.Lane, Map<UUID, Deque<QueuedJob>>> lanes =
+            new EnumMap<>(ParseJobScheduler.Lane.class);
+    private final Map<ParseJobScheduler.Lane, Integer> sizes = new EnumMap<>(ParseJobScheduler.Lane.class);
+
+    public InMemoryJobQueue() {
+        for (ParseJobScheduler.Lane lane : ParseJobScheduler.Lane.values()) {
+            lanes.put(lane, new LinkedHashMap<>());
+            sizes.put(lane, 0);
+        }
+    }
+
+    @Override
+    public void offer(QueuedJob job) {
+        lanes.get(job.lane()).computeIfAbsent(job.profileId(), id -> new ArrayDeque<>()).addLast(job);
+        sizes.merge(job.lane(), 1, Integer::sum);
+    }
+
+    @Override
+    public Collection<QueuedJob> heads(ParseJobScheduler.Lane lane) {
+        List<QueuedJob> heads = new ArrayList<>();
+        for (Deque<QueuedJob> jobs : lanes.get(lane).values()) {
+            heads.add(jobs.peekFirst());
+        }
+        return heads;
+    }
+
+    @Override
+    public boolean remove(QueuedJob job) {
+        Map<UUID, Deque<QueuedJob>> profiles = lanes.get(job.lane());
+        Deque<QueuedJob> jobs = profiles.get(job.profileId());
+        if (jobs == null || !jobs.remove(job)) return false;
+        if (jobs.isEmpty()) profiles.remove(job.profileId());
+        sizes.merge(job.lane(), -1, Integer::sum);
+        return true;
+    }
+
+    @Override
+    public int size(ParseJobScheduler.Lane lane) {
+        return sizes.get(lane);
+    }
+}
@@ -0,0 +1,133 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.ParserConfig;
+import com.ametsa.smartbachat.exception.ParserOverloadedException;
+import com.ametsa.smartbachat.exception.StatementPasswordRequiredException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Inline ingestion for small statements: the uploaded bytes are parsed straight away instead
+ * of going to GCS and being downloaded again by the worker. The GCS archive copy is written
+ * in parallel on its own pool.
+ *
+ * The parse runs in the {@link ParseJobScheduler} priority lane. The caller waits at most
+ * {@code parser.inline-slo-ms}, including any queueing. A parse that runs longer keeps going
+ * in the background and the caller gets the job ID to poll, as with an async upload.
+ */
+@Service
+public class InlineIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(InlineIngestService.class);
+
+    private final ParserWorker parserWorker;
+    private final GcsUploadService gcsUploadService;
+    private final ParseJobScheduler scheduler;
+    private final long maxBytes;
+    private final long sloMs;
+    private final ExecutorService archiveExecutor;
+    private final MeterRegistry meterRegistry;
+    private final Counter archiveFailures;
+
+    public InlineIngestService(ParserWorker parserWorker, GcsUploadService gcsUploadService,
+                               ParseJobScheduler scheduler, ParserConfig parserConfig, MeterRegistry meterRegistry) {
+        this.parserWorker = parserWorker;
+        this.gcsUploadService = gcsUploadService;
+        this.scheduler = scheduler;
+        this.maxBytes = parserConfig.getInlineMaxBytes();
+        this.sloMs = parserConfig.getInlineSloMs();
+        this.archiveExecutor = Executors.newFixedThreadPool(Math.max(1, parserConfig.getArchiveThreads()));
+        this.meterRegistry = meterRegistry;
+        this.archiveFailures = Counter.builder("ingest.inline.archive.failures")
+                .description("Inline uploads whose GCS archive copy could not be written")
+                .register(meterRegistry);
+    }
+
+    public boolean accepts(long size) {
+        return size > 0 && size <= maxBytes;
+    }
+
+    /**
+     * Parse a statement and archive it to GCS concurrently.
+     *
+     * @throws StatementPasswordRequiredException if the PDF is encrypted and the password is
+     *         missing or wrong; it can be unlocked by job ID
+     * @throws ParserOverloadedException if the scheduler refused the parse
+     */
+    public Result ingest(byte[] pdfBytes, UUID profileId, String filename, String password) {
+        if (!accepts(pdfBytes.length)) {
+            throw new RuntimeException("File exceeds the inline ingestion limit of " + maxBytes + " bytes");
+        }
+        long start = System.nanoTime();
+        UUID jobId = UUID.randomUUID();
+        String objectName = gcsUploadService.objectName(profileId.toString(), jobId.toString(), filename);
+
+        // Queue first, so a refused job archives nothing
+        Future<UUID> parse = scheduler.submit(profileId, ParseJobScheduler.Lane.PRIORITY, pdfBytes.length,
+                () -> parserWorker.processInline(jobId, pdfBytes, profileId, filename,
+                        gcsUploadService.getBucketName(), objectName, password));
+
+        CompletableFuture.runAsync(() -> gcsUploadService.upload(objectName, pdfBytes), archiveExecutor)
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        archiveFailures.increment();
+                        log.warn("[Inline job] Archiving {} to GCS failed: {}", objectName, error.getMessage());
+                    }
+                });
+
+        String outcome = "failed";
+        try {
+            parse.get(sloMs, TimeUnit.MILLISECONDS);
+            outcome = "done";
+            return new Result(jobId, objectName, true, elapsedMs(start));
+        } catch (TimeoutException e) {
+            outcome = "slo_exceeded";
+            log.info("[Inline job] {} still parsing after {} ms; returning job ID", jobId, sloMs);
+            return new Result(jobId, objectName, false, elapsedMs(start));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof StatementPasswordRequiredException locked) {
+                outcome = "password_required";
+                throw locked;
+            }
+            throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while parsing statement", e);
+        } finally {
+            Timer.builder("ingest.inline")
+                    .description("Request-side latency of inline ingestion")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        archiveExecutor.shutdown();
+    }
+
+    /**
+     * @param completed true if parsing finished within the SLO; otherwise poll /status/{jobId}
+     */
+    public record Result(UUID jobId, String objectName, boolean completed, long elapsedMs) {
+    }
+}
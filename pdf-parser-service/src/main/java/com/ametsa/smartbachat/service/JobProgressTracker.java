@@ -0,0 +1,99 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.ParserConfig;
+import com.ametsa.smartbachat.repository.StatementMetadataRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live page progress of running parser jobs.
+ *
+ * Counters live in memory, so the status API on this node reads them directly. They are
+ * flushed to the metadata row by a partial UPDATE of pages_processed at most every
+ * {@code progressFlushPages} pages or {@code progressFlushIntervalMs}, which keeps other
+ * nodes roughly current without rewriting the entity per page.
+ */
+@Component
+public class JobProgressTracker {
+
+    private final StatementMetadataRepository metadataRepository;
+    private final int flushPages;
+    private final long flushIntervalMs;
+    private final Map<UUID, Progress> running = new ConcurrentHashMap<>();
+
+    public JobProgressTracker(StatementMetadataRepository metadataRepository, ParserConfig parserConfig) {
+        this.metadataRepository = metadataRepository;
+        this.flushPages = Math.max(1, parserConfig.getProgressFlushPages());
+        this.flushIntervalMs = parserConfig.getProgressFlushIntervalMs();
+    }
+
+    /**
+     * Register a job whose PDF has been loaded and write its page total.
+     */
+    public Progress start(UUID jobId, int pageCount, long fileBytes) {
+        Progress progress = new Progress(jobId, pageCount, currentTimeMillis());
+        running.put(jobId, progress);
+        metadataRepository.startProgress(jobId, pageCount, fileBytes, Instant.now());
+        return progress;
+    }
+
+    /**
+     * Set the pages done so far; flushes when enough pages or time have passed since the last
+     * flush. Called only from the job's own thread.
+     */
+    public void advance(Progress progress, int pagesProcessed) {
+        progress.pagesProcessed = pagesProcessed;
+        long now = currentTimeMillis();
+        if (pagesProcessed - progress.flushedPages >= flushPages
+                || now - progress.flushedAtMillis >= flushIntervalMs) {
+            metadataRepository.updateProgress(progress.jobId, pagesProcessed, Instant.now());
+            progress.flushedPages = pagesProcessed;
+            progress.flushedAtMillis = now;
+        }
+    }
+
+    /**
+     * Forget a job; its final counts are saved with the job status.
+     */
+    public void finish(UUID jobId) {
+        running.remove(jobId);
+    }
+
+    /**
+     * @return pages done of a job running on this node, or null if it is not running here
+     */
+    public Integer pagesProcessed(UUID jobId) {
+        Progress progress = running.get(jobId);
+        return progress == null ? null : progress.pagesProcessed;
+    }
+
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    public static final class Progress {
+        private final UUID jobId;
+        private final int pageCount;
+        private volatile int pagesProcessed;
+        private int flushedPages;
+        private long flushedAtMillis;
+
+        private Progress(UUID jobId, int pageCount, long startedAtMillis) {
+            this.jobId = jobId;
+            this.pageCount = pageCount;
+            this.flushedAtMillis = startedAtMillis;
+        }
+
+        public int getPageCount() {
+            return pageCount;
+        }
+
+        public int getPagesProcessed() {
+            return pagesProcessed;
+        }
+    }
+}
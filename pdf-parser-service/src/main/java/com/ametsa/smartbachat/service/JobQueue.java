@@ -0,0 +1,37 @@
+package com.ametsa.smartbachat.service;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Pending parse jobs for {@link ParseJobScheduler}: one FIFO per profile and lane. The
+ * scheduler picks among the heads of those FIFOs. Implementations are only called while
+ * holding the scheduler's lock, so they need not be thread-safe.
+ * {@link InMemoryJobQueue} keeps them in memory.
+ */
+public interface JobQueue {
+
+    void offer(QueuedJob job);
+
+    /**
+     * @return the oldest pending job of every profile with work in {@code lane}
+     */
+    Collection<QueuedJob> heads(ParseJobScheduler.Lane lane);
+
+    /**
+     * Remove a pending job, whether or not it is at the head of its FIFO.
+     *
+     * @return false if the job was no longer queued
+     */
+    boolean remove(QueuedJob job);
+
+    int size(ParseJobScheduler.Lane lane);
+
+    /**
+     * @param finishTag weighted-fair-queuing virtual finish time; lower runs first
+     * @param seq       submission order, breaking ties between equal tags
+     */
+    record QueuedJob(UUID profileId, ParseJobScheduler.Lane lane, double finishTag, long seq,
+                     long enqueuedNanos, Runnable task) {
+    }
+}
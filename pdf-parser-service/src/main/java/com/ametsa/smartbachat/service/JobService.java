@@ -2,6 +2,7 @@ package com.ametsa.smartbachat.service;
 
 import com.ametsa.smartbachat.dto.StartResponseDto;
 import com.ametsa.smartbachat.entity.StatementMetadata;
+import com.ametsa.smartbachat.exception.ParserOverloadedException;
 import com.ametsa.smartbachat.repository.StatementMetadataRepository;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.pubsub.v1.Publisher;
@@ -9,23 +10,38 @@ import com.google.protobuf.ByteString;
 import com.google.pubsub.v1.PubsubMessage;
 
 import com.google.gson.Gson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 @Service
 public class JobService {
 
+    private static final Logger log = LoggerFactory.getLogger(JobService.class);
+
     private final StatementMetadataRepository metadataRepository;
     private final Publisher publisher;
+    private final JobProgressTracker progressTracker;
+    private final StatementSpillCache spillCache;
+    private final ParserWorker parserWorker;
+    private final ParseJobScheduler scheduler;
     private final Gson gson = new Gson();
 
-    public JobService(StatementMetadataRepository metadataRepository, Publisher publisher) {
+    public JobService(StatementMetadataRepository metadataRepository, Publisher publisher,
+                      JobProgressTracker progressTracker, StatementSpillCache spillCache,
+                      ParserWorker parserWorker, ParseJobScheduler scheduler) {
         this.metadataRepository = metadataRepository;
         this.publisher = publisher;
+        this.progressTracker = progressTracker;
+        this.spillCache = spillCache;
+        this.parserWorker = parserWorker;
+        this.scheduler = scheduler;
     }
 
     public StartResponseDto startJob(String uploadId, String objectName, UUID profileId, String filename) throws Exception {
@@ -57,17 +73,64 @@ public class JobService {
     public JobStatusDto getStatus(UUID jobId) {
         StatementMetadata meta = metadataRepository.findById(jobId).orElse(null);
         if (meta == null) return new JobStatusDto(jobId.toString(), "NOT_FOUND", null);
-        return new JobStatusDto(meta.getId().toString(), meta.getStatus(), meta.getErrorMessage());
+        JobStatusDto dto = new JobStatusDto(meta);
+        // A job running on this node is ahead of its last progress flush
+        Integer livePages = progressTracker.pagesProcessed(jobId);
+        if (livePages != null) dto.setPagesProcessed(livePages);
+        return dto;
     }
 
-    public void submitPassword(UUID jobId, String password) {
-        // For dev: store password plaintext *only* for quick PoC. In prod: store in Secret Manager or pass directly to worker.
-        StatementMetadata meta = metadataRepository.findById(jobId).orElseThrow();
-        // Here we store password as errorMessage temporarily for demo (DO NOT DO IN PRODUCTION)
-        meta.setErrorMessage("PASSWORD:" + password);
-        meta.setStatus("PASSWORD_SUBMITTED");
-        meta.setUpdatedAt(Instant.now());
-        metadataRepository.save(meta);
+    /**
+     * The statement whose transactions belong to {@code statementId}: the original one if this
+     * statement was linked as a re-upload, otherwise the statement itself.
+     */
+    public UUID transactionSourceId(UUID statementId) {
+        return metadataRepository.findById(statementId)
+                .map(meta -> meta.getDuplicateOf() != null ? meta.getDuplicateOf() : statementId)
+                .orElse(statementId);
+    }
+
+    /**
+     * Queue a PASSWORD_REQUIRED job for decryption from the spill cache, in the scheduler's
+     * priority lane so it runs ahead of any new-upload backlog. The password is handed to the
+     * job in memory only; it is never persisted. Only the profile that uploaded the statement
+     * may unlock it; other callers see the job as not found. The PASSWORD_REQUIRED to
+     * PASSWORD_SUBMITTED move is a conditional update, so of two concurrent submits only one
+     * is queued. Returns the queued unlock.
+     */
+    public CompletableFuture<Void> submitPassword(UUID jobId, UUID profileId, String password) {
+        StatementMetadata meta = metadataRepository.findById(jobId)
+                .filter(m -> m.getProfileId() != null && m.getProfileId().equals(profileId))
+                .orElseThrow(() -> new RuntimeException("Job not found: " + jobId));
+        if (!"PASSWORD_REQUIRED".equals(meta.getStatus())) {
+            throw new RuntimeException("Job is not waiting for a password");
+        }
+        if (!spillCache.contains(jobId)) {
+            throw new RuntimeException("Statement is no longer cached. Please upload it again.");
+        }
+        if (metadataRepository.markPasswordSubmitted(jobId, profileId, Instant.now()) == 0) {
+            // Another submit won the race
+            throw new RuntimeException("Job is not waiting for a password");
+        }
+
+        long cost = meta.getFileBytes() != null ? meta.getFileBytes() : 1;
+        CompletableFuture<Void> unlock;
+        try {
+            unlock = scheduler.submit(meta.getProfileId(), ParseJobScheduler.Lane.PRIORITY, cost, () -> {
+                parserWorker.unlockJob(jobId, password);
+                return null;
+            });
+        } catch (ParserOverloadedException e) {
+            // Not queued; the statement is still waiting for its password
+            metadataRepository.compareAndSetStatus(jobId, "PASSWORD_SUBMITTED", "PASSWORD_REQUIRED", Instant.now());
+            throw e;
+        }
+        unlock.whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.warn("Unlock of job {} failed: {}", jobId, error.getMessage());
+            }
+        });
+        return unlock;
     }
 
     public static class JobMessage {
@@ -79,13 +142,52 @@ public class JobService {
         }
     }
 
+    /**
+     * Job status plus processing stats; the stats stay null until the worker has loaded the PDF,
+     * and pagesProcessed / pageCount is the live progress while the job runs. duplicateOf is
+     * set when the upload matched a statement the profile had already parsed.
+     */
     public static class JobStatusDto {
         private final String jobId;
         private final String status;
         private final String error;
+        private Integer pageCount;
+        private Integer pagesProcessed;
+        private Long fileBytes;
+        private Integer rowCount;
+        private Long detectMs;
+        private Long extractMs;
+        private Long parseMs;
+        private Long persistMs;
+        private Long processingMs;
+        private UUID duplicateOf;
         public JobStatusDto(String jobId, String status, String error) { this.jobId = jobId; this.status = status; this.error = error;}
+        public JobStatusDto(StatementMetadata meta) {
+            this(meta.getId().toString(), meta.getStatus(), meta.getErrorMessage());
+            this.pageCount = meta.getPageCount();
+            this.pagesProcessed = meta.getPagesProcessed();
+            this.fileBytes = meta.getFileBytes();
+            this.rowCount = meta.getRowCount();
+            this.detectMs = meta.getDetectMs();
+            this.extractMs = meta.getExtractMs();
+            this.parseMs = meta.getParseMs();
+            this.persistMs = meta.getPersistMs();
+            this.processingMs = meta.getProcessingMs();
+            this.duplicateOf = meta.getDuplicateOf();
+        }
         public String getJobId() { return jobId; }
         public String getStatus() { return status; }
         public String getError() { return error; }
+        public Integer getPageCount() { return pageCount; }
+        public Integer getPagesProcessed() { return pagesProcessed; }
+        public void setPagesProcessed(Integer pagesProcessed) { this.pagesProcessed = pagesProcessed; }
+        public Long getFileBytes() { return fileBytes; }
+        public Integer getRowCount() { return rowCount; }
+        public Long getDetectMs() { return detectMs; }
+        public Long getExtractMs() { return extractMs; }
+        public Long getParseMs() { return parseMs; }
+        public Long getPersistMs() { return persistMs; }
+        public Long getProcessingMs() { return processingMs; }
+        public UUID getDuplicateOf() { return duplicateOf; }
     }
 }
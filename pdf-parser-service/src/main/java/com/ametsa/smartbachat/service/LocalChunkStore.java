@@ -0,0 +1,146 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.ParserConfig;
+import com.google.gson.Gson;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * {@link ChunkStore} on the local filesystem: one directory per upload holding
+ * {@code manifest.json} and {@code chunk-NNNNN} files. Chunks are written to a {@code .tmp-}
+ * file and moved into place, so a dropped connection never leaves a partial chunk behind and a
+ * write in flight is never listed as received.
+ */
+@Component
+public class LocalChunkStore implements ChunkStore {
+
+    private static final String MANIFEST = "manifest.json";
+    private static final String CHUNK_PREFIX = "chunk-";
+    private static final Pattern CHUNK_NAME = Pattern.compile("chunk-\\d{5}");
+    private static final String TEMP_PREFIX = ".tmp-";
+    private static final Pattern UPLOAD_ID = Pattern.compile("[0-9a-fA-F-]{36}");
+
+    private final Path root;
+    private final Gson gson = new Gson();
+
+    public LocalChunkStore(ParserConfig parserConfig) {
+        String dir = parserConfig.getChunkDir();
+        this.root = dir == null || dir.isBlank()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "statement-chunks")
+                : Paths.get(dir);
+    }
+
+    @Override
+    public void saveManifest(Manifest manifest) throws IOException {
+        Path dir = Files.createDirectories(uploadDir(manifest.uploadId));
+        writeAtomically(dir.resolve(MANIFEST), gson.toJson(manifest).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public Optional<Manifest> manifest(String uploadId) throws IOException {
+        Path file = uploadDir(uploadId).resolve(MANIFEST);
+        if (!Files.exists(file)) return Optional.empty();
+        return Optional.of(gson.fromJson(Files.readString(file, StandardCharsets.UTF_8), Manifest.class));
+    }
+
+    @Override
+    public void writeChunk(String uploadId, int index, byte[] bytes) throws IOException {
+        writeAtomically(chunkFile(uploadId, index), bytes);
+    }
+
+    @Override
+    public byte[] readChunk(String uploadId, int index) throws IOException {
+        return Files.readAllBytes(chunkFile(uploadId, index));
+    }
+
+    @Override
+    public SortedSet<Integer> receivedChunks(String uploadId) throws IOException {
+        SortedSet<Integer> received = new TreeSet<>();
+        Path dir = uploadDir(uploadId);
+        if (!Files.isDirectory(dir)) return received;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir,
+                file -> CHUNK_NAME.matcher(file.getFileName().toString()).matches())) {
+            for (Path file : files) {
+                received.add(Integer.parseInt(file.getFileName().toString().substring(CHUNK_PREFIX.length())));
+            }
+        }
+        return received;
+    }
+
+    @Override
+    public void assemble(String uploadId, int totalChunks, Path target) throws IOException {
+        try (OutputStream out = Files.newOutputStream(target)) {
+            for (int i = 0; i < totalChunks; i++) {
+                Files.copy(chunkFile(uploadId, i), out);
+            }
+        }
+    }
+
+    @Override
+    public void delete(String uploadId) throws IOException {
+        Path dir = uploadDir(uploadId);
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Override
+    public List<String> uploadsCreatedBefore(Instant cutoff) throws IOException {
+        List<String> expired = new ArrayList<>();
+        if (!Files.isDirectory(root)) return expired;
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                String uploadId = dir.getFileName().toString();
+                // Leave alone anything in the root that is not an upload of ours
+                if (!UPLOAD_ID.matcher(uploadId).matches()) continue;
+                Optional<Manifest> manifest = manifest(uploadId);
+                if (manifest.isEmpty() || manifest.get().createdAtMillis < cutoff.toEpochMilli()) {
+                    expired.add(uploadId);
+                }
+            }
+        }
+        return expired;
+    }
+
+    private Path uploadDir(String uploadId) {
+        // Upload IDs are server-issued UUIDs; refuse anything that could escape the root
+        if (!UPLOAD_ID.matcher(uploadId).matches()) {
+            throw new IllegalArgumentException("Invalid upload id: " + uploadId);
+        }
+        return root.resolve(uploadId);
+    }
+
+    private Path chunkFile(String uploadId, int index) {
+        return uploadDir(uploadId).resolve(String.format("%s%05d", CHUNK_PREFIX, index));
+    }
+
+    private static void writeAtomically(Path target, byte[] bytes) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), TEMP_PREFIX + target.getFileName() + "-", ".part");
+        try {
+            Files.write(tmp, bytes);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
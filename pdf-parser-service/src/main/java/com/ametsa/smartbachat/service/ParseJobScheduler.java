@@ -0,0 +1,283 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.ParserConfig;
+import com.ametsa.smartbachat.exception.ParserOverloadedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control in front of {@link ParserWorker}: a fixed number of parser threads shared
+ * by all profiles.
+ *
+ * <ul>
+ *   <li>Lanes: PRIORITY (small single-statement uploads, password retries) is always served
+ *       before STANDARD.</li>
+ *   <li>Within a lane, weighted fair queuing per profile: each job gets a virtual finish tag
+ *       of {@code max(virtualTime, profile's last tag) + cost / weight}, and the lowest tag
+ *       runs next. A profile with a long backlog only advances its own tags, so a newly
+ *       arriving profile is served next.</li>
+ *   <li>At most {@code parser.scheduler-max-per-profile} jobs of one profile run at once.</li>
+ *   <li>The backlog is bounded: a profile with {@code parser.scheduler-max-queued-per-profile}
+ *       jobs waiting is refused with 429, and anyone is refused with 503 once
+ *       {@code parser.scheduler-max-queued} jobs wait in total.</li>
+ * </ul>
+ *
+ * Meters: {@code parser.queue.depth} gauge and {@code parser.queue.wait} timer per lane, and
+ * the {@code parser.workers.busy} gauge.
+ */
+@Service
+public class ParseJobScheduler {
+
+    public enum Lane { PRIORITY, STANDARD }
+
+    // Jobs without a profile share one queue
+    private static final UUID NO_PROFILE = new UUID(0, 0);
+
+    private final JobQueue queue;
+    private final ExecutorService workers;
+    private final int workerThreads;
+    private final int maxPerProfile;
+    private final long priorityMaxBytes;
+    private final int maxQueuedPerProfile;
+    private final int maxQueued;
+    private final long maxWaitMs;
+    private final long retryAfterSeconds;
+    private final Map<String, Double> profileWeights;
+    private final Map<Lane, Timer> waitTimers = new EnumMap<>(Lane.class);
+
+    // Guarded by this
+    private final Map<UUID, Integer> running = new HashMap<>();
+    private final Map<UUID, Integer> queuedByProfile = new HashMap<>();
+    private final Map<UUID, Double> lastFinishTag = new HashMap<>();
+    private double virtualTime;
+    private long seq;
+    private int busy;
+
+    public ParseJobScheduler(JobQueue queue, ParserConfig parserConfig, MeterRegistry meterRegistry) {
+        this.queue = queue;
+        this.workerThreads = Math.max(1, parserConfig.getSchedulerThreads());
+        this.maxPerProfile = Math.max(1, parserConfig.getSchedulerMaxPerProfile());
+        this.priorityMaxBytes = parserConfig.getSchedulerPriorityMaxBytes();
+        this.maxQueuedPerProfile = Math.max(1, parserConfig.getSchedulerMaxQueuedPerProfile());
+        this.maxQueued = Math.max(1, parserConfig.getSchedulerMaxQueued());
+        this.maxWaitMs = parserConfig.getSchedulerMaxWaitMs();
+        this.retryAfterSeconds = parserConfig.getSchedulerRetryAfterSeconds();
+        this.profileWeights = parserConfig.getProfileWeights();
+        this.workers = Executors.newFixedThreadPool(workerThreads);
+        for (Lane lane : Lane.values()) {
+            String tag = lane.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("parser.queue.depth", this, s -> s.queued(lane))
+                    .description("Parse jobs waiting for a worker")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            waitTimers.put(lane, Timer.builder("parser.queue.wait")
+                    .description("Time a parse job waited for a worker")
+                    .tag("lane", tag)
+                    .register(meterRegistry));
+        }
+        Gauge.builder("parser.workers.busy", this, ParseJobScheduler::busyWorkers)
+                .register(meterRegistry);
+    }
+
+    /**
+     * PRIORITY for uploads small enough to parse inline, STANDARD otherwise.
+     */
+    public Lane laneFor(long bytes) {
+        return bytes <= priorityMaxBytes ? Lane.PRIORITY : Lane.STANDARD;
+    }
+
+    /**
+     * Queue a job. Cancelling the returned future before the job starts skips it.
+     *
+     * @param cost relative size of the job, e.g. its file size in bytes
+     * @throws ParserOverloadedException if the profile's or the overall backlog is full
+     */
+    public <T> CompletableFuture<T> submit(UUID profileId, Lane lane, long cost, Callable<T> task) {
+        return enqueue(profileId, lane, cost, task).future();
+    }
+
+    /**
+     * Queue a job and wait for it, rethrowing whatever it threw. A job that has not started
+     * within {@code parser.scheduler-max-wait-ms} is withdrawn from the queue and refused with
+     * 503; one that has started is waited for, since it may already be reading the caller's
+     * input.
+     *
+     * @throws ParserOverloadedException if the job was refused or withdrawn
+     */
+    public <T> T run(UUID profileId, Lane lane, long cost, Callable<T> task) throws Exception {
+        // Whichever of the worker and the timed-out caller claims the job first decides its fate
+        AtomicBoolean claimed = new AtomicBoolean();
+        Submitted<T> submitted = enqueue(profileId, lane, cost, () -> {
+            if (!claimed.compareAndSet(false, true)) {
+                throw new CancellationException("Withdrawn before it started");
+            }
+            return task.call();
+        });
+        CompletableFuture<T> future = submitted.future();
+        try {
+            try {
+                return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (claimed.compareAndSet(false, true)) {
+                    withdraw(submitted);
+                    throw new ParserOverloadedException(
+                            "Statement parsing is at capacity. Please try again shortly.", 503, retryAfterSeconds);
+                }
+                return future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        } catch (InterruptedException e) {
+            if (claimed.compareAndSet(false, true)) {
+                withdraw(submitted);
+            }
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * A queued job, its future, and the profile's finish tag before the job was queued.
+     */
+    private record Submitted<T>(JobQueue.QueuedJob job, CompletableFuture<T> future, Double previousTag) {
+    }
+
+    private <T> Submitted<T> enqueue(UUID profileId, Lane lane, long cost, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable run = () -> {
+            if (future.isDone()) return;
+            try {
+                future.complete(task.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        synchronized (this) {
+            UUID key = profileId != null ? profileId : NO_PROFILE;
+            if (queue.size(Lane.PRIORITY) + queue.size(Lane.STANDARD) >= maxQueued) {
+                throw new ParserOverloadedException(
+                        "Statement parsing is at capacity. Please try again shortly.", 503, retryAfterSeconds);
+            }
+            if (queuedByProfile.getOrDefault(key, 0) >= maxQueuedPerProfile) {
+                throw new ParserOverloadedException(
+                        "Too many statements waiting to be parsed. Please try again shortly.", 429, retryAfterSeconds);
+            }
+            queuedByProfile.merge(key, 1, Integer::sum);
+            Double previousTag = lastFinishTag.get(key);
+            double start = Math.max(virtualTime, previousTag != null ? previousTag : 0.0);
+            double finishTag = start + Math.max(1, cost) / weight(key);
+            lastFinishTag.put(key, finishTag);
+            JobQueue.QueuedJob job = new JobQueue.QueuedJob(key, lane, finishTag, seq++, System.nanoTime(), run);
+            queue.offer(job);
+            dispatch();
+            return new Submitted<>(job, future, previousTag);
+        }
+    }
+
+    /**
+     * Take a job that has not started back out of the queue, so it no longer counts against
+     * the backlog caps or pushes back its profile's later jobs, and cancel its future.
+     */
+    private synchronized void withdraw(Submitted<?> submitted) {
+        JobQueue.QueuedJob job = submitted.job();
+        if (queue.remove(job)) {
+            queuedByProfile.computeIfPresent(job.profileId(), (id, n) -> n > 1 ? n - 1 : null);
+            // Only the profile's newest job sets the tag its next job starts from
+            Double tag = lastFinishTag.get(job.profileId());
+            if (tag != null && tag == job.finishTag()) {
+                if (submitted.previousTag() != null) {
+                    lastFinishTag.put(job.profileId(), submitted.previousTag());
+                } else {
+                    lastFinishTag.remove(job.profileId());
+                }
+            }
+        }
+        submitted.future().cancel(false);
+    }
+
+    public synchronized int queued(Lane lane) {
+        return queue.size(lane);
+    }
+
+    public synchronized int busyWorkers() {
+        return busy;
+    }
+
+    /**
+     * Start queued jobs while workers are free.
+     */
+    private synchronized void dispatch() {
+        while (busy < workerThreads) {
+            JobQueue.QueuedJob job = next();
+            if (job == null) return;
+            queue.remove(job);
+            queuedByProfile.computeIfPresent(job.profileId(), (id, n) -> n > 1 ? n - 1 : null);
+            busy++;
+            running.merge(job.profileId(), 1, Integer::sum);
+            virtualTime = Math.max(virtualTime, job.finishTag());
+            waitTimers.get(job.lane()).record(System.nanoTime() - job.enqueuedNanos(), TimeUnit.NANOSECONDS);
+            workers.execute(() -> {
+                try {
+                    job.task().run();
+                } finally {
+                    finished(job);
+                }
+            });
+        }
+    }
+
+    /**
+     * The lowest finish tag among profiles under their concurrency cap, trying PRIORITY first.
+     */
+    private JobQueue.QueuedJob next() {
+        for (Lane lane : Lane.values()) {
+            JobQueue.QueuedJob best = null;
+            for (JobQueue.QueuedJob head : queue.heads(lane)) {
+                if (running.getOrDefault(head.profileId(), 0) >= maxPerProfile) continue;
+                if (best == null || head.finishTag() < best.finishTag()
+                        || (head.finishTag() == best.finishTag() && head.seq() < best.seq())) {
+                    best = head;
+                }
+            }
+            if (best != null) return best;
+        }
+        return null;
+    }
+
+    private synchronized void finished(JobQueue.QueuedJob job) {
+        busy--;
+        running.computeIfPresent(job.profileId(), (id, n) -> n > 1 ? n - 1 : null);
+        // Tags behind the virtual time no longer affect a profile's next tag
+        lastFinishTag.values().removeIf(tag -> tag <= virtualTime);
+        dispatch();
+    }
+
+    private double weight(UUID profileId) {
+        Double weight = profileWeights.get(profileId.toString());
+        return weight != null && weight > 0 ? weight : 1.0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,153 @@
+package com.ametsa.smartbachat.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for {@link ParserWorker}, tagged by bank code and parser mode.
+ *
+ * <ul>
+ *   <li>{@code parser.stage} timer per stage (download, load, detect, extract, parse, insert)</li>
+ *   <li>{@code parser.job} end-to-end timer, also tagged by source and outcome</li>
+ *   <li>{@code parser.insert.batch} timer per saveAll batch</li>
+ *   <li>{@code parser.pages} / {@code parser.rows} counters; rate() gives pages/sec and rows/sec</li>
+ *   <li>{@code parser.download.bytes} summary of statement sizes</li>
+ * </ul>
+ * The bank is only known after detection, so a job buffers its stage times in a {@link Job}
+ * and records them with the final tags when it finishes.
+ */
+@Component
+public class ParserMetrics {
+
+    public enum Stage { DOWNLOAD, LOAD, DETECT, EXTRACT, PARSE, INSERT }
+
+    static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry registry;
+
+    public ParserMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @param source "gcs", "local", "inline" or "spill" (password retry from the spill cache)
+     */
+    public Job start(String source) {
+        return new Job(source);
+    }
+
+    /**
+     * Stage timings and counts of one statement. Not thread-safe; a job runs on one thread.
+     */
+    public final class Job {
+
+        private final String source;
+        private final long startNanos = System.nanoTime();
+        private final long[] stageNanos = new long[Stage.values().length];
+        private String bank = UNKNOWN;
+        private String mode = UNKNOWN;
+        private long bytes;
+        private int pages;
+        private int rows;
+
+        private Job(String source) {
+            this.source = source;
+        }
+
+        public void parser(String bank, boolean fullDocument) {
+            this.bank = bank == null ? UNKNOWN : bank.toLowerCase(Locale.ROOT);
+            this.mode = fullDocument ? "full" : "page";
+        }
+
+        /**
+         * Add the time since {@code sinceNanos} to a stage; stages may be recorded repeatedly,
+         * e.g. once per page.
+         */
+        public void stage(Stage stage, long sinceNanos) {
+            stageNanos[stage.ordinal()] += System.nanoTime() - sinceNanos;
+        }
+
+        public void batchInserted(long sinceNanos, int batchRows) {
+            long nanos = System.nanoTime() - sinceNanos;
+            stageNanos[Stage.INSERT.ordinal()] += nanos;
+            rows += batchRows;
+            Timer.builder("parser.insert.batch")
+                    .description("Latency of one transaction saveAll batch")
+                    .tags("bank", bank, "mode", mode)
+                    .register(registry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        public void bytes(long bytes) {
+            this.bytes = bytes;
+        }
+
+        public void pages(int pages) {
+            this.pages = pages;
+        }
+
+        public long stageNanos(Stage stage) {
+            return stageNanos[stage.ordinal()];
+        }
+
+        public long elapsedNanos() {
+            return System.nanoTime() - startNanos;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getPages() {
+            return pages;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @param outcome final statement status, e.g. DONE, FAILED or PASSWORD_REQUIRED, or
+         *        DUPLICATE for a re-upload linked to an earlier statement
+         */
+        public void finish(String outcome) {
+            for (Stage stage : Stage.values()) {
+                long nanos = stageNanos[stage.ordinal()];
+                if (nanos > 0) {
+                    Timer.builder("parser.stage")
+                            .tags("stage", stage.name().toLowerCase(Locale.ROOT), "bank", bank, "mode", mode)
+                            .register(registry)
+                            .record(nanos, TimeUnit.NANOSECONDS);
+                }
+            }
+            Timer.builder("parser.job")
+                    .description("End-to-end statement processing time")
+                    .tags("bank", bank, "mode", mode, "source", source,
+                            "outcome", outcome.toLowerCase(Locale.ROOT))
+                    .register(registry)
+                    .record(elapsedNanos(), TimeUnit.NANOSECONDS);
+            Counter.builder("parser.pages")
+                    .tags("bank", bank, "mode", mode)
+                    .register(registry)
+                    .increment(pages);
+            Counter.builder("parser.rows")
+                    .description("Transactions parsed and saved")
+                    .tags("bank", bank, "mode", mode)
+                    .register(registry)
+                    .increment(rows);
+            if (bytes > 0) {
+                DistributionSummary.builder("parser.download.bytes")
+                        .baseUnit("bytes")
+                        .tags("source", source)
+                        .register(registry)
+                        .record(bytes);
+            }
+        }
+    }
+}
@@ -1,144 +1,127 @@
 package com.ametsa.smartbachat.service;
 
+import com.ametsa.smartbachat.config.ParserConfig;
 import com.ametsa.smartbachat.entity.StatementMetadata;
 import com.ametsa.smartbachat.entity.TransactionEntity;
-import com.ametsa.smartbachat.parser.HdfcPdfParser;
+import com.ametsa.smartbachat.exception.StatementPasswordRequiredException;
 import com.ametsa.smartbachat.repository.StatementMetadataRepository;
 import com.ametsa.smartbachat.repository.TransactionRepository;
 import com.ametsa.smartbachat.util.BankDetectorUtil;
+import com.ametsa.smartbachat.util.HashUtil;
 import com.ametsa.smartbachat.util.PdfParserStrategy;
 import com.ametsa.smartbachat.util.PdfUtil;
 import com.google.cloud.storage.Blob;
 import com.google.cloud.storage.Storage;
 
 import org.apache.pdfbox.Loader;
-import org.apache.pdfbox.io.RandomAccessRead;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class ParserWorker {
 
     private static final Logger log = LoggerFactory.getLogger(ParserWorker.class);
+    private static final int BATCH_SIZE = 200;
+
     private final Storage storage;
     private final StatementMetadataRepository metadataRepository;
     private final TransactionRepository transactionRepository;
     private final ParserFactory parserFactory;
+    private final ParserMetrics parserMetrics;
+    private final JobProgressTracker progressTracker;
+    private final StatementSpillCache spillCache;
+    private final ParserConfig parserConfig;
 
     public ParserWorker(Storage storage,
                         StatementMetadataRepository metadataRepository,
                         TransactionRepository transactionRepository,
-                        ParserFactory parserFactory) {
+                        ParserFactory parserFactory,
+                        ParserMetrics parserMetrics,
+                        JobProgressTracker progressTracker,
+                        StatementSpillCache spillCache,
+                        ParserConfig parserConfig) {
         this.storage = storage;
         this.metadataRepository = metadataRepository;
         this.transactionRepository = transactionRepository;
         this.parserFactory = parserFactory;
+        this.parserMetrics = parserMetrics;
+        this.progressTracker = progressTracker;
+        this.spillCache = spillCache;
+        this.parserConfig = parserConfig;
     }
 
     /**
      * This method is the core worker that is invoked when a Pub/Sub message is received.
      * It streams the PDF from GCS, checks for encryption, selects parser, extracts transactions,
-     * batch inserts them into Yugabyte (Postgres-compatible).
+     * batch inserts them into Yugabyte (Postgres-compatible). A PDF this profile has already
+     * parsed is linked to the earlier statement instead.
      *
      * Note: in production, do this asynchronously and with backoff, retries and proper error handling.
      */
     public void processJob(String jobIdStr, String objectPath) {
         UUID jobId = UUID.fromString(jobIdStr);
         StatementMetadata meta = metadataRepository.findById(jobId).orElseThrow();
+        ParserMetrics.Job job = parserMetrics.start("gcs");
 
         meta.setStatus("PROCESSING");
         meta.setUpdatedAt(Instant.now());
         metadataRepository.save(meta);
 
+        long downloadStart = System.nanoTime();
         Blob blob = storage.get(meta.getObjectPath(), meta.getBucketName());
         if (blob == null) {
-            meta.setStatus("FAILED");
             meta.setErrorMessage("Object not found: " + meta.getObjectPath());
-            metadataRepository.save(meta);
+            finishJob(meta, job, "FAILED");
             return;
         }
 
-        byte[] pdfBytes = blob.getContent();
-        try (InputStream pdfStream = new ByteArrayInputStream(pdfBytes)) {
-            // Use PDFBox streaming load with temp-file spill
-            PDDocument doc;
-            try {
-                doc = Loader.loadPDF((RandomAccessRead) pdfStream);
-            } catch (org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException ipe) {
-                meta.setStatus("PASSWORD_REQUIRED");
-                meta.setUpdatedAt(Instant.now());
-                metadataRepository.save(meta);
-                return;
+        try {
+            // Hash while streaming the download, so a re-upload is caught before parsing
+            MessageDigest digest = HashUtil.sha256();
+            byte[] pdfBytes;
+            try (InputStream in = new DigestInputStream(Channels.newInputStream(blob.reader()), digest)) {
+                pdfBytes = in.readAllBytes();
             }
-
-            String firstPages = PdfUtil.extractTextFromPages(doc, 1, Math.min(3, doc.getNumberOfPages()));
-            String bank = BankDetectorUtil.detectBank(firstPages);
-            PdfParserStrategy parser = parserFactory.getParser(bank);
-
-            List<TransactionEntity> buffer = new ArrayList<>();
-            int total = doc.getNumberOfPages();
-            meta.setUpdatedAt(Instant.now());
-            metadataRepository.save(meta);
-
-            Long openingBalancePaisa = null;
-            String documentText = PdfUtil.extractTextFromPages(doc, 1, total);
-            if (parser.extractOpeningBalance(documentText) != null) {
-                openingBalancePaisa = parser.extractOpeningBalance(documentText);
-                log.info("[GCS job] openingBalancePaisa for bank {}: {}", bank, openingBalancePaisa);
+            job.stage(ParserMetrics.Stage.DOWNLOAD, downloadStart);
+            job.bytes(pdfBytes.length);
+            if (linkDuplicate(meta, job, HashUtil.hex(digest.digest()), "[GCS job]")) {
+                return;
             }
 
-            if (parser.requiresFullDocumentText()) {
-                List<TransactionEntity> txns = parser.parse(documentText, openingBalancePaisa);
-                for (TransactionEntity t : txns) {
-                    t.setStatementId(jobId);
-                    t.setProfileId(meta.getProfileId());
-                    t.setCreatedAt(Instant.now());
-                    if (t.getId() == null) t.setId(UUID.randomUUID());
-                    buffer.add(t);
-                    if (buffer.size() >= 200) {
-                        transactionRepository.saveAll(buffer);
-                        buffer.clear();
-                    }
-                }
-            } else {
-                for (int i = 0; i < total; i++) {
-                    String pageText = PdfUtil.extractTextFromPages(doc, i + 1, i + 1);
-                    List<TransactionEntity> txns = parser.parse(pageText, openingBalancePaisa);
-                    for (TransactionEntity t : txns) {
-                        t.setStatementId(jobId);
-                        t.setProfileId(meta.getProfileId());
-                        t.setCreatedAt(Instant.now());
-                        if (t.getId() == null) t.setId(UUID.randomUUID());
-                        buffer.add(t);
-                    }
-                    if (buffer.size() >= 200) {
-                        transactionRepository.saveAll(buffer);
-                        buffer.clear();
-                    }
-                }
+            long loadStart = System.nanoTime();
+            PDDocument doc;
+            try {
+                doc = Loader.loadPDF(pdfBytes);
+            } catch (InvalidPasswordException ipe) {
+                // Keep the download so the unlock retry does not fetch it again
+                spillCache.put(jobId, pdfBytes);
+                finishJob(meta, job, "PASSWORD_REQUIRED");
+                return;
             }
+            job.stage(ParserMetrics.Stage.LOAD, loadStart);
 
-            if (!buffer.isEmpty()) transactionRepository.saveAll(buffer);
+            parseDocument(doc, meta, job, "[GCS job]");
 
-            meta.setStatus("DONE");
-            meta.setUpdatedAt(Instant.now());
-            metadataRepository.save(meta);
             doc.close();
+            finishJob(meta, job, "DONE");
         } catch (Exception ex) {
-            meta.setStatus("FAILED");
             meta.setErrorMessage(ex.getMessage());
-            meta.setUpdatedAt(Instant.now());
-            metadataRepository.save(meta);
+            finishJob(meta, job, "FAILED");
             throw new RuntimeException(ex);
         }
     }
@@ -176,13 +159,19 @@ public class ParserWorker {
         meta.setUpdatedAt(Instant.now());
         metadataRepository.save(meta);
 
+        ParserMetrics.Job job = parserMetrics.start("local");
         try {
             // Load PDF from local file
             File pdfFile = new File(filePath);
             if (!pdfFile.exists()) {
                 throw new Exception("File not found: " + filePath);
             }
+            job.bytes(pdfFile.length());
+            if (linkDuplicate(meta, job, HashUtil.sha256Hex(pdfFile.toPath()), "[Local job]")) {
+                return jobId;
+            }
 
+            long loadStart = System.nanoTime();
             PDDocument doc;
             try {
                 // Try loading with password if provided, otherwise without
@@ -192,78 +181,298 @@ public class ParserWorker {
                 } else {
                     doc = Loader.loadPDF(pdfFile);
                 }
-            } catch (org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException ipe) {
-                meta.setStatus("PASSWORD_REQUIRED");
+            } catch (InvalidPasswordException ipe) {
+                // The caller deletes its temp file, so keep a copy for the unlock retry
+                spillCache.put(jobId, pdfFile.toPath());
                 meta.setErrorMessage("PDF is password protected. Please provide the correct password.");
-                meta.setUpdatedAt(Instant.now());
-                metadataRepository.save(meta);
-                throw new Exception("PDF is password protected or incorrect password provided");
+                finishJob(meta, job, "PASSWORD_REQUIRED");
+                throw new StatementPasswordRequiredException(jobId,
+                        "PDF is password protected or incorrect password provided");
             }
+            job.stage(ParserMetrics.Stage.LOAD, loadStart);
 
-            // Detect bank from first few pages
-            String firstPages = PdfUtil.extractTextFromPages(doc, 1, Math.min(3, doc.getNumberOfPages()));
-            String bank = BankDetectorUtil.detectBank(firstPages);
-            PdfParserStrategy parser = parserFactory.getParser(bank);
-            List<TransactionEntity> buffer = new ArrayList<>();
-            int total = doc.getNumberOfPages();
+            try (doc) {
+                parseDocument(doc, meta, job, "[Local job]");
+            }
 
-            String documentText = PdfUtil.extractTextFromPages(doc, 1, total);
-            Long openingBalancePaisa = parser.extractOpeningBalance(documentText);
-            log.info("[Local job] openingBalancePaisa for bank {}: {}", bank, openingBalancePaisa);
+            // Update metadata status and processing stats
+            finishJob(meta, job, "DONE");
 
-            if (parser.requiresFullDocumentText()) {
-                List<TransactionEntity> txns = parser.parse(documentText, openingBalancePaisa);
-                for (TransactionEntity t : txns) {
-                    t.setStatementId(jobId);
-                    t.setProfileId(profileId);
-                    t.setCreatedAt(Instant.now());
-                    if (t.getId() == null) t.setId(UUID.randomUUID());
-                    buffer.add(t);
-                    if (buffer.size() >= 200) {
-                        transactionRepository.saveAll(buffer);
-                        buffer.clear();
-                    }
-                }
-            } else {
-                // Fallback for parsers that operate on a page-by-page basis
-                for (int i = 0; i < total; i++) {
-                    String pageText = PdfUtil.extractTextFromPages(doc, i + 1, i + 1);
-                    List<TransactionEntity> txns = parser.parse(pageText, openingBalancePaisa);
-                    for (TransactionEntity t : txns) {
-                        t.setStatementId(jobId);
-                        t.setProfileId(profileId);
-                        t.setCreatedAt(Instant.now());
-                        if (t.getId() == null) t.setId(UUID.randomUUID());
-                        buffer.add(t);
-                    }
-                    // Batch insert for performance
-                    if (buffer.size() >= 200) {
-                        transactionRepository.saveAll(buffer);
-                        buffer.clear();
-                    }
-                }
-            }
+            return jobId;
 
-            // Save remaining transactions
-            if (!buffer.isEmpty()) {
-                transactionRepository.saveAll(buffer);
-            }
+        } catch (StatementPasswordRequiredException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            meta.setErrorMessage(ex.getMessage());
+            finishJob(meta, job, "FAILED");
+            throw ex;
+        }
+    }
 
-            // Update metadata status
-            meta.setStatus("DONE");
-            meta.setUpdatedAt(Instant.now());
-            metadataRepository.save(meta);
+    /**
+     * Parse a small statement held in memory, for inline ingestion. The statement row points at
+     * {@code objectPath} in {@code bucketName}, where the caller archives the same bytes.
+     *
+     * @param jobId ID for the new statement, chosen by the caller so it can answer before parsing ends
+     * @return jobId
+     */
+    public UUID processInline(UUID jobId, byte[] pdfBytes, UUID profileId, String filename,
+                              String bucketName, String objectPath, String password) throws Exception {
+        StatementMetadata meta = new StatementMetadata();
+        meta.setId(jobId);
+        meta.setUploadId("INLINE");
+        meta.setBucketName(bucketName);
+        meta.setObjectPath(objectPath);
+        meta.setProfileId(profileId);
+        meta.setFilename(filename);
+        meta.setStatus("PROCESSING");
+        meta.setCreatedAt(Instant.now());
+        meta.setUpdatedAt(Instant.now());
+        metadataRepository.save(meta);
 
-            doc.close();
+        ParserMetrics.Job job = parserMetrics.start("inline");
+        job.bytes(pdfBytes.length);
+        try {
+            if (linkDuplicate(meta, job, HashUtil.sha256Hex(pdfBytes), "[Inline job]")) {
+                return jobId;
+            }
 
+            long loadStart = System.nanoTime();
+            PDDocument doc;
+            try {
+                doc = password != null && !password.isEmpty()
+                        ? Loader.loadPDF(pdfBytes, password)
+                        : Loader.loadPDF(pdfBytes);
+            } catch (InvalidPasswordException ipe) {
+                spillCache.put(jobId, pdfBytes);
+                meta.setErrorMessage("PDF is password protected. Please provide the correct password.");
+                finishJob(meta, job, "PASSWORD_REQUIRED");
+                throw new StatementPasswordRequiredException(jobId,
+                        "PDF is password protected or incorrect password provided");
+            }
+            job.stage(ParserMetrics.Stage.LOAD, loadStart);
+
+            try (doc) {
+                parseDocument(doc, meta, job, "[Inline job]");
+            }
+            finishJob(meta, job, "DONE");
             return jobId;
 
+        } catch (StatementPasswordRequiredException ex) {
+            throw ex;
         } catch (Exception ex) {
-            meta.setStatus("FAILED");
             meta.setErrorMessage(ex.getMessage());
-            meta.setUpdatedAt(Instant.now());
-            metadataRepository.save(meta);
+            finishJob(meta, job, "FAILED");
             throw ex;
         }
     }
+
+    /**
+     * Retry a PASSWORD_SUBMITTED job with a password, decrypting the statement kept in the spill
+     * cache. Only the caller that moves the job on to PROCESSING runs it; any other returns
+     * without touching it. A wrong password leaves the job PASSWORD_REQUIRED and the cache entry
+     * in place. The password is used for this load only and never stored or logged.
+     */
+    public void unlockJob(UUID jobId, String password) {
+        if (metadataRepository.compareAndSetStatus(jobId, "PASSWORD_SUBMITTED", "PROCESSING", Instant.now()) == 0) {
+            log.info("[Unlock job] Job {} is not waiting to be unlocked; skipping", jobId);
+            return;
+        }
+        StatementMetadata meta = metadataRepository.findById(jobId).orElseThrow();
+        ParserMetrics.Job job = parserMetrics.start("spill");
+
+        byte[] pdfBytes = spillCache.get(jobId).orElse(null);
+        if (pdfBytes == null) {
+            meta.setErrorMessage("Statement is no longer cached. Please upload it again.");
+            finishJob(meta, job, "FAILED");
+            return;
+        }
+        job.bytes(pdfBytes.length);
+
+        try {
+            long loadStart = System.nanoTime();
+            PDDocument doc;
+            try {
+                doc = Loader.loadPDF(pdfBytes, password);
+            } catch (InvalidPasswordException ipe) {
+                metadataRepository.incrementPasswordAttempts(jobId, Instant.now());
+                int attempts = metadataRepository.findPasswordAttempts(jobId);
+                meta.setPasswordAttempts(attempts);
+                if (attempts >= parserConfig.getUnlockMaxAttempts()) {
+                    // Stop guessing against the spilled copy
+                    meta.setErrorMessage("Too many incorrect passwords. Please upload the statement again.");
+                    finishJob(meta, job, "FAILED");
+                    spillCache.invalidate(jobId);
+                    return;
+                }
+                meta.setErrorMessage("Incorrect password. Please try again.");
+                finishJob(meta, job, "PASSWORD_REQUIRED");
+                return;
+            }
+            job.stage(ParserMetrics.Stage.LOAD, loadStart);
+
+            try (doc) {
+                parseDocument(doc, meta, job, "[Unlock job]");
+            }
+            finishJob(meta, job, "DONE");
+            spillCache.invalidate(jobId);
+        } catch (Exception ex) {
+            meta.setErrorMessage(ex.getMessage());
+            finishJob(meta, job, "FAILED");
+            spillCache.invalidate(jobId);
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Detects the bank, extracts text and parses it, in one pass over the whole document or page
+     * by page depending on the parser, saving transactions in batches. Records each stage on
+     * {@code job}. For a parser that needs the whole document's text, pages processed counts
+     * pages extracted, since the parse itself runs once over all of them.
+     */
+    private void parseDocument(PDDocument doc, StatementMetadata meta, ParserMetrics.Job job, String logPrefix)
+            throws IOException {
+        int total = doc.getNumberOfPages();
+        job.pages(total);
+
+        // Publish the page total so the status API can show progress
+        meta.setPageCount(total);
+        meta.setPagesProcessed(0);
+        meta.setFileBytes(job.getBytes());
+        JobProgressTracker.Progress progress = progressTracker.start(meta.getId(), total, job.getBytes());
+
+        // Detect bank from first few pages
+        long detectStart = System.nanoTime();
+        String firstPages = PdfUtil.extractTextFromPages(doc, 1, Math.min(3, total));
+        String bank = BankDetectorUtil.detectBank(firstPages);
+        PdfParserStrategy parser = parserFactory.getParser(bank);
+        job.parser(bank, parser.requiresFullDocumentText());
+        job.stage(ParserMetrics.Stage.DETECT, detectStart);
+
+        long extractStart = System.nanoTime();
+        String documentText = parser.requiresFullDocumentText()
+                ? PdfUtil.extractTextFromPages(doc, 1, total, page -> {
+                    meta.setPagesProcessed(page);
+                    progressTracker.advance(progress, page);
+                })
+                : PdfUtil.extractTextFromPages(doc, 1, total);
+        job.stage(ParserMetrics.Stage.EXTRACT, extractStart);
+
+        long parseStart = System.nanoTime();
+        Long openingBalancePaisa = parser.extractOpeningBalance(documentText);
+        job.stage(ParserMetrics.Stage.PARSE, parseStart);
+        log.info("{} openingBalancePaisa for bank {}: {}", logPrefix, bank, openingBalancePaisa);
+
+        List<TransactionEntity> buffer = new ArrayList<>();
+        if (parser.requiresFullDocumentText()) {
+            parseStart = System.nanoTime();
+            List<TransactionEntity> txns = parser.parse(documentText, openingBalancePaisa);
+            job.stage(ParserMetrics.Stage.PARSE, parseStart);
+            for (TransactionEntity t : txns) {
+                buffer.add(prepare(t, meta));
+                if (buffer.size() >= BATCH_SIZE) {
+                    saveBatch(buffer, job);
+                }
+            }
+        } else {
+            // Fallback for parsers that operate on a page-by-page basis
+            for (int i = 0; i < total; i++) {
+                extractStart = System.nanoTime();
+                String pageText = PdfUtil.extractTextFromPages(doc, i + 1, i + 1);
+                job.stage(ParserMetrics.Stage.EXTRACT, extractStart);
+
+                parseStart = System.nanoTime();
+                List<TransactionEntity> txns = parser.parse(pageText, openingBalancePaisa);
+                job.stage(ParserMetrics.Stage.PARSE, parseStart);
+                for (TransactionEntity t : txns) {
+                    buffer.add(prepare(t, meta));
+                }
+                meta.setPagesProcessed(i + 1);
+                progressTracker.advance(progress, i + 1);
+                // Batch insert for performance
+                if (buffer.size() >= BATCH_SIZE) {
+                    saveBatch(buffer, job);
+                }
+            }
+        }
+
+        // Save remaining transactions
+        if (!buffer.isEmpty()) {
+            saveBatch(buffer, job);
+        }
+    }
+
+    /**
+     * Record the statement's content hash and, if the profile already has a DONE statement with
+     * the same hash, finish this job as a duplicate of it instead of parsing again. The
+     * duplicate keeps no transactions of its own; they are read from {@code duplicateOf}.
+     *
+     * @return true if the job was finished as a duplicate
+     */
+    private boolean linkDuplicate(StatementMetadata meta, ParserMetrics.Job job, String sha256, String logPrefix) {
+        meta.setContentSha256(sha256);
+        StatementMetadata original = metadataRepository
+                .findFirstByProfileIdAndContentSha256AndStatusAndDuplicateOfIsNullOrderByCreatedAtAsc(
+                        meta.getProfileId(), sha256, "DONE")
+                .orElse(null);
+        if (original == null || original.getId().equals(meta.getId())) {
+            return false;
+        }
+
+        log.info("{} {} is a re-upload of statement {}; linking instead of parsing",
+                logPrefix, meta.getId(), original.getId());
+        meta.setDuplicateOf(original.getId());
+        meta.setStatus("DONE");
+        meta.setErrorMessage(null);
+        meta.setPageCount(original.getPageCount());
+        meta.setPagesProcessed(original.getPageCount());
+        meta.setRowCount(original.getRowCount());
+        if (job.getBytes() > 0) {
+            meta.setFileBytes(job.getBytes());
+        }
+        meta.setProcessingMs(TimeUnit.NANOSECONDS.toMillis(job.elapsedNanos()));
+        meta.setUpdatedAt(Instant.now());
+        metadataRepository.save(meta);
+        progressTracker.finish(meta.getId());
+        job.finish("DUPLICATE");
+        return true;
+    }
+
+    /**
+     * Copies the job's stage times and counts onto the statement and saves its final status.
+     */
+    private void finishJob(StatementMetadata meta, ParserMetrics.Job job, String status) {
+        meta.setStatus(status);
+        if (job.getBytes() > 0) {
+            meta.setFileBytes(job.getBytes());
+        }
+        if ("DONE".equals(status)) {
+            meta.setPagesProcessed(job.getPages());
+        }
+        meta.setRowCount(job.getRows());
+        meta.setDetectMs(TimeUnit.NANOSECONDS.toMillis(job.stageNanos(ParserMetrics.Stage.DETECT)));
+        meta.setExtractMs(TimeUnit.NANOSECONDS.toMillis(job.stageNanos(ParserMetrics.Stage.EXTRACT)));
+        meta.setParseMs(TimeUnit.NANOSECONDS.toMillis(job.stageNanos(ParserMetrics.Stage.PARSE)));
+        meta.setPersistMs(TimeUnit.NANOSECONDS.toMillis(job.stageNanos(ParserMetrics.Stage.INSERT)));
+        meta.setProcessingMs(TimeUnit.NANOSECONDS.toMillis(job.elapsedNanos()));
+        meta.setUpdatedAt(Instant.now());
+        metadataRepository.save(meta);
+        progressTracker.finish(meta.getId());
+        job.finish(status);
+    }
+
+    private static TransactionEntity prepare(TransactionEntity t, StatementMetadata meta) {
+        t.setStatementId(meta.getId());
+        t.setProfileId(meta.getProfileId());
+        t.setCreatedAt(Instant.now());
+        if (t.getId() == null) t.setId(UUID.randomUUID());
+        return t;
+    }
+
+    private void saveBatch(List<TransactionEntity> buffer, ParserMetrics.Job job) {
+        long insertStart = System.nanoTime();
+        transactionRepository.saveAll(buffer);
+        job.batchInserted(insertStart, buffer.size());
+        buffer.clear();
+    }
 }
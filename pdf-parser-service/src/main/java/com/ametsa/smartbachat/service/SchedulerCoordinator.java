@@ -0,0 +1,184 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.SetuConfig;
+import com.ametsa.smartbachat.entity.SchedulerNode;
+import com.ametsa.smartbachat.repository.BankAccountRepository;
+import com.ametsa.smartbachat.repository.SchedulerNodeRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Coordinates scheduled bank syncs across pdf-parser-service replicas using the database.
+ *
+ * Every replica heartbeats a row in {@code scheduler_nodes}. The live nodes, in node-id
+ * order, split the account ID space into contiguous ranges (by the top 32 bits of the UUID),
+ * so each node can select just its own accounts with a range scan on the primary key, and
+ * adding a replica shrinks every node's share. While membership changes, two nodes may briefly
+ * agree on the same account; a per-account lease on {@code bank_accounts} makes sure only
+ * one of them actually syncs it. The first live node also acts as leader for
+ * cluster-wide maintenance jobs.
+ */
+@Component
+public class SchedulerCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(SchedulerCoordinator.class);
+
+    private final SchedulerNodeRepository nodeRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final SetuConfig setuConfig;
+    private final String nodeId;
+    private final Instant startedAt;
+
+    public SchedulerCoordinator(SchedulerNodeRepository nodeRepository,
+                                BankAccountRepository bankAccountRepository,
+                                SetuConfig setuConfig) {
+        this.nodeRepository = nodeRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.setuConfig = setuConfig;
+        this.nodeId = resolveNodeId(setuConfig.getSchedulerNodeId());
+        this.startedAt = Instant.now();
+        log.info("[Scheduler] Node id: {}", nodeId);
+    }
+
+    /**
+     * Refresh this node's heartbeat and forget nodes that stopped heartbeating.
+     */
+    @Scheduled(fixedDelayString = "${setu.scheduler-heartbeat-ms:15000}")
+    public void heartbeat() {
+        Instant now = Instant.now();
+        nodeRepository.save(new SchedulerNode(nodeId, startedAt, now));
+
+        // Keep dead rows around for a few TTLs so late heartbeats are not mistaken for new nodes
+        long removed = nodeRepository.deleteByHeartbeatAtBefore(
+                now.minusMillis(setuConfig.getSchedulerNodeTtlMs() * 4));
+        if (removed > 0) {
+            log.info("[Scheduler] Removed {} dead scheduler nodes", removed);
+        }
+    }
+
+    /**
+     * Compute this node's shard from the current set of live nodes.
+     */
+    public ShardAssignment currentAssignment() {
+        heartbeat();
+
+        Instant liveSince = Instant.now().minusMillis(setuConfig.getSchedulerNodeTtlMs());
+        List<String> liveNodes = new ArrayList<>();
+        for (SchedulerNode node : nodeRepository.findByHeartbeatAtAfterOrderByNodeIdAsc(liveSince)) {
+            liveNodes.add(node.getNodeId());
+        }
+        if (!liveNodes.contains(nodeId)) {
+            liveNodes.add(nodeId);
+            liveNodes.sort(null);
+        }
+
+        return new ShardAssignment(liveNodes.indexOf(nodeId), liveNodes.size());
+    }
+
+    /**
+     * Whether this node is the leader (first live node) and should run cluster-wide jobs.
+     */
+    public boolean isLeader() {
+        return currentAssignment().getIndex() == 0;
+    }
+
+    /**
+     * Try to take the sync lease for an account.
+     * @return true if this node may sync the account now
+     */
+    public boolean tryClaim(UUID accountId) {
+        Instant now = Instant.now();
+        return bankAccountRepository.claimSyncLease(
+                accountId, nodeId, now, now.plusMillis(setuConfig.getSyncLeaseMs())) == 1;
+    }
+
+    /**
+     * Release the sync lease for an account held by this node.
+     */
+    public void release(UUID accountId) {
+        bankAccountRepository.releaseSyncLease(accountId, nodeId);
+    }
+
+    /**
+     * Leave the cluster on shutdown so the remaining nodes pick up our share immediately.
+     */
+    @PreDestroy
+    public void leave() {
+        try {
+            nodeRepository.deleteById(nodeId);
+        } catch (Exception e) {
+            log.warn("[Scheduler] Failed to deregister node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private static String resolveNodeId(String configured) {
+        if (configured != null && !configured.isBlank()) {
+            return configured;
+        }
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * This node's position among the live nodes.
+     */
+    public static class ShardAssignment {
+        private final int index;
+        private final int count;
+
+        public ShardAssignment(int index, int count) {
+            this.index = index;
+            this.count = count;
+        }
+
+        public int getIndex() { return index; }
+        public int getCount() { return count; }
+
+        /**
+         * Smallest account ID in this node's shard.
+         */
+        public UUID firstId() {
+            return new UUID(rangeStart(index), 0L);
+        }
+
+        /**
+         * Largest account ID in this node's shard (inclusive).
+         */
+        public UUID lastId() {
+            return index == count - 1 ? new UUID(-1L, -1L) : new UUID(rangeStart(index + 1) - 1, -1L);
+        }
+
+        /**
+         * Whether the account falls into this node's shard. UUIDs compare unsigned, as in the
+         * database, so this agrees with a {@code BETWEEN firstId AND lastId} query.
+         */
+        public boolean owns(UUID accountId) {
+            long msb = accountId.getMostSignificantBits();
+            return Long.compareUnsigned(msb, firstId().getMostSignificantBits()) >= 0
+                    && Long.compareUnsigned(msb, lastId().getMostSignificantBits()) <= 0;
+        }
+
+        // First top-32-bit value of shard i, shifted back into place
+        private long rangeStart(int i) {
+            return (((long) i << 32) + count - 1) / count << 32;
+        }
+    }
+}
@@ -13,12 +13,19 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for interacting with Setu Account Aggregator APIs.
@@ -32,20 +39,26 @@ public class SetuAggregatorService {
 
     // Retry configuration
     private static final int MAX_RETRIES = 3;
-    private static final long INITIAL_BACKOFF_MS = 1000; // 1 second
     private static final double BACKOFF_MULTIPLIER = 2.0;
 
     // HTTP status codes that should trigger a retry
     private static final Set<Integer> RETRYABLE_STATUS_CODES = Set.of(408, 429, 500, 502, 503, 504);
 
+    // Actions performed against Setu; each gets its own circuit breaker and concurrency limit
+    private static final List<String> ENDPOINTS = List.of(
+            "create consent", "get consent status", "revoke consent",
+            "create data session", "fetch session data");
+
     private final SetuConfig setuConfig;
     private final ObjectMapper objectMapper;
     private final HttpClient httpClient;
+    private final Map<String, SetuEndpointGuard> endpointGuards = new ConcurrentHashMap<>();
 
     public SetuAggregatorService(SetuConfig setuConfig, ObjectMapper objectMapper, HttpClient httpClient) {
         this.setuConfig = setuConfig;
         this.objectMapper = objectMapper;
         this.httpClient = httpClient;
+        ENDPOINTS.forEach(this::getEndpointGuard);
     }
 
     /**
@@ -189,29 +202,37 @@ public class SetuAggregatorService {
 
     /**
      * Sends an HTTP request with retry logic and exponential backoff.
+     * Each attempt goes through the endpoint's circuit breaker and adaptive concurrency
+     * limit, and waits at least as long as Setu's Retry-After before retrying.
      * @param request The HttpRequest to send.
      * @param responseType The class of the expected response object.
      * @param action A description of the action being performed, for logging.
      * @return The deserialized response object.
      */
     private <T> T sendRequest(HttpRequest request, Class<T> responseType, String action) {
+        SetuEndpointGuard guard = getEndpointGuard(action);
         int attempt = 0;
-        long backoffMs = INITIAL_BACKOFF_MS;
+        long backoffMs = setuConfig.getRetryInitialBackoffMs();
         Exception lastException = null;
 
         while (attempt < MAX_RETRIES) {
             attempt++;
             try {
-                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                HttpResponse<String> response = exchange(guard, request);
                 int statusCode = response.statusCode();
 
                 if (statusCode >= 200 && statusCode < 300) {
                     if (responseType == Void.class) return null;
                     return objectMapper.readValue(response.body(), responseType);
                 } else if (RETRYABLE_STATUS_CODES.contains(statusCode) && attempt < MAX_RETRIES) {
+                    long waitMs = Math.max(backoffMs, parseRetryAfterMs(response));
+                    if (waitMs > setuConfig.getMaxRetryAfterMs()) {
+                        log.error("Failed to {}: {} - Retry-After {}ms exceeds limit", action, statusCode, waitMs);
+                        throw new SetuApiException("Failed to " + action + ": " + response.body(), statusCode);
+                    }
                     log.warn("[Setu] Retryable error for {} (attempt {}/{}): {} - {}",
                             action, attempt, MAX_RETRIES, statusCode, response.body());
-                    sleepWithBackoff(backoffMs);
+                    sleepWithBackoff(waitMs);
                     backoffMs = (long) (backoffMs * BACKOFF_MULTIPLIER);
                 } else {
                     log.error("Failed to {}: {} - {}", action, statusCode, response.body());
@@ -244,6 +265,75 @@ public class SetuAggregatorService {
         throw new SetuApiException("Max retries exceeded for " + action, lastException);
     }
 
+    /**
+     * Performs a single HTTP exchange under the endpoint guard and records its outcome.
+     */
+    private HttpResponse<String> exchange(SetuEndpointGuard guard, HttpRequest request)
+            throws java.io.IOException, InterruptedException {
+        guard.acquire();
+        long startNanos = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (java.io.IOException e) {
+            guard.onError();
+            throw e;
+        } catch (InterruptedException | RuntimeException e) {
+            guard.onAbandoned();
+            throw e;
+        }
+        guard.onResponse(response.statusCode(), System.nanoTime() - startNanos, parseRetryAfterMs(response));
+        return response;
+    }
+
+    /**
+     * Parses the Retry-After header (delta-seconds or HTTP-date) into milliseconds.
+     * @return the delay in milliseconds, or 0 if the header is absent or invalid
+     */
+    private long parseRetryAfterMs(HttpResponse<String> response) {
+        if (response.headers() == null) return 0;
+        String value = response.headers().firstValue("Retry-After").orElse(null);
+        if (value == null || value.isBlank()) return 0;
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(Instant.now(), at.toInstant()).toMillis());
+            } catch (DateTimeParseException ignored) {
+                log.debug("[Setu] Ignoring unparseable Retry-After: {}", value);
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the guard (circuit breaker + concurrency limit) for an endpoint.
+     */
+    private SetuEndpointGuard getEndpointGuard(String action) {
+        return endpointGuards.computeIfAbsent(action, this::newEndpointGuard);
+    }
+
+    private SetuEndpointGuard newEndpointGuard(String action) {
+        return new SetuEndpointGuard(
+                action,
+                new SetuCircuitBreaker(action, setuConfig.getCircuitFailureThreshold(), setuConfig.getCircuitOpenMs()),
+                new AdaptiveConcurrencyLimiter(
+                        setuConfig.getInitialConcurrency(),
+                        setuConfig.getMinConcurrency(),
+                        setuConfig.getMaxConcurrency(),
+                        setuConfig.getConcurrencyBackoffRatio(),
+                        setuConfig.getLatencyThresholdMs()),
+                setuConfig.getConcurrencyMaxWaitMs());
+    }
+
+    /**
+     * Guards for every Setu endpoint, keyed by action name. Exposed for metrics.
+     */
+    public Collection<SetuEndpointGuard> getEndpointGuards() {
+        return Collections.unmodifiableCollection(endpointGuards.values());
+    }
+
     /**
      * Sleep for the specified duration, handling interruption.
      */
@@ -0,0 +1,153 @@
+package com.ametsa.smartbachat.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker for a single Setu endpoint.
+ *
+ * CLOSED lets every call through. After {@code failureThreshold} consecutive
+ * server-side failures the breaker OPENs and rejects calls for {@code openDuration}.
+ * It then moves to HALF_OPEN and admits a single trial call: success closes the
+ * circuit, failure opens it again. A {@code Retry-After} from Setu blocks the
+ * endpoint for every caller until the advertised time, whatever the state.
+ */
+public class SetuCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(SetuCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean trialInFlight;
+    private long blockedUntilNanos;
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong openedCount = new AtomicLong();
+
+    public SetuCircuitBreaker(String name, int failureThreshold, long openDurationMs) {
+        this(name, failureThreshold, openDurationMs, System::nanoTime);
+    }
+
+    SetuCircuitBreaker(String name, int failureThreshold, long openDurationMs, LongSupplier nanoClock) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.nanoClock = nanoClock;
+        this.blockedUntilNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Ask for permission to call the endpoint.
+     * @return true if the call may proceed, false if it must be rejected
+     */
+    public synchronized boolean tryAcquirePermission() {
+        long now = nanoClock.getAsLong();
+        if (now - blockedUntilNanos < 0) {
+            rejectedCount.incrementAndGet();
+            return false;
+        }
+
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (now - openedAtNanos >= openDurationNanos) {
+                    transitionTo(State.HALF_OPEN);
+                    trialInFlight = true;
+                    return true;
+                }
+                rejectedCount.incrementAndGet();
+                return false;
+            case HALF_OPEN:
+            default:
+                if (trialInFlight) {
+                    rejectedCount.incrementAndGet();
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    /**
+     * Record a call that reached a healthy endpoint (2xx or a client error).
+     */
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        if (state != State.CLOSED) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    /**
+     * Record a server-side failure (5xx, timeout or IO error).
+     */
+    public synchronized void onFailure() {
+        failureCount.incrementAndGet();
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            openedAtNanos = nanoClock.getAsLong();
+            openedCount.incrementAndGet();
+            transitionTo(State.OPEN);
+        }
+    }
+
+    /**
+     * Release a permission without judging the endpoint (e.g. caller interrupted).
+     */
+    public synchronized void onIgnored() {
+        trialInFlight = false;
+    }
+
+    /**
+     * Block every caller until the given delay has elapsed (Retry-After).
+     */
+    public synchronized void blockFor(long delayMs) {
+        if (delayMs <= 0) return;
+        long until = nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+        if (until - blockedUntilNanos > 0) {
+            blockedUntilNanos = until;
+        }
+    }
+
+    /**
+     * Milliseconds until the endpoint accepts calls again (0 if it already does).
+     */
+    public synchronized long getRemainingBlockMs() {
+        long now = nanoClock.getAsLong();
+        long remaining = 0;
+        if (now - blockedUntilNanos < 0) {
+            remaining = blockedUntilNanos - now;
+        }
+        if (state == State.OPEN) {
+            remaining = Math.max(remaining, openedAtNanos + openDurationNanos - now);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(Math.max(0, remaining));
+    }
+
+    private void transitionTo(State newState) {
+        log.warn("[Setu] Circuit for '{}' {} -> {}", name, state, newState);
+        state = newState;
+    }
+
+    public String getName() { return name; }
+    public synchronized State getState() { return state; }
+    public long getRejectedCount() { return rejectedCount.get(); }
+    public long getFailureCount() { return failureCount.get(); }
+    public long getOpenedCount() { return openedCount.get(); }
+}
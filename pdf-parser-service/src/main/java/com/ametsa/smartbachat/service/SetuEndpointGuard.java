@@ -0,0 +1,101 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.exception.SetuApiException;
+
+import java.util.Set;
+
+/**
+ * Per-endpoint admission control for Setu calls: a circuit breaker in front of
+ * an adaptive concurrency limit. Every successful {@link #acquire()} must be
+ * followed by exactly one of {@link #onResponse}, {@link #onError()} or {@link #onAbandoned()}.
+ */
+public class SetuEndpointGuard {
+
+    // Status codes that mean "slow down" rather than "broken"
+    private static final Set<Integer> OVERLOAD_STATUS_CODES = Set.of(429, 503);
+
+    private final String endpoint;
+    private final SetuCircuitBreaker circuitBreaker;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final long maxQueueWaitMs;
+
+    public SetuEndpointGuard(String endpoint, SetuCircuitBreaker circuitBreaker,
+                             AdaptiveConcurrencyLimiter limiter, long maxQueueWaitMs) {
+        this.endpoint = endpoint;
+        this.circuitBreaker = circuitBreaker;
+        this.limiter = limiter;
+        this.maxQueueWaitMs = maxQueueWaitMs;
+    }
+
+    /**
+     * Acquire permission to call the endpoint, failing fast if the circuit is open
+     * and waiting a bounded time if the concurrency limit is reached.
+     * @throws SetuApiException with status 503 if the call is rejected
+     */
+    public void acquire() throws InterruptedException {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new SetuApiException("Setu endpoint unavailable for " + endpoint
+                    + " (circuit " + circuitBreaker.getState() + ", retry in "
+                    + circuitBreaker.getRemainingBlockMs() + "ms)", 503);
+        }
+
+        boolean acquired;
+        try {
+            acquired = limiter.acquire(maxQueueWaitMs);
+        } catch (InterruptedException e) {
+            circuitBreaker.onIgnored();
+            throw e;
+        }
+        if (!acquired) {
+            circuitBreaker.onIgnored();
+            throw new SetuApiException("Setu concurrency limit (" + limiter.getLimit()
+                    + ") reached for " + endpoint, 503);
+        }
+    }
+
+    /**
+     * Record an HTTP response.
+     * @param statusCode HTTP status
+     * @param latencyNanos time spent waiting for the response
+     * @param retryAfterMs parsed Retry-After delay, or 0 if absent
+     */
+    public void onResponse(int statusCode, long latencyNanos, long retryAfterMs) {
+        if (retryAfterMs > 0) {
+            circuitBreaker.blockFor(retryAfterMs);
+        }
+
+        if (statusCode >= 500 || statusCode == 408) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+
+        if (OVERLOAD_STATUS_CODES.contains(statusCode)) {
+            limiter.onOverload();
+        } else if (statusCode >= 200 && statusCode < 300) {
+            limiter.onSuccess(latencyNanos);
+        } else {
+            limiter.onIgnored();
+        }
+    }
+
+    /**
+     * Record a transport failure (connection refused, timeout, reset).
+     */
+    public void onError() {
+        circuitBreaker.onFailure();
+        limiter.onIgnored();
+    }
+
+    /**
+     * Release the permission without judging the endpoint (e.g. interrupted caller).
+     */
+    public void onAbandoned() {
+        circuitBreaker.onIgnored();
+        limiter.onIgnored();
+    }
+
+    public String getEndpoint() { return endpoint; }
+    public SetuCircuitBreaker getCircuitBreaker() { return circuitBreaker; }
+    public AdaptiveConcurrencyLimiter getLimiter() { return limiter; }
+}
@@ -0,0 +1,112 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.ParserConfig;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived local copies of statement PDFs, keyed by job ID.
+ *
+ * The worker spills a statement here when it turns out to be password protected, so the
+ * unlock retry decrypts the same bytes instead of downloading them again. Files are deleted
+ * when their entry expires, is evicted, or is invalidated after a successful retry.
+ */
+@Component
+public class StatementSpillCache {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementSpillCache.class);
+
+    private final Path directory;
+    private final Cache<UUID, Path> files;
+
+    public StatementSpillCache(ParserConfig parserConfig) {
+        String dir = parserConfig.getSpillDir();
+        this.directory = dir == null || dir.isBlank()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "statement-spill")
+                : Paths.get(dir);
+        RemovalListener<UUID, Path> deleteFile = removal -> delete(removal.getValue());
+        this.files = CacheBuilder.newBuilder()
+                .maximumSize(parserConfig.getSpillMaxEntries())
+                .expireAfterWrite(parserConfig.getSpillTtlSeconds(), TimeUnit.SECONDS)
+                .removalListener(deleteFile)
+                .build();
+    }
+
+    public void put(UUID jobId, byte[] bytes) {
+        try {
+            Files.createDirectories(directory);
+            Path file = Files.createTempFile(directory, jobId.toString(), ".pdf");
+            Files.write(file, bytes);
+            files.put(jobId, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill statement " + jobId, e);
+        }
+    }
+
+    public void put(UUID jobId, Path source) {
+        try {
+            put(jobId, Files.readAllBytes(source));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill statement " + jobId, e);
+        }
+    }
+
+    /**
+     * @return the cached bytes, or empty if the entry expired or was never spilled
+     */
+    public Optional<byte[]> get(UUID jobId) {
+        Path file = files.getIfPresent(jobId);
+        if (file == null) return Optional.empty();
+        try {
+            return Optional.of(Files.readAllBytes(file));
+        } catch (IOException e) {
+            log.warn("Spilled statement {} is unreadable: {}", jobId, e.getMessage());
+            files.invalidate(jobId);
+            return Optional.empty();
+        }
+    }
+
+    public boolean contains(UUID jobId) {
+        return files.getIfPresent(jobId) != null;
+    }
+
+    public void invalidate(UUID jobId) {
+        files.invalidate(jobId);
+    }
+
+    /**
+     * Guava expires entries lazily; sweep regularly so expired files leave the disk on time.
+     */
+    @Scheduled(fixedDelayString = "${parser.spill-sweep-ms:60000}")
+    public void sweep() {
+        files.cleanUp();
+    }
+
+    @PreDestroy
+    public void clear() {
+        files.invalidateAll();
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete spilled statement {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.entity.SyncHistory;
+import com.ametsa.smartbachat.repository.BankAccountRepository;
+import com.ametsa.smartbachat.repository.SyncHistoryRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Writes the sync history rows that drive retries, each in its own transaction, so a
+ * failed sync can roll back everything it fetched while its FAILED row stays committed.
+ */
+@Service
+public class SyncHistoryRecorder {
+
+    private final SyncHistoryRepository syncHistoryRepository;
+    private final BankAccountRepository bankAccountRepository;
+
+    public SyncHistoryRecorder(SyncHistoryRepository syncHistoryRepository,
+                               BankAccountRepository bankAccountRepository) {
+        this.syncHistoryRepository = syncHistoryRepository;
+        this.bankAccountRepository = bankAccountRepository;
+    }
+
+    /**
+     * Record a new sync attempt; it supersedes any retry still queued for the account.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void start(SyncHistory syncHistory) {
+        syncHistoryRepository.save(syncHistory);
+        syncHistoryRepository.cancelPendingRetries(syncHistory.getBankAccountId());
+    }
+
+    /**
+     * Record a failed attempt (with its next retry, if any) and the account's error message.
+     * Call only once the sync's own transaction has completed, since it may still hold
+     * locks on the account row.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recordFailure(SyncHistory syncHistory, String accountError) {
+        syncHistoryRepository.save(syncHistory);
+        bankAccountRepository.findById(syncHistory.getBankAccountId()).ifPresent(account -> {
+            account.setErrorMessage(accountError);
+            account.setUpdatedAt(Instant.now());
+            bankAccountRepository.save(account);
+        });
+    }
+}
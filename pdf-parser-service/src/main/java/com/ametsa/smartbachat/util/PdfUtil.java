@@ -1,9 +1,11 @@
 package com.ametsa.smartbachat.util;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.text.PDFTextStripper;
 
 import java.io.IOException;
+import java.util.function.IntConsumer;
 
 public class PdfUtil {
 
@@ -13,4 +15,22 @@ public class PdfUtil {
         stripper.setEndPage(endPage);
         return stripper.getText(doc);
     }
+
+    /**
+     * Same text as {@link #extractTextFromPages(PDDocument, int, int)}, calling {@code onPage}
+     * with each page number as soon as that page has been extracted.
+     */
+    public static String extractTextFromPages(PDDocument doc, int startPage, int endPage, IntConsumer onPage)
+            throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper() {
+            @Override
+            protected void endPage(PDPage page) throws IOException {
+                super.endPage(page);
+                onPage.accept(getCurrentPageNo());
+            }
+        };
+        stripper.setStartPage(startPage);
+        stripper.setEndPage(endPage);
+        return stripper.getText(doc);
+    }
 }
@@ -0,0 +1,153 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.SetuConfig;
+import com.ametsa.smartbachat.dto.setu.SetuDataSessionResponse;
+import com.ametsa.smartbachat.dto.setu.SetuFIDataResponse;
+import com.ametsa.smartbachat.dto.setu.Transaction;
+import com.ametsa.smartbachat.entity.BankAccount;
+import com.ametsa.smartbachat.entity.SyncHistory;
+import com.ametsa.smartbachat.entity.TransactionEntity;
+import com.ametsa.smartbachat.repository.BankAccountRepository;
+import com.ametsa.smartbachat.repository.SyncHistoryRepository;
+import com.ametsa.smartbachat.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs syncAccount through its transactional proxy against a local (H2) database.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({BankConnectionService.class, SyncHistoryRecorder.class, ConsentStatusCache.class, SetuConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BankConnectionServiceIntegrationTest {
+
+    @MockBean private SetuAggregatorService setuService;
+    @MockBean private BankTransactionMapper transactionMapper;
+
+    @Autowired private BankConnectionService service;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private BankAccountRepository bankAccountRepository;
+    @Autowired private SyncHistoryRepository syncHistoryRepository;
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+        syncHistoryRepository.deleteAll();
+        bankAccountRepository.deleteAll();
+    }
+
+    @Nested
+    @DisplayName("Sync Rollback Tests")
+    class SyncRollbackTests {
+
+        @Test
+        void shouldRollBackSyncDataButKeepFailedHistoryWhenSaveThrowsMidSync() throws Exception {
+            BankAccount account = saveAccount();
+            SetuDataSessionResponse session = new SetuDataSessionResponse();
+            session.setId("session-1");
+
+            when(setuService.createDataSession(anyString(), any(), any())).thenReturn(session);
+            when(setuService.fetchSessionData("session-1")).thenReturn(dataWithTransactions(2));
+            // The second transaction has no ID, so its save throws after the first one went through
+            AtomicInteger calls = new AtomicInteger();
+            when(transactionMapper.mapFromAA(any(), any(), any())).thenAnswer(inv -> {
+                TransactionEntity entity = mapped(inv.getArgument(1), inv.getArgument(2));
+                if (calls.incrementAndGet() == 2) entity.setId(null);
+                return entity;
+            });
+
+            assertThrows(DataAccessException.class, () -> service.syncAccount(account.getId()));
+
+            // Nothing the sync wrote survives
+            assertTrue(transactionRepository.findByBankAccountIdOrderByTxnDateDescCreatedAtDesc(account.getId()).isEmpty());
+            BankAccount reloaded = bankAccountRepository.findById(account.getId()).orElseThrow();
+            assertNull(reloaded.getBankName());
+            assertNull(reloaded.getLastSyncedAt());
+            assertTrue(reloaded.getErrorMessage().startsWith("Sync failed: "));
+
+            // ...but the failed attempt is recorded and queued for retry
+            List<SyncHistory> history = syncHistoryRepository.findByBankAccountIdOrderByStartedAtDesc(account.getId());
+            assertEquals(1, history.size());
+            assertEquals("FAILED", history.get(0).getStatus());
+            assertEquals("session-1", history.get(0).getSessionId());
+            assertNotNull(history.get(0).getNextRetryAt());
+        }
+
+        @Test
+        void shouldCommitSyncDataAndHistoryTogetherOnSuccess() throws Exception {
+            BankAccount account = saveAccount();
+            SetuDataSessionResponse session = new SetuDataSessionResponse();
+            session.setId("session-2");
+
+            when(setuService.createDataSession(anyString(), any(), any())).thenReturn(session);
+            when(setuService.fetchSessionData("session-2")).thenReturn(dataWithTransactions(2));
+            when(transactionMapper.mapFromAA(any(), any(), any()))
+                    .thenAnswer(inv -> mapped(inv.getArgument(1), inv.getArgument(2)));
+
+            service.syncAccount(account.getId());
+
+            assertEquals(2, transactionRepository.findByBankAccountIdOrderByTxnDateDescCreatedAtDesc(account.getId()).size());
+            assertNotNull(bankAccountRepository.findById(account.getId()).orElseThrow().getLastSyncedAt());
+            List<SyncHistory> history = syncHistoryRepository.findByBankAccountIdOrderByStartedAtDesc(account.getId());
+            assertEquals(1, history.size());
+            assertEquals("SUCCESS", history.get(0).getStatus());
+            assertEquals(2, history.get(0).getTransactionsSaved());
+        }
+    }
+
+    private BankAccount saveAccount() {
+        BankAccount account = new BankAccount();
+        account.setId(UUID.randomUUID());
+        account.setProfileId(UUID.randomUUID());
+        account.setConsentId("consent-" + UUID.randomUUID());
+        account.setConsentStatus("ACTIVE");
+        account.setIsActive(true);
+        account.setCreatedAt(Instant.now());
+        return bankAccountRepository.save(account);
+    }
+
+    private static TransactionEntity mapped(UUID bankAccountId, UUID profileId) {
+        TransactionEntity entity = new TransactionEntity();
+        entity.setId(UUID.randomUUID());
+        entity.setBankAccountId(bankAccountId);
+        entity.setProfileId(profileId);
+        return entity;
+    }
+
+    private static SetuFIDataResponse dataWithTransactions(int count) {
+        SetuFIDataResponse.TransactionList transactions = new SetuFIDataResponse.TransactionList();
+        transactions.setTransaction(Stream.generate(Transaction::new).limit(count).toList());
+        SetuFIDataResponse.FinancialData data = new SetuFIDataResponse.FinancialData();
+        data.setTransactions(transactions);
+        SetuFIDataResponse.AccountData accountData = new SetuFIDataResponse.AccountData();
+        accountData.setData(data);
+        SetuFIDataResponse.FIPData fip = new SetuFIDataResponse.FIPData();
+        fip.setFipId("HDFC-FIP");
+        fip.setAccounts(List.of(accountData));
+        SetuFIDataResponse response = new SetuFIDataResponse();
+        response.setFips(List.of(fip));
+        return response;
+    }
+}
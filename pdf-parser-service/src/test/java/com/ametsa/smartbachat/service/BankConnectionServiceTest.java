@@ -7,7 +7,10 @@ import com.ametsa.smartbachat.dto.BankConnectionResponseDto;
 import com.ametsa.smartbachat.dto.setu.SetuConsentResponse;
 import com.ametsa.smartbachat.dto.setu.SetuDataSessionResponse;
 import com.ametsa.smartbachat.dto.setu.SetuFIDataResponse;
+import com.ametsa.smartbachat.dto.setu.SetuWebhookPayload;
 import com.ametsa.smartbachat.entity.BankAccount;
+import com.ametsa.smartbachat.entity.SyncHistory;
+import com.ametsa.smartbachat.exception.SetuApiException;
 import com.ametsa.smartbachat.repository.BankAccountRepository;
 import com.ametsa.smartbachat.repository.SyncHistoryRepository;
 import com.ametsa.smartbachat.repository.TransactionRepository;
@@ -41,13 +44,16 @@ class BankConnectionServiceTest {
 
     private BankConnectionService service;
     private SetuConfig setuConfig;
+    private ConsentStatusCache consentStatusCache;
 
     @BeforeEach
     void setUp() {
         setuConfig = createSetuConfig();
+        consentStatusCache = new ConsentStatusCache(setuConfig);
         service = new BankConnectionService(
                 setuService, bankAccountRepository, transactionRepository,
-                syncHistoryRepository, transactionMapper, setuConfig);
+                syncHistoryRepository, transactionMapper, setuConfig, consentStatusCache,
+                new SyncHistoryRecorder(syncHistoryRepository, bankAccountRepository));
     }
 
     @Nested
@@ -111,6 +117,62 @@ class BankConnectionServiceTest {
             verify(bankAccountRepository, times(1)).save(any(BankAccount.class));
         }
 
+        @Test
+        void shouldScheduleRetryWithBackoffOnTransientFailure() throws Exception {
+            UUID accountId = UUID.randomUUID();
+            BankAccount account = createBankAccount(accountId, "ACTIVE");
+
+            when(bankAccountRepository.findById(accountId)).thenReturn(Optional.of(account));
+            when(setuService.createDataSession(anyString(), any(), any()))
+                    .thenThrow(new SetuApiException("Service Unavailable", 503));
+
+            Instant before = Instant.now();
+            assertThrows(SetuApiException.class, () -> service.syncAccount(accountId, "SCHEDULED", 1));
+
+            ArgumentCaptor<SyncHistory> captor = ArgumentCaptor.forClass(SyncHistory.class);
+            verify(syncHistoryRepository, atLeastOnce()).save(captor.capture());
+            SyncHistory history = captor.getValue();
+            assertEquals("FAILED", history.getStatus());
+            assertEquals(1, history.getRetryCount());
+            // Second retry: base 60s doubled, half of it jittered -> between 60s and 120s
+            assertNotNull(history.getNextRetryAt());
+            assertFalse(history.getNextRetryAt().isBefore(before.plusSeconds(60)));
+            assertFalse(history.getNextRetryAt().isAfter(Instant.now().plusSeconds(120)));
+        }
+
+        @Test
+        void shouldNotScheduleRetryWhenAttemptsExhausted() throws Exception {
+            UUID accountId = UUID.randomUUID();
+            BankAccount account = createBankAccount(accountId, "ACTIVE");
+
+            when(bankAccountRepository.findById(accountId)).thenReturn(Optional.of(account));
+            when(setuService.createDataSession(anyString(), any(), any()))
+                    .thenThrow(new SetuApiException("Service Unavailable", 503));
+
+            assertThrows(SetuApiException.class,
+                    () -> service.syncAccount(accountId, "RETRY", setuConfig.getSyncRetryMaxAttempts()));
+
+            ArgumentCaptor<SyncHistory> captor = ArgumentCaptor.forClass(SyncHistory.class);
+            verify(syncHistoryRepository, atLeastOnce()).save(captor.capture());
+            assertNull(captor.getValue().getNextRetryAt());
+        }
+
+        @Test
+        void shouldNotRetryClientErrors() throws Exception {
+            UUID accountId = UUID.randomUUID();
+            BankAccount account = createBankAccount(accountId, "ACTIVE");
+
+            when(bankAccountRepository.findById(accountId)).thenReturn(Optional.of(account));
+            when(setuService.createDataSession(anyString(), any(), any()))
+                    .thenThrow(new SetuApiException("Consent revoked", 403));
+
+            assertThrows(SetuApiException.class, () -> service.syncAccount(accountId));
+
+            ArgumentCaptor<SyncHistory> captor = ArgumentCaptor.forClass(SyncHistory.class);
+            verify(syncHistoryRepository, atLeastOnce()).save(captor.capture());
+            assertNull(captor.getValue().getNextRetryAt());
+        }
+
         @Test
         void shouldThrowExceptionForInactiveConsent() {
             UUID accountId = UUID.randomUUID();
@@ -180,6 +242,76 @@ class BankConnectionServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Consent Status Cache Tests")
+    class ConsentStatusCacheTests {
+
+        @Test
+        void shouldPollSetuWhenCacheIsEmpty() throws Exception {
+            UUID accountId = UUID.randomUUID();
+            BankAccount account = createBankAccount(accountId, "PENDING");
+
+            SetuConsentResponse consentResponse = new SetuConsentResponse();
+            consentResponse.setStatus("PENDING");
+
+            when(bankAccountRepository.findById(accountId)).thenReturn(Optional.of(account));
+            when(setuService.getConsentStatus(account.getConsentId())).thenReturn(consentResponse);
+
+            service.getConsentStatus(accountId);
+            service.getConsentStatus(accountId);
+
+            // Second poll is served from the cache
+            verify(setuService, times(1)).getConsentStatus(account.getConsentId());
+        }
+
+        @Test
+        void shouldNotPollSetuForFreshlyCreatedConsent() throws Exception {
+            UUID accountId = UUID.randomUUID();
+            BankAccount account = createBankAccount(accountId, "PENDING");
+            consentStatusCache.put(account.getConsentId(), "PENDING");
+
+            when(bankAccountRepository.findById(accountId)).thenReturn(Optional.of(account));
+
+            BankConnectionResponseDto response = service.getConsentStatus(accountId);
+
+            assertEquals("PENDING", response.getStatus());
+            verify(setuService, never()).getConsentStatus(anyString());
+        }
+
+        @Test
+        void shouldApplyCachedStatusToPendingAccount() throws Exception {
+            UUID accountId = UUID.randomUUID();
+            BankAccount account = createBankAccount(accountId, "PENDING");
+            consentStatusCache.put(account.getConsentId(), "ACTIVE");
+
+            when(bankAccountRepository.findById(accountId)).thenReturn(Optional.of(account));
+
+            BankConnectionResponseDto response = service.getConsentStatus(accountId);
+
+            assertEquals("ACTIVE", response.getStatus());
+            assertTrue(account.getIsActive());
+            verify(bankAccountRepository).save(account);
+            verify(setuService, never()).getConsentStatus(anyString());
+        }
+
+        @Test
+        void shouldWriteThroughOnConsentWebhook() {
+            UUID accountId = UUID.randomUUID();
+            BankAccount account = createBankAccount(accountId, "PENDING");
+
+            SetuWebhookPayload payload = new SetuWebhookPayload();
+            payload.setType("CONSENT_STATUS_UPDATE");
+            payload.setConsentId(account.getConsentId());
+            payload.setStatus("ACTIVE");
+
+            when(bankAccountRepository.findByConsentId(account.getConsentId())).thenReturn(Optional.of(account));
+
+            service.handleWebhook(payload);
+
+            assertEquals(Optional.of("ACTIVE"), consentStatusCache.get(account.getConsentId()));
+        }
+    }
+
     private BankAccount createBankAccount(UUID id, String consentStatus) {
         BankAccount account = new BankAccount();
         account.setId(id);
@@ -2,20 +2,25 @@ package com.ametsa.smartbachat.service;
 
 import com.ametsa.smartbachat.config.SetuConfig;
 import com.ametsa.smartbachat.entity.BankAccount;
+import com.ametsa.smartbachat.entity.SyncHistory;
 import com.ametsa.smartbachat.repository.BankAccountRepository;
+import com.ametsa.smartbachat.repository.SyncHistoryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -25,12 +30,22 @@ class BankSyncSchedulerTest {
     @Mock private BankAccountRepository bankAccountRepository;
     @Mock private BankConnectionService bankConnectionService;
     @Mock private SetuConfig setuConfig;
+    @Mock private SchedulerCoordinator schedulerCoordinator;
+    @Mock private SyncHistoryRepository syncHistoryRepository;
 
     private BankSyncScheduler scheduler;
 
     @BeforeEach
     void setUp() {
-        scheduler = new BankSyncScheduler(bankAccountRepository, bankConnectionService, setuConfig);
+        scheduler = new BankSyncScheduler(bankAccountRepository, bankConnectionService, setuConfig,
+                schedulerCoordinator, syncHistoryRepository);
+
+        // Single-node cluster by default
+        lenient().when(schedulerCoordinator.currentAssignment())
+                .thenReturn(new SchedulerCoordinator.ShardAssignment(0, 1));
+        lenient().when(schedulerCoordinator.isLeader()).thenReturn(true);
+        lenient().when(schedulerCoordinator.tryClaim(any(UUID.class))).thenReturn(true);
+        lenient().when(setuConfig.getMaintenanceBatchSize()).thenReturn(100);
     }
 
     @Nested
@@ -42,7 +57,7 @@ class BankSyncSchedulerTest {
             BankAccount account1 = createAccount("ACTIVE", Instant.now().minus(5, ChronoUnit.HOURS));
             BankAccount account2 = createAccount("ACTIVE", Instant.now().minus(6, ChronoUnit.HOURS));
 
-            when(bankAccountRepository.findByConsentStatus("ACTIVE"))
+            when(bankAccountRepository.findByConsentStatusInIdRange(eq("ACTIVE"), any(), any(), any(Pageable.class)))
                     .thenReturn(List.of(account1, account2));
 
             scheduler.syncAllActiveAccounts();
@@ -55,7 +70,7 @@ class BankSyncSchedulerTest {
             BankAccount recentlySynced = createAccount("ACTIVE", Instant.now().minus(2, ChronoUnit.HOURS));
             BankAccount notRecentlySynced = createAccount("ACTIVE", Instant.now().minus(5, ChronoUnit.HOURS));
 
-            when(bankAccountRepository.findByConsentStatus("ACTIVE"))
+            when(bankAccountRepository.findByConsentStatusInIdRange(eq("ACTIVE"), any(), any(), any(Pageable.class)))
                     .thenReturn(List.of(recentlySynced, notRecentlySynced));
 
             scheduler.syncAllActiveAccounts();
@@ -66,7 +81,8 @@ class BankSyncSchedulerTest {
 
         @Test
         void shouldHandleNoActiveAccounts() throws Exception {
-            when(bankAccountRepository.findByConsentStatus("ACTIVE")).thenReturn(List.of());
+            when(bankAccountRepository.findByConsentStatusInIdRange(eq("ACTIVE"), any(), any(), any(Pageable.class)))
+                    .thenReturn(List.of());
 
             scheduler.syncAllActiveAccounts();
 
@@ -77,13 +93,133 @@ class BankSyncSchedulerTest {
         void shouldHandleSyncFailure() throws Exception {
             BankAccount account = createAccount("ACTIVE", Instant.now().minus(5, ChronoUnit.HOURS));
 
-            when(bankAccountRepository.findByConsentStatus("ACTIVE")).thenReturn(List.of(account));
+            when(bankAccountRepository.findByConsentStatusInIdRange(eq("ACTIVE"), any(), any(), any(Pageable.class)))
+                    .thenReturn(List.of(account));
             doThrow(new RuntimeException("Sync failed")).when(bankConnectionService).syncAccount(any(UUID.class));
 
             // Should not throw exception, just log error
             scheduler.syncAllActiveAccounts();
 
-            verify(bankAccountRepository).save(any(BankAccount.class));
+            // The stale page copy is never merged back over the row
+            verify(bankAccountRepository, never()).save(any(BankAccount.class));
+            verify(schedulerCoordinator).release(account.getId());
+        }
+
+        @Test
+        void shouldOnlyReadAccountsInOwnShard() throws Exception {
+            SchedulerCoordinator.ShardAssignment shard = new SchedulerCoordinator.ShardAssignment(1, 3);
+            BankAccount owned = createAccount("ACTIVE", null);
+
+            when(schedulerCoordinator.currentAssignment()).thenReturn(shard);
+            when(bankAccountRepository.findByConsentStatusInIdRange(eq("ACTIVE"), eq(shard.firstId()),
+                    eq(shard.lastId()), any(Pageable.class))).thenReturn(List.of(owned));
+
+            scheduler.syncAllActiveAccounts();
+
+            verify(bankConnectionService).syncAccount(owned.getId());
+            verify(bankAccountRepository, never()).findByConsentStatus(anyString());
+        }
+
+        @Test
+        void shouldWalkShardInKeysetPages() throws Exception {
+            SchedulerCoordinator.ShardAssignment shard = new SchedulerCoordinator.ShardAssignment(0, 1);
+            BankAccount first = createAccount("ACTIVE", null);
+            BankAccount second = createAccount("ACTIVE", null);
+
+            when(setuConfig.getMaintenanceBatchSize()).thenReturn(1);
+            when(bankAccountRepository.findByConsentStatusInIdRange(eq("ACTIVE"), any(), any(), any(Pageable.class)))
+                    .thenReturn(List.of(first));
+            when(bankAccountRepository.findByConsentStatusInIdRangeAfter(eq("ACTIVE"), eq(first.getId()),
+                    eq(shard.lastId()), any(Pageable.class))).thenReturn(List.of(second));
+            when(bankAccountRepository.findByConsentStatusInIdRangeAfter(eq("ACTIVE"), eq(second.getId()),
+                    eq(shard.lastId()), any(Pageable.class))).thenReturn(List.of());
+
+            scheduler.syncAllActiveAccounts();
+
+            verify(bankConnectionService).syncAccount(first.getId());
+            verify(bankConnectionService).syncAccount(second.getId());
+        }
+
+
+        @Test
+        void shouldSkipAccountsLeasedByAnotherNode() throws Exception {
+            BankAccount account = createAccount("ACTIVE", null);
+
+            when(bankAccountRepository.findByConsentStatusInIdRange(eq("ACTIVE"), any(), any(), any(Pageable.class)))
+                    .thenReturn(List.of(account));
+            when(schedulerCoordinator.tryClaim(account.getId())).thenReturn(false);
+
+            scheduler.syncAllActiveAccounts();
+
+            verify(bankConnectionService, never()).syncAccount(any(UUID.class));
+            verify(schedulerCoordinator, never()).release(any(UUID.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Retry Failed Syncs Tests")
+    class RetryFailedSyncsTests {
+
+        @Test
+        void shouldRetryDueSyncsWithIncrementedRetryCount() throws Exception {
+            SyncHistory failed = createFailedSync(UUID.randomUUID(), 2);
+
+            when(setuConfig.getSyncRetryBatchSize()).thenReturn(50);
+            when(syncHistoryRepository.findDueRetriesInAccountRange(
+                    eq("FAILED"), any(Instant.class), any(), any(), any(Pageable.class))).thenReturn(List.of(failed));
+
+            scheduler.retryFailedSyncs();
+
+            verify(bankConnectionService).syncAccount(failed.getBankAccountId(), "RETRY", 3);
+            // Dequeued before the retry runs
+            verify(syncHistoryRepository).save(argThat(h -> h.getNextRetryAt() == null));
+            verify(schedulerCoordinator).release(failed.getBankAccountId());
+        }
+
+        @Test
+        void shouldOnlyReadRetriesInOwnShard() throws Exception {
+            SchedulerCoordinator.ShardAssignment shard = new SchedulerCoordinator.ShardAssignment(1, 3);
+            SyncHistory failed = createFailedSync(UUID.randomUUID(), 0);
+
+            when(schedulerCoordinator.currentAssignment()).thenReturn(shard);
+            when(setuConfig.getSyncRetryBatchSize()).thenReturn(50);
+            when(syncHistoryRepository.findDueRetriesInAccountRange(eq("FAILED"), any(Instant.class),
+                    eq(shard.firstId()), eq(shard.lastId()), any(Pageable.class))).thenReturn(List.of(failed));
+
+            scheduler.retryFailedSyncs();
+
+            verify(bankConnectionService).syncAccount(failed.getBankAccountId(), "RETRY", 1);
+        }
+
+        @Test
+        void shouldSkipRetriesLeasedByAnotherNode() throws Exception {
+            SyncHistory failed = createFailedSync(UUID.randomUUID(), 0);
+
+            when(setuConfig.getSyncRetryBatchSize()).thenReturn(50);
+            when(syncHistoryRepository.findDueRetriesInAccountRange(
+                    eq("FAILED"), any(Instant.class), any(), any(), any(Pageable.class))).thenReturn(List.of(failed));
+            when(schedulerCoordinator.tryClaim(failed.getBankAccountId())).thenReturn(false);
+
+            scheduler.retryFailedSyncs();
+
+            verify(bankConnectionService, never()).syncAccount(any(UUID.class), anyString(), anyInt());
+            verify(syncHistoryRepository, never()).save(any(SyncHistory.class));
+        }
+
+        @Test
+        void shouldContinueAfterRetryFailure() throws Exception {
+            SyncHistory first = createFailedSync(UUID.randomUUID(), 0);
+            SyncHistory second = createFailedSync(UUID.randomUUID(), 0);
+
+            when(setuConfig.getSyncRetryBatchSize()).thenReturn(50);
+            when(syncHistoryRepository.findDueRetriesInAccountRange(
+                    eq("FAILED"), any(Instant.class), any(), any(), any(Pageable.class))).thenReturn(List.of(first, second));
+            doThrow(new RuntimeException("FIP down")).when(bankConnectionService)
+                    .syncAccount(first.getBankAccountId(), "RETRY", 1);
+
+            scheduler.retryFailedSyncs();
+
+            verify(bankConnectionService).syncAccount(second.getBankAccountId(), "RETRY", 1);
         }
     }
 
@@ -96,20 +232,46 @@ class BankSyncSchedulerTest {
             BankAccount expiringSoon = createAccount("ACTIVE", null);
             expiringSoon.setConsentExpiresAt(Instant.now().plus(5, ChronoUnit.DAYS));
 
-            BankAccount notExpiring = createAccount("ACTIVE", null);
-            notExpiring.setConsentExpiresAt(Instant.now().plus(30, ChronoUnit.DAYS));
+            when(setuConfig.getMaintenanceBatchSize()).thenReturn(100);
+            when(bankAccountRepository.findConsentsExpiringBefore(eq("ACTIVE"), any(Instant.class), any(Pageable.class)))
+                    .thenReturn(List.of(expiringSoon));
+
+            scheduler.checkExpiringConsents();
+
+            // A short first page means there is nothing left to fetch
+            verify(bankAccountRepository, never()).findConsentsExpiringBeforeAfter(
+                    anyString(), any(), any(), any(), any());
+            verify(bankAccountRepository, never()).findByConsentStatus(anyString());
+        }
 
-            when(bankAccountRepository.findByConsentStatus("ACTIVE"))
-                    .thenReturn(List.of(expiringSoon, notExpiring));
+        @Test
+        void shouldWalkKeysetPages() {
+            BankAccount first = createAccount("ACTIVE", null);
+            first.setConsentExpiresAt(Instant.now().plus(1, ChronoUnit.DAYS));
+            BankAccount second = createAccount("ACTIVE", null);
+            second.setConsentExpiresAt(Instant.now().plus(2, ChronoUnit.DAYS));
+
+            when(setuConfig.getMaintenanceBatchSize()).thenReturn(1);
+            when(bankAccountRepository.findConsentsExpiringBefore(eq("ACTIVE"), any(Instant.class), any(Pageable.class)))
+                    .thenReturn(List.of(first));
+            when(bankAccountRepository.findConsentsExpiringBeforeAfter(eq("ACTIVE"), any(Instant.class),
+                    eq(first.getConsentExpiresAt()), eq(first.getId()), any(Pageable.class)))
+                    .thenReturn(List.of(second));
+            when(bankAccountRepository.findConsentsExpiringBeforeAfter(eq("ACTIVE"), any(Instant.class),
+                    eq(second.getConsentExpiresAt()), eq(second.getId()), any(Pageable.class)))
+                    .thenReturn(List.of());
 
             scheduler.checkExpiringConsents();
 
-            // Just verifies no exception is thrown - logging is tested
+            verify(bankAccountRepository, times(2)).findConsentsExpiringBeforeAfter(
+                    anyString(), any(), any(), any(), any());
         }
 
         @Test
         void shouldHandleNoActiveAccounts() {
-            when(bankAccountRepository.findByConsentStatus("ACTIVE")).thenReturn(List.of());
+            when(setuConfig.getMaintenanceBatchSize()).thenReturn(100);
+            when(bankAccountRepository.findConsentsExpiringBefore(eq("ACTIVE"), any(Instant.class), any(Pageable.class)))
+                    .thenReturn(List.of());
 
             scheduler.checkExpiringConsents();
             // Should complete without error
@@ -121,30 +283,50 @@ class BankSyncSchedulerTest {
     class CleanupStalePendingConsentsTests {
 
         @Test
-        void shouldMarkStalePendingConsentsAsExpired() {
-            BankAccount staleAccount = createAccount("PENDING", null);
-            staleAccount.setCreatedAt(Instant.now().minus(25, ChronoUnit.HOURS));
-
-            when(bankAccountRepository.findByConsentStatus("PENDING")).thenReturn(List.of(staleAccount));
+        void shouldExpireStalePendingConsentsWithBulkUpdate() {
+            when(setuConfig.getMaintenanceBatchSize()).thenReturn(100);
+            when(bankAccountRepository.expireStalePendingConsents(any(Instant.class), any(Instant.class), eq(100)))
+                    .thenReturn(3);
 
             scheduler.cleanupStalePendingConsents();
 
-            verify(bankAccountRepository).save(argThat(acc -> "EXPIRED".equals(acc.getConsentStatus())));
+            ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+            verify(bankAccountRepository, times(1)).expireStalePendingConsents(cutoff.capture(), any(Instant.class), eq(100));
+            assertTrue(cutoff.getValue().isBefore(Instant.now().minus(23, ChronoUnit.HOURS)));
+            verify(bankAccountRepository, never()).save(any(BankAccount.class));
         }
 
         @Test
-        void shouldNotMarkRecentPendingConsents() {
-            BankAccount recentAccount = createAccount("PENDING", null);
-            recentAccount.setCreatedAt(Instant.now().minus(12, ChronoUnit.HOURS));
+        void shouldSkipWhenNotLeader() {
+            when(schedulerCoordinator.isLeader()).thenReturn(false);
 
-            when(bankAccountRepository.findByConsentStatus("PENDING")).thenReturn(List.of(recentAccount));
+            scheduler.cleanupStalePendingConsents();
+
+            verify(bankAccountRepository, never()).expireStalePendingConsents(any(), any(), anyInt());
+        }
+
+        @Test
+        void shouldRepeatWhileBatchesAreFull() {
+            when(setuConfig.getMaintenanceBatchSize()).thenReturn(2);
+            when(bankAccountRepository.expireStalePendingConsents(any(Instant.class), any(Instant.class), eq(2)))
+                    .thenReturn(2, 2, 1);
 
             scheduler.cleanupStalePendingConsents();
 
-            verify(bankAccountRepository, never()).save(any(BankAccount.class));
+            verify(bankAccountRepository, times(3)).expireStalePendingConsents(any(Instant.class), any(Instant.class), eq(2));
         }
     }
 
+    private SyncHistory createFailedSync(UUID accountId, int retryCount) {
+        SyncHistory history = new SyncHistory();
+        history.setBankAccountId(accountId);
+        history.setProfileId(UUID.randomUUID());
+        history.markFailed("SYNC_ERROR", "FIP unavailable");
+        history.setRetryCount(retryCount);
+        history.setNextRetryAt(Instant.now().minus(1, ChronoUnit.MINUTES));
+        return history;
+    }
+
     private BankAccount createAccount(String status, Instant lastSyncedAt) {
         BankAccount account = new BankAccount();
         account.setId(UUID.randomUUID());
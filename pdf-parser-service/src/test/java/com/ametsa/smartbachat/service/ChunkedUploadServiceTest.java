@@ -0,0 +1,354 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.ParserConfig;
+import com.ametsa.smartbachat.util.HashUtil;
+import com.ametsa.smartbachat.util.StatementPdfGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChunkedUploadServiceTest {
+
+    private static final int CHUNK_SIZE = 4096;
+
+    @Mock private ParserWorker parserWorker;
+
+    @TempDir
+    Path tempDir;
+
+    private final UUID profileId = UUID.randomUUID();
+    private ParserConfig config;
+    private LocalChunkStore chunkStore;
+    private ParseJobScheduler scheduler;
+    private ChunkedUploadService service;
+    private long now = 1_000_000L;
+
+    @BeforeEach
+    void setUp() {
+        config = new ParserConfig();
+        config.setChunkDir(tempDir.resolve("chunks").toString());
+        config.setChunkSizeBytes(CHUNK_SIZE);
+        config.setChunkUploadTtlHours(1);
+        chunkStore = new LocalChunkStore(config);
+        scheduler = new ParseJobScheduler(new InMemoryJobQueue(), config, new SimpleMeterRegistry());
+        service = new ChunkedUploadService(chunkStore, parserWorker, scheduler, config) {
+            @Override
+            long currentTimeMillis() {
+                return now;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    private static byte[] chunk(byte[] file, int index) {
+        return Arrays.copyOfRange(file, index * CHUNK_SIZE, Math.min(file.length, (index + 1) * CHUNK_SIZE));
+    }
+
+    private ChunkedUploadService.Status put(String uploadId, byte[] file, int index) {
+        byte[] bytes = chunk(file, index);
+        return service.putChunk(profileId, uploadId, index, bytes, HashUtil.sha256Hex(bytes));
+    }
+
+    private String begin(byte[] file) {
+        return service.begin(profileId, "statement.pdf", file.length, null).manifest().uploadId;
+    }
+
+    @Nested
+    @DisplayName("Chunk Tests")
+    class ChunkTests {
+
+        @Test
+        void shouldSplitIntoFixedSizeChunks() {
+            ChunkedUploadService.Status status = service.begin(profileId, "s.pdf", CHUNK_SIZE * 2L + 1, null);
+
+            assertEquals(3, status.manifest().totalChunks);
+            assertEquals(CHUNK_SIZE, status.manifest().chunkSize);
+            assertTrue(status.received().isEmpty());
+        }
+
+        @Test
+        void shouldRejectChecksumMismatch() {
+            byte[] file = new byte[CHUNK_SIZE + 10];
+            String uploadId = begin(file);
+
+            RuntimeException ex = assertThrows(RuntimeException.class,
+                    () -> service.putChunk(profileId, uploadId, 0, chunk(file, 0), "00"));
+
+            assertTrue(ex.getMessage().contains("Checksum mismatch"));
+            assertTrue(service.status(profileId, uploadId).received().isEmpty());
+        }
+
+        @Test
+        void shouldRejectWrongChunkSizeAndIndex() {
+            byte[] file = new byte[CHUNK_SIZE + 10];
+            String uploadId = begin(file);
+            byte[] shortChunk = new byte[10];
+
+            assertThrows(RuntimeException.class, () -> service.putChunk(profileId, uploadId, 0, shortChunk,
+                    HashUtil.sha256Hex(shortChunk)));
+            assertThrows(RuntimeException.class, () -> service.putChunk(profileId, uploadId, 2, shortChunk,
+                    HashUtil.sha256Hex(shortChunk)));
+        }
+
+        @Test
+        void shouldHideOtherProfilesUploads() {
+            String uploadId = begin(new byte[10]);
+
+            assertThrows(RuntimeException.class, () -> service.status(UUID.randomUUID(), uploadId));
+        }
+
+        @Test
+        void shouldReportReceivedChunksForResume() {
+            byte[] file = new byte[CHUNK_SIZE * 3];
+            String uploadId = begin(file);
+
+            put(uploadId, file, 2);
+            put(uploadId, file, 0);
+
+            assertEquals(List.of(0, 2), List.copyOf(service.status(profileId, uploadId).received()));
+        }
+
+        @Test
+        void shouldListOnlyFinishedChunksDuringConcurrentPuts() throws Exception {
+            byte[] file = new byte[CHUNK_SIZE * 8];
+            new Random(7).nextBytes(file);
+            String uploadId = begin(file);
+
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<?>> puts = new ArrayList<>();
+                for (int round = 0; round < 20; round++) {
+                    for (int i = 0; i < 8; i++) {
+                        int index = i;
+                        // Re-sent chunks replace each other while the others list the directory
+                        puts.add(pool.submit(() -> put(uploadId, file, index)));
+                    }
+                }
+                for (Future<?> put : puts) {
+                    put.get(10, TimeUnit.SECONDS);
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+
+            assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7), List.copyOf(service.status(profileId, uploadId).received()));
+            try (Stream<Path> files = Files.list(tempDir.resolve("chunks").resolve(uploadId))) {
+                assertTrue(files.noneMatch(f -> f.getFileName().toString().startsWith(".tmp-")));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Complete Tests")
+    class CompleteTests {
+
+        @Test
+        void shouldAssembleOutOfOrderChunksAndParse() throws Exception {
+            byte[] file = StatementPdfGenerator.forBank("SBI").pages(3).toBytes();
+            String uploadId = service.begin(profileId, "statement.pdf", file.length,
+                    HashUtil.sha256Hex(file)).manifest().uploadId;
+            int chunks = (file.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            for (int i = chunks - 1; i >= 0; i--) {
+                put(uploadId, file, i);
+            }
+            UUID jobId = UUID.randomUUID();
+            AtomicReference<byte[]> parsed = new AtomicReference<>();
+            when(parserWorker.processLocalFile(anyString(), eq(profileId), eq("statement.pdf"), isNull()))
+                    .thenAnswer(inv -> {
+                        parsed.set(Files.readAllBytes(Paths.get((String) inv.getArgument(0))));
+                        return jobId;
+                    });
+
+            assertEquals(jobId, service.complete(profileId, uploadId, null));
+
+            assertArrayEquals(file, parsed.get());
+            assertTrue(chunkStore.manifest(uploadId).isEmpty());
+        }
+
+        @Test
+        void shouldRefuseIncompleteUpload() throws Exception {
+            byte[] file = new byte[CHUNK_SIZE * 2];
+            String uploadId = begin(file);
+            put(uploadId, file, 1);
+
+            RuntimeException ex = assertThrows(RuntimeException.class, () -> service.complete(profileId, uploadId, null));
+
+            assertTrue(ex.getMessage().contains("1 of 2"));
+            verifyNoInteractions(parserWorker);
+            assertTrue(chunkStore.manifest(uploadId).isPresent());
+        }
+
+        @Test
+        void shouldParseOnceWhenCompletedConcurrently() throws Exception {
+            byte[] file = StatementPdfGenerator.forBank("SBI").pages(1).toBytes();
+            String uploadId = begin(file);
+            for (int i = 0; i * CHUNK_SIZE < file.length; i++) {
+                put(uploadId, file, i);
+            }
+            UUID jobId = UUID.randomUUID();
+            CountDownLatch parsing = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            when(parserWorker.processLocalFile(anyString(), eq(profileId), eq("statement.pdf"), isNull()))
+                    .thenAnswer(inv -> {
+                        parsing.countDown();
+                        assertTrue(release.await(5, TimeUnit.SECONDS));
+                        return jobId;
+                    });
+            ExecutorService first = Executors.newSingleThreadExecutor();
+            try {
+                Future<UUID> firstComplete = first.submit(() -> service.complete(profileId, uploadId, null));
+                assertTrue(parsing.await(5, TimeUnit.SECONDS));
+
+                RuntimeException ex = assertThrows(RuntimeException.class,
+                        () -> service.complete(profileId, uploadId, null));
+                assertTrue(ex.getMessage().contains("already being completed"));
+
+                release.countDown();
+                assertEquals(jobId, firstComplete.get(5, TimeUnit.SECONDS));
+            } finally {
+                first.shutdownNow();
+            }
+
+            // Once finished, a repeat finds the upload gone rather than parsing it again
+            assertThrows(RuntimeException.class, () -> service.complete(profileId, uploadId, null));
+            verify(parserWorker, times(1)).processLocalFile(anyString(), any(), anyString(), any());
+        }
+
+        @Test
+        void shouldRejectWholeFileChecksumMismatch() {
+            byte[] file = new byte[CHUNK_SIZE];
+            String uploadId = service.begin(profileId, "s.pdf", file.length, "ab").manifest().uploadId;
+            put(uploadId, file, 0);
+
+            assertThrows(RuntimeException.class, () -> service.complete(profileId, uploadId, null));
+            verifyNoInteractions(parserWorker);
+        }
+    }
+
+    @Nested
+    @DisplayName("Preflight Tests")
+    class PreflightTests {
+
+        @Test
+        void shouldDetectBankBeforeComplete() {
+            byte[] file = StatementPdfGenerator.forBank("HDFC").pages(3).toBytes();
+            String uploadId = begin(file);
+            int chunks = (file.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+            ChunkedUploadService.Status status = null;
+            for (int i = 0; i < chunks; i++) {
+                status = put(uploadId, file, i);
+            }
+
+            assertEquals(ChunkedUploadService.PREFLIGHT_DETECTED, status.manifest().preflightStatus);
+            assertEquals("HDFC", status.manifest().detectedBank);
+            assertEquals("HDFC", service.status(profileId, uploadId).manifest().detectedBank);
+        }
+
+        @Test
+        void shouldFlagEncryptedStatement() {
+            byte[] file = StatementPdfGenerator.forBank("AXIS").pages(2).password("secret").toBytes();
+            String uploadId = begin(file);
+            int chunks = (file.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+            for (int i = 0; i < chunks; i++) {
+                put(uploadId, file, i);
+            }
+
+            assertEquals(ChunkedUploadService.PREFLIGHT_PASSWORD_REQUIRED,
+                    service.status(profileId, uploadId).manifest().preflightStatus);
+        }
+
+        @Test
+        void shouldNotLoadWholeFilesOverPreflightLimit() {
+            config.setPreflightMaxBytes(CHUNK_SIZE);
+            service = new ChunkedUploadService(chunkStore, parserWorker, scheduler, config);
+            byte[] file = new byte[CHUNK_SIZE * 3];
+            String uploadId = begin(file);
+
+            for (int i = 0; i < 3; i++) {
+                put(uploadId, file, i);
+            }
+
+            // Loading the whole file would have declared it UNDETECTED
+            assertEquals(ChunkedUploadService.PREFLIGHT_PENDING,
+                    service.status(profileId, uploadId).manifest().preflightStatus);
+        }
+
+        @Test
+        void shouldStayPendingWithoutFirstChunk() {
+            byte[] file = new byte[CHUNK_SIZE * 2];
+            String uploadId = begin(file);
+
+            put(uploadId, file, 1);
+
+            assertEquals(ChunkedUploadService.PREFLIGHT_PENDING,
+                    service.status(profileId, uploadId).manifest().preflightStatus);
+        }
+    }
+
+    @Nested
+    @DisplayName("Sweep Tests")
+    class SweepTests {
+
+        @Test
+        void shouldRemoveExpiredUploads() throws Exception {
+            byte[] file = new byte[10];
+            String stale = begin(file);
+            now += 2 * 3600_000L;
+            String fresh = begin(file);
+
+            service.sweep();
+
+            assertTrue(chunkStore.manifest(stale).isEmpty());
+            assertTrue(chunkStore.manifest(fresh).isPresent());
+        }
+
+        @Test
+        void shouldSkipDirectoriesThatAreNotUploads() throws Exception {
+            String stale = begin(new byte[10]);
+            Path stray = Files.createDirectories(tempDir.resolve("chunks").resolve("lost+found"));
+            now += 2 * 3600_000L;
+
+            service.sweep();
+
+            assertTrue(chunkStore.manifest(stale).isEmpty());
+            assertTrue(Files.isDirectory(stray));
+        }
+    }
+}
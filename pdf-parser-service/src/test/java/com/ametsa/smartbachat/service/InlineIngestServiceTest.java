@@ -0,0 +1,117 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.ParserConfig;
+import com.ametsa.smartbachat.exception.StatementPasswordRequiredException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InlineIngestServiceTest {
+
+    @Mock private ParserWorker parserWorker;
+    @Mock private GcsUploadService gcsUploadService;
+
+    private final UUID profileId = UUID.randomUUID();
+    private final byte[] pdf = new byte[]{'%', 'P', 'D', 'F'};
+    private SimpleMeterRegistry meterRegistry;
+    private ParseJobScheduler scheduler;
+    private InlineIngestService service;
+
+    @BeforeEach
+    void setUp() {
+        ParserConfig config = new ParserConfig();
+        config.setInlineMaxBytes(1024);
+        config.setInlineSloMs(200);
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new ParseJobScheduler(new InMemoryJobQueue(), config, meterRegistry);
+        service = new InlineIngestService(parserWorker, gcsUploadService, scheduler, config, meterRegistry);
+
+        lenient().when(gcsUploadService.objectName(anyString(), anyString(), anyString()))
+                .thenAnswer(inv -> "uploads/" + inv.getArgument(0) + "/" + inv.getArgument(1) + "/" + inv.getArgument(2));
+        lenient().when(gcsUploadService.getBucketName()).thenReturn("bucket");
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        scheduler.shutdown();
+    }
+
+    @Nested
+    @DisplayName("Ingest Tests")
+    class IngestTests {
+
+        @Test
+        void shouldParseInlineAndArchiveAlongside() throws Exception {
+            when(parserWorker.processInline(any(UUID.class), eq(pdf), eq(profileId), eq("s.pdf"),
+                    eq("bucket"), anyString(), isNull())).thenAnswer(inv -> inv.getArgument(0));
+
+            InlineIngestService.Result result = service.ingest(pdf, profileId, "s.pdf", null);
+
+            assertTrue(result.completed());
+            assertEquals("uploads/" + profileId + "/" + result.jobId() + "/s.pdf", result.objectName());
+            verify(gcsUploadService, timeout(1000)).upload(result.objectName(), pdf);
+            assertEquals(1, meterRegistry.get("ingest.inline").tag("outcome", "done").timer().count());
+        }
+
+        @Test
+        void shouldReturnJobIdWhenParseExceedsSlo() throws Exception {
+            when(parserWorker.processInline(any(UUID.class), any(), any(), any(), any(), any(), any()))
+                    .thenAnswer(inv -> {
+                        Thread.sleep(1000);
+                        return inv.getArgument(0);
+                    });
+
+            InlineIngestService.Result result = service.ingest(pdf, profileId, "s.pdf", null);
+
+            assertFalse(result.completed());
+            assertNotNull(result.jobId());
+            assertTrue(result.elapsedMs() < 1000);
+        }
+
+        @Test
+        void shouldPropagatePasswordRequired() throws Exception {
+            when(parserWorker.processInline(any(UUID.class), any(), any(), any(), any(), any(), any()))
+                    .thenAnswer(inv -> {
+                        throw new StatementPasswordRequiredException(inv.getArgument(0), "locked");
+                    });
+
+            assertThrows(StatementPasswordRequiredException.class,
+                    () -> service.ingest(pdf, profileId, "s.pdf", null));
+        }
+
+        @Test
+        void shouldNotFailWhenArchiveFails() throws Exception {
+            when(parserWorker.processInline(any(UUID.class), any(), any(), any(), any(), any(), any()))
+                    .thenAnswer(inv -> inv.getArgument(0));
+            doThrow(new RuntimeException("gcs down")).when(gcsUploadService).upload(anyString(), any());
+
+            InlineIngestService.Result result = service.ingest(pdf, profileId, "s.pdf", null);
+
+            assertTrue(result.completed());
+            verify(gcsUploadService, timeout(1000)).upload(anyString(), any());
+        }
+
+        @Test
+        void shouldRejectFilesOverLimit() {
+            assertFalse(service.accepts(2048));
+            assertThrows(RuntimeException.class, () -> service.ingest(new byte[2048], profileId, "s.pdf", null));
+            verifyNoInteractions(parserWorker);
+        }
+    }
+}
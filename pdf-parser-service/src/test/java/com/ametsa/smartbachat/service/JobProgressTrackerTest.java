@@ -0,0 +1,105 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.ParserConfig;
+import com.ametsa.smartbachat.repository.StatementMetadataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobProgressTrackerTest {
+
+    @Mock private StatementMetadataRepository metadataRepository;
+
+    private final UUID jobId = UUID.randomUUID();
+    private long now = 1_000_000L;
+    private JobProgressTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        ParserConfig config = new ParserConfig();
+        config.setProgressFlushPages(10);
+        config.setProgressFlushIntervalMs(2000);
+        tracker = new JobProgressTracker(metadataRepository, config) {
+            @Override
+            long currentTimeMillis() {
+                return now;
+            }
+        };
+    }
+
+    @Nested
+    @DisplayName("Flush Tests")
+    class FlushTests {
+
+        @Test
+        void shouldWritePageTotalOnStart() {
+            tracker.start(jobId, 120, 4096L);
+
+            verify(metadataRepository).startProgress(eq(jobId), eq(120), eq(4096L), any(Instant.class));
+        }
+
+        @Test
+        void shouldFlushOnlyEveryNPages() {
+            JobProgressTracker.Progress progress = tracker.start(jobId, 100, 0L);
+
+            for (int page = 1; page <= 25; page++) {
+                tracker.advance(progress, page);
+            }
+
+            verify(metadataRepository).updateProgress(eq(jobId), eq(10), any(Instant.class));
+            verify(metadataRepository).updateProgress(eq(jobId), eq(20), any(Instant.class));
+            verify(metadataRepository, times(2)).updateProgress(any(UUID.class), anyInt(), any(Instant.class));
+        }
+
+        @Test
+        void shouldFlushSlowJobsAfterInterval() {
+            JobProgressTracker.Progress progress = tracker.start(jobId, 100, 0L);
+
+            tracker.advance(progress, 1);
+            verify(metadataRepository, never()).updateProgress(any(UUID.class), anyInt(), any(Instant.class));
+
+            now += 2000;
+            tracker.advance(progress, 2);
+
+            verify(metadataRepository).updateProgress(eq(jobId), eq(2), any(Instant.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Live Progress Tests")
+    class LiveProgressTests {
+
+        @Test
+        void shouldReportUnflushedPagesWhileRunning() {
+            JobProgressTracker.Progress progress = tracker.start(jobId, 100, 0L);
+
+            tracker.advance(progress, 3);
+
+            assertEquals(3, tracker.pagesProcessed(jobId));
+            assertEquals(100, progress.getPageCount());
+        }
+
+        @Test
+        void shouldForgetFinishedJobs() {
+            tracker.start(jobId, 100, 0L);
+
+            tracker.finish(jobId);
+
+            assertNull(tracker.pagesProcessed(jobId));
+        }
+    }
+}
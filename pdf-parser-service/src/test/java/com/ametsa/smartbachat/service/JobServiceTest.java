@@ -0,0 +1,212 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.ParserConfig;
+import com.ametsa.smartbachat.entity.StatementMetadata;
+import com.ametsa.smartbachat.exception.StatementPasswordRequiredException;
+import com.ametsa.smartbachat.parser.AxisPdfParser;
+import com.ametsa.smartbachat.parser.HdfcPdfParser;
+import com.ametsa.smartbachat.parser.SbiPdfParser;
+import com.ametsa.smartbachat.repository.StatementMetadataRepository;
+import com.ametsa.smartbachat.repository.TransactionRepository;
+import com.ametsa.smartbachat.util.StatementPdfGenerator;
+import com.google.cloud.pubsub.v1.Publisher;
+import com.google.cloud.storage.Storage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs {@link JobService#submitPassword} through the parse job scheduler against a local (H2)
+ * database. Each repository call commits on its own so the scheduler's threads see the rows.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JobServiceTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private StatementMetadataRepository metadataRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @TempDir
+    Path tempDir;
+
+    private StatementSpillCache spillCache;
+    private ParseJobScheduler scheduler;
+    private JobService jobService;
+    private ParserWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        ParserFactory parserFactory = new ParserFactory(List.of(new SbiPdfParser(), new HdfcPdfParser(), new AxisPdfParser()));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ParserConfig parserConfig = new ParserConfig();
+        parserConfig.setSpillDir(tempDir.resolve("spill").toString());
+        parserConfig.setUnlockMaxAttempts(MAX_ATTEMPTS);
+        JobProgressTracker progressTracker = new JobProgressTracker(metadataRepository, parserConfig);
+        spillCache = new StatementSpillCache(parserConfig);
+        worker = new ParserWorker(mock(Storage.class), metadataRepository, transactionRepository, parserFactory,
+                new ParserMetrics(meterRegistry), progressTracker, spillCache, parserConfig);
+        scheduler = new ParseJobScheduler(new InMemoryJobQueue(), parserConfig, meterRegistry);
+        jobService = new JobService(metadataRepository, mock(Publisher.class), progressTracker, spillCache,
+                worker, scheduler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+        transactionRepository.deleteAll();
+        metadataRepository.deleteAll();
+    }
+
+    private UUID lockedStatement(StatementPdfGenerator statement) throws Exception {
+        Path file = statement.writeTo(tempDir.resolve(UUID.randomUUID() + ".pdf"));
+        return assertThrows(StatementPasswordRequiredException.class,
+                () -> worker.processLocalFile(file.toString(), UUID.randomUUID(), "locked.pdf", null)).getJobId();
+    }
+
+    private UUID ownerOf(UUID jobId) {
+        return metadataRepository.findById(jobId).orElseThrow().getProfileId();
+    }
+
+    /**
+     * Submits {@code password} from two threads at once and returns the unlocks that were queued.
+     */
+    private List<CompletableFuture<Void>> submitConcurrently(UUID jobId, String password) throws Exception {
+        UUID profileId = ownerOf(jobId);
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<CompletableFuture<Void>>> calls = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                calls.add(callers.submit(() -> {
+                    go.await();
+                    try {
+                        return jobService.submitPassword(jobId, profileId, password);
+                    } catch (RuntimeException e) {
+                        return null;
+                    }
+                }));
+            }
+            go.countDown();
+
+            List<CompletableFuture<Void>> accepted = new ArrayList<>();
+            for (Future<CompletableFuture<Void>> call : calls) {
+                CompletableFuture<Void> unlock = call.get(10, TimeUnit.SECONDS);
+                if (unlock != null) accepted.add(unlock);
+            }
+            return accepted;
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Nested
+    @DisplayName("Submit Password Tests")
+    class SubmitPasswordTests {
+
+        @Test
+        void shouldRefuseUnlockOnceSpillExpired() throws Exception {
+            UUID jobId = lockedStatement(StatementPdfGenerator.forBank("SBI").pages(2).password("secret"));
+            spillCache.invalidate(jobId);
+
+            RuntimeException ex = assertThrows(RuntimeException.class,
+                    () -> jobService.submitPassword(jobId, ownerOf(jobId), "secret"));
+
+            assertTrue(ex.getMessage().contains("no longer cached"));
+        }
+
+        @Test
+        void shouldRefuseUnlockForJobsNotWaitingForPassword() throws Exception {
+            Path file = StatementPdfGenerator.forBank("SBI").pages(1).writeTo(tempDir.resolve("open.pdf"));
+            UUID jobId = worker.processLocalFile(file.toString(), UUID.randomUUID(), "open.pdf", null);
+
+            RuntimeException ex = assertThrows(RuntimeException.class,
+                    () -> jobService.submitPassword(jobId, ownerOf(jobId), "secret"));
+
+            assertEquals("Job is not waiting for a password", ex.getMessage());
+        }
+
+        @Test
+        void shouldRefuseUnlockFromAnotherProfile() throws Exception {
+            UUID jobId = lockedStatement(StatementPdfGenerator.forBank("SBI").pages(2).password("secret"));
+
+            RuntimeException ex = assertThrows(RuntimeException.class,
+                    () -> jobService.submitPassword(jobId, UUID.randomUUID(), "secret"));
+
+            assertEquals("Job not found: " + jobId, ex.getMessage());
+            assertEquals("PASSWORD_REQUIRED", metadataRepository.findById(jobId).orElseThrow().getStatus());
+            assertTrue(spillCache.contains(jobId));
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrent Submit Password Tests")
+    class ConcurrentSubmitPasswordTests {
+
+        @Test
+        void shouldParseOnceWhenTheSamePasswordIsSubmittedTwice() throws Exception {
+            StatementPdfGenerator statement = StatementPdfGenerator.forBank("SBI").pages(3).password("secret");
+            UUID jobId = lockedStatement(statement);
+
+            List<CompletableFuture<Void>> accepted = submitConcurrently(jobId, "secret");
+
+            assertEquals(1, accepted.size());
+            accepted.get(0).get(30, TimeUnit.SECONDS);
+            StatementMetadata meta = metadataRepository.findById(jobId).orElseThrow();
+            assertEquals("DONE", meta.getStatus());
+            assertEquals(statement.rowCount(),
+                    transactionRepository.findByStatementIdOrderByTxnDateAscCreatedAtAsc(jobId).size());
+            assertFalse(spillCache.contains(jobId));
+        }
+
+        @Test
+        void shouldHoldTheAttemptCapUnderConcurrentWrongPasswords() throws Exception {
+            UUID jobId = lockedStatement(StatementPdfGenerator.forBank("SBI").pages(2).password("secret"));
+
+            int acceptedTotal = 0;
+            for (int round = 0; round < MAX_ATTEMPTS * 2; round++) {
+                List<CompletableFuture<Void>> accepted = submitConcurrently(jobId, "wrong-" + round);
+                for (CompletableFuture<Void> unlock : accepted) {
+                    unlock.get(30, TimeUnit.SECONDS);
+                }
+                acceptedTotal += accepted.size();
+            }
+
+            StatementMetadata meta = metadataRepository.findById(jobId).orElseThrow();
+            assertEquals(MAX_ATTEMPTS, acceptedTotal);
+            assertEquals("FAILED", meta.getStatus());
+            assertEquals(MAX_ATTEMPTS, meta.getPasswordAttempts());
+            assertFalse(spillCache.contains(jobId));
+            // Even the right password is refused now
+            assertThrows(RuntimeException.class, () -> jobService.submitPassword(jobId, ownerOf(jobId), "secret"));
+        }
+    }
+}
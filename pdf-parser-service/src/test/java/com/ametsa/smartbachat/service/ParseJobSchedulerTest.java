@@ -0,0 +1,264 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.ParserConfig;
+import com.ametsa.smartbachat.exception.ParserOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParseJobSchedulerTest {
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID carol = UUID.randomUUID();
+    private final List<String> order = Collections.synchronizedList(new ArrayList<>());
+    private final List<CompletableFuture<?>> futures = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private ParseJobScheduler scheduler;
+    private int maxQueuedPerProfile = 100;
+    private int maxQueued = 1000;
+    private long maxWaitMs = 5000;
+
+    private void start(int threads, int maxPerProfile, Map<String, Double> weights) {
+        ParserConfig config = new ParserConfig();
+        config.setSchedulerThreads(threads);
+        config.setSchedulerMaxPerProfile(maxPerProfile);
+        config.setSchedulerPriorityMaxBytes(1000);
+        config.setProfileWeights(weights);
+        config.setSchedulerMaxQueuedPerProfile(maxQueuedPerProfile);
+        config.setSchedulerMaxQueued(maxQueued);
+        config.setSchedulerMaxWaitMs(maxWaitMs);
+        config.setSchedulerRetryAfterSeconds(7);
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new ParseJobScheduler(new InMemoryJobQueue(), config, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Occupy a worker until the returned latch is released.
+     */
+    private CountDownLatch block(UUID profileId) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        futures.add(scheduler.submit(profileId, ParseJobScheduler.Lane.STANDARD, 1, () -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private void submit(UUID profileId, ParseJobScheduler.Lane lane, String name) {
+        futures.add(scheduler.submit(profileId, lane, 1, () -> order.add(name)));
+    }
+
+    private void awaitAll() {
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).orTimeout(5, TimeUnit.SECONDS).join();
+    }
+
+    @Nested
+    @DisplayName("Ordering Tests")
+    class OrderingTests {
+
+        @Test
+        void shouldInterleaveProfilesInsteadOfDrainingOneBacklog() throws Exception {
+            start(1, 1, Map.of());
+            CountDownLatch release = block(carol);
+            for (int i = 1; i <= 5; i++) submit(alice, ParseJobScheduler.Lane.STANDARD, "a" + i);
+            for (int i = 1; i <= 2; i++) submit(bob, ParseJobScheduler.Lane.STANDARD, "b" + i);
+
+            release.countDown();
+            awaitAll();
+
+            assertEquals(List.of("a1", "b1", "a2", "b2", "a3", "a4", "a5"), order);
+        }
+
+        @Test
+        void shouldRunPriorityLaneFirst() throws Exception {
+            start(1, 1, Map.of());
+            CountDownLatch release = block(carol);
+            for (int i = 1; i <= 3; i++) submit(alice, ParseJobScheduler.Lane.STANDARD, "a" + i);
+            submit(alice, ParseJobScheduler.Lane.PRIORITY, "unlock");
+
+            release.countDown();
+            awaitAll();
+
+            assertEquals("unlock", order.get(0));
+        }
+
+        @Test
+        void shouldGiveHeavierProfilesALargerShare() throws Exception {
+            start(1, 1, Map.of(alice.toString(), 2.0));
+            CountDownLatch release = block(carol);
+            for (int i = 1; i <= 4; i++) submit(alice, ParseJobScheduler.Lane.STANDARD, "a" + i);
+            for (int i = 1; i <= 2; i++) submit(bob, ParseJobScheduler.Lane.STANDARD, "b" + i);
+
+            release.countDown();
+            awaitAll();
+
+            assertEquals(List.of("a1", "a2", "b1", "a3", "a4", "b2"), order);
+        }
+
+        @Test
+        void shouldPickLaneBySize() {
+            start(1, 1, Map.of());
+
+            assertEquals(ParseJobScheduler.Lane.PRIORITY, scheduler.laneFor(1000));
+            assertEquals(ParseJobScheduler.Lane.STANDARD, scheduler.laneFor(1001));
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrency Cap Tests")
+    class ConcurrencyCapTests {
+
+        @Test
+        void shouldCapRunningJobsPerProfile() throws Exception {
+            start(2, 1, Map.of());
+            CountDownLatch release = block(alice);
+            submit(alice, ParseJobScheduler.Lane.STANDARD, "a2");
+            submit(bob, ParseJobScheduler.Lane.STANDARD, "b1");
+
+            // bob takes the free worker; alice's second job waits for her first
+            futures.get(2).get(5, TimeUnit.SECONDS);
+            assertEquals(List.of("b1"), order);
+            assertEquals(1, scheduler.queued(ParseJobScheduler.Lane.STANDARD));
+
+            release.countDown();
+            awaitAll();
+            assertEquals(List.of("b1", "a2"), order);
+            assertEquals(0, scheduler.queued(ParseJobScheduler.Lane.STANDARD));
+        }
+
+        @Test
+        void shouldPropagateJobFailures() {
+            start(1, 1, Map.of());
+
+            RuntimeException ex = assertThrows(RuntimeException.class,
+                    () -> scheduler.run(alice, ParseJobScheduler.Lane.STANDARD, 1, () -> {
+                        throw new RuntimeException("boom");
+                    }));
+
+            assertEquals("boom", ex.getMessage());
+        }
+    }
+
+    @Nested
+    @DisplayName("Admission Tests")
+    class AdmissionTests {
+
+        @Test
+        void shouldRefuseProfileOverItsQueueCapWith429() throws Exception {
+            maxQueuedPerProfile = 2;
+            start(1, 1, Map.of());
+            CountDownLatch release = block(carol);
+            submit(alice, ParseJobScheduler.Lane.STANDARD, "a1");
+            submit(alice, ParseJobScheduler.Lane.STANDARD, "a2");
+
+            ParserOverloadedException ex = assertThrows(ParserOverloadedException.class,
+                    () -> submit(alice, ParseJobScheduler.Lane.STANDARD, "a3"));
+            assertEquals(429, ex.getHttpStatusCode());
+            assertEquals(7, ex.getRetryAfterSeconds());
+            // Other profiles still get in
+            submit(bob, ParseJobScheduler.Lane.STANDARD, "b1");
+
+            release.countDown();
+            awaitAll();
+            assertEquals(List.of("a1", "b1", "a2"), order);
+            // Capacity frees up once queued jobs start
+            submit(alice, ParseJobScheduler.Lane.STANDARD, "a4");
+            awaitAll();
+        }
+
+        @Test
+        void shouldRefuseEveryoneWith503WhenBacklogIsFull() throws Exception {
+            maxQueued = 2;
+            start(1, 1, Map.of());
+            CountDownLatch release = block(carol);
+            submit(alice, ParseJobScheduler.Lane.STANDARD, "a1");
+            submit(bob, ParseJobScheduler.Lane.PRIORITY, "b1");
+
+            ParserOverloadedException ex = assertThrows(ParserOverloadedException.class,
+                    () -> submit(UUID.randomUUID(), ParseJobScheduler.Lane.PRIORITY, "x"));
+            assertEquals(503, ex.getHttpStatusCode());
+
+            release.countDown();
+            awaitAll();
+            assertEquals(List.of("b1", "a1"), order);
+        }
+
+        @Test
+        void shouldWithdrawJobThatDoesNotStartInTime() throws Exception {
+            maxWaitMs = 100;
+            maxQueuedPerProfile = 1;
+            start(1, 1, Map.of());
+            CountDownLatch release = block(carol);
+
+            ParserOverloadedException ex = assertThrows(ParserOverloadedException.class,
+                    () -> scheduler.run(alice, ParseJobScheduler.Lane.STANDARD, 1, () -> order.add("late")));
+            assertEquals(503, ex.getHttpStatusCode());
+            assertEquals(0, scheduler.queued(ParseJobScheduler.Lane.STANDARD));
+
+            // Neither alice's queue cap nor her place in line still counts the withdrawn job
+            submit(alice, ParseJobScheduler.Lane.STANDARD, "a1");
+            submit(bob, ParseJobScheduler.Lane.STANDARD, "b1");
+            release.countDown();
+            awaitAll();
+            assertEquals(List.of("a1", "b1"), order);
+        }
+
+        @Test
+        void shouldWaitForJobThatStartedBeforeTheTimeout() throws Exception {
+            maxWaitMs = 100;
+            start(1, 1, Map.of());
+
+            String result = scheduler.run(alice, ParseJobScheduler.Lane.STANDARD, 1, () -> {
+                Thread.sleep(300);
+                return "done";
+            });
+
+            assertEquals("done", result);
+        }
+    }
+
+    @Nested
+    @DisplayName("Metrics Tests")
+    class MetricsTests {
+
+        @Test
+        void shouldReportQueueDepthAndWaitTime() throws Exception {
+            start(1, 1, Map.of());
+            CountDownLatch release = block(carol);
+            submit(alice, ParseJobScheduler.Lane.STANDARD, "a1");
+            submit(bob, ParseJobScheduler.Lane.PRIORITY, "b1");
+
+            assertEquals(1, meterRegistry.get("parser.queue.depth").tag("lane", "standard").gauge().value());
+            assertEquals(1, meterRegistry.get("parser.queue.depth").tag("lane", "priority").gauge().value());
+            assertEquals(1, meterRegistry.get("parser.workers.busy").gauge().value());
+
+            release.countDown();
+            awaitAll();
+
+            assertEquals(0, meterRegistry.get("parser.queue.depth").tag("lane", "standard").gauge().value());
+            assertEquals(2, meterRegistry.get("parser.queue.wait").tag("lane", "standard").timer().count());
+            assertEquals(1, meterRegistry.get("parser.queue.wait").tag("lane", "priority").timer().count());
+        }
+    }
+}
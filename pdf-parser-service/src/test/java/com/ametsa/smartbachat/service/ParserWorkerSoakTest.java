@@ -0,0 +1,112 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.ParserConfig;
+import com.ametsa.smartbachat.entity.StatementMetadata;
+import com.ametsa.smartbachat.parser.AxisPdfParser;
+import com.ametsa.smartbachat.parser.HdfcPdfParser;
+import com.ametsa.smartbachat.parser.SbiPdfParser;
+import com.ametsa.smartbachat.repository.StatementMetadataRepository;
+import com.ametsa.smartbachat.repository.TransactionRepository;
+import com.ametsa.smartbachat.util.StatementPdfGenerator;
+import com.google.cloud.storage.Storage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Drives {@link ParserWorker#processLocalFile} end to end over large generated statements,
+ * against a local (H2) database. Tagged {@code soak}: excluded from {@code ./gradlew test},
+ * run with {@code ./gradlew soakTest}.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Tag("soak")
+class ParserWorkerSoakTest {
+
+    private static final int SOAK_PAGES = 20;
+    private static final int SOAK_RUNS = 3;
+
+    @Autowired
+    private StatementMetadataRepository metadataRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @TempDir
+    Path tempDir;
+
+    private ParserWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        ParserFactory parserFactory = new ParserFactory(List.of(new SbiPdfParser(), new HdfcPdfParser(), new AxisPdfParser()));
+        ParserConfig parserConfig = new ParserConfig();
+        parserConfig.setSpillDir(tempDir.resolve("spill").toString());
+        worker = new ParserWorker(mock(Storage.class), metadataRepository, transactionRepository, parserFactory,
+                new ParserMetrics(new SimpleMeterRegistry()), new JobProgressTracker(metadataRepository, parserConfig),
+                new StatementSpillCache(parserConfig), parserConfig);
+    }
+
+    private UUID process(StatementPdfGenerator statement) throws Exception {
+        String filename = statement.getBankCode().toLowerCase() + "-" + UUID.randomUUID() + ".pdf";
+        Path file = statement.writeTo(tempDir.resolve(filename));
+        return worker.processLocalFile(file.toString(), UUID.randomUUID(), filename, null);
+    }
+
+    private int savedRows(UUID statementId) {
+        return transactionRepository.findByStatementIdOrderByTxnDateAscCreatedAtAsc(statementId).size();
+    }
+
+    @Nested
+    @DisplayName("Soak Tests")
+    class SoakTests {
+
+        @ParameterizedTest
+        @ValueSource(strings = {"SBI", "HDFC", "AXIS"})
+        void shouldParseEveryRowOfRepeatedMultiPageStatements(String bankCode) throws Exception {
+            for (int run = 0; run < SOAK_RUNS; run++) {
+                StatementPdfGenerator statement = StatementPdfGenerator.forBank(bankCode)
+                        .pages(SOAK_PAGES)
+                        .seed(run);
+
+                UUID jobId = process(statement);
+
+                StatementMetadata meta = metadataRepository.findById(jobId).orElseThrow();
+                assertEquals("DONE", meta.getStatus());
+                assertEquals(statement.rowCount(), savedRows(jobId));
+            }
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"SBI", "HDFC", "AXIS"})
+        void shouldSurviveDenseMergedCellLayouts(String bankCode) throws Exception {
+            StatementPdfGenerator statement = StatementPdfGenerator.forBank(bankCode)
+                    .pages(SOAK_PAGES)
+                    .rowsPerPage(60)
+                    .mergedCells(true);
+
+            UUID jobId = process(statement);
+
+            assertEquals("DONE", metadataRepository.findById(jobId).orElseThrow().getStatus());
+            // SBI folds each page's BALANCE B/F row into the first transaction below it
+            int saved = savedRows(jobId);
+            assertTrue(saved >= statement.rowCount() - SOAK_PAGES, "saved " + saved);
+            assertTrue(saved <= statement.rowCount(), "saved " + saved);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.ParserConfig;
+import com.ametsa.smartbachat.entity.StatementMetadata;
+import com.ametsa.smartbachat.exception.StatementPasswordRequiredException;
+import com.ametsa.smartbachat.parser.AxisPdfParser;
+import com.ametsa.smartbachat.parser.HdfcPdfParser;
+import com.ametsa.smartbachat.parser.SbiPdfParser;
+import com.ametsa.smartbachat.repository.StatementMetadataRepository;
+import com.ametsa.smartbachat.repository.TransactionRepository;
+import com.ametsa.smartbachat.util.StatementPdfGenerator;
+import com.google.cloud.pubsub.v1.Publisher;
+import com.google.cloud.storage.Storage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs {@link ParserWorker} over PDFs from {@link StatementPdfGenerator} against a local (H2)
+ * database: metrics, persisted job stats, encrypted statements and re-uploads.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class ParserWorkerTest {
+
+    @Autowired
+    private StatementMetadataRepository metadataRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @TempDir
+    Path tempDir;
+
+    private final List<Integer> progressSteps = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private StatementSpillCache spillCache;
+    private JobService jobService;
+    private ParserWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        ParserFactory parserFactory = new ParserFactory(List.of(new SbiPdfParser(), new HdfcPdfParser(), new AxisPdfParser()));
+        meterRegistry = new SimpleMeterRegistry();
+        ParserConfig parserConfig = new ParserConfig();
+        parserConfig.setSpillDir(tempDir.resolve("spill").toString());
+        parserConfig.setUnlockMaxAttempts(3);
+        JobProgressTracker progressTracker = new JobProgressTracker(metadataRepository, parserConfig) {
+            @Override
+            public void advance(Progress progress, int pagesProcessed) {
+                progressSteps.add(pagesProcessed);
+                super.advance(progress, pagesProcessed);
+            }
+        };
+        spillCache = new StatementSpillCache(parserConfig);
+        worker = new ParserWorker(mock(Storage.class), metadataRepository, transactionRepository, parserFactory,
+                new ParserMetrics(meterRegistry), progressTracker, spillCache, parserConfig);
+        jobService = new JobService(metadataRepository, mock(Publisher.class), progressTracker, spillCache,
+                worker, mock(ParseJobScheduler.class));
+    }
+
+    private UUID process(StatementPdfGenerator statement, String password) throws Exception {
+        Path file = write(statement);
+        return worker.processLocalFile(file.toString(), UUID.randomUUID(), file.getFileName().toString(), password);
+    }
+
+    private Path write(StatementPdfGenerator statement) throws Exception {
+        String filename = statement.getBankCode().toLowerCase() + "-" + UUID.randomUUID() + ".pdf";
+        return statement.writeTo(tempDir.resolve(filename));
+    }
+
+    /**
+     * Runs the unlock in-thread, the way the scheduler would after an accepted submit.
+     */
+    private void unlock(UUID jobId, String password) {
+        UUID profileId = metadataRepository.findById(jobId).orElseThrow().getProfileId();
+        metadataRepository.markPasswordSubmitted(jobId, profileId, Instant.now());
+        worker.unlockJob(jobId, password);
+    }
+
+    private int savedRows(UUID statementId) {
+        return transactionRepository.findByStatementIdOrderByTxnDateAscCreatedAtAsc(statementId).size();
+    }
+
+    @Nested
+    @DisplayName("Metrics Tests")
+    class MetricsTests {
+
+        @Test
+        void shouldRecordStagesRowsAndPagesByBankAndMode() throws Exception {
+            StatementPdfGenerator statement = StatementPdfGenerator.forBank("HDFC").pages(10);
+
+            process(statement, null);
+
+            assertEquals(10, meterRegistry.get("parser.pages").tags("bank", "hdfc", "mode", "full").counter().count());
+            assertEquals(statement.rowCount(),
+                    meterRegistry.get("parser.rows").tags("bank", "hdfc", "mode", "full").counter().count());
+            for (String stage : List.of("load", "detect", "extract", "parse", "insert")) {
+                assertEquals(1, meterRegistry.get("parser.stage").tags("stage", stage, "bank", "hdfc").timer().count(), stage);
+            }
+            // 300 rows in batches of 200
+            assertEquals(2, meterRegistry.get("parser.insert.batch").tags("bank", "hdfc").timer().count());
+            assertEquals(1, meterRegistry.get("parser.job").tags("source", "local", "outcome", "done").timer().count());
+            assertTrue(meterRegistry.get("parser.download.bytes").summary().totalAmount() > 0);
+        }
+
+        @Test
+        void shouldRecordLockedJobsWithUnknownBank() {
+            StatementPdfGenerator statement = StatementPdfGenerator.forBank("SBI").password("secret");
+
+            assertThrows(StatementPasswordRequiredException.class, () -> process(statement, null));
+
+            assertEquals(1, meterRegistry.get("parser.job")
+                    .tags("bank", "unknown", "source", "local", "outcome", "password_required").timer().count());
+        }
+    }
+
+    @Nested
+    @DisplayName("Job Stats Tests")
+    class JobStatsTests {
+
+        @Test
+        void shouldPersistStageTimingsAndExposeThemOnStatus() throws Exception {
+            StatementPdfGenerator statement = StatementPdfGenerator.forBank("SBI").pages(8);
+
+            UUID jobId = process(statement, null);
+
+            JobService.JobStatusDto status = jobService.getStatus(jobId);
+            assertEquals("DONE", status.getStatus());
+            assertEquals(8, status.getPageCount());
+            assertEquals(8, status.getPagesProcessed());
+            assertEquals(statement.rowCount(), status.getRowCount());
+            assertTrue(status.getFileBytes() > 0);
+            assertNotNull(status.getDetectMs());
+            assertNotNull(status.getExtractMs());
+            assertNotNull(status.getParseMs());
+            assertNotNull(status.getPersistMs());
+            assertTrue(status.getProcessingMs() >= status.getParseMs());
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"SBI", "HDFC"})
+        void shouldAdvanceProgressPageByPage(String bankCode) throws Exception {
+            // HDFC parses the whole document at once; its progress follows text extraction
+            process(StatementPdfGenerator.forBank(bankCode).pages(5), null);
+
+            assertEquals(List.of(1, 2, 3, 4, 5), progressSteps);
+        }
+    }
+
+    @Nested
+    @DisplayName("Encrypted Statement Tests")
+    class EncryptedStatementTests {
+
+        @Test
+        void shouldParseEncryptedStatementWithPassword() throws Exception {
+            StatementPdfGenerator statement = StatementPdfGenerator.forBank("HDFC").pages(5).password("secret");
+
+            UUID jobId = process(statement, "secret");
+
+            assertEquals("DONE", metadataRepository.findById(jobId).orElseThrow().getStatus());
+            assertEquals(statement.rowCount(), savedRows(jobId));
+        }
+
+        @Test
+        void shouldHoldEncryptedStatementForUnlockWithoutPassword() {
+            StatementPdfGenerator statement = StatementPdfGenerator.forBank("HDFC").pages(5).password("secret");
+
+            StatementPasswordRequiredException ex =
+                    assertThrows(StatementPasswordRequiredException.class, () -> process(statement, null));
+
+            assertEquals("PASSWORD_REQUIRED", metadataRepository.findById(ex.getJobId()).orElseThrow().getStatus());
+            assertTrue(spillCache.contains(ex.getJobId()));
+        }
+
+        @Test
+        void shouldUnlockFromSpillCacheWithCorrectPassword() {
+            StatementPdfGenerator statement = StatementPdfGenerator.forBank("AXIS").pages(5).password("secret");
+            UUID jobId = assertThrows(StatementPasswordRequiredException.class, () -> process(statement, null)).getJobId();
+
+            unlock(jobId, "secret");
+
+            StatementMetadata meta = metadataRepository.findById(jobId).orElseThrow();
+            assertEquals("DONE", meta.getStatus());
+            assertNull(meta.getErrorMessage());
+            assertEquals(statement.rowCount(), savedRows(jobId));
+            assertFalse(spillCache.contains(jobId));
+        }
+
+        @Test
+        void shouldKeepWaitingAfterWrongPassword() {
+            StatementPdfGenerator statement = StatementPdfGenerator.forBank("SBI").pages(2).password("secret");
+            UUID jobId = assertThrows(StatementPasswordRequiredException.class, () -> process(statement, null)).getJobId();
+
+            unlock(jobId, "wrong");
+
+            assertEquals("PASSWORD_REQUIRED", metadataRepository.findById(jobId).orElseThrow().getStatus());
+            assertTrue(spillCache.contains(jobId));
+        }
+
+        @Test
+        void shouldNotRunUnlockForJobThatWasNotSubmitted() {
+            StatementPdfGenerator statement = StatementPdfGenerator.forBank("SBI").pages(2).password("secret");
+            UUID jobId = assertThrows(StatementPasswordRequiredException.class, () -> process(statement, null)).getJobId();
+
+            worker.unlockJob(jobId, "secret");
+
+            assertEquals("PASSWORD_REQUIRED", metadataRepository.findById(jobId).orElseThrow().getStatus());
+            assertEquals(0, savedRows(jobId));
+            assertTrue(spillCache.contains(jobId));
+        }
+
+        @Test
+        void shouldFailJobAndDropSpillAfterTooManyWrongPasswords() {
+            StatementPdfGenerator statement = StatementPdfGenerator.forBank("SBI").pages(2).password("secret");
+            UUID jobId = assertThrows(StatementPasswordRequiredException.class, () -> process(statement, null)).getJobId();
+
+            unlock(jobId, "wrong-1");
+            unlock(jobId, "wrong-2");
+            assertEquals("PASSWORD_REQUIRED", metadataRepository.findById(jobId).orElseThrow().getStatus());
+
+            unlock(jobId, "wrong-3");
+
+            StatementMetadata meta = metadataRepository.findById(jobId).orElseThrow();
+            assertEquals("FAILED", meta.getStatus());
+            assertEquals(3, meta.getPasswordAttempts());
+            assertFalse(spillCache.contains(jobId));
+        }
+    }
+
+    @Nested
+    @DisplayName("Duplicate Statement Tests")
+    class DuplicateStatementTests {
+
+        @Test
+        void shouldLinkReuploadToExistingStatement() throws Exception {
+            StatementPdfGenerator statement = StatementPdfGenerator.forBank("SBI").pages(4);
+            Path file = write(statement);
+            UUID profileId = UUID.randomUUID();
+            UUID first = worker.processLocalFile(file.toString(), profileId, "a.pdf", null);
+
+            UUID second = worker.processLocalFile(file.toString(), profileId, "b.pdf", null);
+
+            StatementMetadata original = metadataRepository.findById(first).orElseThrow();
+            StatementMetadata duplicate = metadataRepository.findById(second).orElseThrow();
+            assertEquals("DONE", duplicate.getStatus());
+            assertEquals(first, duplicate.getDuplicateOf());
+            assertEquals(original.getContentSha256(), duplicate.getContentSha256());
+            assertEquals(64, duplicate.getContentSha256().length());
+            assertEquals(statement.rowCount(), duplicate.getRowCount());
+            assertEquals(0, savedRows(second));
+            assertEquals(first, jobService.transactionSourceId(second));
+            assertEquals(first, jobService.getStatus(second).getDuplicateOf());
+            assertEquals(1, meterRegistry.get("parser.job").tags("outcome", "duplicate").timer().count());
+        }
+
+        @Test
+        void shouldParseSameStatementAgainForAnotherProfile() throws Exception {
+            StatementPdfGenerator statement = StatementPdfGenerator.forBank("HDFC").pages(2);
+            Path file = write(statement);
+            worker.processLocalFile(file.toString(), UUID.randomUUID(), "a.pdf", null);
+
+            UUID other = worker.processLocalFile(file.toString(), UUID.randomUUID(), "a.pdf", null);
+
+            assertNull(metadataRepository.findById(other).orElseThrow().getDuplicateOf());
+            assertEquals(statement.rowCount(), savedRows(other));
+        }
+
+        @Test
+        void shouldParseAgainWhenEarlierUploadFailed() throws Exception {
+            StatementPdfGenerator statement = StatementPdfGenerator.forBank("AXIS").pages(2).password("secret");
+            Path file = write(statement);
+            UUID profileId = UUID.randomUUID();
+            assertThrows(StatementPasswordRequiredException.class,
+                    () -> worker.processLocalFile(file.toString(), profileId, "a.pdf", null));
+
+            UUID retry = worker.processLocalFile(file.toString(), profileId, "a.pdf", "secret");
+
+            assertNull(metadataRepository.findById(retry).orElseThrow().getDuplicateOf());
+            assertEquals(statement.rowCount(), savedRows(retry));
+        }
+
+        @Test
+        void shouldLinkEncryptedReuploadWithoutPassword() throws Exception {
+            StatementPdfGenerator statement = StatementPdfGenerator.forBank("AXIS").pages(2).password("secret");
+            Path file = write(statement);
+            UUID profileId = UUID.randomUUID();
+            UUID first = assertThrows(StatementPasswordRequiredException.class,
+                    () -> worker.processLocalFile(file.toString(), profileId, "a.pdf", null)).getJobId();
+            unlock(first, "secret");
+
+            UUID second = worker.processLocalFile(file.toString(), profileId, "a.pdf", null);
+
+            assertEquals("DONE", metadataRepository.findById(second).orElseThrow().getStatus());
+            assertEquals(first, metadataRepository.findById(second).orElseThrow().getDuplicateOf());
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.SetuConfig;
+import com.ametsa.smartbachat.entity.BankAccount;
+import com.ametsa.smartbachat.entity.SchedulerNode;
+import com.ametsa.smartbachat.entity.SyncHistory;
+import com.ametsa.smartbachat.repository.BankAccountRepository;
+import com.ametsa.smartbachat.repository.SchedulerNodeRepository;
+import com.ametsa.smartbachat.repository.SyncHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs several in-process scheduler nodes against a local (H2) database.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class SchedulerCoordinatorIntegrationTest {
+
+    @Autowired
+    private SchedulerNodeRepository nodeRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private SyncHistoryRepository syncHistoryRepository;
+
+    @BeforeEach
+    void setUp() {
+        nodeRepository.deleteAll();
+        bankAccountRepository.deleteAll();
+        syncHistoryRepository.deleteAll();
+    }
+
+    private SchedulerCoordinator newNode(String nodeId) {
+        SetuConfig config = new SetuConfig();
+        config.setSchedulerNodeId(nodeId);
+        return new SchedulerCoordinator(nodeRepository, bankAccountRepository, config);
+    }
+
+    @Nested
+    @DisplayName("Sharding Tests")
+    class ShardingTests {
+
+        @Test
+        void shouldPartitionAccountsAcrossLiveNodes() {
+            List<SchedulerCoordinator> nodes = List.of(newNode("node-a"), newNode("node-b"), newNode("node-c"));
+            nodes.forEach(SchedulerCoordinator::heartbeat);
+
+            List<SchedulerCoordinator.ShardAssignment> shards = new ArrayList<>();
+            for (SchedulerCoordinator node : nodes) {
+                shards.add(node.currentAssignment());
+            }
+
+            int[] perNode = new int[nodes.size()];
+            for (int i = 0; i < 3000; i++) {
+                UUID accountId = UUID.randomUUID();
+                int owners = 0;
+                for (int n = 0; n < shards.size(); n++) {
+                    assertEquals(3, shards.get(n).getCount());
+                    if (shards.get(n).owns(accountId)) {
+                        owners++;
+                        perNode[n]++;
+                    }
+                }
+                assertEquals(1, owners, "Every account must be owned by exactly one node");
+            }
+
+            // Work is split roughly evenly
+            for (int count : perNode) {
+                assertTrue(count > 800 && count < 1200, "Unbalanced shard: " + count);
+            }
+        }
+
+        @Test
+        void shouldSelectExactlyTheOwnedAccountsInTheDatabase() {
+            List<UUID> ids = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                ids.add(saveAccount().getId());
+            }
+
+            for (int n = 0; n < 3; n++) {
+                SchedulerCoordinator.ShardAssignment shard = new SchedulerCoordinator.ShardAssignment(n, 3);
+                List<UUID> selected = bankAccountRepository.findByConsentStatusInIdRange(
+                                "ACTIVE", shard.firstId(), shard.lastId(), PageRequest.of(0, 100))
+                        .stream().map(BankAccount::getId).toList();
+
+                assertEquals(ids.stream().filter(shard::owns).count(), selected.size());
+                assertTrue(selected.stream().allMatch(shard::owns));
+            }
+        }
+
+        @Test
+        void shouldSelectExactlyTheOwnedDueRetriesInTheDatabase() {
+            List<UUID> accountIds = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                SyncHistory failed = new SyncHistory();
+                failed.setBankAccountId(UUID.randomUUID());
+                failed.setProfileId(UUID.randomUUID());
+                failed.markFailed("SYNC_ERROR", "FIP unavailable");
+                failed.setNextRetryAt(Instant.now().minus(1, ChronoUnit.MINUTES));
+                accountIds.add(syncHistoryRepository.save(failed).getBankAccountId());
+            }
+
+            for (int n = 0; n < 3; n++) {
+                SchedulerCoordinator.ShardAssignment shard = new SchedulerCoordinator.ShardAssignment(n, 3);
+                List<UUID> selected = syncHistoryRepository.findDueRetriesInAccountRange(
+                                "FAILED", Instant.now(), shard.firstId(), shard.lastId(), PageRequest.of(0, 100))
+                        .stream().map(SyncHistory::getBankAccountId).toList();
+
+                assertEquals(accountIds.stream().filter(shard::owns).count(), selected.size());
+                assertTrue(selected.stream().allMatch(shard::owns));
+            }
+        }
+
+        @Test
+        void shouldDropNodesWithExpiredHeartbeat() {
+            SchedulerCoordinator nodeA = newNode("node-a");
+            nodeA.heartbeat();
+            Instant stale = Instant.now().minus(10, ChronoUnit.MINUTES);
+            nodeRepository.save(new SchedulerNode("node-b", stale, stale));
+
+            SchedulerCoordinator.ShardAssignment shard = nodeA.currentAssignment();
+
+            assertEquals(1, shard.getCount());
+            assertTrue(nodeA.isLeader());
+        }
+
+        @Test
+        void shouldElectSingleLeader() {
+            SchedulerCoordinator nodeA = newNode("node-a");
+            SchedulerCoordinator nodeB = newNode("node-b");
+            nodeA.heartbeat();
+            nodeB.heartbeat();
+
+            assertTrue(nodeA.isLeader());
+            assertFalse(nodeB.isLeader());
+        }
+    }
+
+    @Nested
+    @DisplayName("Sync Lease Tests")
+    class SyncLeaseTests {
+
+        @Test
+        void shouldGrantLeaseToOneNodeAtATime() {
+            BankAccount account = saveAccount();
+            SchedulerCoordinator nodeA = newNode("node-a");
+            SchedulerCoordinator nodeB = newNode("node-b");
+
+            assertTrue(nodeA.tryClaim(account.getId()));
+            assertFalse(nodeB.tryClaim(account.getId()));
+
+            nodeA.release(account.getId());
+
+            assertTrue(nodeB.tryClaim(account.getId()));
+        }
+
+        @Test
+        void shouldTakeOverExpiredLease() {
+            BankAccount account = saveAccount();
+            account.setSyncLeaseOwner("node-dead");
+            account.setSyncLeaseUntil(Instant.now().minus(1, ChronoUnit.MINUTES));
+            bankAccountRepository.save(account);
+
+            assertTrue(newNode("node-a").tryClaim(account.getId()));
+        }
+    }
+
+    private BankAccount saveAccount() {
+        BankAccount account = new BankAccount();
+        account.setId(UUID.randomUUID());
+        account.setProfileId(UUID.randomUUID());
+        account.setConsentId("consent-" + UUID.randomUUID());
+        account.setConsentStatus("ACTIVE");
+        account.setIsActive(true);
+        account.setCreatedAt(Instant.now());
+        return bankAccountRepository.save(account);
+    }
+}
@@ -0,0 +1,260 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.SetuConfig;
+import com.ametsa.smartbachat.dto.setu.SetuConsentResponse;
+import com.ametsa.smartbachat.exception.SetuApiException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exercises the Setu client's retry, circuit breaker and adaptive concurrency limit
+ * against a local HTTP stub that injects scripted faults.
+ */
+class SetuAggregatorServiceFaultInjectionTest {
+
+    private static final String CONSENT_JSON =
+            "{\"id\": \"consent-123\", \"url\": \"https://setu.co/consent\", \"status\": \"PENDING\"}";
+
+    private FaultInjectingStub stub;
+    private SetuConfig setuConfig;
+    private HttpClient httpClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new FaultInjectingStub();
+        setuConfig = createSetuConfig(stub.baseUrl());
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.stop();
+    }
+
+    private SetuAggregatorService newService() {
+        return new SetuAggregatorService(setuConfig, new ObjectMapper(), httpClient);
+    }
+
+    private SetuConsentResponse createConsent(SetuAggregatorService service) {
+        return service.createConsent("9876543210", LocalDate.now().minusMonths(1), LocalDate.now());
+    }
+
+    private SetuEndpointGuard guard(SetuAggregatorService service, String endpoint) {
+        return service.getEndpointGuards().stream()
+                .filter(g -> g.getEndpoint().equals(endpoint))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Nested
+    @DisplayName("Retry-After Tests")
+    class RetryAfterTests {
+
+        @Test
+        void shouldWaitForRetryAfterBeforeRetrying() {
+            stub.enqueue(new Fault(429, 0, "1", "Too Many Requests"));
+            stub.enqueue(new Fault(200, 0, null, CONSENT_JSON));
+            SetuAggregatorService service = newService();
+
+            long start = System.nanoTime();
+            SetuConsentResponse response = createConsent(service);
+            long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+            assertEquals("consent-123", response.getId());
+            assertEquals(2, stub.hits());
+            assertTrue(elapsedMs >= 900, "Retry should honour Retry-After, waited only " + elapsedMs + "ms");
+        }
+
+        @Test
+        void shouldFailFastWhenRetryAfterExceedsLimit() {
+            setuConfig.setMaxRetryAfterMs(500);
+            stub.enqueue(new Fault(503, 0, "120", "Service Unavailable"));
+            SetuAggregatorService service = newService();
+
+            SetuApiException ex = assertThrows(SetuApiException.class, () -> createConsent(service));
+            assertEquals(503, ex.getHttpStatusCode());
+            assertEquals(1, stub.hits());
+
+            // Other callers are blocked too, without reaching the server
+            assertThrows(SetuApiException.class, () -> createConsent(service));
+            assertEquals(1, stub.hits());
+        }
+    }
+
+    @Nested
+    @DisplayName("Circuit Breaker Tests")
+    class CircuitBreakerTests {
+
+        @Test
+        void shouldOpenCircuitAfterConsecutiveFailures() {
+            setuConfig.setCircuitFailureThreshold(2);
+            stub.setDefaultFault(new Fault(500, 0, null, "Server Error"));
+            SetuAggregatorService service = newService();
+
+            assertThrows(SetuApiException.class, () -> createConsent(service));
+            // Third attempt is rejected by the open circuit
+            assertEquals(2, stub.hits());
+            assertEquals(SetuCircuitBreaker.State.OPEN,
+                    guard(service, "create consent").getCircuitBreaker().getState());
+
+            assertThrows(SetuApiException.class, () -> createConsent(service));
+            assertEquals(2, stub.hits());
+        }
+
+        @Test
+        void shouldCloseCircuitAfterSuccessfulTrialCall() throws Exception {
+            setuConfig.setCircuitFailureThreshold(1);
+            setuConfig.setCircuitOpenMs(200);
+            stub.enqueue(new Fault(500, 0, null, "Server Error"));
+            stub.setDefaultFault(new Fault(200, 0, null, CONSENT_JSON));
+            SetuAggregatorService service = newService();
+
+            assertThrows(SetuApiException.class, () -> createConsent(service));
+            Thread.sleep(250);
+
+            assertEquals("consent-123", createConsent(service).getId());
+            assertEquals(SetuCircuitBreaker.State.CLOSED,
+                    guard(service, "create consent").getCircuitBreaker().getState());
+        }
+
+        @Test
+        void shouldIsolateEndpoints() {
+            setuConfig.setCircuitFailureThreshold(1);
+            stub.enqueue(new Fault(500, 0, null, "Server Error"));
+            stub.setDefaultFault(new Fault(200, 0, null, CONSENT_JSON));
+            SetuAggregatorService service = newService();
+
+            assertThrows(SetuApiException.class, () -> createConsent(service));
+
+            assertEquals("consent-123", service.getConsentStatus("consent-123").getId());
+        }
+    }
+
+    @Nested
+    @DisplayName("Adaptive Concurrency Tests")
+    class AdaptiveConcurrencyTests {
+
+        @Test
+        void shouldShrinkLimitOnServiceUnavailable() {
+            setuConfig.setInitialConcurrency(8);
+            stub.enqueue(new Fault(503, 0, null, "Service Unavailable"));
+            stub.enqueue(new Fault(200, 0, null, CONSENT_JSON));
+            SetuAggregatorService service = newService();
+
+            createConsent(service);
+
+            assertEquals(4, guard(service, "create consent").getLimiter().getLimit());
+            assertEquals(0, guard(service, "create consent").getLimiter().getInFlight());
+        }
+
+        @Test
+        void shouldShrinkLimitOnLatencySpike() {
+            setuConfig.setInitialConcurrency(8);
+            setuConfig.setLatencyThresholdMs(50);
+            stub.enqueue(new Fault(200, 150, null, CONSENT_JSON));
+            SetuAggregatorService service = newService();
+
+            createConsent(service);
+
+            assertEquals(4, guard(service, "create consent").getLimiter().getLimit());
+        }
+
+        @Test
+        void shouldGrowLimitOnFastSuccesses() {
+            setuConfig.setInitialConcurrency(2);
+            stub.setDefaultFault(new Fault(200, 0, null, CONSENT_JSON));
+            SetuAggregatorService service = newService();
+
+            for (int i = 0; i < 5; i++) {
+                createConsent(service);
+            }
+
+            assertTrue(guard(service, "create consent").getLimiter().getLimit() > 2);
+        }
+    }
+
+    private SetuConfig createSetuConfig(String baseUrl) {
+        SetuConfig config = new SetuConfig();
+        config.setBaseUrl(baseUrl);
+        config.setClientId("test-client-id");
+        config.setClientSecret("test-client-secret");
+        config.setProductInstanceId("test-product-id");
+        config.setVuaSuffix("@setu-aa");
+        config.setRetryInitialBackoffMs(10);
+        return config;
+    }
+
+    /**
+     * Scripted response served by the stub.
+     */
+    private record Fault(int status, long delayMs, String retryAfter, String body) {}
+
+    /**
+     * Local HTTP server that replays queued faults, then falls back to a default response.
+     */
+    private static class FaultInjectingStub {
+
+        private final HttpServer server;
+        private final Queue<Fault> script = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger hits = new AtomicInteger();
+        private volatile Fault defaultFault = new Fault(200, 0, null, "{}");
+
+        FaultInjectingStub() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/", this::handle);
+            server.start();
+        }
+
+        void enqueue(Fault fault) { script.add(fault); }
+        void setDefaultFault(Fault fault) { this.defaultFault = fault; }
+        int hits() { return hits.get(); }
+        String baseUrl() { return "http://127.0.0.1:" + server.getAddress().getPort(); }
+        void stop() { server.stop(0); }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            hits.incrementAndGet();
+            Fault fault = script.poll();
+            if (fault == null) fault = defaultFault;
+
+            if (fault.delayMs() > 0) {
+                try {
+                    Thread.sleep(fault.delayMs());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            byte[] body = fault.body().getBytes(StandardCharsets.UTF_8);
+            if (fault.retryAfter() != null) {
+                exchange.getResponseHeaders().add("Retry-After", fault.retryAfter());
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(fault.status(), body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.ametsa.smartbachat.service;
+
+import com.ametsa.smartbachat.config.ParserConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementSpillCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path spillDir;
+    private StatementSpillCache cache;
+
+    @BeforeEach
+    void setUp() {
+        spillDir = tempDir.resolve("spill");
+        ParserConfig config = new ParserConfig();
+        config.setSpillDir(spillDir.toString());
+        config.setSpillMaxEntries(2);
+        cache = new StatementSpillCache(config);
+    }
+
+    private long spilledFiles() throws IOException {
+        try (Stream<Path> files = Files.list(spillDir)) {
+            return files.count();
+        }
+    }
+
+    @Nested
+    @DisplayName("Spill Tests")
+    class SpillTests {
+
+        @Test
+        void shouldReturnSpilledBytes() {
+            UUID jobId = UUID.randomUUID();
+
+            cache.put(jobId, new byte[]{1, 2, 3});
+
+            assertTrue(cache.contains(jobId));
+            assertArrayEquals(new byte[]{1, 2, 3}, cache.get(jobId).orElseThrow());
+        }
+
+        @Test
+        void shouldReturnEmptyForUnknownJob() {
+            assertTrue(cache.get(UUID.randomUUID()).isEmpty());
+        }
+
+        @Test
+        void shouldDeleteFileOnInvalidate() throws IOException {
+            UUID jobId = UUID.randomUUID();
+            cache.put(jobId, new byte[]{1});
+
+            cache.invalidate(jobId);
+
+            assertFalse(cache.contains(jobId));
+            assertEquals(0, spilledFiles());
+        }
+
+        @Test
+        void shouldDeleteFilesOfEvictedEntries() throws IOException {
+            for (int i = 0; i < 5; i++) {
+                cache.put(UUID.randomUUID(), new byte[]{(byte) i});
+            }
+            cache.sweep();
+
+            assertEquals(2, spilledFiles());
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package com.ametsa.smartbachat.util;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
+import org.apache.pdfbox.pdmodel.encryption.StandardProtectionPolicy;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates synthetic SBI, HDFC and Axis style statement PDFs for load and regression tests.
+ *
+ * Rows are laid out in the bank's column order with amounts right-aligned in their columns,
+ * so PDFBox extraction yields the same kind of text as a real statement. Options:
+ * <ul>
+ *   <li>{@link #pages} and {@link #rowsPerPage}: the font shrinks to fit dense pages, so the
+ *       page count is exact and {@link #rowCount()} is always {@code pages * rowsPerPage}</li>
+ *   <li>{@link #multiLineNarrations}: long narrations wrap onto continuation lines, with the
+ *       amounts on the first line (HDFC, Axis) or the last line (SBI)</li>
+ *   <li>{@link #mergedCells}: every page opens with a BALANCE B/F row whose narration spans
+ *       the table, and every fourth narration runs across the reference column</li>
+ *   <li>{@link #password}: encrypts the document with that user password</li>
+ * </ul>
+ * Output is deterministic for the same options and {@link #seed}.
+ */
+public final class StatementPdfGenerator {
+
+    private static final float MARGIN = 36f;
+    private static final float MAX_LEADING = 9f;
+    private static final int WRAP_CHARS = 26;
+    private static final long OPENING_BALANCE_PAISA = 25_000_000L;
+
+    private static final String[] MERCHANTS = {
+            "SWIGGY", "ZOMATO", "UBER INDIA", "BIGBASKET", "AMAZON PAY", "FLIPKART", "NETFLIX",
+            "APOLLO PHARMACY", "BESCOM", "JIO PREPAID", "IRCTC", "INDIAN OIL", "LIC OF INDIA",
+            "ZERODHA BROKING", "HOUSE RENT", "RAMESH KUMAR"
+    };
+
+    // Column slots; a bank layout leaves the ones it does not print as null
+    private static final int DATE = 0;
+    private static final int VALUE_DATE = 1;
+    private static final int NARRATION = 2;
+    private static final int REF = 3;
+    private static final int DEBIT = 4;
+    private static final int CREDIT = 5;
+    private static final int BALANCE = 6;
+    private static final int BRANCH = 7;
+
+    private final String bankCode;
+    private final String[] letterhead;
+    private final String[] headers;
+    private final float[][] columns;
+    private final DateTimeFormatter dateFormat;
+    private final boolean amountsOnLastLine;
+
+    private int pages = 1;
+    private int rowsPerPage = 30;
+    private boolean multiLineNarrations = true;
+    private boolean mergedCells;
+    private String password;
+    private long seed = 42;
+
+    private StatementPdfGenerator(String bankCode, String[] letterhead, String[] headers, float[][] columns,
+                                  DateTimeFormatter dateFormat, boolean amountsOnLastLine) {
+        this.bankCode = bankCode;
+        this.letterhead = letterhead;
+        this.headers = headers;
+        this.columns = columns;
+        this.dateFormat = dateFormat;
+        this.amountsOnLastLine = amountsOnLastLine;
+    }
+
+    /**
+     * @param bankCode SBI, HDFC or AXIS
+     */
+    public static StatementPdfGenerator forBank(String bankCode) {
+        return switch (bankCode.toUpperCase(Locale.ROOT)) {
+            case "SBI" -> new StatementPdfGenerator("SBI",
+                    new String[]{"STATE BANK OF INDIA", "Account Name Mr. Synthetic Customer"},
+                    new String[]{"Txn Date", "Value Date", "Description", "Ref No./Chq No.", "Debit", "Credit", "Balance", null},
+                    new float[][]{{36, 84}, {88, 136}, {140, 300}, {304, 370}, {374, 430}, {434, 490}, {494, 559}, null},
+                    DateTimeFormatter.ofPattern("d MMM yyyy", Locale.ENGLISH), true);
+            case "HDFC" -> new StatementPdfGenerator("HDFC",
+                    new String[]{"HDFC BANK Ltd.", "Statement of account"},
+                    new String[]{"Date", "Value Dt", "Narration", "Chq./Ref.No.", "Withdrawal Amt.", "Deposit Amt.", "Closing Balance", null},
+                    new float[][]{{36, 70}, {324, 358}, {74, 250}, {254, 320}, {362, 430}, {434, 495}, {499, 559}, null},
+                    DateTimeFormatter.ofPattern("dd/MM/yy"), false);
+            case "AXIS" -> new StatementPdfGenerator("AXIS",
+                    new String[]{"AXIS BANK LIMITED", "Statement of Account"},
+                    new String[]{"Tran Date", null, "Particulars", "Chq No", "Debit", "Credit", "Balance", "Init. Br"},
+                    new float[][]{{36, 80}, null, {124, 330}, {84, 120}, {334, 400}, {404, 465}, {469, 530}, {534, 559}},
+                    DateTimeFormatter.ofPattern("dd-MM-yyyy"), false);
+            default -> throw new IllegalArgumentException("No statement layout for bank " + bankCode);
+        };
+    }
+
+    public StatementPdfGenerator pages(int pages) {
+        this.pages = pages;
+        return this;
+    }
+
+    public StatementPdfGenerator rowsPerPage(int rowsPerPage) {
+        this.rowsPerPage = rowsPerPage;
+        return this;
+    }
+
+    public StatementPdfGenerator multiLineNarrations(boolean multiLineNarrations) {
+        this.multiLineNarrations = multiLineNarrations;
+        return this;
+    }
+
+    public StatementPdfGenerator mergedCells(boolean mergedCells) {
+        this.mergedCells = mergedCells;
+        return this;
+    }
+
+    public StatementPdfGenerator password(String password) {
+        this.password = password;
+        return this;
+    }
+
+    public StatementPdfGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public String getBankCode() {
+        return bankCode;
+    }
+
+    /**
+     * Transaction rows in the statement, not counting BALANCE B/F rows.
+     */
+    public int rowCount() {
+        return pages * rowsPerPage;
+    }
+
+    public long openingBalancePaisa() {
+        return OPENING_BALANCE_PAISA;
+    }
+
+    /**
+     * The text layer of each page as PDFBox extraction returns it: one line per printed line,
+     * cells separated by a space. Lets parser benchmarks skip PDF rendering and extraction.
+     */
+    public List<String> pageTexts() {
+        List<String> texts = new ArrayList<>(pages);
+        for (List<Line> page : layout()) {
+            StringBuilder text = new StringBuilder();
+            for (Line line : page) {
+                text.append(line.text()).append('\n');
+            }
+            texts.add(text.toString());
+        }
+        return texts;
+    }
+
+    public byte[] toBytes() throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (List<Line> lines : layout()) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                doc.addPage(page);
+
+                float usable = PDRectangle.A4.getHeight() - 2 * MARGIN;
+                float leading = Math.min(MAX_LEADING, usable / lines.size());
+                float fontSize = leading * 7f / 9f;
+                float y = PDRectangle.A4.getHeight() - MARGIN;
+
+                try (PDPageContentStream content = new PDPageContentStream(doc, page)) {
+                    content.setFont(font, fontSize);
+                    for (Line line : lines) {
+                        for (Cell cell : line.cells()) {
+                            float x = cell.x();
+                            if (cell.rightAligned()) {
+                                x -= font.getStringWidth(cell.text()) / 1000f * fontSize;
+                            }
+                            content.beginText();
+                            content.newLineAtOffset(x, y);
+                            content.showText(cell.text());
+                            content.endText();
+                        }
+                        y -= leading;
+                    }
+                }
+            }
+
+            if (password != null) {
+                StandardProtectionPolicy policy =
+                        new StandardProtectionPolicy(password + "-owner", password, new AccessPermission());
+                policy.setEncryptionKeyLength(128);
+                doc.protect(policy);
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            doc.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    public Path writeTo(Path file) throws IOException {
+        return Files.write(file, toBytes());
+    }
+
+    // ------------------------------------------------------------------
+    // Layout
+    // ------------------------------------------------------------------
+
+    private List<List<Line>> layout() {
+        Random random = new Random(seed);
+        LocalDate date = LocalDate.of(2024, 4, 1);
+        long balance = OPENING_BALANCE_PAISA;
+        List<List<Line>> result = new ArrayList<>(pages);
+
+        for (int page = 1; page <= pages; page++) {
+            List<Line> lines = new ArrayList<>();
+            for (String text : letterhead) {
+                lines.add(Line.of(new Cell(MARGIN, text, false)));
+            }
+            if (page == 1) {
+                String opening = "SBI".equals(bankCode)
+                        ? "Balance as on " + date.format(DateTimeFormatter.ofPattern("dd-MM-yyyy"))
+                        : "Opening Balance :";
+                lines.add(Line.of(new Cell(MARGIN, opening + " " + amount(OPENING_BALANCE_PAISA), false)));
+            }
+            lines.add(headerLine());
+
+            if (mergedCells) {
+                Line broughtForward = new Line();
+                broughtForward.add(cell(DATE, date.format(dateFormat)));
+                broughtForward.add(cell(NARRATION, "BALANCE B/F"));
+                broughtForward.add(cell(BALANCE, amount(balance)));
+                lines.add(broughtForward);
+            }
+
+            for (int row = 0; row < rowsPerPage; row++) {
+                boolean credit = random.nextInt(4) == 0;
+                long amount = (random.nextInt(5_000_000) + 1_000) * (credit ? 4L : 1L);
+                if (!credit && amount > balance) {
+                    credit = true;
+                }
+                balance += credit ? amount : -amount;
+                long ref = 400_000_000_000L + random.nextInt(1_000_000_000);
+                String narration = narration(random, credit, ref);
+                boolean spansRef = mergedCells && row % 4 == 3;
+
+                lines.addAll(rowLines(date, narration, spansRef ? null : String.valueOf(ref).substring(4),
+                        spansRef, credit, amount, balance, row));
+                if (random.nextInt(3) == 0) {
+                    date = date.plusDays(1);
+                }
+            }
+
+            lines.add(Line.of(new Cell(MARGIN, "Page " + page + " of " + pages, false)));
+            result.add(lines);
+        }
+        return result;
+    }
+
+    private Line headerLine() {
+        Line line = new Line();
+        for (int column = 0; column < headers.length; column++) {
+            if (headers[column] != null) {
+                line.add(new Cell(columns[column][0], headers[column], false));
+            }
+        }
+        return line;
+    }
+
+    private List<Line> rowLines(LocalDate date, String narration, String ref, boolean spansRef,
+                                boolean credit, long amount, long balance, int row) {
+        List<String> chunks = multiLineNarrations && !spansRef ? wrap(narration) : List.of(narration);
+        List<Line> lines = new ArrayList<>(chunks.size());
+
+        Line first = new Line();
+        first.add(cell(DATE, date.format(dateFormat)));
+        if (columns[VALUE_DATE] != null) {
+            first.add(cell(VALUE_DATE, date.format(dateFormat)));
+        }
+        first.add(cell(NARRATION, chunks.get(0)));
+        if (ref != null && !"AXIS".equals(bankCode)) {
+            first.add(cell(REF, ref));
+        }
+        lines.add(first);
+        for (int i = 1; i < chunks.size(); i++) {
+            lines.add(Line.of(cell(NARRATION, chunks.get(i))));
+        }
+
+        Line amountLine = amountsOnLastLine ? lines.get(lines.size() - 1) : first;
+        amountLine.add(cell(credit ? CREDIT : DEBIT, amount(amount)));
+        amountLine.add(cell(BALANCE, amount(balance)));
+        if (columns[BRANCH] != null) {
+            amountLine.add(cell(BRANCH, String.valueOf(1000 + row % 9000)));
+        }
+        return lines;
+    }
+
+    private Cell cell(int column, String text) {
+        boolean amount = column == DEBIT || column == CREDIT || column == BALANCE;
+        return new Cell(amount ? columns[column][1] : columns[column][0], text, amount);
+    }
+
+    private static String narration(Random random, boolean credit, long ref) {
+        String merchant = MERCHANTS[random.nextInt(MERCHANTS.length)];
+        return switch (random.nextInt(6)) {
+            case 0 -> "UPI/" + (credit ? "CR" : "DR") + "/" + ref + "/" + merchant + "/YESB/pay@ybl";
+            case 1 -> (credit ? "NEFT CR-" : "NEFT DR-") + "HDFC0000240-" + merchant + "-" + ref;
+            case 2 -> "IMPS/P2A/" + ref + "/" + merchant + "/Transfer";
+            case 3 -> credit ? "SALARY CREDIT/ACME TECHNOLOGIES/" + ref : "ATM WDL/ATM CASH/" + ref + "/MUMBAI";
+            case 4 -> "POS/" + ref + "/" + merchant + "/BANGALORE";
+            default -> (credit ? "BY TRANSFER-" : "TO TRANSFER-") + "INB/" + ref + "/" + merchant;
+        };
+    }
+
+    /**
+     * Break a narration into column-width chunks, preferring '/', '-' and ' ' boundaries.
+     */
+    private static List<String> wrap(String narration) {
+        List<String> chunks = new ArrayList<>();
+        String rest = narration;
+        while (rest.length() > WRAP_CHARS) {
+            int cut = -1;
+            for (int i = WRAP_CHARS - 1; i > WRAP_CHARS / 2; i--) {
+                char c = rest.charAt(i);
+                if (c == '/' || c == '-' || c == ' ') {
+                    cut = i + 1;
+                    break;
+                }
+            }
+            if (cut < 0) {
+                cut = WRAP_CHARS;
+            }
+            chunks.add(rest.substring(0, cut).trim());
+            rest = rest.substring(cut).trim();
+        }
+        if (!rest.isEmpty()) {
+            chunks.add(rest);
+        }
+        return chunks;
+    }
+
+    /**
+     * Indian digit grouping, e.g. 1,23,456.78.
+     */
+    private static String amount(long paisa) {
+        String rupees = Long.toString(paisa / 100);
+        StringBuilder grouped = new StringBuilder();
+        int length = rupees.length();
+        for (int i = 0; i < length; i++) {
+            grouped.append(rupees.charAt(i));
+            int remaining = length - i - 1;
+            if (remaining > 0 && (remaining == 3 || (remaining > 3 && remaining % 2 == 1))) {
+                grouped.append(',');
+            }
+        }
+        return grouped.append(String.format(".%02d", paisa % 100)).toString();
+    }
+
+    private record Cell(float x, String text, boolean rightAligned) {
+    }
+
+    /**
+     * One printed line; cells are kept in x order, which is the order extraction reads them in.
+     */
+    private static final class Line {
+        private final List<Cell> cells = new ArrayList<>();
+
+        static Line of(Cell cell) {
+            Line line = new Line();
+            line.add(cell);
+            return line;
+        }
+
+        void add(Cell cell) {
+            int at = cells.size();
+            while (at > 0 && leftEdge(cells.get(at - 1)) > leftEdge(cell)) {
+                at--;
+            }
+            cells.add(at, cell);
+        }
+
+        List<Cell> cells() {
+            return cells;
+        }
+
+        String text() {
+            StringBuilder text = new StringBuilder();
+            for (Cell cell : cells) {
+                if (!text.isEmpty()) {
+                    text.append(' ');
+                }
+                text.append(cell.text());
+            }
+            return text.toString();
+        }
+
+        private static float leftEdge(Cell cell) {
+            // Right-aligned amounts never start left of their column's left edge
+            return cell.rightAligned() ? cell.x() - 1 : cell.x();
+        }
+    }
+}
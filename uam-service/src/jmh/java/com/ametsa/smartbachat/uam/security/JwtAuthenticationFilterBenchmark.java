@@ -0,0 +1,65 @@
+package com.ametsa.smartbachat.uam.security;
+
+import com.ametsa.smartbachat.uam.config.JwtConfig;
+import com.ametsa.smartbachat.uam.entity.Role;
+import com.ametsa.smartbachat.uam.entity.User;
+import com.ametsa.smartbachat.uam.service.JwtService;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of {@link JwtAuthenticationFilter} for a repeated access token.
+ * {@code authCacheMaxSize=0} disables the cache, so every request verifies and parses the token.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"0", "10000"})
+    public long authCacheMaxSize;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup
+    public void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setSecret("benchmark-secret-key-that-is-at-least-256-bits-long-for-hs256");
+        jwtConfig.setExpirationMs(TimeUnit.HOURS.toMillis(1));
+        jwtConfig.setRefreshExpirationMs(TimeUnit.DAYS.toMillis(1));
+        jwtConfig.setIssuer("smart-bachat");
+        jwtConfig.setAuthCacheMaxSize(authCacheMaxSize);
+
+        JwtService jwtService = new JwtService(jwtConfig);
+        filter = new JwtAuthenticationFilter(jwtService, jwtConfig);
+
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("bench@example.com");
+        user.addRole(new Role(Role.ROLE_USER, "User", "Default user role"));
+
+        request = new MockHttpServletRequest("GET", "/api/v1/users/me");
+        request.addHeader("Authorization", "Bearer " + jwtService.generateAccessToken(user));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object filterRequest() throws Exception {
+        filter.doFilter(request, response, chain);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
@@ -2,8 +2,10 @@ package com.ametsa.smartbachat.uam;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class UamServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(UamServiceApplication.class, args);
@@ -0,0 +1,60 @@
+package com.ametsa.smartbachat.uam.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.auth")
+public class AuthConfig {
+
+    // Password hashing pool; 0 threads = one per available core
+    private int passwordHashThreads = 0;
+    private int passwordHashQueueCapacity = 100;
+    private long passwordHashTimeoutMs = 5000;
+
+    // BCrypt cost; 0 = calibrate at startup to the target latency within [min, max]
+    private int passwordHashStrength = 0;
+    private long passwordHashTargetMs = 250;
+    private int passwordHashMinStrength = 10;
+    private int passwordHashMaxStrength = 14;
+
+    // In-memory login throttle: attempts per IP and failed attempts per username, per sliding window
+    private int loginIpMaxAttempts = 60;
+    private long loginIpWindowSeconds = 60;
+    private int loginMaxFailedAttempts = 5;
+    private long loginUsernameWindowSeconds = 1800;
+    private long loginLimiterMaxKeys = 100_000;
+    private int loginLimiterStripes = 64;
+
+    // Cached role/permission snapshots; invalidation is local, so this is the revocation window on other replicas
+    private long permissionCacheTtlSeconds = 30;
+
+    public int getPasswordHashThreads() { return passwordHashThreads; }
+    public void setPasswordHashThreads(int passwordHashThreads) { this.passwordHashThreads = passwordHashThreads; }
+    public int getPasswordHashQueueCapacity() { return passwordHashQueueCapacity; }
+    public void setPasswordHashQueueCapacity(int passwordHashQueueCapacity) { this.passwordHashQueueCapacity = passwordHashQueueCapacity; }
+    public long getPasswordHashTimeoutMs() { return passwordHashTimeoutMs; }
+    public void setPasswordHashTimeoutMs(long passwordHashTimeoutMs) { this.passwordHashTimeoutMs = passwordHashTimeoutMs; }
+    public int getPasswordHashStrength() { return passwordHashStrength; }
+    public void setPasswordHashStrength(int passwordHashStrength) { this.passwordHashStrength = passwordHashStrength; }
+    public long getPasswordHashTargetMs() { return passwordHashTargetMs; }
+    public void setPasswordHashTargetMs(long passwordHashTargetMs) { this.passwordHashTargetMs = passwordHashTargetMs; }
+    public int getPasswordHashMinStrength() { return passwordHashMinStrength; }
+    public void setPasswordHashMinStrength(int passwordHashMinStrength) { this.passwordHashMinStrength = passwordHashMinStrength; }
+    public int getPasswordHashMaxStrength() { return passwordHashMaxStrength; }
+    public void setPasswordHashMaxStrength(int passwordHashMaxStrength) { this.passwordHashMaxStrength = passwordHashMaxStrength; }
+    public int getLoginIpMaxAttempts() { return loginIpMaxAttempts; }
+    public void setLoginIpMaxAttempts(int loginIpMaxAttempts) { this.loginIpMaxAttempts = loginIpMaxAttempts; }
+    public long getLoginIpWindowSeconds() { return loginIpWindowSeconds; }
+    public void setLoginIpWindowSeconds(long loginIpWindowSeconds) { this.loginIpWindowSeconds = loginIpWindowSeconds; }
+    public int getLoginMaxFailedAttempts() { return loginMaxFailedAttempts; }
+    public void setLoginMaxFailedAttempts(int loginMaxFailedAttempts) { this.loginMaxFailedAttempts = loginMaxFailedAttempts; }
+    public long getLoginUsernameWindowSeconds() { return loginUsernameWindowSeconds; }
+    public void setLoginUsernameWindowSeconds(long loginUsernameWindowSeconds) { this.loginUsernameWindowSeconds = loginUsernameWindowSeconds; }
+    public long getLoginLimiterMaxKeys() { return loginLimiterMaxKeys; }
+    public void setLoginLimiterMaxKeys(long loginLimiterMaxKeys) { this.loginLimiterMaxKeys = loginLimiterMaxKeys; }
+    public int getLoginLimiterStripes() { return loginLimiterStripes; }
+    public void setLoginLimiterStripes(int loginLimiterStripes) { this.loginLimiterStripes = loginLimiterStripes; }
+    public long getPermissionCacheTtlSeconds() { return permissionCacheTtlSeconds; }
+    public void setPermissionCacheTtlSeconds(long permissionCacheTtlSeconds) { this.permissionCacheTtlSeconds = permissionCacheTtlSeconds; }
+}
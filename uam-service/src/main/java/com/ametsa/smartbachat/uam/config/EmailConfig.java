@@ -13,6 +13,20 @@ public class EmailConfig {
     private Long verificationTokenExpirationMinutes = 1440L; // 24 hours
     private Long passwordResetTokenExpirationMinutes = 60L; // 1 hour
 
+    // Outbox dispatch; each sender thread holds at most one SMTP connection at a time
+    private int outboxThreads = 2;
+    private int outboxBatchSize = 50;
+    private int outboxMaxAttempts = 8;
+    private long outboxRetryBaseDelayMs = 30000;
+    private long outboxRetryMaxDelayMs = 3600000;
+    private long outboxLeaseSeconds = 300;
+    private int outboxRetentionDays = 7;
+
+    // Token housekeeping; a cache size of 0 disables the negative cache
+    private int tokenPurgeBatchSize = 500;
+    private int invalidTokenCacheSize = 10000;
+    private long invalidTokenCacheTtlSeconds = 600;
+
     public String getFromAddress() { return fromAddress; }
     public void setFromAddress(String fromAddress) { this.fromAddress = fromAddress; }
     public String getFromName() { return fromName; }
@@ -27,5 +41,24 @@ public class EmailConfig {
     public void setPasswordResetTokenExpirationMinutes(Long passwordResetTokenExpirationMinutes) { 
         this.passwordResetTokenExpirationMinutes = passwordResetTokenExpirationMinutes; 
     }
+    public int getOutboxThreads() { return outboxThreads; }
+    public void setOutboxThreads(int outboxThreads) { this.outboxThreads = outboxThreads; }
+    public int getOutboxBatchSize() { return outboxBatchSize; }
+    public void setOutboxBatchSize(int outboxBatchSize) { this.outboxBatchSize = outboxBatchSize; }
+    public int getOutboxMaxAttempts() { return outboxMaxAttempts; }
+    public void setOutboxMaxAttempts(int outboxMaxAttempts) { this.outboxMaxAttempts = outboxMaxAttempts; }
+    public long getOutboxRetryBaseDelayMs() { return outboxRetryBaseDelayMs; }
+    public void setOutboxRetryBaseDelayMs(long outboxRetryBaseDelayMs) { this.outboxRetryBaseDelayMs = outboxRetryBaseDelayMs; }
+    public long getOutboxRetryMaxDelayMs() { return outboxRetryMaxDelayMs; }
+    public void setOutboxRetryMaxDelayMs(long outboxRetryMaxDelayMs) { this.outboxRetryMaxDelayMs = outboxRetryMaxDelayMs; }
+    public long getOutboxLeaseSeconds() { return outboxLeaseSeconds; }
+    public void setOutboxLeaseSeconds(long outboxLeaseSeconds) { this.outboxLeaseSeconds = outboxLeaseSeconds; }
+    public int getOutboxRetentionDays() { return outboxRetentionDays; }
+    public void setOutboxRetentionDays(int outboxRetentionDays) { this.outboxRetentionDays = outboxRetentionDays; }
+    public int getTokenPurgeBatchSize() { return tokenPurgeBatchSize; }
+    public void setTokenPurgeBatchSize(int tokenPurgeBatchSize) { this.tokenPurgeBatchSize = tokenPurgeBatchSize; }
+    public int getInvalidTokenCacheSize() { return invalidTokenCacheSize; }
+    public void setInvalidTokenCacheSize(int invalidTokenCacheSize) { this.invalidTokenCacheSize = invalidTokenCacheSize; }
+    public long getInvalidTokenCacheTtlSeconds() { return invalidTokenCacheTtlSeconds; }
+    public void setInvalidTokenCacheTtlSeconds(long invalidTokenCacheTtlSeconds) { this.invalidTokenCacheTtlSeconds = invalidTokenCacheTtlSeconds; }
 }
-
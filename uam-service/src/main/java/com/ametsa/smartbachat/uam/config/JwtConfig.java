@@ -11,6 +11,8 @@ public class JwtConfig {
     private Long expirationMs;
     private Long refreshExpirationMs;
     private String issuer;
+    private long authCacheMaxSize = 10000;
+    private long authCacheTtlSeconds = 900;
 
     public String getSecret() { return secret; }
     public void setSecret(String secret) { this.secret = secret; }
@@ -20,5 +22,9 @@ public class JwtConfig {
     public void setRefreshExpirationMs(Long refreshExpirationMs) { this.refreshExpirationMs = refreshExpirationMs; }
     public String getIssuer() { return issuer; }
     public void setIssuer(String issuer) { this.issuer = issuer; }
+    public long getAuthCacheMaxSize() { return authCacheMaxSize; }
+    public void setAuthCacheMaxSize(long authCacheMaxSize) { this.authCacheMaxSize = authCacheMaxSize; }
+    public long getAuthCacheTtlSeconds() { return authCacheTtlSeconds; }
+    public void setAuthCacheTtlSeconds(long authCacheTtlSeconds) { this.authCacheTtlSeconds = authCacheTtlSeconds; }
 }
 
@@ -1,5 +1,6 @@
 package com.ametsa.smartbachat.uam.config;
 
+import com.ametsa.smartbachat.uam.security.BCryptCostCalibrator;
 import com.ametsa.smartbachat.uam.security.JwtAuthenticationFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -61,8 +62,8 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(BCryptCostCalibrator costCalibrator) {
+        return new BCryptPasswordEncoder(costCalibrator.getStrength());
     }
 
     @Bean
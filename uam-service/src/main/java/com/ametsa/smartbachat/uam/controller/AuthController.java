@@ -4,6 +4,8 @@ import com.ametsa.smartbachat.uam.dto.AuthResponse;
 import com.ametsa.smartbachat.uam.dto.LoginRequest;
 import com.ametsa.smartbachat.uam.dto.PasswordResetRequest;
 import com.ametsa.smartbachat.uam.dto.RegisterRequest;
+import com.ametsa.smartbachat.uam.exception.ServiceOverloadedException;
+import com.ametsa.smartbachat.uam.exception.TooManyLoginAttemptsException;
 import com.ametsa.smartbachat.uam.service.AuthenticationService;
 import com.ametsa.smartbachat.uam.service.PasswordResetService;
 import com.ametsa.smartbachat.uam.service.VerificationService;
@@ -11,6 +13,8 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -55,6 +59,22 @@ public class AuthController {
             String ipAddress = getClientIp(httpRequest);
             AuthResponse response = authService.login(request, ipAddress);
             return ResponseEntity.ok(response);
+        } catch (TooManyLoginAttemptsException e) {
+            log.warn("Login throttled: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of(
+                            "status", "FAILED",
+                            "message", e.getMessage()
+                    ));
+        } catch (ServiceOverloadedException e) {
+            log.warn("Login shed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of(
+                            "status", "FAILED",
+                            "message", e.getMessage()
+                    ));
         } catch (Exception e) {
             log.error("Login failed: {}", e.getMessage());
             return ResponseEntity.badRequest().body(Map.of(
@@ -197,11 +217,12 @@ public class AuthController {
         }
     }
 
+    /**
+     * The login throttle keys on this address, so it must not come from a header the client
+     * controls. X-Forwarded-For is only honoured through server.forward-headers-strategy, which
+     * resolves it for requests arriving from the configured internal proxies.
+     */
     private String getClientIp(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
         return request.getRemoteAddr();
     }
 }
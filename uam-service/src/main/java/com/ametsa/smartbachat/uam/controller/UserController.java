@@ -1,16 +1,20 @@
 package com.ametsa.smartbachat.uam.controller;
 
 import com.ametsa.smartbachat.uam.dto.UserDto;
+import com.ametsa.smartbachat.uam.dto.UserPageDto;
+import com.ametsa.smartbachat.uam.service.UserExportService;
 import com.ametsa.smartbachat.uam.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -19,11 +23,14 @@ import java.util.UUID;
 public class UserController {
 
     private static final Logger log = LoggerFactory.getLogger(UserController.class);
+    private static final int MAX_PAGE_SIZE = 200;
 
     private final UserService userService;
+    private final UserExportService userExportService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserExportService userExportService) {
         this.userService = userService;
+        this.userExportService = userExportService;
     }
 
     @GetMapping("/me")
@@ -75,9 +82,41 @@ public class UserController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        List<UserDto> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> listUsers(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            UserPageDto page = userService.listUsers(status, role, cursor, Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "FAILED",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String role,
+            @RequestParam(defaultValue = "csv") String format) {
+        UserExportService.Format exportFormat = "ndjson".equalsIgnoreCase(format)
+                ? UserExportService.Format.NDJSON
+                : UserExportService.Format.CSV;
+        MediaType mediaType = exportFormat == UserExportService.Format.NDJSON
+                ? MediaType.parseMediaType("application/x-ndjson")
+                : MediaType.parseMediaType("text/csv");
+        String filename = "users." + exportFormat.name().toLowerCase();
+
+        StreamingResponseBody body = out -> userExportService.export(status, role, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
     }
 
     @PutMapping("/{id}/status")
@@ -0,0 +1,25 @@
+package com.ametsa.smartbachat.uam.dto;
+
+import java.util.List;
+
+/**
+ * One page of the admin user listing. {@code nextCursor} is null on the last page.
+ */
+public class UserPageDto {
+
+    private List<UserDto> items;
+    private String nextCursor;
+
+    public UserPageDto() {}
+
+    public UserPageDto(List<UserDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<UserDto> getItems() { return items; }
+    public void setItems(List<UserDto> items) { this.items = items; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
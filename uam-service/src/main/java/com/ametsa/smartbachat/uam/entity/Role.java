@@ -1,6 +1,8 @@
 package com.ametsa.smartbachat.uam.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+
 import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
@@ -39,7 +41,8 @@ public class Role {
     private Instant updatedAt;
 
     // Many-to-many with permissions
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     @JoinTable(
             name = "role_permissions",
             joinColumns = @JoinColumn(name = "role_id"),
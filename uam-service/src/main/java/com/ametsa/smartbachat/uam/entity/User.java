@@ -1,6 +1,8 @@
 package com.ametsa.smartbachat.uam.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+
 import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
@@ -8,12 +10,20 @@ import java.util.UUID;
 
 /**
  * User entity for authentication and authorization.
+ *
+ * Roles (and their permissions) are loaded lazily; callers that need them use the
+ * repository's {@code findWith...} finders, which fetch them in the same query.
  */
 @Entity
 @Table(name = "users", indexes = {
         @Index(name = "idx_users_email", columnList = "email", unique = true),
         @Index(name = "idx_users_mobile", columnList = "mobile_number", unique = true),
-        @Index(name = "idx_users_status", columnList = "status")
+        @Index(name = "idx_users_status", columnList = "status"),
+        // Keyset pagination of the admin listing, optionally filtered by status
+        @Index(name = "idx_users_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_users_status_created_id", columnList = "status, created_at, id"),
+        // Bulk unlock scans only locked rows
+        @Index(name = "idx_users_locked_until", columnList = "locked_until")
 })
 public class User {
 
@@ -70,12 +80,14 @@ public class User {
     @Column(name = "updated_at")
     private Instant updatedAt;
 
-    // Many-to-many with roles
-    @ManyToMany(fetch = FetchType.EAGER)
+    // Many-to-many with roles; batch-initialized when iterating over a page of users
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     @JoinTable(
             name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
-            inverseJoinColumns = @JoinColumn(name = "role_id")
+            inverseJoinColumns = @JoinColumn(name = "role_id"),
+            indexes = @Index(name = "idx_user_roles_role", columnList = "role_id, user_id")
     )
     private Set<Role> roles = new HashSet<>();
 
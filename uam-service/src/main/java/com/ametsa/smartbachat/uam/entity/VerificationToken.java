@@ -11,7 +11,10 @@ import java.util.UUID;
 @Table(name = "verification_tokens", indexes = {
         @Index(name = "idx_verification_token", columnList = "token", unique = true),
         @Index(name = "idx_verification_user", columnList = "user_id"),
-        @Index(name = "idx_verification_type", columnList = "token_type")
+        @Index(name = "idx_verification_type", columnList = "token_type"),
+        @Index(name = "idx_verification_user_type", columnList = "user_id, token_type, expires_at"),
+        @Index(name = "idx_verification_expires", columnList = "expires_at"),
+        @Index(name = "idx_verification_used", columnList = "used_at")
 })
 public class VerificationToken {
 
@@ -0,0 +1,11 @@
+package com.ametsa.smartbachat.uam.exception;
+
+/**
+ * Thrown when a request is shed by admission control; clients should retry after a short delay.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
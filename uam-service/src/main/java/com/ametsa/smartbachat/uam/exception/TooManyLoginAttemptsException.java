@@ -0,0 +1,18 @@
+package com.ametsa.smartbachat.uam.exception;
+
+/**
+ * Thrown when a login is refused by the rate limiter before any credential check.
+ */
+public class TooManyLoginAttemptsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyLoginAttemptsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
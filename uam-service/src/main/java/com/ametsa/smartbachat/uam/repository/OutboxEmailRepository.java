@@ -0,0 +1,52 @@
+package com.ametsa.smartbachat.uam.repository;
+
+import com.ametsa.smartbachat.uam.entity.OutboxEmail;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, UUID> {
+
+    @Query("SELECT e.id FROM OutboxEmail e WHERE e.status = 'PENDING' AND e.nextAttemptAt <= :now " +
+           "ORDER BY e.nextAttemptAt ASC")
+    List<UUID> findDueIds(@Param("now") Instant now, Pageable pageable);
+
+    /**
+     * Claim due rows for one dispatcher by tagging them and pushing their due time to the lease
+     * expiry. Rows another dispatcher claimed first no longer match; rows of a dispatcher that
+     * died become due again when the lease runs out.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEmail e SET e.claimToken = :claimToken, e.nextAttemptAt = :leaseUntil " +
+           "WHERE e.id IN :ids AND e.status = 'PENDING' AND e.nextAttemptAt <= :now")
+    int claim(@Param("ids") Collection<UUID> ids, @Param("claimToken") UUID claimToken,
+              @Param("now") Instant now, @Param("leaseUntil") Instant leaseUntil);
+
+    List<OutboxEmail> findByClaimToken(UUID claimToken);
+
+    long countByStatus(String status);
+
+    /**
+     * Drop the template variables (which may hold live tokens) of rows that will not be sent
+     * again, for rows finished before the dispatcher cleared them itself.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEmail e SET e.templateVariables = NULL " +
+           "WHERE e.status IN ('SENT', 'FAILED') AND e.templateVariables IS NOT NULL")
+    int clearFinishedTemplateVariables();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEmail e WHERE e.status = 'SENT' AND e.sentAt < :before")
+    int deleteSentBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,29 @@
+package com.ametsa.smartbachat.uam.repository;
+
+import com.ametsa.smartbachat.uam.dto.UserDto;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Projection queries for the admin user listing. Rows are read straight into {@link UserDto}
+ * without materializing {@code User} entities.
+ */
+public interface UserListingRepository {
+
+    /**
+     * Keyset page of users ordered by (createdAt, id), optionally filtered by status and role.
+     * Roles are not populated; see {@link #findRoleNamesByUserIds}.
+     * @param afterCreatedAt createdAt of the last row of the previous page, or null for the first page
+     * @param afterId id of the last row of the previous page, or null for the first page
+     */
+    List<UserDto> findUserPage(String status, String roleName, Instant afterCreatedAt, UUID afterId, int limit);
+
+    /**
+     * Role names of the given users, in a single query.
+     */
+    Map<UUID, List<String>> findRoleNamesByUserIds(Collection<UUID> userIds);
+}
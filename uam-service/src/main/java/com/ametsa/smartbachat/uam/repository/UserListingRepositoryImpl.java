@@ -0,0 +1,100 @@
+package com.ametsa.smartbachat.uam.repository;
+
+import com.ametsa.smartbachat.uam.dto.UserDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Builds only the predicates that are actually requested, so each filter combination
+ * maps to a plain range scan on the (status,) created_at, id indexes.
+ */
+public class UserListingRepositoryImpl implements UserListingRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserDto> findUserPage(String status, String roleName, Instant afterCreatedAt, UUID afterId, int limit) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT u.id AS id, u.email AS email, u.mobileNumber AS mobileNumber, u.firstName AS firstName, "
+                + "u.lastName AS lastName, u.displayName AS displayName, u.status AS status, "
+                + "u.emailVerified AS emailVerified, u.mobileVerified AS mobileVerified, "
+                + "u.lastLoginAt AS lastLoginAt, u.createdAt AS createdAt, p.id AS profileId "
+                + "FROM User u LEFT JOIN u.profile p");
+        List<String> predicates = new ArrayList<>();
+
+        if (roleName != null) {
+            jpql.append(" JOIN u.roles r");
+            predicates.add("r.name = :roleName");
+        }
+        if (status != null) {
+            predicates.add("u.status = :status");
+        }
+        if (afterCreatedAt != null) {
+            predicates.add("(u.createdAt > :afterCreatedAt OR (u.createdAt = :afterCreatedAt AND u.id > :afterId))");
+        }
+        if (!predicates.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", predicates));
+        }
+        jpql.append(" ORDER BY u.createdAt ASC, u.id ASC");
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        if (roleName != null) {
+            query.setParameter("roleName", roleName);
+        }
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (afterCreatedAt != null) {
+            query.setParameter("afterCreatedAt", afterCreatedAt);
+            query.setParameter("afterId", afterId);
+        }
+        query.setMaxResults(limit);
+
+        List<UserDto> users = new ArrayList<>();
+        for (Tuple row : query.getResultList()) {
+            UserDto dto = new UserDto();
+            dto.setId(row.get("id", UUID.class));
+            dto.setEmail(row.get("email", String.class));
+            dto.setMobileNumber(row.get("mobileNumber", String.class));
+            dto.setFirstName(row.get("firstName", String.class));
+            dto.setLastName(row.get("lastName", String.class));
+            dto.setDisplayName(row.get("displayName", String.class));
+            dto.setStatus(row.get("status", String.class));
+            dto.setEmailVerified(row.get("emailVerified", Boolean.class));
+            dto.setMobileVerified(row.get("mobileVerified", Boolean.class));
+            dto.setLastLoginAt(row.get("lastLoginAt", Instant.class));
+            dto.setCreatedAt(row.get("createdAt", Instant.class));
+            dto.setProfileId(row.get("profileId", UUID.class));
+            users.add(dto);
+        }
+        return users;
+    }
+
+    @Override
+    public Map<UUID, List<String>> findRoleNamesByUserIds(Collection<UUID> userIds) {
+        Map<UUID, List<String>> rolesByUser = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return rolesByUser;
+        }
+
+        List<Object[]> rows = entityManager.createQuery(
+                        "SELECT u.id, r.name FROM User u JOIN u.roles r WHERE u.id IN :userIds", Object[].class)
+                .setParameter("userIds", userIds)
+                .getResultList();
+        for (Object[] row : rows) {
+            rolesByUser.computeIfAbsent((UUID) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        return rolesByUser;
+    }
+}
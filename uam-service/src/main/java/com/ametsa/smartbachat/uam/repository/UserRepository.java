@@ -1,16 +1,19 @@
 package com.ametsa.smartbachat.uam.repository;
 
 import com.ametsa.smartbachat.uam.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface UserRepository extends JpaRepository<User, UUID> {
+public interface UserRepository extends JpaRepository<User, UUID>, UserListingRepository {
 
     Optional<User> findByEmail(String email);
 
@@ -18,14 +21,65 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     Optional<User> findByEmailOrMobileNumber(String email, String mobileNumber);
 
+    /**
+     * Load a user with roles (without permissions) and profile in a single query,
+     * for login and token generation.
+     */
+    @EntityGraph(attributePaths = {"roles", "profile"})
+    Optional<User> findWithRolesByEmailOrMobileNumber(String email, String mobileNumber);
+
+    @EntityGraph(attributePaths = {"roles", "profile"})
+    Optional<User> findWithRolesById(UUID id);
+
+    /**
+     * Load a user with the full role and permission graph, for authorization checks.
+     */
+    @EntityGraph(attributePaths = {"roles", "roles.permissions"})
+    Optional<User> findWithPermissionsById(UUID id);
+
+    /**
+     * Record a successful login and clear any failed attempts in a single statement,
+     * without reloading or merging the user entity.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.failedLoginAttempts = 0, u.lockedUntil = NULL, " +
+           "u.lastLoginAt = :loginAt, u.lastLoginIp = :ipAddress WHERE u.id = :userId")
+    int recordSuccessfulLogin(@Param("userId") UUID userId, @Param("loginAt") Instant loginAt,
+                              @Param("ipAddress") String ipAddress);
+
+    /**
+     * Record a failed login without reloading or merging the user entity.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.failedLoginAttempts = :attempts, u.lockedUntil = :lockedUntil WHERE u.id = :userId")
+    int recordFailedLogin(@Param("userId") UUID userId, @Param("attempts") int attempts,
+                          @Param("lockedUntil") Instant lockedUntil);
+
+    /**
+     * Replace a password hash with one at the current cost, only if it still holds the old hash.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.passwordHash = :newHash WHERE u.id = :userId AND u.passwordHash = :oldHash")
+    int rehashPassword(@Param("userId") UUID userId, @Param("oldHash") String oldHash,
+                       @Param("newHash") String newHash);
+
     boolean existsByEmail(String email);
 
     boolean existsByMobileNumber(String mobileNumber);
 
     List<User> findByStatus(String status);
 
-    @Query("SELECT u FROM User u WHERE u.lockedUntil IS NOT NULL AND u.lockedUntil < :now")
-    List<User> findUsersToUnlock(@Param("now") Instant now);
+    /**
+     * Clear every lock that has run out, with its failed-attempt count, in one statement.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.lockedUntil = NULL, u.failedLoginAttempts = 0 " +
+           "WHERE u.lockedUntil IS NOT NULL AND u.lockedUntil < :now")
+    int unlockExpiredLocks(@Param("now") Instant now);
 
     @Query("SELECT u FROM User u JOIN u.roles r WHERE r.name = :roleName")
     List<User> findByRoleName(@Param("roleName") String roleName);
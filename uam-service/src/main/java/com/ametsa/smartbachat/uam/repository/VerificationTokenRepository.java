@@ -1,12 +1,15 @@
 package com.ametsa.smartbachat.uam.repository;
 
 import com.ametsa.smartbachat.uam.entity.VerificationToken;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -28,6 +31,18 @@ public interface VerificationTokenRepository extends JpaRepository<VerificationT
     @Query("DELETE FROM VerificationToken t WHERE t.expiresAt < :now")
     int deleteExpiredTokens(Instant now);
 
+    // Purge candidates, one index range each; deleted in bounded batches by id
+    @Query("SELECT t.id FROM VerificationToken t WHERE t.expiresAt < :now")
+    List<UUID> findExpiredIds(Instant now, Pageable pageable);
+
+    @Query("SELECT t.id FROM VerificationToken t WHERE t.usedAt IS NOT NULL AND t.usedAt < :now")
+    List<UUID> findUsedIds(Instant now, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM VerificationToken t WHERE t.id IN :ids")
+    int deleteByIds(Collection<UUID> ids);
+
     @Modifying
     @Query("DELETE FROM VerificationToken t WHERE t.user.id = :userId AND t.tokenType = :tokenType")
     int deleteByUserIdAndTokenType(UUID userId, String tokenType);
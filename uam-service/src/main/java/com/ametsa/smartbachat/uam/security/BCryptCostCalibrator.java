@@ -0,0 +1,91 @@
+package com.ametsa.smartbachat.uam.security;
+
+import com.ametsa.smartbachat.uam.config.AuthConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Resolves the BCrypt work factor once at startup.
+ *
+ * With {@code app.auth.password-hash-strength} set, that value is used as is. Otherwise the
+ * hash is benchmarked on this machine and the highest cost within
+ * {@code [min-strength, max-strength]} whose hash time stays under
+ * {@code password-hash-target-ms} is chosen, so login CPU tracks the hardware we run on.
+ */
+@Component
+public class BCryptCostCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+    private static final int SAMPLES = 3;
+
+    private final int strength;
+
+    public BCryptCostCalibrator(AuthConfig authConfig) {
+        if (authConfig.getPasswordHashStrength() > 0) {
+            this.strength = authConfig.getPasswordHashStrength();
+            log.info("Using configured BCrypt strength {}", strength);
+        } else {
+            this.strength = calibrate(authConfig.getPasswordHashTargetMs(),
+                    authConfig.getPasswordHashMinStrength(), authConfig.getPasswordHashMaxStrength());
+        }
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Each extra cost round doubles the hash time, so stop at the first strength over target.
+     */
+    static int calibrate(long targetMs, int minStrength, int maxStrength) {
+        int chosen = minStrength;
+        for (int candidate = minStrength; candidate <= maxStrength; candidate++) {
+            long elapsedMs = measureMillis(candidate);
+            log.debug("BCrypt strength {} hashes in {}ms", candidate, elapsedMs);
+            if (elapsedMs > targetMs) {
+                break;
+            }
+            chosen = candidate;
+        }
+        log.info("Calibrated BCrypt strength {} for a {}ms target (allowed {}-{})",
+                chosen, targetMs, minStrength, maxStrength);
+        return chosen;
+    }
+
+    /**
+     * Median hash time at the given strength, after one warm-up round.
+     */
+    static long measureMillis(int strength) {
+        String salt = BCrypt.gensalt(strength);
+        BCrypt.hashpw("calibration-password", salt);
+
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration-password", salt);
+            samples[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+
+    /**
+     * Cost factor encoded in a BCrypt hash ({@code $2a$10$...}), or -1 if it is not one.
+     */
+    public static int strengthOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7
+                || encodedPassword.charAt(0) != '$' || encodedPassword.charAt(3) != '$'
+                || encodedPassword.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
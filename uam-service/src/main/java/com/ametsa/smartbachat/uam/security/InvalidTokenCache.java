@@ -0,0 +1,51 @@
+package com.ametsa.smartbachat.uam.security;
+
+import com.ametsa.smartbachat.uam.config.EmailConfig;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers verification and reset tokens that were looked up and found unknown, expired or
+ * used, so repeated probes with the same token are answered without a database query.
+ *
+ * Tokens are random and never become valid again once invalid, so a negative entry cannot
+ * hide a real token. Disabled when {@code app.email.invalid-token-cache-size} is 0.
+ */
+@Component
+public class InvalidTokenCache {
+
+    private final Cache<String, String> cache;
+
+    public InvalidTokenCache(EmailConfig emailConfig) {
+        this.cache = emailConfig.getInvalidTokenCacheSize() > 0
+                ? CacheBuilder.newBuilder()
+                        .maximumSize(emailConfig.getInvalidTokenCacheSize())
+                        .expireAfterWrite(emailConfig.getInvalidTokenCacheTtlSeconds(), TimeUnit.SECONDS)
+                        .build()
+                : null;
+    }
+
+    /**
+     * @return the error message the token was rejected with, or null if it is not known to be invalid
+     */
+    public String getRejection(String token, String tokenType) {
+        return cache != null && token != null ? cache.getIfPresent(key(token, tokenType)) : null;
+    }
+
+    public void markInvalid(String token, String tokenType, String message) {
+        if (cache != null && token != null) {
+            cache.put(key(token, tokenType), message);
+        }
+    }
+
+    public long size() {
+        return cache != null ? cache.size() : 0;
+    }
+
+    private static String key(String token, String tokenType) {
+        return tokenType + ':' + token;
+    }
+}
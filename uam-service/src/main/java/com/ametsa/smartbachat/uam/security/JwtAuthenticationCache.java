@@ -0,0 +1,76 @@
+package com.ametsa.smartbachat.uam.security;
+
+import com.ametsa.smartbachat.uam.config.JwtConfig;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of verified access tokens, keyed by the SHA-256 of the token so raw
+ * tokens are never retained. An entry is only served until the token's own {@code exp},
+ * so a cache hit never accepts a token the parser would reject as expired.
+ */
+public class JwtAuthenticationCache {
+
+    private final Cache<String, Entry> cache;
+
+    public JwtAuthenticationCache(JwtConfig jwtConfig) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(jwtConfig.getAuthCacheMaxSize())
+                .expireAfterWrite(jwtConfig.getAuthCacheTtlSeconds(), TimeUnit.SECONDS)
+                .ticker(new Ticker() {
+                    @Override
+                    public long read() {
+                        return TimeUnit.MILLISECONDS.toNanos(currentTimeMillis());
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * @return the cached authentication for this token, or null if absent or past its expiry
+     */
+    public Entry get(String token) {
+        String key = hash(token);
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && entry.expiresAtMillis() <= currentTimeMillis()) {
+            cache.invalidate(key);
+            return null;
+        }
+        return entry;
+    }
+
+    public void put(String token, Entry entry) {
+        cache.put(hash(token), entry);
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * User id and authorities taken from a verified token; both are immutable and shared across requests.
+     */
+    public record Entry(String userId, List<GrantedAuthority> authorities, long expiresAtMillis) {}
+}
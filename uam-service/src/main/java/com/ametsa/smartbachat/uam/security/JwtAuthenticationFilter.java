@@ -1,5 +1,6 @@
 package com.ametsa.smartbachat.uam.security;
 
+import com.ametsa.smartbachat.uam.config.JwtConfig;
 import com.ametsa.smartbachat.uam.service.JwtService;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
@@ -16,6 +17,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -25,9 +27,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
     private final JwtService jwtService;
+    private final JwtAuthenticationCache authenticationCache;
 
-    public JwtAuthenticationFilter(JwtService jwtService) {
+    public JwtAuthenticationFilter(JwtService jwtService, JwtConfig jwtConfig) {
+        this(jwtService, new JwtAuthenticationCache(jwtConfig));
+    }
+
+    JwtAuthenticationFilter(JwtService jwtService, JwtAuthenticationCache authenticationCache) {
         this.jwtService = jwtService;
+        this.authenticationCache = authenticationCache;
     }
 
     @Override
@@ -44,23 +52,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String token = authHeader.substring(7);
 
         try {
-            if (jwtService.validateToken(token) && !jwtService.isRefreshToken(token)) {
-                Claims claims = jwtService.getClaimsFromToken(token);
-                String userId = claims.getSubject();
-                
-                @SuppressWarnings("unchecked")
-                List<String> roles = claims.get("roles", List.class);
-                
-                List<SimpleGrantedAuthority> authorities = roles != null 
-                        ? roles.stream()
-                            .map(SimpleGrantedAuthority::new)
-                            .collect(Collectors.toList())
-                        : List.of();
-
-                UsernamePasswordAuthenticationToken authentication = 
-                        new UsernamePasswordAuthenticationToken(userId, null, authorities);
+            JwtAuthenticationCache.Entry entry = authenticationCache.get(token);
+            if (entry == null) {
+                entry = authenticate(token);
+            }
+
+            if (entry != null) {
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(entry.userId(), null, entry.authorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                
+
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         } catch (Exception e) {
@@ -69,5 +70,42 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
 
+    /**
+     * Re-authenticate on async dispatches (e.g. streamed exports) too; the token cache makes this cheap.
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    /**
+     * Verify the token with a single parse and cache its authorities until the token expires.
+     * @return null for refresh tokens, which must not be used for API access
+     */
+    private JwtAuthenticationCache.Entry authenticate(String token) {
+        Claims claims = jwtService.getClaimsFromToken(token);
+
+        if ("refresh".equals(claims.get("type"))) {
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<String> roles = claims.get("roles", List.class);
+
+        List<SimpleGrantedAuthority> authorities = roles != null
+                ? roles.stream()
+                    .map(SimpleGrantedAuthority::new)
+                    .collect(Collectors.toList())
+                : List.of();
+
+        Date expiration = claims.getExpiration();
+        JwtAuthenticationCache.Entry entry = new JwtAuthenticationCache.Entry(claims.getSubject(),
+                List.copyOf(authorities), expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+        // Tokens without an expiry are never cached
+        if (expiration != null) {
+            authenticationCache.put(token, entry);
+        }
+        return entry;
+    }
+}
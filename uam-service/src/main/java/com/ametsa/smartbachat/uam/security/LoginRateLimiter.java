@@ -0,0 +1,214 @@
+package com.ametsa.smartbachat.uam.security;
+
+import com.ametsa.smartbachat.uam.config.AuthConfig;
+import com.ametsa.smartbachat.uam.exception.TooManyLoginAttemptsException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Striped;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * In-memory login throttle with sliding windows per client IP and per username.
+ *
+ * Every attempt counts against its IP; failed password checks count against the username.
+ * An IP over {@code login-ip-max-attempts} or a username at {@code login-max-failed-attempts}
+ * is refused before the user is looked up, so a credential-stuffing wave never reaches the
+ * database. The caller persists a lock only when {@link #recordFailure} reports the threshold
+ * being crossed.
+ *
+ * Each window is two fixed buckets, the previous one weighted by its overlap with the sliding
+ * window. Windows live in size-bounded caches and are updated under a fixed set of striped
+ * locks, so memory stays flat however many keys an attacker rotates through. Counters are per
+ * instance; the persisted lock is what holds across instances and restarts.
+ */
+@Component
+public class LoginRateLimiter implements MeterBinder {
+
+    private final Cache<String, Window> ipWindows;
+    private final Cache<String, Window> usernameWindows;
+    private final Striped<Lock> locks;
+    private final int ipMaxAttempts;
+    private final long ipWindowMs;
+    private final int maxFailedAttempts;
+    private final long usernameWindowMs;
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public LoginRateLimiter(AuthConfig authConfig) {
+        this.ipMaxAttempts = authConfig.getLoginIpMaxAttempts();
+        this.ipWindowMs = TimeUnit.SECONDS.toMillis(authConfig.getLoginIpWindowSeconds());
+        this.maxFailedAttempts = authConfig.getLoginMaxFailedAttempts();
+        this.usernameWindowMs = TimeUnit.SECONDS.toMillis(authConfig.getLoginUsernameWindowSeconds());
+
+        int stripes = Math.max(1, authConfig.getLoginLimiterStripes());
+        this.locks = Striped.lock(stripes);
+        this.ipWindows = newCache(authConfig.getLoginLimiterMaxKeys(), ipWindowMs, stripes);
+        this.usernameWindows = newCache(authConfig.getLoginLimiterMaxKeys(), usernameWindowMs, stripes);
+    }
+
+    private static Cache<String, Window> newCache(long maxKeys, long windowMs, int stripes) {
+        // Idle keys drop out once both buckets would have rolled off
+        return CacheBuilder.newBuilder()
+                .maximumSize(maxKeys)
+                .concurrencyLevel(stripes)
+                .expireAfterAccess(2 * windowMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Admit a login attempt and count it against the client IP.
+     * @throws TooManyLoginAttemptsException if the IP or the username is over its limit
+     */
+    public void acquire(String ipAddress, String username) {
+        long now = currentTimeMillis();
+
+        String user = normalize(username);
+        Window failures = user != null ? usernameWindows.getIfPresent(user) : null;
+        if (failures != null) {
+            Lock lock = locks.get(user);
+            lock.lock();
+            try {
+                if (failures.count(now, usernameWindowMs) >= maxFailedAttempts) {
+                    throw reject("Account is locked. Try again later.",
+                            failures.millisUntilRoll(now, usernameWindowMs));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        if (ipAddress == null || ipMaxAttempts <= 0) {
+            return;
+        }
+        Window attempts = ipWindows.asMap().computeIfAbsent(ipAddress, key -> new Window());
+        Lock lock = locks.get(ipAddress);
+        lock.lock();
+        try {
+            if (attempts.count(now, ipWindowMs) >= ipMaxAttempts) {
+                throw reject("Too many login attempts. Try again later.",
+                        attempts.millisUntilRoll(now, ipWindowMs));
+            }
+            attempts.current++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Count a failed password check against the username.
+     * @return true only for the failure that brings the username to the lock threshold
+     */
+    public boolean recordFailure(String username) {
+        String user = normalize(username);
+        if (user == null) {
+            return false;
+        }
+        long now = currentTimeMillis();
+        Window failures = usernameWindows.asMap().computeIfAbsent(user, key -> new Window());
+        Lock lock = locks.get(user);
+        lock.lock();
+        try {
+            double before = failures.count(now, usernameWindowMs);
+            failures.current++;
+            return before < maxFailedAttempts && before + 1 >= maxFailedAttempts;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clearFailures(String username) {
+        String user = normalize(username);
+        if (user != null) {
+            usernameWindows.invalidate(user);
+        }
+    }
+
+    public int getMaxFailedAttempts() {
+        return maxFailedAttempts;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long trackedKeys() {
+        return ipWindows.size() + usernameWindows.size();
+    }
+
+    public void clear() {
+        ipWindows.invalidateAll();
+        usernameWindows.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("login.rate_limited", this, LoginRateLimiter::getRejectedCount)
+                .description("Login attempts refused before the credential check")
+                .register(registry);
+        Gauge.builder("login.rate_limiter.keys", this, LoginRateLimiter::trackedKeys)
+                .description("IPs and usernames with a live window")
+                .register(registry);
+    }
+
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private TooManyLoginAttemptsException reject(String message, long retryAfterMs) {
+        rejectedCount.incrementAndGet();
+        long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(retryAfterMs + 999));
+        return new TooManyLoginAttemptsException(message, retryAfterSeconds);
+    }
+
+    private static String normalize(String username) {
+        if (username == null || username.isBlank()) {
+            return null;
+        }
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Two-bucket sliding window counter. Guarded by the key's stripe lock.
+     */
+    private static final class Window {
+
+        private long start = Long.MIN_VALUE;
+        private int previous;
+        private int current;
+
+        /**
+         * Attempts in the sliding window ending now: the previous bucket scaled by how much of
+         * it still overlaps the window, plus everything in the current bucket.
+         */
+        double count(long now, long windowMs) {
+            roll(now, windowMs);
+            double overlap = 1.0 - (double) (now - start) / windowMs;
+            return previous * Math.min(1.0, overlap) + current;
+        }
+
+        long millisUntilRoll(long now, long windowMs) {
+            return start + windowMs - now;
+        }
+
+        private void roll(long now, long windowMs) {
+            if (start == Long.MIN_VALUE) {
+                start = now - Math.floorMod(now, windowMs);
+                return;
+            }
+            long elapsedBuckets = (now - start) / windowMs;
+            if (elapsedBuckets > 0) {
+                previous = elapsedBuckets == 1 ? current : 0;
+                current = 0;
+                start += elapsedBuckets * windowMs;
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.ametsa.smartbachat.uam.service;
+
+import com.ametsa.smartbachat.uam.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Clears account locks that have run out, with a single set-based UPDATE per run.
+ *
+ * Login already treats an expired lock as cleared, so this only keeps lock state and
+ * failed-attempt counts accurate for reporting without per-user reads or writes.
+ */
+@Service
+public class AccountUnlockJob {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountUnlockJob.class);
+
+    private final UserRepository userRepository;
+
+    public AccountUnlockJob(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.unlock-poll-ms:60000}")
+    public void unlockExpiredAccounts() {
+        int unlocked = userRepository.unlockExpiredLocks(Instant.now());
+        if (unlocked > 0) {
+            log.info("Unlocked {} accounts with expired locks", unlocked);
+        }
+    }
+}
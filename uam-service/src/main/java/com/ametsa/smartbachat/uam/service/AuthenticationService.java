@@ -6,9 +6,11 @@ import com.ametsa.smartbachat.uam.dto.RegisterRequest;
 import com.ametsa.smartbachat.uam.entity.Profile;
 import com.ametsa.smartbachat.uam.entity.Role;
 import com.ametsa.smartbachat.uam.entity.User;
+import com.ametsa.smartbachat.uam.exception.ServiceOverloadedException;
 import com.ametsa.smartbachat.uam.repository.ProfileRepository;
 import com.ametsa.smartbachat.uam.repository.RoleRepository;
 import com.ametsa.smartbachat.uam.repository.UserRepository;
+import com.ametsa.smartbachat.uam.security.LoginRateLimiter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -22,7 +24,6 @@ import java.util.stream.Collectors;
 public class AuthenticationService {
 
     private static final Logger log = LoggerFactory.getLogger(AuthenticationService.class);
-    private static final int MAX_FAILED_ATTEMPTS = 5;
     private static final long LOCK_DURATION_MINUTES = 30;
 
     private final UserRepository userRepository;
@@ -31,6 +32,8 @@ public class AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final VerificationService verificationService;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginRateLimiter loginRateLimiter;
 
     public AuthenticationService(
             UserRepository userRepository,
@@ -38,13 +41,17 @@ public class AuthenticationService {
             ProfileRepository profileRepository,
             PasswordEncoder passwordEncoder,
             JwtService jwtService,
-            VerificationService verificationService) {
+            VerificationService verificationService,
+            PasswordHashingService passwordHashingService,
+            LoginRateLimiter loginRateLimiter) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.profileRepository = profileRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.verificationService = verificationService;
+        this.passwordHashingService = passwordHashingService;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
     @Transactional
@@ -108,14 +115,23 @@ public class AuthenticationService {
         return generateAuthResponse(user);
     }
 
-    @Transactional
+    /**
+     * Not transactional on purpose: the BCrypt check runs on the hashing pool without holding a
+     * connection, and the user row is only written once the outcome is known. Throttled
+     * attempts are refused by {@link LoginRateLimiter} before the user is looked up.
+     */
     public AuthResponse login(LoginRequest request, String ipAddress) {
         log.info("Login attempt for: {}", request.getUsername());
 
-        // Find user by email or mobile
-        User user = userRepository.findByEmailOrMobileNumber(
+        loginRateLimiter.acquire(ipAddress, request.getUsername());
+
+        // Find user by email or mobile (roles and profile loaded for the token response)
+        User user = userRepository.findWithRolesByEmailOrMobileNumber(
                 request.getUsername(), request.getUsername())
-                .orElseThrow(() -> new RuntimeException("Invalid credentials"));
+                .orElseThrow(() -> {
+                    loginRateLimiter.recordFailure(request.getUsername());
+                    return new RuntimeException("Invalid credentials");
+                });
 
         // Check if account is locked
         if (user.isLocked()) {
@@ -128,17 +144,21 @@ public class AuthenticationService {
         }
 
         // Verify password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
-            handleFailedLogin(user);
+        if (!passwordHashingService.matches(request.getPassword(), user.getPasswordHash())) {
+            handleFailedLogin(user, request.getUsername());
             throw new RuntimeException("Invalid credentials");
         }
 
         // Reset failed attempts and update login info
+        Instant loginAt = Instant.now();
+        userRepository.recordSuccessfulLogin(user.getId(), loginAt, ipAddress);
         user.setFailedLoginAttempts(0);
         user.setLockedUntil(null);
-        user.setLastLoginAt(Instant.now());
+        user.setLastLoginAt(loginAt);
         user.setLastLoginIp(ipAddress);
-        userRepository.save(user);
+        loginRateLimiter.clearFailures(request.getUsername());
+
+        upgradePasswordHash(user, request.getPassword());
 
         log.info("User logged in successfully: {}", user.getId());
 
@@ -152,7 +172,7 @@ public class AuthenticationService {
         }
 
         var userId = jwtService.getUserIdFromToken(refreshToken);
-        User user = userRepository.findById(userId)
+        User user = userRepository.findWithRolesById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (!user.isActive()) {
@@ -162,16 +182,54 @@ public class AuthenticationService {
         return generateAuthResponse(user);
     }
 
-    private void handleFailedLogin(User user) {
-        int attempts = user.getFailedLoginAttempts() + 1;
-        user.setFailedLoginAttempts(attempts);
+    /**
+     * Re-hash a password stored at a different BCrypt cost while the raw password is at hand.
+     * Best effort: a busy hashing pool or a concurrent password change just skips the upgrade.
+     */
+    private void upgradePasswordHash(User user, String rawPassword) {
+        String oldHash = user.getPasswordHash();
+        if (!passwordHashingService.needsRehash(oldHash)) {
+            return;
+        }
+        try {
+            String newHash = passwordHashingService.encode(rawPassword);
+            if (userRepository.rehashPassword(user.getId(), oldHash, newHash) > 0) {
+                user.setPasswordHash(newHash);
+                log.info("Re-hashed password for user {} at the current cost", user.getId());
+            }
+        } catch (ServiceOverloadedException e) {
+            log.debug("Skipping password re-hash for user {}: {}", user.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Failures are counted in memory; the users table is only written when the count crosses
+     * the threshold and the account gets locked, or to clear a lock that has run out.
+     */
+    private void handleFailedLogin(User user, String username) {
+        // A lock that has run out counts as cleared, even before the unlock job resets it;
+        // failures from before the lock must not re-lock on the first wrong password
+        boolean lockExpired = user.getLockedUntil() != null && !user.isLocked();
+        if (lockExpired) {
+            loginRateLimiter.clearFailures(username);
+        }
 
-        if (attempts >= MAX_FAILED_ATTEMPTS) {
-            user.setLockedUntil(Instant.now().plusSeconds(LOCK_DURATION_MINUTES * 60));
-            log.warn("Account locked due to too many failed attempts: {}", user.getEmail());
+        if (!loginRateLimiter.recordFailure(username)) {
+            if (lockExpired) {
+                userRepository.recordFailedLogin(user.getId(), 1, null);
+                user.setFailedLoginAttempts(1);
+                user.setLockedUntil(null);
+            }
+            return;
         }
 
-        userRepository.save(user);
+        int attempts = loginRateLimiter.getMaxFailedAttempts();
+        Instant lockedUntil = Instant.now().plusSeconds(LOCK_DURATION_MINUTES * 60);
+        log.warn("Account locked due to too many failed attempts: {}", user.getEmail());
+
+        userRepository.recordFailedLogin(user.getId(), attempts, lockedUntil);
+        user.setFailedLoginAttempts(attempts);
+        user.setLockedUntil(lockedUntil);
     }
 
     private AuthResponse generateAuthResponse(User user) {
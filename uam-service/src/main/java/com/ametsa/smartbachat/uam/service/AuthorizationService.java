@@ -1,111 +1,105 @@
 package com.ametsa.smartbachat.uam.service;
 
+import com.ametsa.smartbachat.uam.config.AuthConfig;
 import com.ametsa.smartbachat.uam.entity.Permission;
 import com.ametsa.smartbachat.uam.entity.Role;
 import com.ametsa.smartbachat.uam.entity.User;
 import com.ametsa.smartbachat.uam.repository.UserRepository;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Arrays;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * Service for role-based access control.
+ *
+ * Each user's roles and permissions are resolved once into an immutable {@link PermissionSnapshot}
+ * and cached, so checks are in-memory set lookups. Users who are not ACTIVE resolve to an empty
+ * snapshot, so suspending a user revokes everything they were granted.
+ *
+ * {@link UserService} invalidates a user's snapshot whenever their roles or status change, but
+ * only on the replica that made the change. Every other replica, and any change made outside
+ * UserService (e.g. direct edits to role permissions), is bounded by
+ * {@code app.auth.permission-cache-ttl-seconds}.
  */
 @Service
 public class AuthorizationService {
 
     private static final Logger log = LoggerFactory.getLogger(AuthorizationService.class);
 
+    private static final long SNAPSHOT_CACHE_MAX_SIZE = 100_000;
+
     private final UserRepository userRepository;
+    private final Cache<UUID, PermissionSnapshot> snapshots;
 
-    public AuthorizationService(UserRepository userRepository) {
+    public AuthorizationService(UserRepository userRepository, AuthConfig authConfig) {
         this.userRepository = userRepository;
+        this.snapshots = CacheBuilder.newBuilder()
+                .maximumSize(SNAPSHOT_CACHE_MAX_SIZE)
+                .expireAfterWrite(authConfig.getPermissionCacheTtlSeconds(), TimeUnit.SECONDS)
+                .build();
     }
 
     /**
      * Check if user has a specific role.
      */
     public boolean hasRole(UUID userId, String roleName) {
-        return userRepository.findById(userId)
-                .map(user -> user.getRoles().stream()
-                        .anyMatch(role -> role.getName().equals(roleName)))
-                .orElse(false);
+        return snapshot(userId).roles().contains(roleName);
     }
 
     /**
      * Check if user has a specific permission.
      */
     public boolean hasPermission(UUID userId, String permissionName) {
-        return userRepository.findById(userId)
-                .map(user -> user.getRoles().stream()
-                        .flatMap(role -> role.getPermissions().stream())
-                        .anyMatch(perm -> perm.getName().equals(permissionName)))
-                .orElse(false);
+        return snapshot(userId).permissions().contains(permissionName);
     }
 
     /**
      * Check if user has any of the specified roles.
      */
     public boolean hasAnyRole(UUID userId, String... roleNames) {
-        Set<String> requiredRoles = Set.of(roleNames);
-        return userRepository.findById(userId)
-                .map(user -> user.getRoles().stream()
-                        .anyMatch(role -> requiredRoles.contains(role.getName())))
-                .orElse(false);
+        Set<String> roles = snapshot(userId).roles();
+        return Arrays.stream(roleNames).anyMatch(roles::contains);
     }
 
     /**
      * Check if user has all of the specified roles.
      */
     public boolean hasAllRoles(UUID userId, String... roleNames) {
-        Set<String> requiredRoles = Set.of(roleNames);
-        return userRepository.findById(userId)
-                .map(user -> {
-                    Set<String> userRoles = user.getRoles().stream()
-                            .map(Role::getName)
-                            .collect(Collectors.toSet());
-                    return userRoles.containsAll(requiredRoles);
-                })
-                .orElse(false);
+        Set<String> roles = snapshot(userId).roles();
+        return Arrays.stream(roleNames).allMatch(roles::contains);
     }
 
     /**
      * Check if user has any of the specified permissions.
      */
     public boolean hasAnyPermission(UUID userId, String... permissionNames) {
-        Set<String> requiredPerms = Set.of(permissionNames);
-        return userRepository.findById(userId)
-                .map(user -> user.getRoles().stream()
-                        .flatMap(role -> role.getPermissions().stream())
-                        .anyMatch(perm -> requiredPerms.contains(perm.getName())))
-                .orElse(false);
+        Set<String> permissions = snapshot(userId).permissions();
+        return Arrays.stream(permissionNames).anyMatch(permissions::contains);
     }
 
     /**
      * Get all permissions for a user.
      */
     public Set<String> getUserPermissions(UUID userId) {
-        return userRepository.findById(userId)
-                .map(user -> user.getRoles().stream()
-                        .flatMap(role -> role.getPermissions().stream())
-                        .map(Permission::getName)
-                        .collect(Collectors.toSet()))
-                .orElse(Set.of());
+        return snapshot(userId).permissions();
     }
 
     /**
      * Get all roles for a user.
      */
     public Set<String> getUserRoles(UUID userId) {
-        return userRepository.findById(userId)
-                .map(user -> user.getRoles().stream()
-                        .map(Role::getName)
-                        .collect(Collectors.toSet()))
-                .orElse(Set.of());
+        return snapshot(userId).roles();
     }
 
     /**
@@ -119,15 +113,60 @@ public class AuthorizationService {
      * Check if user can access a resource.
      */
     public boolean canAccess(UUID userId, String resource, String action) {
-        String permission = resource + ":" + action;
-        
+        PermissionSnapshot snapshot = snapshot(userId);
+
         // Admin has access to everything
-        if (isAdmin(userId)) {
+        if (snapshot.roles().contains(Role.ROLE_ADMIN)) {
             return true;
         }
-        
-        return hasPermission(userId, permission) || 
-               hasPermission(userId, Permission.ADMIN_ALL);
+
+        return snapshot.permissions().contains(resource + ":" + action) ||
+               snapshot.permissions().contains(Permission.ADMIN_ALL);
+    }
+
+    /**
+     * Drop the cached snapshot for a user. Inside a transaction the snapshot is dropped again
+     * after completion, so a concurrent check cannot re-cache the pre-commit state.
+     */
+    public void invalidate(UUID userId) {
+        snapshots.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    snapshots.invalidate(userId);
+                }
+            });
+        }
     }
-}
 
+    private PermissionSnapshot snapshot(UUID userId) {
+        try {
+            return snapshots.get(userId, () -> loadSnapshot(userId));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to resolve permissions for user " + userId, e.getCause());
+        }
+    }
+
+    private PermissionSnapshot loadSnapshot(UUID userId) {
+        log.debug("Resolving permissions for user {}", userId);
+        return userRepository.findWithPermissionsById(userId)
+                .filter(User::isActive)
+                .map(user -> new PermissionSnapshot(
+                        user.getRoles().stream()
+                                .map(Role::getName)
+                                .collect(Collectors.toUnmodifiableSet()),
+                        user.getRoles().stream()
+                                .flatMap(role -> role.getPermissions().stream())
+                                .map(Permission::getName)
+                                .collect(Collectors.toUnmodifiableSet())))
+                .orElse(PermissionSnapshot.EMPTY);
+    }
+
+    /**
+     * Immutable role and permission names of a single user.
+     */
+    record PermissionSnapshot(Set<String> roles, Set<String> permissions) {
+        static final PermissionSnapshot EMPTY = new PermissionSnapshot(Set.of(), Set.of());
+    }
+}
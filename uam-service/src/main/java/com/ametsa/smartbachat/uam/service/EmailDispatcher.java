@@ -0,0 +1,272 @@
+package com.ametsa.smartbachat.uam.service;
+
+import com.ametsa.smartbachat.uam.config.EmailConfig;
+import com.ametsa.smartbachat.uam.entity.OutboxEmail;
+import com.ametsa.smartbachat.uam.repository.OutboxEmailRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends queued {@link OutboxEmail}s on a small bounded pool.
+ *
+ * Each run claims one batch of due rows and sends it through a single SMTP connection
+ * ({@link JavaMailSender#send(MimeMessage...)}), so open connections never exceed the
+ * number of sender threads. A full batch fans out to another sender. Failed messages are
+ * rescheduled with exponential backoff until {@code outbox-max-attempts}. Dispatch is
+ * triggered right after the enqueuing transaction commits, and by a poll as a safety net.
+ * Template variables carry live reset and verification links, so they are cleared as soon
+ * as a row is SENT or FAILED for good.
+ */
+@Service
+public class EmailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailDispatcher.class);
+    private static final TypeReference<Map<String, Object>> VARIABLES_TYPE = new TypeReference<>() {};
+
+    private final OutboxEmailRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final TemplateEngine templateEngine;
+    private final EmailConfig emailConfig;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor senders;
+    private final AtomicBoolean dispatchRequested = new AtomicBoolean();
+
+    public EmailDispatcher(OutboxEmailRepository outboxRepository, JavaMailSender mailSender,
+                           TemplateEngine templateEngine, EmailConfig emailConfig, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.templateEngine = templateEngine;
+        this.emailConfig = emailConfig;
+        this.objectMapper = objectMapper;
+
+        int threads = Math.max(1, emailConfig.getOutboxThreads());
+        AtomicInteger threadIndex = new AtomicInteger();
+        // Requests are coalesced, so one queued run per thread is plenty
+        this.senders = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "email-sender-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Dispatch once the current transaction commits, or right away outside a transaction.
+     */
+    public void dispatchAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    requestDispatch();
+                }
+            });
+        } else {
+            requestDispatch();
+        }
+    }
+
+    /**
+     * Safety net for mails whose trigger was lost and for retries coming due.
+     */
+    @Scheduled(fixedDelayString = "${app.email.outbox-poll-ms:5000}")
+    public void pollOutbox() {
+        requestDispatch();
+    }
+
+    /**
+     * Remove delivered mails past the retention window. Failed mails are kept for inspection,
+     * without their template variables.
+     */
+    @Scheduled(cron = "${app.email.outbox-cleanup-cron:0 30 3 * * *}")
+    public void purgeSent() {
+        int cleared = outboxRepository.clearFinishedTemplateVariables();
+        if (cleared > 0) {
+            log.info("Cleared template variables of {} finished emails", cleared);
+        }
+        int deleted = outboxRepository.deleteSentBefore(
+                Instant.now().minus(emailConfig.getOutboxRetentionDays(), ChronoUnit.DAYS));
+        if (deleted > 0) {
+            log.info("Purged {} sent emails from the outbox", deleted);
+        }
+    }
+
+    private void requestDispatch() {
+        if (!dispatchRequested.compareAndSet(false, true)) {
+            return; // A run is already queued and will see the new rows
+        }
+        try {
+            senders.execute(() -> {
+                dispatchRequested.set(false);
+                try {
+                    dispatchBatch();
+                } catch (Exception e) {
+                    log.error("Email dispatch failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // All senders busy; the next poll picks the rows up
+            dispatchRequested.set(false);
+        }
+    }
+
+    /**
+     * Claim and send one batch of due mails.
+     * @return number of mails claimed
+     */
+    int dispatchBatch() {
+        int batchSize = emailConfig.getOutboxBatchSize();
+        Instant now = Instant.now();
+        List<UUID> dueIds = outboxRepository.findDueIds(now, PageRequest.of(0, batchSize));
+        if (dueIds.isEmpty()) {
+            return 0;
+        }
+
+        UUID claimToken = UUID.randomUUID();
+        if (outboxRepository.claim(dueIds, claimToken, now,
+                now.plusSeconds(emailConfig.getOutboxLeaseSeconds())) == 0) {
+            return 0;
+        }
+        if (dueIds.size() == batchSize) {
+            requestDispatch(); // More may be due; let another sender take the next batch
+        }
+
+        List<OutboxEmail> batch = outboxRepository.findByClaimToken(claimToken);
+        sendBatch(batch);
+        return batch.size();
+    }
+
+    void sendBatch(List<OutboxEmail> batch) {
+        Map<MimeMessage, OutboxEmail> messages = new LinkedHashMap<>();
+        for (OutboxEmail email : batch) {
+            try {
+                messages.put(buildMessage(email), email);
+            } catch (Exception e) {
+                markFailed(email, "Failed to render email: " + e.getMessage());
+            }
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        if (!messages.isEmpty()) {
+            try {
+                mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                failures = e.getFailedMessages();
+                if (failures.isEmpty()) {
+                    failures = allFailed(messages, e);
+                }
+            } catch (MailException e) {
+                failures = allFailed(messages, e);
+            }
+        }
+
+        int sent = 0;
+        Instant now = Instant.now();
+        for (Map.Entry<MimeMessage, OutboxEmail> entry : messages.entrySet()) {
+            Exception failure = failures.get(entry.getKey());
+            if (failure != null) {
+                markFailed(entry.getValue(), failure.getMessage());
+            } else {
+                OutboxEmail email = entry.getValue();
+                email.setStatus(OutboxEmail.STATUS_SENT);
+                email.setSentAt(now);
+                email.setNextAttemptAt(null);
+                email.setClaimToken(null);
+                email.setTemplateVariables(null);
+                email.setAttempts(email.getAttempts() + 1);
+                sent++;
+            }
+        }
+        outboxRepository.saveAll(batch);
+
+        log.info("Email batch dispatched - sent: {}, failed: {}", sent, batch.size() - sent);
+    }
+
+    private Map<Object, Exception> allFailed(Map<MimeMessage, OutboxEmail> messages, Exception e) {
+        Map<Object, Exception> failures = new LinkedHashMap<>();
+        messages.keySet().forEach(message -> failures.put(message, e));
+        return failures;
+    }
+
+    private MimeMessage buildMessage(OutboxEmail email) throws Exception {
+        Context context = new Context();
+        if (email.getTemplateVariables() != null) {
+            context.setVariables(objectMapper.readValue(email.getTemplateVariables(), VARIABLES_TYPE));
+        }
+        // Parsed templates are cached by the engine (spring.thymeleaf.cache); only rendering runs per mail
+        String htmlContent = templateEngine.process(email.getTemplateName(), context);
+
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom(emailConfig.getFromAddress(), emailConfig.getFromName());
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(htmlContent, true);
+        return message;
+    }
+
+    private void markFailed(OutboxEmail email, String error) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setClaimToken(null);
+        email.setLastError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+
+        if (attempts >= emailConfig.getOutboxMaxAttempts()) {
+            email.setStatus(OutboxEmail.STATUS_FAILED);
+            email.setNextAttemptAt(null);
+            email.setTemplateVariables(null);
+            log.error("Giving up on email {} to {} after {} attempts: {}",
+                    email.getId(), email.getRecipient(), attempts, error);
+        } else {
+            email.setNextAttemptAt(Instant.now().plusMillis(computeRetryDelayMs(attempts)));
+            log.warn("Email {} to {} failed (attempt {}), will retry: {}",
+                    email.getId(), email.getRecipient(), attempts, error);
+        }
+    }
+
+    /**
+     * Exponential backoff with equal jitter, so a burst that failed together retries spread out.
+     */
+    long computeRetryDelayMs(int attempts) {
+        long base = emailConfig.getOutboxRetryBaseDelayMs();
+        long delay = Math.min(emailConfig.getOutboxRetryMaxDelayMs(), base << Math.min(attempts - 1, 20));
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdown();
+    }
+}
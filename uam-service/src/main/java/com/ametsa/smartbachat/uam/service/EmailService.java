@@ -1,101 +1,89 @@
 package com.ametsa.smartbachat.uam.service;
 
 import com.ametsa.smartbachat.uam.config.EmailConfig;
+import com.ametsa.smartbachat.uam.entity.OutboxEmail;
 import com.ametsa.smartbachat.uam.entity.User;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.ametsa.smartbachat.uam.repository.OutboxEmailRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Queues transactional emails in the outbox. Rows join the caller's transaction and are
+ * rendered and sent by {@link EmailDispatcher} after commit, off the request thread.
+ */
 @Service
 public class EmailService {
 
     private static final Logger log = LoggerFactory.getLogger(EmailService.class);
 
-    private final JavaMailSender mailSender;
-    private final TemplateEngine templateEngine;
+    private final OutboxEmailRepository outboxRepository;
+    private final EmailDispatcher emailDispatcher;
     private final EmailConfig emailConfig;
+    private final ObjectMapper objectMapper;
 
-    public EmailService(JavaMailSender mailSender, TemplateEngine templateEngine, EmailConfig emailConfig) {
-        this.mailSender = mailSender;
-        this.templateEngine = templateEngine;
+    public EmailService(OutboxEmailRepository outboxRepository, EmailDispatcher emailDispatcher,
+                        EmailConfig emailConfig, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.emailDispatcher = emailDispatcher;
         this.emailConfig = emailConfig;
+        this.objectMapper = objectMapper;
     }
 
-    @Async
     public void sendVerificationEmail(User user, String token) {
         String verificationUrl = emailConfig.getBaseUrl() + "/verify-email?token=" + token;
-        
-        Context context = new Context();
-        context.setVariable("name", user.getFullName());
-        context.setVariable("verificationUrl", verificationUrl);
-        context.setVariable("expirationHours", emailConfig.getVerificationTokenExpirationMinutes() / 60);
-
-        String htmlContent = templateEngine.process("email-verification", context);
-        
-        sendHtmlEmail(user.getEmail(), "Verify your email - Smart Bachat", htmlContent);
-        log.info("Verification email sent to: {}", user.getEmail());
+
+        Map<String, Object> variables = new LinkedHashMap<>();
+        variables.put("name", user.getFullName());
+        variables.put("verificationUrl", verificationUrl);
+        variables.put("expirationHours", emailConfig.getVerificationTokenExpirationMinutes() / 60);
+
+        enqueue(user.getEmail(), "Verify your email - Smart Bachat", "email-verification", variables);
+        log.info("Verification email queued for: {}", user.getEmail());
     }
 
-    @Async
     public void sendPasswordResetEmail(User user, String token) {
         String resetUrl = emailConfig.getBaseUrl() + "/reset-password?token=" + token;
-        
-        Context context = new Context();
-        context.setVariable("name", user.getFullName());
-        context.setVariable("resetUrl", resetUrl);
-        context.setVariable("expirationMinutes", emailConfig.getPasswordResetTokenExpirationMinutes());
-
-        String htmlContent = templateEngine.process("password-reset", context);
-        
-        sendHtmlEmail(user.getEmail(), "Reset your password - Smart Bachat", htmlContent);
-        log.info("Password reset email sent to: {}", user.getEmail());
+
+        Map<String, Object> variables = new LinkedHashMap<>();
+        variables.put("name", user.getFullName());
+        variables.put("resetUrl", resetUrl);
+        variables.put("expirationMinutes", emailConfig.getPasswordResetTokenExpirationMinutes());
+
+        enqueue(user.getEmail(), "Reset your password - Smart Bachat", "password-reset", variables);
+        log.info("Password reset email queued for: {}", user.getEmail());
     }
 
-    @Async
     public void sendPasswordChangedNotification(User user) {
-        Context context = new Context();
-        context.setVariable("name", user.getFullName());
+        Map<String, Object> variables = new LinkedHashMap<>();
+        variables.put("name", user.getFullName());
 
-        String htmlContent = templateEngine.process("password-changed", context);
-        
-        sendHtmlEmail(user.getEmail(), "Your password has been changed - Smart Bachat", htmlContent);
-        log.info("Password changed notification sent to: {}", user.getEmail());
+        enqueue(user.getEmail(), "Your password has been changed - Smart Bachat", "password-changed", variables);
+        log.info("Password changed notification queued for: {}", user.getEmail());
     }
 
-    @Async
     public void sendWelcomeEmail(User user) {
-        Context context = new Context();
-        context.setVariable("name", user.getFullName());
-        context.setVariable("loginUrl", emailConfig.getBaseUrl() + "/login");
-
-        String htmlContent = templateEngine.process("welcome", context);
-        
-        sendHtmlEmail(user.getEmail(), "Welcome to Smart Bachat!", htmlContent);
-        log.info("Welcome email sent to: {}", user.getEmail());
+        Map<String, Object> variables = new LinkedHashMap<>();
+        variables.put("name", user.getFullName());
+        variables.put("loginUrl", emailConfig.getBaseUrl() + "/login");
+
+        enqueue(user.getEmail(), "Welcome to Smart Bachat!", "welcome", variables);
+        log.info("Welcome email queued for: {}", user.getEmail());
     }
 
-    private void sendHtmlEmail(String to, String subject, String htmlContent) {
+    private void enqueue(String to, String subject, String templateName, Map<String, Object> variables) {
+        String json;
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            helper.setFrom(emailConfig.getFromAddress(), emailConfig.getFromName());
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true);
-            
-            mailSender.send(message);
-        } catch (MessagingException | java.io.UnsupportedEncodingException e) {
-            log.error("Failed to send email to {}: {}", to, e.getMessage());
-            throw new RuntimeException("Failed to send email", e);
+            json = objectMapper.writeValueAsString(variables);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to queue email", e);
         }
+        outboxRepository.save(new OutboxEmail(to, subject, templateName, json));
+        emailDispatcher.dispatchAfterCommit();
     }
 }
-
@@ -0,0 +1,137 @@
+package com.ametsa.smartbachat.uam.service;
+
+import com.ametsa.smartbachat.uam.config.AuthConfig;
+import com.ametsa.smartbachat.uam.exception.ServiceOverloadedException;
+import com.ametsa.smartbachat.uam.security.BCryptCostCalibrator;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs password hash verification on a dedicated pool sized to the core count.
+ *
+ * BCrypt is CPU bound, so more threads than cores only adds latency. Requests beyond the
+ * bounded queue are rejected immediately with {@link ServiceOverloadedException} instead of
+ * piling up on request threads, which keeps latency of admitted logins bounded during bursts.
+ * Hashes stored with a cost other than the calibrated one are flagged for re-hashing.
+ */
+@Service
+public class PasswordHashingService implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private final PasswordEncoder passwordEncoder;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder, BCryptCostCalibrator costCalibrator,
+                                  AuthConfig authConfig) {
+        this.passwordEncoder = passwordEncoder;
+        this.strength = costCalibrator.getStrength();
+        this.timeoutMs = authConfig.getPasswordHashTimeoutMs();
+
+        int threads = authConfig.getPasswordHashThreads() > 0
+                ? authConfig.getPasswordHashThreads()
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, authConfig.getPasswordHashQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Password hashing pool: {} threads, queue capacity {}", threads,
+                authConfig.getPasswordHashQueueCapacity());
+    }
+
+    /**
+     * Verify a raw password against a stored hash on the hashing pool.
+     * @throws ServiceOverloadedException if the pool queue is full or the check times out
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return runOnPool(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Hash a raw password at the current strength on the hashing pool.
+     * @throws ServiceOverloadedException if the pool queue is full or hashing times out
+     */
+    public String encode(CharSequence rawPassword) {
+        return runOnPool(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Whether a stored hash uses a lower cost than the current strength. Hashes are never
+     * weakened, e.g. when a slower node calibrates to a lower cost.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        int storedStrength = BCryptCostCalibrator.strengthOf(encodedPassword);
+        return storedStrength > 0 && storedStrength < strength;
+    }
+
+    private <T> T runOnPool(Callable<T> task) {
+        Future<T> result;
+        try {
+            result = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            throw new ServiceOverloadedException("Too many login attempts in progress. Try again shortly.");
+        }
+
+        try {
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            rejectedCount.incrementAndGet();
+            throw new ServiceOverloadedException("Password check timed out. Try again shortly.");
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while verifying password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password verification failed", e.getCause());
+        }
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(executor, "password.hash", List.of()).bindTo(registry);
+        FunctionCounter.builder("password.hash.rejected", this, PasswordHashingService::getRejectedCount)
+                .description("Password checks shed by admission control")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
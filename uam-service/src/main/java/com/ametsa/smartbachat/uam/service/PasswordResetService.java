@@ -5,6 +5,8 @@ import com.ametsa.smartbachat.uam.entity.User;
 import com.ametsa.smartbachat.uam.entity.VerificationToken;
 import com.ametsa.smartbachat.uam.repository.UserRepository;
 import com.ametsa.smartbachat.uam.repository.VerificationTokenRepository;
+import com.ametsa.smartbachat.uam.security.InvalidTokenCache;
+import com.ametsa.smartbachat.uam.security.LoginRateLimiter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -26,18 +28,24 @@ public class PasswordResetService {
     private final EmailService emailService;
     private final EmailConfig emailConfig;
     private final PasswordEncoder passwordEncoder;
+    private final InvalidTokenCache invalidTokenCache;
+    private final LoginRateLimiter loginRateLimiter;
 
     public PasswordResetService(
             VerificationTokenRepository tokenRepository,
             UserRepository userRepository,
             EmailService emailService,
             EmailConfig emailConfig,
-            PasswordEncoder passwordEncoder) {
+            PasswordEncoder passwordEncoder,
+            InvalidTokenCache invalidTokenCache,
+            LoginRateLimiter loginRateLimiter) {
         this.tokenRepository = tokenRepository;
         this.userRepository = userRepository;
         this.emailService = emailService;
         this.emailConfig = emailConfig;
         this.passwordEncoder = passwordEncoder;
+        this.invalidTokenCache = invalidTokenCache;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
     /**
@@ -73,9 +81,21 @@ public class PasswordResetService {
      * Validate password reset token.
      */
     public boolean validateResetToken(String token) {
-        return tokenRepository.findByTokenAndTokenType(token, VerificationToken.TYPE_PASSWORD_RESET)
-                .map(VerificationToken::isValid)
-                .orElse(false);
+        if (invalidTokenCache.getRejection(token, VerificationToken.TYPE_PASSWORD_RESET) != null) {
+            return false;
+        }
+        VerificationToken resetToken = tokenRepository.findByTokenAndTokenType(
+                token, VerificationToken.TYPE_PASSWORD_RESET)
+                .orElse(null);
+        if (resetToken == null) {
+            rejectToken(token, "Invalid reset token");
+            return false;
+        }
+        if (!resetToken.isValid()) {
+            rejectToken(token, "Reset token has expired or already been used");
+            return false;
+        }
+        return true;
     }
 
     /**
@@ -83,12 +103,21 @@ public class PasswordResetService {
      */
     @Transactional
     public void resetPassword(String token, String newPassword) {
+        // Repeated probes with a token we already rejected don't reach the database
+        String rejection = invalidTokenCache.getRejection(token, VerificationToken.TYPE_PASSWORD_RESET);
+        if (rejection != null) {
+            throw new RuntimeException(rejection);
+        }
+
         VerificationToken resetToken = tokenRepository.findByTokenAndTokenType(
                 token, VerificationToken.TYPE_PASSWORD_RESET)
-                .orElseThrow(() -> new RuntimeException("Invalid reset token"));
+                .orElse(null);
+        if (resetToken == null) {
+            throw rejectToken(token, "Invalid reset token");
+        }
 
         if (!resetToken.isValid()) {
-            throw new RuntimeException("Reset token has expired or already been used");
+            throw rejectToken(token, "Reset token has expired or already been used");
         }
 
         // Validate password strength
@@ -101,6 +130,9 @@ public class PasswordResetService {
         user.setFailedLoginAttempts(0);
         user.setLockedUntil(null);
         userRepository.save(user);
+        // The in-memory failure count would otherwise keep refusing the new password
+        loginRateLimiter.clearFailures(user.getEmail());
+        loginRateLimiter.clearFailures(user.getMobileNumber());
 
         resetToken.markAsUsed();
         tokenRepository.save(resetToken);
@@ -111,6 +143,11 @@ public class PasswordResetService {
         log.info("Password reset completed for user: {}", user.getId());
     }
 
+    private RuntimeException rejectToken(String token, String message) {
+        invalidTokenCache.markInvalid(token, VerificationToken.TYPE_PASSWORD_RESET, message);
+        return new RuntimeException(message);
+    }
+
     /**
      * Change password for authenticated user.
      */
@@ -0,0 +1,134 @@
+package com.ametsa.smartbachat.uam.service;
+
+import com.ametsa.smartbachat.uam.dto.UserDto;
+import com.ametsa.smartbachat.uam.dto.UserPageDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Streams the admin user listing as CSV or NDJSON for compliance dumps.
+ *
+ * Users are read page by page through {@link UserService#listUsers}, each page in its own short
+ * read-only transaction, so an export never holds a connection or the whole user table in memory.
+ */
+@Service
+public class UserExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserExportService.class);
+
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+    private static final Pattern PHONE_NUMBER = Pattern.compile("\\+\\d+");
+    private static final int EXPORT_PAGE_SIZE = 1000;
+
+    private static final List<String> CSV_COLUMNS = List.of(
+            "id", "email", "mobileNumber", "firstName", "lastName", "displayName", "status",
+            "emailVerified", "mobileVerified", "lastLoginAt", "createdAt", "profileId", "roles");
+
+    public enum Format { CSV, NDJSON }
+
+    private final UserService userService;
+    private final ObjectWriter jsonLineWriter;
+
+    public UserExportService(UserService userService, ObjectMapper objectMapper) {
+        this.userService = userService;
+        // Keep the underlying stream open between lines
+        this.jsonLineWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Write all users matching the filters to {@code out}.
+     * @return number of users written
+     */
+    public long export(String status, String roleName, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(String.join(",", CSV_COLUMNS));
+            writer.write('\n');
+        }
+
+        long count = 0;
+        String cursor = null;
+        do {
+            UserPageDto page = userService.listUsers(status, roleName, cursor, EXPORT_PAGE_SIZE);
+            for (UserDto user : page.getItems()) {
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, user);
+                } else {
+                    writeJsonLine(writer, user);
+                }
+                count++;
+            }
+            // Push each page to the client instead of buffering the whole export
+            writer.flush();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        log.info("Exported {} users as {} (status={}, role={})", count, format, status, roleName);
+        return count;
+    }
+
+    private void writeJsonLine(Writer writer, UserDto user) throws IOException {
+        jsonLineWriter.writeValue(writer, user);
+        writer.write('\n');
+    }
+
+    private void writeCsvRow(Writer writer, UserDto user) throws IOException {
+        List<String> cells = new ArrayList<>();
+        cells.add(csvEscape(user.getId()));
+        cells.add(csvEscape(user.getEmail()));
+        cells.add(csvEscapeMobile(user.getMobileNumber()));
+        cells.add(csvEscape(user.getFirstName()));
+        cells.add(csvEscape(user.getLastName()));
+        cells.add(csvEscape(user.getDisplayName()));
+        cells.add(csvEscape(user.getStatus()));
+        cells.add(csvEscape(user.getEmailVerified()));
+        cells.add(csvEscape(user.getMobileVerified()));
+        cells.add(csvEscape(user.getLastLoginAt()));
+        cells.add(csvEscape(user.getCreatedAt()));
+        cells.add(csvEscape(user.getProfileId()));
+        cells.add(csvEscape(user.getRoles() != null ? String.join(";", user.getRoles()) : null));
+
+        writer.write(String.join(",", cells));
+        writer.write('\n');
+    }
+
+    /**
+     * Mobile numbers like +919876543210 are left as they are; anything else in the column is
+     * escaped like any other field.
+     */
+    static String csvEscapeMobile(String mobileNumber) {
+        if (mobileNumber != null && PHONE_NUMBER.matcher(mobileNumber).matches()) {
+            return mobileNumber;
+        }
+        return csvEscape(mobileNumber);
+    }
+
+    static String csvEscape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        // Neutralize anything a spreadsheet could read as a formula
+        if (!text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
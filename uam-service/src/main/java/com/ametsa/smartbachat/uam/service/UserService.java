@@ -1,6 +1,7 @@
 package com.ametsa.smartbachat.uam.service;
 
 import com.ametsa.smartbachat.uam.dto.UserDto;
+import com.ametsa.smartbachat.uam.dto.UserPageDto;
 import com.ametsa.smartbachat.uam.entity.Role;
 import com.ametsa.smartbachat.uam.entity.User;
 import com.ametsa.smartbachat.uam.repository.RoleRepository;
@@ -10,8 +11,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -22,27 +26,54 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final AuthorizationService authorizationService;
 
-    public UserService(UserRepository userRepository, RoleRepository roleRepository) {
+    public UserService(UserRepository userRepository, RoleRepository roleRepository,
+                       AuthorizationService authorizationService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
+        this.authorizationService = authorizationService;
     }
 
+    @Transactional(readOnly = true)
     public UserDto getUserById(UUID id) {
-        User user = userRepository.findById(id)
+        User user = userRepository.findWithRolesById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         return toDto(user);
     }
 
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+    /**
+     * Keyset-paginated admin listing, oldest first, optionally filtered by status and role.
+     * @param cursor opaque cursor from the previous page, or null for the first page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public UserPageDto listUsers(String status, String roleName, String cursor, int size) {
+        Cursor after = cursor != null && !cursor.isBlank() ? Cursor.decode(cursor) : null;
+
+        // Fetch one extra row to know whether there is a next page
+        List<UserDto> users = userRepository.findUserPage(status, roleName,
+                after != null ? after.createdAt() : null, after != null ? after.id() : null, size + 1);
+        boolean hasMore = users.size() > size;
+        if (hasMore) {
+            users = users.subList(0, size);
+        }
+
+        Map<UUID, List<String>> roles = userRepository.findRoleNamesByUserIds(
+                users.stream().map(UserDto::getId).collect(Collectors.toList()));
+        users.forEach(user -> user.setRoles(roles.getOrDefault(user.getId(), List.of())));
+
+        String nextCursor = null;
+        if (hasMore) {
+            UserDto last = users.get(users.size() - 1);
+            nextCursor = new Cursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new UserPageDto(users, nextCursor);
     }
 
     @Transactional
     public UserDto updateUser(UUID id, UserDto updateRequest) {
-        User user = userRepository.findById(id)
+        User user = userRepository.findWithRolesById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (updateRequest.getFirstName() != null) {
@@ -74,20 +105,22 @@ public class UserService {
 
     @Transactional
     public UserDto updateUserStatus(UUID id, String status) {
-        User user = userRepository.findById(id)
+        User user = userRepository.findWithRolesById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         user.setStatus(status);
         user.setUpdatedAt(Instant.now());
         user = userRepository.save(user);
 
+        authorizationService.invalidate(id);
+
         log.info("User status updated: {} -> {}", id, status);
         return toDto(user);
     }
 
     @Transactional
     public UserDto assignRole(UUID userId, String roleName) {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findWithRolesById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         Role role = roleRepository.findByName(roleName)
@@ -97,13 +130,15 @@ public class UserService {
         user.setUpdatedAt(Instant.now());
         user = userRepository.save(user);
 
+        authorizationService.invalidate(userId);
+
         log.info("Role {} assigned to user {}", roleName, userId);
         return toDto(user);
     }
 
     @Transactional
     public UserDto removeRole(UUID userId, String roleName) {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findWithRolesById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         Role role = roleRepository.findByName(roleName)
@@ -113,10 +148,33 @@ public class UserService {
         user.setUpdatedAt(Instant.now());
         user = userRepository.save(user);
 
+        authorizationService.invalidate(userId);
+
         log.info("Role {} removed from user {}", roleName, userId);
         return toDto(user);
     }
 
+    /**
+     * Position after the last row of a page; encoded as an opaque URL-safe string.
+     */
+    record Cursor(Instant createdAt, UUID id) {
+
+        String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new Cursor(Instant.parse(raw.substring(0, separator)), UUID.fromString(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+    }
+
     private UserDto toDto(User user) {
         UserDto dto = new UserDto();
         dto.setId(user.getId());
@@ -5,6 +5,7 @@ import com.ametsa.smartbachat.uam.entity.User;
 import com.ametsa.smartbachat.uam.entity.VerificationToken;
 import com.ametsa.smartbachat.uam.repository.UserRepository;
 import com.ametsa.smartbachat.uam.repository.VerificationTokenRepository;
+import com.ametsa.smartbachat.uam.security.InvalidTokenCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -25,16 +26,19 @@ public class VerificationService {
     private final UserRepository userRepository;
     private final EmailService emailService;
     private final EmailConfig emailConfig;
+    private final InvalidTokenCache invalidTokenCache;
 
     public VerificationService(
             VerificationTokenRepository tokenRepository,
             UserRepository userRepository,
             EmailService emailService,
-            EmailConfig emailConfig) {
+            EmailConfig emailConfig,
+            InvalidTokenCache invalidTokenCache) {
         this.tokenRepository = tokenRepository;
         this.userRepository = userRepository;
         this.emailService = emailService;
         this.emailConfig = emailConfig;
+        this.invalidTokenCache = invalidTokenCache;
     }
 
     /**
@@ -63,12 +67,21 @@ public class VerificationService {
      */
     @Transactional
     public void verifyEmail(String token) {
+        // Repeated probes with a token we already rejected don't reach the database
+        String rejection = invalidTokenCache.getRejection(token, VerificationToken.TYPE_EMAIL_VERIFICATION);
+        if (rejection != null) {
+            throw new RuntimeException(rejection);
+        }
+
         VerificationToken verificationToken = tokenRepository.findByTokenAndTokenType(
                 token, VerificationToken.TYPE_EMAIL_VERIFICATION)
-                .orElseThrow(() -> new RuntimeException("Invalid verification token"));
+                .orElse(null);
+        if (verificationToken == null) {
+            throw rejectToken(token, "Invalid verification token");
+        }
 
         if (!verificationToken.isValid()) {
-            throw new RuntimeException("Verification token has expired or already been used");
+            throw rejectToken(token, "Verification token has expired or already been used");
         }
 
         User user = verificationToken.getUser();
@@ -101,6 +114,11 @@ public class VerificationService {
         sendVerificationEmail(user);
     }
 
+    private RuntimeException rejectToken(String token, String message) {
+        invalidTokenCache.markInvalid(token, VerificationToken.TYPE_EMAIL_VERIFICATION, message);
+        return new RuntimeException(message);
+    }
+
     /**
      * Check if user has a valid verification token.
      */
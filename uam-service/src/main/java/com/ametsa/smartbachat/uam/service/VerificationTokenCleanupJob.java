@@ -0,0 +1,61 @@
+package com.ametsa.smartbachat.uam.service;
+
+import com.ametsa.smartbachat.uam.config.EmailConfig;
+import com.ametsa.smartbachat.uam.repository.VerificationTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Purges expired and used verification/reset tokens so token lookups stay on a small table.
+ *
+ * Candidates are read by id off the expires_at and used_at indexes and deleted in batches of
+ * {@code app.email.token-purge-batch-size}, each in its own short transaction, so the purge
+ * never holds long locks or builds one huge delete.
+ */
+@Service
+public class VerificationTokenCleanupJob {
+
+    private static final Logger log = LoggerFactory.getLogger(VerificationTokenCleanupJob.class);
+
+    private final VerificationTokenRepository tokenRepository;
+    private final EmailConfig emailConfig;
+
+    public VerificationTokenCleanupJob(VerificationTokenRepository tokenRepository, EmailConfig emailConfig) {
+        this.tokenRepository = tokenRepository;
+        this.emailConfig = emailConfig;
+    }
+
+    @Scheduled(cron = "${app.email.token-purge-cron:0 15 * * * *}")
+    public void purgeTokens() {
+        Instant now = Instant.now();
+        int expired = purge(pageable -> tokenRepository.findExpiredIds(now, pageable));
+        int used = purge(pageable -> tokenRepository.findUsedIds(now, pageable));
+
+        if (expired + used > 0) {
+            log.info("Purged verification tokens - expired: {}, used: {}", expired, used);
+        }
+    }
+
+    private int purge(Function<Pageable, List<UUID>> candidates) {
+        Pageable firstBatch = PageRequest.of(0, emailConfig.getTokenPurgeBatchSize());
+        int total = 0;
+        List<UUID> ids;
+        do {
+            // Always the first page: deleted rows drop out of the range
+            ids = candidates.apply(firstBatch);
+            if (!ids.isEmpty()) {
+                total += tokenRepository.deleteByIds(ids);
+            }
+        } while (ids.size() == firstBatch.getPageSize());
+        return total;
+    }
+}
@@ -4,6 +4,7 @@ import com.ametsa.smartbachat.uam.entity.Role;
 import com.ametsa.smartbachat.uam.repository.RoleRepository;
 import com.ametsa.smartbachat.uam.repository.UserRepository;
 import com.ametsa.smartbachat.uam.repository.VerificationTokenRepository;
+import com.ametsa.smartbachat.uam.security.LoginRateLimiter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,11 +37,16 @@ public abstract class BaseIntegrationTest {
     @Autowired
     protected VerificationTokenRepository tokenRepository;
 
+    @Autowired
+    protected LoginRateLimiter loginRateLimiter;
+
     @BeforeEach
     void setUpBase() {
         // Clean up database before each test
         tokenRepository.deleteAll();
         userRepository.deleteAll();
+        // Login counters outlive the rows they were keyed on; start every test unthrottled
+        loginRateLimiter.clear();
         
         // Ensure default roles exist
         ensureRoleExists(Role.ROLE_USER, "User", "Default user role");
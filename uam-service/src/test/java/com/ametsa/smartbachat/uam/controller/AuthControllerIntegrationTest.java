@@ -12,6 +12,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -137,6 +138,34 @@ class AuthControllerIntegrationTest extends BaseIntegrationTest {
                     .andExpect(status().isBadRequest())
                     .andExpect(jsonPath("$.message").value("Invalid credentials"));
         }
+
+        @Test
+        @DisplayName("Should lock once and then throttle with 429")
+        void shouldThrottleAfterLock() throws Exception {
+            createTestUser("throttled@example.com", "Password123!");
+
+            LoginRequest request = new LoginRequest();
+            request.setUsername("throttled@example.com");
+            request.setPassword("WrongPassword!");
+
+            for (int i = 0; i < 5; i++) {
+                mockMvc.perform(post("/api/v1/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(asJsonString(request)))
+                        .andExpect(status().isBadRequest());
+            }
+
+            mockMvc.perform(post("/api/v1/auth/login")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(request)))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().exists("Retry-After"))
+                    .andExpect(jsonPath("$.message").value("Account is locked. Try again later."));
+
+            User user = userRepository.findByEmail("throttled@example.com").orElseThrow();
+            assertThat(user.isLocked()).isTrue();
+            assertThat(user.getFailedLoginAttempts()).isEqualTo(5);
+        }
     }
 
     @Nested
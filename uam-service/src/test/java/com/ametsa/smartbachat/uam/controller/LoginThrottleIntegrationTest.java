@@ -0,0 +1,45 @@
+package com.ametsa.smartbachat.uam.controller;
+
+import com.ametsa.smartbachat.uam.BaseIntegrationTest;
+import com.ametsa.smartbachat.uam.dto.LoginRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The per-IP login throttle keys on the connecting address, which a client cannot spoof
+ * through X-Forwarded-For.
+ */
+@DisplayName("Login Throttle Integration Tests")
+@TestPropertySource(properties = "app.auth.login-ip-max-attempts=5")
+class LoginThrottleIntegrationTest extends BaseIntegrationTest {
+
+    @Test
+    @DisplayName("Should throttle the connecting address whatever X-Forwarded-For claims")
+    void shouldIgnoreRotatingForwardedFor() throws Exception {
+        LoginRequest request = new LoginRequest();
+        request.setPassword("WrongPassword!");
+
+        for (int i = 0; i < 5; i++) {
+            request.setUsername("user" + i + "@example.com");
+            mockMvc.perform(post("/api/v1/auth/login")
+                            .header("X-Forwarded-For", "198.51.100." + i)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(request)))
+                    .andExpect(status().isBadRequest());
+        }
+
+        request.setUsername("fresh@example.com");
+        mockMvc.perform(post("/api/v1/auth/login")
+                        .header("X-Forwarded-For", "203.0.113.9")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.message").value("Too many login attempts. Try again later."));
+    }
+}
@@ -0,0 +1,126 @@
+package com.ametsa.smartbachat.uam.controller;
+
+import com.ametsa.smartbachat.uam.BaseIntegrationTest;
+import com.ametsa.smartbachat.uam.dto.LoginRequest;
+import com.ametsa.smartbachat.uam.dto.RegisterRequest;
+import com.ametsa.smartbachat.uam.entity.Role;
+import com.ametsa.smartbachat.uam.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Guards the number of SQL statements issued per endpoint, so lazy role/permission
+ * loading does not regress into eager graphs or N+1 queries.
+ */
+@DisplayName("Query Count Regression Tests")
+class QueryCountIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String adminAccessToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        register("admin@example.com");
+        User adminUser = userRepository.findWithRolesByEmailOrMobileNumber("admin@example.com", "admin@example.com")
+                .orElseThrow();
+        adminUser.addRole(roleRepository.findByName(Role.ROLE_ADMIN).orElseThrow());
+        userRepository.save(adminUser);
+
+        String response = login("admin@example.com").andReturn().getResponse().getContentAsString();
+        adminAccessToken = objectMapper.readTree(response).get("accessToken").asText();
+    }
+
+    private void register(String email) throws Exception {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail(email);
+        request.setPassword("Password123!");
+        request.setFirstName("Query");
+        request.setLastName("Count");
+
+        mockMvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(status().isOk());
+    }
+
+    private ResultActions login(String email) throws Exception {
+        LoginRequest request = new LoginRequest();
+        request.setUsername(email);
+        request.setPassword("Password123!");
+
+        return mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(request)))
+                .andExpect(status().isOk());
+    }
+
+    private long statementsFor(ThrowingRunnable action) throws Exception {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    @DisplayName("Login loads the user with role names in one query and updates it once")
+    void loginStatementCount() throws Exception {
+        long statements = statementsFor(() -> login("admin@example.com"));
+
+        assertThat(statements).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("GET /me loads the user with roles and profile in one query")
+    void currentUserStatementCount() throws Exception {
+        long statements = statementsFor(() -> mockMvc.perform(get("/api/v1/users/me")
+                        .header("Authorization", "Bearer " + adminAccessToken))
+                .andExpect(status().isOk()));
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Admin listing issues a constant number of queries regardless of page size")
+    void adminListingStatementCount() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            register("user" + i + "@example.com");
+        }
+        long smallPage = statementsFor(() -> mockMvc.perform(get("/api/v1/users")
+                        .header("Authorization", "Bearer " + adminAccessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(5))));
+
+        for (int i = 4; i < 24; i++) {
+            register("user" + i + "@example.com");
+        }
+        long largePage = statementsFor(() -> mockMvc.perform(get("/api/v1/users")
+                        .header("Authorization", "Bearer " + adminAccessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(25))));
+
+        // Keyset page projection plus one role query for the page
+        assertThat(smallPage).isEqualTo(2);
+        assertThat(largePage).isEqualTo(smallPage);
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -13,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MvcResult;
 
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -36,7 +37,8 @@ class UserControllerIntegrationTest extends BaseIntegrationTest {
         registerAndGetToken("admin@example.com", "Password123!", "Admin", "User");
 
         // Assign admin role
-        User adminUser = userRepository.findByEmail("admin@example.com").orElseThrow();
+        User adminUser = userRepository.findWithRolesByEmailOrMobileNumber("admin@example.com", "admin@example.com")
+                .orElseThrow();
         Role adminRole = roleRepository.findByName(Role.ROLE_ADMIN).orElseThrow();
         adminUser.addRole(adminRole);
         userRepository.save(adminUser);
@@ -152,8 +154,69 @@ class UserControllerIntegrationTest extends BaseIntegrationTest {
             mockMvc.perform(get("/api/v1/users")
                             .header("Authorization", "Bearer " + adminAccessToken))
                     .andExpect(status().isOk())
-                    .andExpect(jsonPath("$", hasSize(greaterThanOrEqualTo(2))))
-                    .andExpect(jsonPath("$[*].email", hasItems("user@example.com", "admin@example.com")));
+                    .andExpect(jsonPath("$.items", hasSize(greaterThanOrEqualTo(2))))
+                    .andExpect(jsonPath("$.items[*].email", hasItems("user@example.com", "admin@example.com")));
+        }
+
+        @Test
+        @DisplayName("Should page through users with a cursor")
+        void shouldPageThroughUsersWithCursor() throws Exception {
+            String response = mockMvc.perform(get("/api/v1/users")
+                            .param("size", "1")
+                            .header("Authorization", "Bearer " + adminAccessToken))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items", hasSize(1)))
+                    .andExpect(jsonPath("$.items[0].email").value("user@example.com"))
+                    .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                    .andReturn().getResponse().getContentAsString();
+            String cursor = objectMapper.readTree(response).get("nextCursor").asText();
+
+            mockMvc.perform(get("/api/v1/users")
+                            .param("size", "1")
+                            .param("cursor", cursor)
+                            .header("Authorization", "Bearer " + adminAccessToken))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items[0].email").value("admin@example.com"))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("Should filter users by role")
+        void shouldFilterUsersByRole() throws Exception {
+            mockMvc.perform(get("/api/v1/users")
+                            .param("role", Role.ROLE_ADMIN)
+                            .header("Authorization", "Bearer " + adminAccessToken))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items", hasSize(1)))
+                    .andExpect(jsonPath("$.items[0].email").value("admin@example.com"))
+                    .andExpect(jsonPath("$.items[0].roles", hasItems(Role.ROLE_USER, Role.ROLE_ADMIN)));
+        }
+
+        @Test
+        @DisplayName("Should return 400 for a malformed cursor")
+        void shouldRejectMalformedCursor() throws Exception {
+            mockMvc.perform(get("/api/v1/users")
+                            .param("cursor", "not-a-cursor")
+                            .header("Authorization", "Bearer " + adminAccessToken))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("Should stream users as CSV")
+        void shouldExportUsersAsCsv() throws Exception {
+            MvcResult result = mockMvc.perform(get("/api/v1/users/export")
+                            .param("format", "csv")
+                            .param("status", "ACTIVE")
+                            .header("Authorization", "Bearer " + adminAccessToken))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                    .andExpect(content().string(startsWith("id,email,")))
+                    .andExpect(content().string(containsString("user@example.com")))
+                    .andExpect(content().string(containsString("admin@example.com")));
         }
 
         @Test
@@ -0,0 +1,53 @@
+package com.ametsa.smartbachat.uam.security;
+
+import com.ametsa.smartbachat.uam.config.AuthConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("BCryptCostCalibrator Tests")
+class BCryptCostCalibratorTest {
+
+    @Test
+    @DisplayName("Should use the configured strength without benchmarking")
+    void shouldUseConfiguredStrength() {
+        AuthConfig config = new AuthConfig();
+        config.setPasswordHashStrength(7);
+
+        assertThat(new BCryptCostCalibrator(config).getStrength()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Should stay within the allowed strength range")
+    void shouldStayWithinRange() {
+        // Nothing hashes in under 0ms, so the minimum is kept
+        assertThat(BCryptCostCalibrator.calibrate(0, 4, 6)).isEqualTo(4);
+        // A generous target climbs to the maximum but not beyond
+        assertThat(BCryptCostCalibrator.calibrate(60_000, 4, 6)).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Should pick a strength whose hash time meets the target")
+    void shouldMeetTarget() {
+        long target = BCryptCostCalibrator.measureMillis(6) * 2 + 5;
+
+        int strength = BCryptCostCalibrator.calibrate(target, 4, 12);
+
+        assertThat(strength).isBetween(4, 12);
+        if (strength > 4) {
+            // Allow for scheduler noise between calibration and re-measurement
+            assertThat(BCryptCostCalibrator.measureMillis(strength)).isLessThanOrEqualTo(target * 2);
+        }
+    }
+
+    @Test
+    @DisplayName("Should read the cost factor from a stored hash")
+    void shouldReadStrengthOfHash() {
+        assertThat(BCryptCostCalibrator.strengthOf(new BCryptPasswordEncoder(5).encode("secret"))).isEqualTo(5);
+        assertThat(BCryptCostCalibrator.strengthOf("$2a$12$abcdefghijklmnopqrstuv")).isEqualTo(12);
+        assertThat(BCryptCostCalibrator.strengthOf("plain")).isEqualTo(-1);
+        assertThat(BCryptCostCalibrator.strengthOf(null)).isEqualTo(-1);
+    }
+}
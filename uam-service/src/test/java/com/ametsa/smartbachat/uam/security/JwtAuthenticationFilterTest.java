@@ -0,0 +1,123 @@
+package com.ametsa.smartbachat.uam.security;
+
+import com.ametsa.smartbachat.uam.TestUtils;
+import com.ametsa.smartbachat.uam.config.JwtConfig;
+import com.ametsa.smartbachat.uam.entity.User;
+import com.ametsa.smartbachat.uam.service.JwtService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("JwtAuthenticationFilter Unit Tests")
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "test-secret-key-that-is-at-least-256-bits-long-for-hs256-algorithm";
+
+    private JwtService jwtService;
+    private JwtAuthenticationCache authenticationCache;
+    private JwtAuthenticationFilter filter;
+    private long now = System.currentTimeMillis();
+
+    @BeforeEach
+    void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setSecret(SECRET);
+        jwtConfig.setExpirationMs(3600000L);
+        jwtConfig.setRefreshExpirationMs(86400000L);
+        jwtConfig.setIssuer("smart-bachat-test");
+
+        jwtService = new JwtService(jwtConfig);
+        authenticationCache = new JwtAuthenticationCache(jwtConfig) {
+            @Override
+            long currentTimeMillis() {
+                return now;
+            }
+        };
+        filter = new JwtAuthenticationFilter(jwtService, authenticationCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Authentication filterWithToken(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Nested
+    @DisplayName("Authentication Cache")
+    class AuthenticationCacheTests {
+
+        @Test
+        @DisplayName("Should cache verified access tokens and reuse them")
+        void shouldCacheVerifiedAccessToken() throws Exception {
+            User user = TestUtils.createTestUserWithProfile("cache@example.com");
+            user.addRole(TestUtils.createUserRole());
+            String token = jwtService.generateAccessToken(user);
+
+            Authentication first = filterWithToken(token);
+            Authentication second = filterWithToken(token);
+
+            assertThat(authenticationCache.size()).isEqualTo(1);
+            assertThat(second.getPrincipal()).isEqualTo(user.getId().toString());
+            assertThat(second.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+            assertThat(second.getAuthorities()).isEqualTo(first.getAuthorities());
+        }
+
+        @Test
+        @DisplayName("Should not authenticate or cache refresh tokens")
+        void shouldRejectRefreshToken() throws Exception {
+            User user = TestUtils.createTestUserWithProfile("refresh@example.com");
+            String refreshToken = jwtService.generateRefreshToken(user);
+
+            assertThat(filterWithToken(refreshToken)).isNull();
+            assertThat(authenticationCache.size()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should not cache tokens with an invalid signature")
+        void shouldRejectTamperedToken() throws Exception {
+            User user = TestUtils.createTestUserWithProfile("tampered@example.com");
+            String token = jwtService.generateAccessToken(user);
+
+            assertThat(filterWithToken(token + "x")).isNull();
+            assertThat(authenticationCache.size()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should stop serving a cached token once it expires")
+        void shouldExpireCachedTokenAtExp() throws Exception {
+            String token = Jwts.builder()
+                    .subject("short-lived-user")
+                    .expiration(new Date(now + 2000))
+                    .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                    .compact();
+
+            assertThat(filterWithToken(token)).isNotNull();
+            assertThat(authenticationCache.get(token)).isNotNull();
+            now += 2100;
+
+            assertThat(authenticationCache.get(token)).isNull();
+            assertThat(authenticationCache.size()).isZero();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.ametsa.smartbachat.uam.security;
+
+import com.ametsa.smartbachat.uam.config.AuthConfig;
+import com.ametsa.smartbachat.uam.exception.TooManyLoginAttemptsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("LoginRateLimiter Tests")
+class LoginRateLimiterTest {
+
+    // Aligned to a bucket boundary so the window arithmetic below is exact
+    private static final long START = 60_000L * 20_000;
+
+    private AuthConfig config;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        config = new AuthConfig();
+        config.setLoginIpMaxAttempts(10);
+        config.setLoginIpWindowSeconds(60);
+        config.setLoginMaxFailedAttempts(5);
+        config.setLoginUsernameWindowSeconds(60);
+        now = START;
+    }
+
+    private LoginRateLimiter limiter() {
+        return new LoginRateLimiter(config) {
+            @Override
+            long currentTimeMillis() {
+                return now;
+            }
+        };
+    }
+
+    @Nested
+    @DisplayName("Per-IP Window")
+    class PerIp {
+
+        @Test
+        @DisplayName("Should refuse attempts over the limit within the window")
+        void shouldRefuseOverLimit() {
+            LoginRateLimiter limiter = limiter();
+            for (int i = 0; i < 10; i++) {
+                limiter.acquire("10.0.0.1", "user" + i + "@example.com");
+            }
+
+            assertThatThrownBy(() -> limiter.acquire("10.0.0.1", "other@example.com"))
+                    .isInstanceOf(TooManyLoginAttemptsException.class)
+                    .hasMessage("Too many login attempts. Try again later.")
+                    .satisfies(e -> assertThat(((TooManyLoginAttemptsException) e).getRetryAfterSeconds())
+                            .isBetween(1L, 60L));
+            // Other addresses are unaffected
+            limiter.acquire("10.0.0.2", "other@example.com");
+            assertThat(limiter.getRejectedCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should slide the previous window out gradually")
+        void shouldSlideWindow() {
+            LoginRateLimiter limiter = limiter();
+            for (int i = 0; i < 10; i++) {
+                limiter.acquire("10.0.0.1", null);
+            }
+
+            // At the start of the next bucket all of the previous one still counts
+            now += 60_000;
+            assertThatThrownBy(() -> limiter.acquire("10.0.0.1", null))
+                    .isInstanceOf(TooManyLoginAttemptsException.class);
+
+            // Half way through, half of it has slid out
+            now += 30_000;
+            for (int i = 0; i < 5; i++) {
+                limiter.acquire("10.0.0.1", null);
+            }
+            assertThatThrownBy(() -> limiter.acquire("10.0.0.1", null))
+                    .isInstanceOf(TooManyLoginAttemptsException.class);
+
+            // Two buckets later nothing remains
+            now += 120_000;
+            for (int i = 0; i < 10; i++) {
+                limiter.acquire("10.0.0.1", null);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Per-Username Failures")
+    class PerUsername {
+
+        @Test
+        @DisplayName("Should report the threshold crossing exactly once")
+        void shouldReportCrossingOnce() {
+            LoginRateLimiter limiter = limiter();
+
+            for (int i = 0; i < 4; i++) {
+                assertThat(limiter.recordFailure("victim@example.com")).isFalse();
+            }
+            assertThat(limiter.recordFailure("victim@example.com")).isTrue();
+            assertThat(limiter.recordFailure("victim@example.com")).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should refuse a username at the threshold regardless of case or IP")
+        void shouldRefuseLockedUsername() {
+            LoginRateLimiter limiter = limiter();
+            for (int i = 0; i < 5; i++) {
+                limiter.recordFailure("victim@example.com");
+            }
+
+            assertThatThrownBy(() -> limiter.acquire("10.9.9.9", " Victim@Example.com"))
+                    .isInstanceOf(TooManyLoginAttemptsException.class)
+                    .hasMessage("Account is locked. Try again later.");
+        }
+
+        @Test
+        @DisplayName("Should forget failures after a successful login")
+        void shouldResetOnSuccess() {
+            LoginRateLimiter limiter = limiter();
+            for (int i = 0; i < 4; i++) {
+                limiter.recordFailure("user@example.com");
+            }
+
+            limiter.clearFailures("user@example.com");
+
+            assertThat(limiter.recordFailure("user@example.com")).isFalse();
+            limiter.acquire("10.0.0.1", "user@example.com");
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep memory bounded under key rotation")
+    void shouldBoundTrackedKeys() {
+        config.setLoginLimiterMaxKeys(1_000);
+        config.setLoginLimiterStripes(1);
+        LoginRateLimiter limiter = limiter();
+
+        for (int i = 0; i < 50_000; i++) {
+            limiter.acquire("10." + (i >> 16) + '.' + ((i >> 8) & 0xff) + '.' + (i & 0xff), "user" + i);
+            limiter.recordFailure("user" + i);
+        }
+
+        assertThat(limiter.trackedKeys()).isLessThanOrEqualTo(2_000);
+    }
+}
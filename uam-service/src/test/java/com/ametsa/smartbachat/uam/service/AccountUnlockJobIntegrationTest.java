@@ -0,0 +1,45 @@
+package com.ametsa.smartbachat.uam.service;
+
+import com.ametsa.smartbachat.uam.BaseIntegrationTest;
+import com.ametsa.smartbachat.uam.TestUtils;
+import com.ametsa.smartbachat.uam.entity.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Account Unlock Integration Tests")
+class AccountUnlockJobIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private AccountUnlockJob accountUnlockJob;
+
+    private User lockedUser(String email, Instant lockedUntil) {
+        User user = TestUtils.createTestUser(email, "Locked", "User");
+        user.setFailedLoginAttempts(5);
+        user.setLockedUntil(lockedUntil);
+        return userRepository.save(user);
+    }
+
+    @Test
+    @DisplayName("Should clear only locks that have run out")
+    void shouldClearExpiredLocks() {
+        User expiredA = lockedUser("expired-a@example.com", Instant.now().minusSeconds(60));
+        User expiredB = lockedUser("expired-b@example.com", Instant.now().minusSeconds(3600));
+        User stillLocked = lockedUser("still-locked@example.com", Instant.now().plusSeconds(1800));
+
+        accountUnlockJob.unlockExpiredAccounts();
+
+        for (User user : new User[] {expiredA, expiredB}) {
+            User reloaded = userRepository.findById(user.getId()).orElseThrow();
+            assertThat(reloaded.getLockedUntil()).isNull();
+            assertThat(reloaded.getFailedLoginAttempts()).isZero();
+        }
+        User reloaded = userRepository.findById(stillLocked.getId()).orElseThrow();
+        assertThat(reloaded.isLocked()).isTrue();
+        assertThat(reloaded.getFailedLoginAttempts()).isEqualTo(5);
+    }
+}
@@ -1,15 +1,19 @@
 package com.ametsa.smartbachat.uam.service;
 
 import com.ametsa.smartbachat.uam.TestUtils;
+import com.ametsa.smartbachat.uam.config.AuthConfig;
 import com.ametsa.smartbachat.uam.dto.AuthResponse;
 import com.ametsa.smartbachat.uam.dto.LoginRequest;
 import com.ametsa.smartbachat.uam.dto.RegisterRequest;
 import com.ametsa.smartbachat.uam.entity.Profile;
 import com.ametsa.smartbachat.uam.entity.Role;
 import com.ametsa.smartbachat.uam.entity.User;
+import com.ametsa.smartbachat.uam.exception.ServiceOverloadedException;
+import com.ametsa.smartbachat.uam.exception.TooManyLoginAttemptsException;
 import com.ametsa.smartbachat.uam.repository.ProfileRepository;
 import com.ametsa.smartbachat.uam.repository.RoleRepository;
 import com.ametsa.smartbachat.uam.repository.UserRepository;
+import com.ametsa.smartbachat.uam.security.LoginRateLimiter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -18,6 +22,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -27,6 +32,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -40,6 +46,8 @@ class AuthenticationServiceTest {
     @Mock private PasswordEncoder passwordEncoder;
     @Mock private JwtService jwtService;
     @Mock private VerificationService verificationService;
+    @Mock private PasswordHashingService passwordHashingService;
+    @Spy private LoginRateLimiter loginRateLimiter = new LoginRateLimiter(new AuthConfig());
 
     @InjectMocks
     private AuthenticationService authenticationService;
@@ -153,11 +161,10 @@ class AuthenticationServiceTest {
             request.setUsername("login@example.com");
             request.setPassword("correctPassword");
 
-            when(userRepository.findByEmailOrMobileNumber(anyString(), anyString()))
+            when(userRepository.findWithRolesByEmailOrMobileNumber(anyString(), anyString()))
                     .thenReturn(Optional.of(user));
-            when(passwordEncoder.matches("correctPassword", user.getPasswordHash()))
+            when(passwordHashingService.matches("correctPassword", user.getPasswordHash()))
                     .thenReturn(true);
-            when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
             when(jwtService.generateAccessToken(any())).thenReturn("accessToken");
             when(jwtService.generateRefreshToken(any())).thenReturn("refreshToken");
             when(jwtService.getExpirationMs()).thenReturn(3600000L);
@@ -176,15 +183,111 @@ class AuthenticationServiceTest {
             request.setUsername("test@example.com");
             request.setPassword("wrongPassword");
 
-            when(userRepository.findByEmailOrMobileNumber(anyString(), anyString()))
+            when(userRepository.findWithRolesByEmailOrMobileNumber(anyString(), anyString()))
                     .thenReturn(Optional.of(user));
-            when(passwordEncoder.matches("wrongPassword", user.getPasswordHash()))
+            when(passwordHashingService.matches("wrongPassword", user.getPasswordHash()))
                     .thenReturn(false);
-            when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
 
             assertThatThrownBy(() -> authenticationService.login(request, "127.0.0.1"))
                     .isInstanceOf(RuntimeException.class)
                     .hasMessage("Invalid credentials");
+
+            // Below the threshold the failure is only counted in memory
+            verify(loginRateLimiter).recordFailure("test@example.com");
+            verify(userRepository, never()).recordFailedLogin(any(), anyInt(), any());
+            verify(userRepository, never()).recordSuccessfulLogin(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should lock the account on the fifth failed attempt")
+        void shouldLockOnFifthFailure() {
+            User user = TestUtils.createTestUser();
+            for (int i = 0; i < 4; i++) {
+                loginRateLimiter.recordFailure("test@example.com");
+            }
+            LoginRequest request = new LoginRequest();
+            request.setUsername("test@example.com");
+            request.setPassword("wrongPassword");
+
+            when(userRepository.findWithRolesByEmailOrMobileNumber(anyString(), anyString()))
+                    .thenReturn(Optional.of(user));
+            when(passwordHashingService.matches("wrongPassword", user.getPasswordHash())).thenReturn(false);
+
+            assertThatThrownBy(() -> authenticationService.login(request, "127.0.0.1"))
+                    .hasMessage("Invalid credentials");
+
+            verify(userRepository).recordFailedLogin(eq(user.getId()), eq(5), any(Instant.class));
+            assertThat(user.isLocked()).isTrue();
+
+            // Further attempts are refused without another lookup
+            assertThatThrownBy(() -> authenticationService.login(request, "127.0.0.1"))
+                    .isInstanceOf(TooManyLoginAttemptsException.class)
+                    .hasMessage("Account is locked. Try again later.");
+            verify(userRepository, times(1)).findWithRolesByEmailOrMobileNumber(anyString(), anyString());
+        }
+
+        @Test
+        @DisplayName("Should restart the failure count after an expired lock")
+        void shouldRestartCountAfterExpiredLock() {
+            User user = TestUtils.createLockedUser();
+            user.setLockedUntil(Instant.now().minusSeconds(60));
+            // Failures from before the lock are still partly in the sliding window
+            for (int i = 0; i < 4; i++) {
+                loginRateLimiter.recordFailure("locked@example.com");
+            }
+            LoginRequest request = new LoginRequest();
+            request.setUsername("locked@example.com");
+            request.setPassword("wrongPassword");
+
+            when(userRepository.findWithRolesByEmailOrMobileNumber(anyString(), anyString()))
+                    .thenReturn(Optional.of(user));
+            when(passwordHashingService.matches("wrongPassword", user.getPasswordHash())).thenReturn(false);
+
+            assertThatThrownBy(() -> authenticationService.login(request, "127.0.0.1"))
+                    .hasMessage("Invalid credentials");
+            assertThatThrownBy(() -> authenticationService.login(request, "127.0.0.1"))
+                    .hasMessage("Invalid credentials");
+
+            // One write clears the stale lock; no re-lock from the stale count
+            verify(userRepository, times(1)).recordFailedLogin(user.getId(), 1, null);
+            verify(userRepository, never()).recordFailedLogin(any(), anyInt(), any(Instant.class));
+            verify(userRepository, never()).save(any());
+            assertThat(user.isLocked()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should refuse a throttled attempt before touching the database")
+        void shouldRefuseThrottledAttemptBeforeLookup() {
+            LoginRequest request = new LoginRequest();
+            request.setUsername("test@example.com");
+            request.setPassword("password");
+            doThrow(new TooManyLoginAttemptsException("Too many login attempts. Try again later.", 30))
+                    .when(loginRateLimiter).acquire("10.0.0.1", "test@example.com");
+
+            assertThatThrownBy(() -> authenticationService.login(request, "10.0.0.1"))
+                    .isInstanceOf(TooManyLoginAttemptsException.class);
+
+            verifyNoInteractions(userRepository, passwordHashingService);
+        }
+
+        @Test
+        @DisplayName("Should propagate overload without touching the user row")
+        void shouldPropagateOverload() {
+            User user = TestUtils.createTestUser();
+            LoginRequest request = new LoginRequest();
+            request.setUsername("test@example.com");
+            request.setPassword("password");
+
+            when(userRepository.findWithRolesByEmailOrMobileNumber(anyString(), anyString()))
+                    .thenReturn(Optional.of(user));
+            when(passwordHashingService.matches("password", user.getPasswordHash()))
+                    .thenThrow(new ServiceOverloadedException("busy"));
+
+            assertThatThrownBy(() -> authenticationService.login(request, "127.0.0.1"))
+                    .isInstanceOf(ServiceOverloadedException.class);
+
+            verify(userRepository, never()).save(any());
+            verify(userRepository, never()).recordSuccessfulLogin(any(), any(), any());
         }
 
         @Test
@@ -194,12 +297,13 @@ class AuthenticationServiceTest {
             request.setUsername("nonexistent@example.com");
             request.setPassword("password");
 
-            when(userRepository.findByEmailOrMobileNumber(anyString(), anyString()))
+            when(userRepository.findWithRolesByEmailOrMobileNumber(anyString(), anyString()))
                     .thenReturn(Optional.empty());
 
             assertThatThrownBy(() -> authenticationService.login(request, "127.0.0.1"))
                     .isInstanceOf(RuntimeException.class)
                     .hasMessage("Invalid credentials");
+            verify(loginRateLimiter).recordFailure("nonexistent@example.com");
         }
 
         @Test
@@ -210,7 +314,7 @@ class AuthenticationServiceTest {
             request.setUsername("locked@example.com");
             request.setPassword("password");
 
-            when(userRepository.findByEmailOrMobileNumber(anyString(), anyString()))
+            when(userRepository.findWithRolesByEmailOrMobileNumber(anyString(), anyString()))
                     .thenReturn(Optional.of(user));
 
             assertThatThrownBy(() -> authenticationService.login(request, "127.0.0.1"))
@@ -226,7 +330,7 @@ class AuthenticationServiceTest {
             request.setUsername("inactive@example.com");
             request.setPassword("password");
 
-            when(userRepository.findByEmailOrMobileNumber(anyString(), anyString()))
+            when(userRepository.findWithRolesByEmailOrMobileNumber(anyString(), anyString()))
                     .thenReturn(Optional.of(user));
 
             assertThatThrownBy(() -> authenticationService.login(request, "127.0.0.1"))
@@ -243,22 +347,85 @@ class AuthenticationServiceTest {
             request.setUsername("login@example.com");
             request.setPassword("correctPassword");
 
-            when(userRepository.findByEmailOrMobileNumber(anyString(), anyString()))
+            when(userRepository.findWithRolesByEmailOrMobileNumber(anyString(), anyString()))
                     .thenReturn(Optional.of(user));
-            when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
-            when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
+            when(passwordHashingService.matches(anyString(), anyString())).thenReturn(true);
             when(jwtService.generateAccessToken(any())).thenReturn("token");
             when(jwtService.generateRefreshToken(any())).thenReturn("refresh");
             when(jwtService.getExpirationMs()).thenReturn(3600000L);
 
             authenticationService.login(request, "192.168.1.1");
 
-            ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
-            verify(userRepository).save(userCaptor.capture());
-            User savedUser = userCaptor.getValue();
-            assertThat(savedUser.getLastLoginIp()).isEqualTo("192.168.1.1");
-            assertThat(savedUser.getLastLoginAt()).isNotNull();
-            assertThat(savedUser.getFailedLoginAttempts()).isEqualTo(0);
+            verify(userRepository).recordSuccessfulLogin(eq(user.getId()), any(Instant.class), eq("192.168.1.1"));
+            verify(userRepository, never()).save(any());
+            assertThat(user.getLastLoginIp()).isEqualTo("192.168.1.1");
+            assertThat(user.getLastLoginAt()).isNotNull();
+            assertThat(user.getFailedLoginAttempts()).isEqualTo(0);
+            verify(loginRateLimiter).clearFailures("login@example.com");
+        }
+    }
+
+    @Nested
+    @DisplayName("Password Re-hashing")
+    class PasswordRehashing {
+
+        private LoginRequest loginAs(User user) {
+            user.addRole(userRole);
+            LoginRequest request = new LoginRequest();
+            request.setUsername(user.getEmail());
+            request.setPassword("correctPassword");
+
+            when(userRepository.findWithRolesByEmailOrMobileNumber(anyString(), anyString()))
+                    .thenReturn(Optional.of(user));
+            when(passwordHashingService.matches("correctPassword", user.getPasswordHash())).thenReturn(true);
+            when(jwtService.generateAccessToken(any())).thenReturn("token");
+            when(jwtService.generateRefreshToken(any())).thenReturn("refresh");
+            when(jwtService.getExpirationMs()).thenReturn(3600000L);
+            return request;
+        }
+
+        @Test
+        @DisplayName("Should re-hash a password stored at a different cost")
+        void shouldRehashOnLogin() {
+            User user = TestUtils.createTestUserWithProfile("rehash@example.com");
+            String oldHash = user.getPasswordHash();
+            LoginRequest request = loginAs(user);
+            when(passwordHashingService.needsRehash(oldHash)).thenReturn(true);
+            when(passwordHashingService.encode("correctPassword")).thenReturn("newHash");
+            when(userRepository.rehashPassword(user.getId(), oldHash, "newHash")).thenReturn(1);
+
+            authenticationService.login(request, "127.0.0.1");
+
+            verify(userRepository).rehashPassword(user.getId(), oldHash, "newHash");
+            assertThat(user.getPasswordHash()).isEqualTo("newHash");
+        }
+
+        @Test
+        @DisplayName("Should leave a current-cost hash untouched")
+        void shouldNotRehashCurrentCost() {
+            User user = TestUtils.createTestUserWithProfile("current@example.com");
+            LoginRequest request = loginAs(user);
+
+            authenticationService.login(request, "127.0.0.1");
+
+            verify(passwordHashingService, never()).encode(any());
+            verify(userRepository, never()).rehashPassword(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should still log in when the pool is too busy to re-hash")
+        void shouldSkipRehashWhenOverloaded() {
+            User user = TestUtils.createTestUserWithProfile("busy@example.com");
+            String oldHash = user.getPasswordHash();
+            LoginRequest request = loginAs(user);
+            when(passwordHashingService.needsRehash(oldHash)).thenReturn(true);
+            when(passwordHashingService.encode("correctPassword")).thenThrow(new ServiceOverloadedException("busy"));
+
+            AuthResponse response = authenticationService.login(request, "127.0.0.1");
+
+            assertThat(response.getAccessToken()).isEqualTo("token");
+            verify(userRepository, never()).rehashPassword(any(), any(), any());
+            assertThat(user.getPasswordHash()).isEqualTo(oldHash);
         }
     }
 
@@ -275,7 +442,7 @@ class AuthenticationServiceTest {
             when(jwtService.validateToken("validRefreshToken")).thenReturn(true);
             when(jwtService.isRefreshToken("validRefreshToken")).thenReturn(true);
             when(jwtService.getUserIdFromToken("validRefreshToken")).thenReturn(user.getId());
-            when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+            when(userRepository.findWithRolesById(user.getId())).thenReturn(Optional.of(user));
             when(jwtService.generateAccessToken(any())).thenReturn("newAccessToken");
             when(jwtService.generateRefreshToken(any())).thenReturn("newRefreshToken");
             when(jwtService.getExpirationMs()).thenReturn(3600000L);
@@ -0,0 +1,122 @@
+package com.ametsa.smartbachat.uam.service;
+
+import com.ametsa.smartbachat.uam.TestUtils;
+import com.ametsa.smartbachat.uam.config.AuthConfig;
+import com.ametsa.smartbachat.uam.entity.Permission;
+import com.ametsa.smartbachat.uam.entity.Role;
+import com.ametsa.smartbachat.uam.entity.User;
+import com.ametsa.smartbachat.uam.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuthorizationService Unit Tests")
+class AuthorizationServiceTest {
+
+    @Mock private UserRepository userRepository;
+
+    private AuthorizationService authorizationService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        authorizationService = new AuthorizationService(userRepository, new AuthConfig());
+        testUser = TestUtils.createTestUserWithProfile("authz@example.com");
+        Role userRole = TestUtils.createUserRole();
+        userRole.addPermission(new Permission(Permission.TRANSACTIONS_READ, "transactions", "read", "Read transactions"));
+        testUser.addRole(userRole);
+    }
+
+    @Nested
+    @DisplayName("Permission Checks")
+    class PermissionChecks {
+
+        @Test
+        @DisplayName("Should resolve roles and permissions from a single lookup")
+        void shouldResolveFromSingleLookup() {
+            when(userRepository.findWithPermissionsById(testUser.getId())).thenReturn(Optional.of(testUser));
+
+            assertThat(authorizationService.hasRole(testUser.getId(), Role.ROLE_USER)).isTrue();
+            assertThat(authorizationService.hasPermission(testUser.getId(), Permission.TRANSACTIONS_READ)).isTrue();
+            assertThat(authorizationService.canAccess(testUser.getId(), "transactions", "read")).isTrue();
+            assertThat(authorizationService.canAccess(testUser.getId(), "transactions", "delete")).isFalse();
+            assertThat(authorizationService.hasAllRoles(testUser.getId(), Role.ROLE_USER, Role.ROLE_ADMIN)).isFalse();
+
+            verify(userRepository, times(1)).findWithPermissionsById(testUser.getId());
+        }
+
+        @Test
+        @DisplayName("Should grant admin access to everything")
+        void shouldGrantAdminAccess() {
+            testUser.addRole(TestUtils.createAdminRole());
+            when(userRepository.findWithPermissionsById(testUser.getId())).thenReturn(Optional.of(testUser));
+
+            assertThat(authorizationService.canAccess(testUser.getId(), "users", "delete")).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should deny unknown users")
+        void shouldDenyUnknownUsers() {
+            UUID unknownId = UUID.randomUUID();
+            when(userRepository.findWithPermissionsById(unknownId)).thenReturn(Optional.empty());
+
+            assertThat(authorizationService.hasRole(unknownId, Role.ROLE_USER)).isFalse();
+            assertThat(authorizationService.getUserPermissions(unknownId)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should deny users who are not active")
+        void shouldDenyInactiveUsers() {
+            testUser.addRole(TestUtils.createAdminRole());
+            testUser.setStatus("SUSPENDED");
+            when(userRepository.findWithPermissionsById(testUser.getId())).thenReturn(Optional.of(testUser));
+
+            assertThat(authorizationService.isAdmin(testUser.getId())).isFalse();
+            assertThat(authorizationService.canAccess(testUser.getId(), "transactions", "read")).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalidation")
+    class Invalidation {
+
+        @Test
+        @DisplayName("Should reload snapshot after invalidation")
+        void shouldReloadAfterInvalidation() {
+            when(userRepository.findWithPermissionsById(testUser.getId())).thenReturn(Optional.of(testUser));
+            assertThat(authorizationService.isAdmin(testUser.getId())).isFalse();
+
+            testUser.addRole(TestUtils.createAdminRole());
+            assertThat(authorizationService.isAdmin(testUser.getId())).isFalse();
+
+            authorizationService.invalidate(testUser.getId());
+
+            assertThat(authorizationService.isAdmin(testUser.getId())).isTrue();
+            verify(userRepository, times(2)).findWithPermissionsById(testUser.getId());
+        }
+
+        @Test
+        @DisplayName("Should revoke access once a status change is invalidated")
+        void shouldRevokeAfterStatusChange() {
+            when(userRepository.findWithPermissionsById(testUser.getId())).thenReturn(Optional.of(testUser));
+            assertThat(authorizationService.hasRole(testUser.getId(), Role.ROLE_USER)).isTrue();
+
+            testUser.setStatus("SUSPENDED");
+            authorizationService.invalidate(testUser.getId());
+
+            assertThat(authorizationService.hasRole(testUser.getId(), Role.ROLE_USER)).isFalse();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.ametsa.smartbachat.uam.service;
+
+import com.ametsa.smartbachat.uam.config.EmailConfig;
+import com.ametsa.smartbachat.uam.entity.OutboxEmail;
+import com.ametsa.smartbachat.uam.repository.OutboxEmailRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.IContext;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EmailDispatcher Unit Tests")
+class EmailDispatcherTest {
+
+    @Mock private OutboxEmailRepository outboxRepository;
+    @Mock private JavaMailSender mailSender;
+    @Mock private TemplateEngine templateEngine;
+
+    private EmailConfig emailConfig;
+    private EmailDispatcher emailDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        emailConfig = new EmailConfig();
+        emailConfig.setFromAddress("noreply@smartbachat.com");
+        emailConfig.setFromName("Smart Bachat");
+        emailConfig.setOutboxMaxAttempts(3);
+        emailConfig.setOutboxRetryBaseDelayMs(1000);
+        emailConfig.setOutboxRetryMaxDelayMs(60000);
+        emailDispatcher = new EmailDispatcher(outboxRepository, mailSender, templateEngine, emailConfig,
+                new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        emailDispatcher.shutdown();
+    }
+
+    private final List<MimeMessage> createdMessages = new ArrayList<>();
+
+    private void stubRendering() {
+        when(templateEngine.process(anyString(), any(IContext.class))).thenReturn("<p>Hello</p>");
+        when(mailSender.createMimeMessage()).thenAnswer(i -> {
+            MimeMessage message = new MimeMessage((Session) null);
+            createdMessages.add(message);
+            return message;
+        });
+    }
+
+    private static OutboxEmail email(String recipient) {
+        return new OutboxEmail(recipient, "Subject", "welcome", "{\"name\":\"Test\"}");
+    }
+
+    @Nested
+    @DisplayName("Batch Sending")
+    class BatchSending {
+
+        @Test
+        @DisplayName("Should send a batch through a single send call")
+        void shouldSendBatchInOneCall() {
+            stubRendering();
+            List<OutboxEmail> batch = List.of(email("a@example.com"), email("b@example.com"), email("c@example.com"));
+
+            emailDispatcher.sendBatch(batch);
+
+            verify(mailSender, times(1)).send(any(MimeMessage[].class));
+            assertThat(createdMessages).hasSize(3);
+            assertThat(batch).allSatisfy(sent -> {
+                assertThat(sent.getStatus()).isEqualTo(OutboxEmail.STATUS_SENT);
+                assertThat(sent.getSentAt()).isNotNull();
+                assertThat(sent.getClaimToken()).isNull();
+                assertThat(sent.getTemplateVariables()).isNull();
+            });
+            verify(outboxRepository).saveAll(batch);
+        }
+
+        @Test
+        @DisplayName("Should reschedule only the messages the server rejected")
+        void shouldRescheduleRejectedMessages() {
+            stubRendering();
+            OutboxEmail ok = email("ok@example.com");
+            OutboxEmail rejected = email("rejected@example.com");
+            doAnswer(invocation -> {
+                throw new MailSendException(Map.<Object, Exception>of(
+                        createdMessages.get(1), new RuntimeException("550 mailbox unavailable")));
+            }).when(mailSender).send(any(MimeMessage[].class));
+
+            Instant before = Instant.now();
+            emailDispatcher.sendBatch(List.of(ok, rejected));
+
+            assertThat(ok.getStatus()).isEqualTo(OutboxEmail.STATUS_SENT);
+            assertThat(rejected.getStatus()).isEqualTo(OutboxEmail.STATUS_PENDING);
+            assertThat(rejected.getAttempts()).isEqualTo(1);
+            assertThat(rejected.getLastError()).contains("550");
+            assertThat(rejected.getNextAttemptAt()).isAfter(before);
+        }
+
+        @Test
+        @DisplayName("Should reschedule the whole batch when the server is unreachable")
+        void shouldRescheduleBatchOnConnectionFailure() {
+            stubRendering();
+            List<OutboxEmail> batch = List.of(email("a@example.com"), email("b@example.com"));
+            doThrow(new MailAuthenticationException("Authentication failed"))
+                    .when(mailSender).send(any(MimeMessage[].class));
+
+            emailDispatcher.sendBatch(batch);
+
+            assertThat(batch).allSatisfy(failed -> {
+                assertThat(failed.getStatus()).isEqualTo(OutboxEmail.STATUS_PENDING);
+                assertThat(failed.getAttempts()).isEqualTo(1);
+                // Kept for the retry
+                assertThat(failed.getTemplateVariables()).isNotNull();
+            });
+        }
+
+        @Test
+        @DisplayName("Should give up after the maximum number of attempts")
+        void shouldGiveUpAfterMaxAttempts() {
+            stubRendering();
+            OutboxEmail email = email("a@example.com");
+            email.setAttempts(2);
+            doThrow(new MailAuthenticationException("Authentication failed"))
+                    .when(mailSender).send(any(MimeMessage[].class));
+
+            emailDispatcher.sendBatch(List.of(email));
+
+            assertThat(email.getStatus()).isEqualTo(OutboxEmail.STATUS_FAILED);
+            assertThat(email.getAttempts()).isEqualTo(3);
+            assertThat(email.getNextAttemptAt()).isNull();
+            assertThat(email.getTemplateVariables()).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Claiming")
+    class Claiming {
+
+        @Test
+        @DisplayName("Should not send when another dispatcher claimed the rows first")
+        void shouldSkipRowsClaimedElsewhere() {
+            List<UUID> dueIds = List.of(UUID.randomUUID());
+            when(outboxRepository.findDueIds(any(), any())).thenReturn(dueIds);
+            when(outboxRepository.claim(eq(dueIds), any(), any(), any())).thenReturn(0);
+
+            assertThat(emailDispatcher.dispatchBatch()).isZero();
+
+            verify(outboxRepository, never()).findByClaimToken(any());
+            verifyNoInteractions(mailSender);
+        }
+
+        @Test
+        @DisplayName("Should back off exponentially with jitter")
+        void shouldBackOffExponentially() {
+            assertThat(emailDispatcher.computeRetryDelayMs(1)).isBetween(500L, 1000L);
+            assertThat(emailDispatcher.computeRetryDelayMs(3)).isBetween(2000L, 4000L);
+            assertThat(emailDispatcher.computeRetryDelayMs(30)).isBetween(30000L, 60000L);
+        }
+    }
+}
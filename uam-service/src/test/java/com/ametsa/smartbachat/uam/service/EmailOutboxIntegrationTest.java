@@ -0,0 +1,99 @@
+package com.ametsa.smartbachat.uam.service;
+
+import com.ametsa.smartbachat.uam.BaseIntegrationTest;
+import com.ametsa.smartbachat.uam.TestUtils;
+import com.ametsa.smartbachat.uam.entity.OutboxEmail;
+import com.ametsa.smartbachat.uam.entity.User;
+import com.ametsa.smartbachat.uam.repository.OutboxEmailRepository;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sends outbox mail to an in-memory GreenMail SMTP server on the test mail port.
+ */
+@DisplayName("Email Outbox Integration Tests")
+class EmailOutboxIntegrationTest extends BaseIntegrationTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser("test", "test"))
+            .withPerMethodLifecycle(true);
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private VerificationService verificationService;
+
+    @Autowired
+    private OutboxEmailRepository outboxRepository;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    @DisplayName("Should deliver the verification email after the transaction commits")
+    void shouldDeliverAfterCommit() throws Exception {
+        User user = userRepository.save(TestUtils.createPendingVerificationUser());
+
+        verificationService.sendVerificationEmail(user);
+
+        assertThat(greenMail.waitForIncomingEmail(10_000, 1)).isTrue();
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        assertThat(received.getSubject()).isEqualTo("Verify your email - Smart Bachat");
+        assertThat(received.getAllRecipients()[0].toString()).isEqualTo(user.getEmail());
+        assertThat(GreenMailUtil.getBody(received)).contains("verify-email?token=");
+
+        await(() -> outboxRepository.countByStatus(OutboxEmail.STATUS_SENT) == 1);
+    }
+
+    @Test
+    @DisplayName("Should deliver a burst of emails in batches")
+    void shouldDeliverBurst() throws Exception {
+        int burst = 120;
+        for (int i = 0; i < burst; i++) {
+            emailService.sendWelcomeEmail(TestUtils.createTestUser("burst" + i + "@example.com", "Burst", "User"));
+        }
+
+        assertThat(greenMail.waitForIncomingEmail(20_000, burst)).isTrue();
+        await(() -> outboxRepository.countByStatus(OutboxEmail.STATUS_SENT) == burst);
+        assertThat(outboxRepository.countByStatus(OutboxEmail.STATUS_PENDING)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should retry from the outbox once the mail server is back")
+    void shouldRetryWhenServerReturns() throws Exception {
+        greenMail.stop();
+
+        emailService.sendWelcomeEmail(TestUtils.createTestUser("retry@example.com", "Retry", "User"));
+        await(() -> outboxRepository.findAll().stream().anyMatch(email -> email.getAttempts() >= 1));
+
+        greenMail.start();
+
+        assertThat(greenMail.waitForIncomingEmail(10_000, 1)).isTrue();
+        await(() -> outboxRepository.countByStatus(OutboxEmail.STATUS_SENT) == 1);
+        assertThat(outboxRepository.findAll().get(0).getAttempts()).isGreaterThan(1);
+    }
+}
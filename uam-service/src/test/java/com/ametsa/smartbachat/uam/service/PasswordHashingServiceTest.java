@@ -0,0 +1,177 @@
+package com.ametsa.smartbachat.uam.service;
+
+import com.ametsa.smartbachat.uam.config.AuthConfig;
+import com.ametsa.smartbachat.uam.exception.ServiceOverloadedException;
+import com.ametsa.smartbachat.uam.security.BCryptCostCalibrator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PasswordHashingService Tests")
+class PasswordHashingServiceTest {
+
+    private static final int BCRYPT_STRENGTH = 8;
+
+    private final PasswordEncoder encoder = new BCryptPasswordEncoder(BCRYPT_STRENGTH);
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    private static AuthConfig config(int threads, int queueCapacity, long timeoutMs) {
+        AuthConfig config = new AuthConfig();
+        config.setPasswordHashThreads(threads);
+        config.setPasswordHashQueueCapacity(queueCapacity);
+        config.setPasswordHashTimeoutMs(timeoutMs);
+        config.setPasswordHashStrength(BCRYPT_STRENGTH);
+        return config;
+    }
+
+    private static PasswordHashingService create(PasswordEncoder encoder, AuthConfig config) {
+        return new PasswordHashingService(encoder, new BCryptCostCalibrator(config), config);
+    }
+
+    @Nested
+    @DisplayName("Verification")
+    class Verification {
+
+        @Test
+        @DisplayName("Should verify passwords on the hashing pool")
+        void shouldVerifyPasswords() {
+            service = create(encoder, config(1, 10, 5000));
+            String hash = encoder.encode("Password123!");
+
+            assertThat(service.matches("Password123!", hash)).isTrue();
+            assertThat(service.matches("wrong", hash)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should flag only hashes stored at a lower cost for re-hashing")
+        void shouldFlagLowerCostOnly() {
+            service = create(encoder, config(1, 10, 5000));
+
+            assertThat(service.needsRehash(encoder.encode("Password123!"))).isFalse();
+            assertThat(service.needsRehash(new BCryptPasswordEncoder(4).encode("Password123!"))).isTrue();
+            assertThat(service.needsRehash(new BCryptPasswordEncoder(10).encode("Password123!"))).isFalse();
+            assertThat(service.needsRehash("not-a-bcrypt-hash")).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should encode at the current strength")
+        void shouldEncodeAtCurrentStrength() {
+            service = create(encoder, config(1, 10, 5000));
+
+            String hash = service.encode("Password123!");
+
+            assertThat(BCryptCostCalibrator.strengthOf(hash)).isEqualTo(BCRYPT_STRENGTH);
+            assertThat(service.matches("Password123!", hash)).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should shed a check that exceeds the timeout")
+        void shouldShedSlowCheck() {
+            PasswordEncoder slowEncoder = new PasswordEncoder() {
+                @Override
+                public String encode(CharSequence rawPassword) {
+                    return rawPassword.toString();
+                }
+
+                @Override
+                public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return true;
+                }
+            };
+            service = create(slowEncoder, config(1, 10, 50));
+
+            assertThatThrownBy(() -> service.matches("password", "password"))
+                    .isInstanceOf(ServiceOverloadedException.class);
+            assertThat(service.getRejectedCount()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Burst Load")
+    class BurstLoad {
+
+        @Test
+        @DisplayName("Should keep p99 of admitted logins bounded and reject the excess fast")
+        void shouldBoundLatencyUnderBurst() throws Exception {
+            int threads = 2;
+            int queueCapacity = 4;
+            int burst = 100;
+            service = create(encoder, config(threads, queueCapacity, 10_000));
+            String hash = encoder.encode("Password123!");
+
+            // Warm up and measure a single hash on this machine
+            service.matches("Password123!", hash);
+            long singleStart = System.nanoTime();
+            service.matches("Password123!", hash);
+            long singleHashMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - singleStart));
+
+            List<Long> admittedMs = Collections.synchronizedList(new ArrayList<>());
+            List<Long> rejectedMs = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService clients = Executors.newFixedThreadPool(burst);
+            try {
+                for (int i = 0; i < burst; i++) {
+                    clients.submit(() -> {
+                        start.await();
+                        long begin = System.nanoTime();
+                        try {
+                            service.matches("Password123!", hash);
+                            admittedMs.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+                        } catch (ServiceOverloadedException e) {
+                            rejectedMs.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+                        }
+                        return null;
+                    });
+                }
+                start.countDown();
+                clients.shutdown();
+                assertThat(clients.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+            } finally {
+                clients.shutdownNow();
+            }
+
+            assertThat(admittedMs.size() + rejectedMs.size()).isEqualTo(burst);
+            assertThat(admittedMs).hasSizeGreaterThanOrEqualTo(threads);
+            assertThat(rejectedMs).isNotEmpty();
+            assertThat(service.getRejectedCount()).isEqualTo(rejectedMs.size());
+
+            // An admitted login waits for at most a full queue ahead of it
+            long admittedBoundMs = (queueCapacity / threads + 1) * singleHashMs * 4 + 250;
+            assertThat(p99(admittedMs)).isLessThanOrEqualTo(admittedBoundMs);
+            // Shed logins never wait for a hash
+            assertThat(p99(rejectedMs)).isLessThan(Math.max(100, singleHashMs));
+        }
+
+        private long p99(List<Long> samples) {
+            List<Long> sorted = new ArrayList<>(samples);
+            Collections.sort(sorted);
+            return sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+        }
+    }
+}
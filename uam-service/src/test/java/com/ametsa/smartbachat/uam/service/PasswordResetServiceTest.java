@@ -1,11 +1,14 @@
 package com.ametsa.smartbachat.uam.service;
 
 import com.ametsa.smartbachat.uam.TestUtils;
+import com.ametsa.smartbachat.uam.config.AuthConfig;
 import com.ametsa.smartbachat.uam.config.EmailConfig;
 import com.ametsa.smartbachat.uam.entity.User;
 import com.ametsa.smartbachat.uam.entity.VerificationToken;
 import com.ametsa.smartbachat.uam.repository.UserRepository;
 import com.ametsa.smartbachat.uam.repository.VerificationTokenRepository;
+import com.ametsa.smartbachat.uam.security.InvalidTokenCache;
+import com.ametsa.smartbachat.uam.security.LoginRateLimiter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -14,6 +17,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -33,6 +37,8 @@ class PasswordResetServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private EmailService emailService;
     @Mock private EmailConfig emailConfig;
+    @Spy private InvalidTokenCache invalidTokenCache = new InvalidTokenCache(new EmailConfig());
+    @Spy private LoginRateLimiter loginRateLimiter = new LoginRateLimiter(new AuthConfig());
     @Mock private PasswordEncoder passwordEncoder;
 
     @InjectMocks
@@ -114,6 +120,22 @@ class PasswordResetServiceTest {
 
             assertThat(result).isFalse();
         }
+
+        @Test
+        @DisplayName("Should answer repeated invalid probes without querying")
+        void shouldCacheInvalidProbes() {
+            when(tokenRepository.findByTokenAndTokenType("probe-token", VerificationToken.TYPE_PASSWORD_RESET))
+                    .thenReturn(Optional.empty());
+
+            assertThat(passwordResetService.validateResetToken("probe-token")).isFalse();
+            assertThat(passwordResetService.validateResetToken("probe-token")).isFalse();
+            assertThatThrownBy(() -> passwordResetService.resetPassword("probe-token", "NewPassword123!"))
+                    .isInstanceOf(RuntimeException.class)
+                    .hasMessage("Invalid reset token");
+
+            verify(tokenRepository, times(1))
+                    .findByTokenAndTokenType("probe-token", VerificationToken.TYPE_PASSWORD_RESET);
+        }
     }
 
     @Nested
@@ -138,6 +160,7 @@ class PasswordResetServiceTest {
             assertThat(savedUser.getPasswordHash()).isEqualTo("encodedNewPassword");
             assertThat(savedUser.getFailedLoginAttempts()).isEqualTo(0);
             assertThat(savedUser.getLockedUntil()).isNull();
+            verify(loginRateLimiter).clearFailures(testUser.getEmail());
             verify(emailService).sendPasswordChangedNotification(testUser);
         }
 
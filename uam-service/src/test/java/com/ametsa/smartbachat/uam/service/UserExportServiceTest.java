@@ -0,0 +1,44 @@
+package com.ametsa.smartbachat.uam.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("UserExportService Unit Tests")
+class UserExportServiceTest {
+
+    @Nested
+    @DisplayName("CSV Escaping")
+    class CsvEscaping {
+
+        @Test
+        @DisplayName("Should neutralize every formula prefix, including signed numbers")
+        void shouldPrefixFormulaCharacters() {
+            assertThat(UserExportService.csvEscape("=HYPERLINK(\"x\")")).isEqualTo("\"'=HYPERLINK(\"\"x\"\")\"");
+            assertThat(UserExportService.csvEscape("@SUM(A1)")).isEqualTo("'@SUM(A1)");
+            assertThat(UserExportService.csvEscape("-2+3+cmd|' /C calc'!A0")).isEqualTo("'-2+3+cmd|' /C calc'!A0");
+            assertThat(UserExportService.csvEscape("+1+1")).isEqualTo("'+1+1");
+            assertThat(UserExportService.csvEscape("\t=1")).isEqualTo("'\t=1");
+            assertThat(UserExportService.csvEscape("\r=1")).isEqualTo("\"'\r=1\"");
+        }
+
+        @Test
+        @DisplayName("Should leave ordinary values and quote separators")
+        void shouldQuoteSeparators() {
+            assertThat(UserExportService.csvEscape("Asha")).isEqualTo("Asha");
+            assertThat(UserExportService.csvEscape("Rao, Asha")).isEqualTo("\"Rao, Asha\"");
+            assertThat(UserExportService.csvEscape(null)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should keep plain phone numbers in the mobile column only")
+        void shouldExemptOnlyPlainPhoneNumbers() {
+            assertThat(UserExportService.csvEscapeMobile("+919876543210")).isEqualTo("+919876543210");
+            assertThat(UserExportService.csvEscapeMobile("+91+cmd")).isEqualTo("'+91+cmd");
+            assertThat(UserExportService.csvEscapeMobile("-1")).isEqualTo("'-1");
+            assertThat(UserExportService.csvEscape("+919876543210")).isEqualTo("'+919876543210");
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.ametsa.smartbachat.uam.service;
 
 import com.ametsa.smartbachat.uam.TestUtils;
 import com.ametsa.smartbachat.uam.dto.UserDto;
+import com.ametsa.smartbachat.uam.dto.UserPageDto;
 import com.ametsa.smartbachat.uam.entity.Role;
 import com.ametsa.smartbachat.uam.entity.User;
 import com.ametsa.smartbachat.uam.repository.RoleRepository;
@@ -15,8 +16,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Arrays;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -31,6 +34,7 @@ class UserServiceTest {
 
     @Mock private UserRepository userRepository;
     @Mock private RoleRepository roleRepository;
+    @Mock private AuthorizationService authorizationService;
 
     @InjectMocks
     private UserService userService;
@@ -54,7 +58,7 @@ class UserServiceTest {
         @Test
         @DisplayName("Should get user by ID")
         void shouldGetUserById() {
-            when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+            when(userRepository.findWithRolesById(testUser.getId())).thenReturn(Optional.of(testUser));
 
             UserDto result = userService.getUserById(testUser.getId());
 
@@ -68,7 +72,7 @@ class UserServiceTest {
         @DisplayName("Should throw exception when user not found")
         void shouldThrowExceptionWhenUserNotFound() {
             UUID nonExistentId = UUID.randomUUID();
-            when(userRepository.findById(nonExistentId)).thenReturn(Optional.empty());
+            when(userRepository.findWithRolesById(nonExistentId)).thenReturn(Optional.empty());
 
             assertThatThrownBy(() -> userService.getUserById(nonExistentId))
                     .isInstanceOf(RuntimeException.class)
@@ -76,16 +80,54 @@ class UserServiceTest {
         }
 
         @Test
-        @DisplayName("Should get all users")
-        void shouldGetAllUsers() {
-            User user2 = TestUtils.createTestUser("user2@example.com", "User", "Two");
-            when(userRepository.findAll()).thenReturn(Arrays.asList(testUser, user2));
+        @DisplayName("Should list a page of users with roles and a next cursor")
+        void shouldListUsersWithNextCursor() {
+            UserDto first = summary("first@example.com");
+            UserDto second = summary("second@example.com");
+            UserDto third = summary("third@example.com");
+            when(userRepository.findUserPage(null, null, null, null, 3))
+                    .thenReturn(new ArrayList<>(List.of(first, second, third)));
+            when(userRepository.findRoleNamesByUserIds(List.of(first.getId(), second.getId())))
+                    .thenReturn(Map.of(first.getId(), List.of(Role.ROLE_USER)));
+
+            UserPageDto result = userService.listUsers(null, null, null, 2);
+
+            assertThat(result.getItems()).extracting(UserDto::getEmail)
+                    .containsExactly("first@example.com", "second@example.com");
+            assertThat(result.getItems().get(0).getRoles()).containsExactly(Role.ROLE_USER);
+            assertThat(result.getItems().get(1).getRoles()).isEmpty();
+            assertThat(result.getNextCursor()).isNotNull();
+        }
+
+        @Test
+        @DisplayName("Should continue after the cursor position with filters")
+        void shouldContinueFromCursor() {
+            UserDto last = summary("last@example.com");
+            String cursor = new UserService.Cursor(last.getCreatedAt(), last.getId()).encode();
+            when(userRepository.findUserPage("ACTIVE", Role.ROLE_ADMIN, last.getCreatedAt(), last.getId(), 51))
+                    .thenReturn(new ArrayList<>());
+            when(userRepository.findRoleNamesByUserIds(List.of())).thenReturn(Map.of());
+
+            UserPageDto result = userService.listUsers("ACTIVE", Role.ROLE_ADMIN, cursor, 50);
+
+            assertThat(result.getItems()).isEmpty();
+            assertThat(result.getNextCursor()).isNull();
+        }
 
-            List<UserDto> result = userService.getAllUsers();
+        @Test
+        @DisplayName("Should reject a malformed cursor")
+        void shouldRejectMalformedCursor() {
+            assertThatThrownBy(() -> userService.listUsers(null, null, "not-a-cursor", 50))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Invalid cursor");
+        }
 
-            assertThat(result).hasSize(2);
-            assertThat(result.get(0).getEmail()).isEqualTo("test@example.com");
-            assertThat(result.get(1).getEmail()).isEqualTo("user2@example.com");
+        private UserDto summary(String email) {
+            UserDto dto = new UserDto();
+            dto.setId(UUID.randomUUID());
+            dto.setEmail(email);
+            dto.setCreatedAt(Instant.now());
+            return dto;
         }
     }
 
@@ -99,7 +141,7 @@ class UserServiceTest {
             UserDto updateRequest = new UserDto();
             updateRequest.setFirstName("Updated");
 
-            when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+            when(userRepository.findWithRolesById(testUser.getId())).thenReturn(Optional.of(testUser));
             when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
 
             UserDto result = userService.updateUser(testUser.getId(), updateRequest);
@@ -114,7 +156,7 @@ class UserServiceTest {
             UserDto updateRequest = new UserDto();
             updateRequest.setLastName("NewLastName");
 
-            when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+            when(userRepository.findWithRolesById(testUser.getId())).thenReturn(Optional.of(testUser));
             when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
 
             UserDto result = userService.updateUser(testUser.getId(), updateRequest);
@@ -128,7 +170,7 @@ class UserServiceTest {
             UserDto updateRequest = new UserDto();
             updateRequest.setMobileNumber("+919876543210");
 
-            when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+            when(userRepository.findWithRolesById(testUser.getId())).thenReturn(Optional.of(testUser));
             when(userRepository.findByMobileNumber("+919876543210")).thenReturn(Optional.empty());
             when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
 
@@ -144,7 +186,7 @@ class UserServiceTest {
             UserDto updateRequest = new UserDto();
             updateRequest.setMobileNumber("+919876543210");
 
-            when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+            when(userRepository.findWithRolesById(testUser.getId())).thenReturn(Optional.of(testUser));
             when(userRepository.findByMobileNumber("+919876543210")).thenReturn(Optional.of(otherUser));
 
             assertThatThrownBy(() -> userService.updateUser(testUser.getId(), updateRequest))
@@ -160,18 +202,19 @@ class UserServiceTest {
         @Test
         @DisplayName("Should update user status to INACTIVE")
         void shouldUpdateUserStatusToInactive() {
-            when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+            when(userRepository.findWithRolesById(testUser.getId())).thenReturn(Optional.of(testUser));
             when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
 
             UserDto result = userService.updateUserStatus(testUser.getId(), "INACTIVE");
 
             assertThat(result.getStatus()).isEqualTo("INACTIVE");
+            verify(authorizationService).invalidate(testUser.getId());
         }
 
         @Test
         @DisplayName("Should update user status to SUSPENDED")
         void shouldUpdateUserStatusToSuspended() {
-            when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+            when(userRepository.findWithRolesById(testUser.getId())).thenReturn(Optional.of(testUser));
             when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
 
             UserDto result = userService.updateUserStatus(testUser.getId(), "SUSPENDED");
@@ -187,19 +230,20 @@ class UserServiceTest {
         @Test
         @DisplayName("Should assign role to user")
         void shouldAssignRoleToUser() {
-            when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+            when(userRepository.findWithRolesById(testUser.getId())).thenReturn(Optional.of(testUser));
             when(roleRepository.findByName(Role.ROLE_ADMIN)).thenReturn(Optional.of(adminRole));
             when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
 
             UserDto result = userService.assignRole(testUser.getId(), Role.ROLE_ADMIN);
 
             assertThat(result.getRoles()).contains(Role.ROLE_ADMIN);
+            verify(authorizationService).invalidate(testUser.getId());
         }
 
         @Test
         @DisplayName("Should throw exception when role not found")
         void shouldThrowExceptionWhenRoleNotFound() {
-            when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+            when(userRepository.findWithRolesById(testUser.getId())).thenReturn(Optional.of(testUser));
             when(roleRepository.findByName("ROLE_NONEXISTENT")).thenReturn(Optional.empty());
 
             assertThatThrownBy(() -> userService.assignRole(testUser.getId(), "ROLE_NONEXISTENT"))
@@ -211,19 +255,20 @@ class UserServiceTest {
         @DisplayName("Should remove role from user")
         void shouldRemoveRoleFromUser() {
             testUser.addRole(adminRole);
-            when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+            when(userRepository.findWithRolesById(testUser.getId())).thenReturn(Optional.of(testUser));
             when(roleRepository.findByName(Role.ROLE_ADMIN)).thenReturn(Optional.of(adminRole));
             when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
 
             UserDto result = userService.removeRole(testUser.getId(), Role.ROLE_ADMIN);
 
             assertThat(result.getRoles()).doesNotContain(Role.ROLE_ADMIN);
+            verify(authorizationService).invalidate(testUser.getId());
         }
 
         @Test
         @DisplayName("Should throw exception when removing non-existent role")
         void shouldThrowExceptionWhenRemovingNonExistentRole() {
-            when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+            when(userRepository.findWithRolesById(testUser.getId())).thenReturn(Optional.of(testUser));
             when(roleRepository.findByName("ROLE_NONEXISTENT")).thenReturn(Optional.empty());
 
             assertThatThrownBy(() -> userService.removeRole(testUser.getId(), "ROLE_NONEXISTENT"))
@@ -239,7 +284,7 @@ class UserServiceTest {
         @Test
         @DisplayName("Should map all user fields to DTO")
         void shouldMapAllUserFieldsToDto() {
-            when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+            when(userRepository.findWithRolesById(testUser.getId())).thenReturn(Optional.of(testUser));
 
             UserDto result = userService.getUserById(testUser.getId());
 
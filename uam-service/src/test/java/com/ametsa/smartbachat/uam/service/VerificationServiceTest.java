@@ -6,6 +6,7 @@ import com.ametsa.smartbachat.uam.entity.User;
 import com.ametsa.smartbachat.uam.entity.VerificationToken;
 import com.ametsa.smartbachat.uam.repository.UserRepository;
 import com.ametsa.smartbachat.uam.repository.VerificationTokenRepository;
+import com.ametsa.smartbachat.uam.security.InvalidTokenCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -14,6 +15,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Instant;
@@ -34,6 +36,7 @@ class VerificationServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private EmailService emailService;
     @Mock private EmailConfig emailConfig;
+    @Spy private InvalidTokenCache invalidTokenCache = new InvalidTokenCache(new EmailConfig());
 
     @InjectMocks
     private VerificationService verificationService;
@@ -137,6 +140,25 @@ class VerificationServiceTest {
                     .isInstanceOf(RuntimeException.class)
                     .hasMessage("Verification token has expired or already been used");
         }
+
+        @Test
+        @DisplayName("Should reject repeated probes of a used token from the negative cache")
+        void shouldCacheRejectedTokens() {
+            VerificationToken token = new VerificationToken(
+                    testUser, VerificationToken.TYPE_EMAIL_VERIFICATION, 1440);
+            token.markAsUsed();
+            when(tokenRepository.findByTokenAndTokenType("used-token", VerificationToken.TYPE_EMAIL_VERIFICATION))
+                    .thenReturn(Optional.of(token));
+
+            for (int i = 0; i < 3; i++) {
+                assertThatThrownBy(() -> verificationService.verifyEmail("used-token"))
+                        .isInstanceOf(RuntimeException.class)
+                        .hasMessage("Verification token has expired or already been used");
+            }
+
+            verify(tokenRepository, times(1))
+                    .findByTokenAndTokenType("used-token", VerificationToken.TYPE_EMAIL_VERIFICATION);
+        }
     }
 
     @Nested
@@ -0,0 +1,62 @@
+package com.ametsa.smartbachat.uam.service;
+
+import com.ametsa.smartbachat.uam.BaseIntegrationTest;
+import com.ametsa.smartbachat.uam.TestUtils;
+import com.ametsa.smartbachat.uam.config.EmailConfig;
+import com.ametsa.smartbachat.uam.entity.User;
+import com.ametsa.smartbachat.uam.entity.VerificationToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Verification Token Cleanup Integration Tests")
+class VerificationTokenCleanupJobIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private VerificationTokenCleanupJob cleanupJob;
+
+    @Autowired
+    private EmailConfig emailConfig;
+
+    private int originalBatchSize;
+
+    @BeforeEach
+    void setUp() {
+        // Small batches so the purge has to loop
+        originalBatchSize = emailConfig.getTokenPurgeBatchSize();
+        emailConfig.setTokenPurgeBatchSize(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        emailConfig.setTokenPurgeBatchSize(originalBatchSize);
+    }
+
+    @Test
+    @DisplayName("Should purge expired and used tokens in batches and keep valid ones")
+    void shouldPurgeExpiredAndUsedTokens() {
+        User user = userRepository.save(TestUtils.createTestUser("cleanup@example.com", "Clean", "Up"));
+
+        for (int i = 0; i < 5; i++) {
+            tokenRepository.save(new VerificationToken(user, VerificationToken.TYPE_EMAIL_VERIFICATION, -1));
+        }
+        for (int i = 0; i < 3; i++) {
+            VerificationToken used = new VerificationToken(user, VerificationToken.TYPE_PASSWORD_RESET, 60);
+            used.markAsUsed();
+            tokenRepository.save(used);
+        }
+        VerificationToken valid = tokenRepository.save(
+                new VerificationToken(user, VerificationToken.TYPE_PASSWORD_RESET, 60));
+
+        cleanupJob.purgeTokens();
+
+        List<VerificationToken> remaining = tokenRepository.findAll();
+        assertThat(remaining).extracting(VerificationToken::getId).containsExactly(valid.getId());
+    }
+}